@@ -15,12 +15,15 @@ public class CocesoConfig {
 
   private final String jsPlugins;
 
+  private final boolean deltaUpdates;
+
   @Autowired
   public CocesoConfig(@Value("${debug:false}") boolean debug, @Value("${locale.default:en}") String defaultLocale,
-      @Value("${js.plugins:}") String jsPlugins) {
+      @Value("${js.plugins:}") String jsPlugins, @Value("${websocket.delta.enabled:false}") boolean deltaUpdates) {
     this.debug = debug;
     this.defaultLocale = Locale.forLanguageTag(defaultLocale);
     this.jsPlugins = StringUtils.isBlank(jsPlugins) ? "{}" : jsPlugins;
+    this.deltaUpdates = deltaUpdates;
   }
 
   public boolean isDebug() {
@@ -35,4 +38,11 @@ public class CocesoConfig {
     return jsPlugins;
   }
 
+  /**
+   * Units and incidents are additionally published on the delta topics, which are used by the main client
+   */
+  public boolean isDeltaUpdates() {
+    return deltaUpdates;
+  }
+
 }
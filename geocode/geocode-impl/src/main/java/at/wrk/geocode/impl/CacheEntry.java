@@ -81,6 +81,10 @@ class CacheEntry implements Serializable, Address, IAddressNumber {
     }
   }
 
+  public Integer getId() {
+    return id;
+  }
+
   @Override
   public String getStreet() {
     return street;
@@ -31,4 +31,13 @@ interface CacheRepository extends JpaRepository<CacheEntry, Integer> {
   List<CacheEntry> findNearest(@Param("lat") double lat, @Param("lng") double lng, @Param("latMin") double latMin,
       @Param("latMax") double latMax, @Param("lngMin") double lngMin, @Param("lngMax") double lngMax, Pageable pageable);
 
+  /**
+   * Find the entries stored before the given one, newest first
+   *
+   * @param id Only entries with a lower id are returned
+   * @param pageable
+   * @return
+   */
+  List<CacheEntry> findByIdLessThanOrderByIdDesc(int id, Pageable pageable);
+
 }
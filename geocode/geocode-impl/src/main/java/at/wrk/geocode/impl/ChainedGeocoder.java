@@ -13,7 +13,6 @@ import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
@@ -35,6 +34,15 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
     @Autowired
     private CacheRepository cacheRepository;
 
+    @Autowired
+    private GeocodeCache geocodeCache;
+
+    @Autowired
+    private ReverseGeocodeIndex reverseGeocodeIndex;
+
+    @Autowired
+    private GeocoderInvoker geocoderInvoker;
+
     private final List<Geocoder<ImmutableAddress>> geocoders;
 
     public ChainedGeocoder() {
@@ -46,17 +54,26 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
         this.geocoders = geocoder;
     }
 
-    @Transactional(transactionManager = "geocodeTransactionManager")
+    /**
+     * Not transactional, so results found in memory do not need a database connection. The repository calls run in
+     * transactions of their own.
+     */
     @Override
     public LatLng geocode(final ImmutableAddress address) {
-        // First look in cache
+        // First look in memory
+        GeocodeCache.Lookup cached = geocodeCache.get(address);
+        if (cached != null) {
+            LOG.trace("Found address '{}' in memory, coordinates: {}", address, cached.getCoordinates());
+            return cached.getCoordinates();
+        }
+
+        // Then look in the database
         LatLng coordinates = getCoordinatesFromCache(address);
 
         if (coordinates == null) {
             // Now try all the geocoders in order
             LOG.trace("Lookup from cache did not return any geocode result. Fetch information from other geocoders for address: {}", address);
-            coordinates = geocoders.stream()
-                    .map(g -> g.geocode(address))
+            coordinates = geocoderInvoker.invoke(geocoders, g -> g.geocode(address), Objects::nonNull).stream()
                     .filter(Objects::nonNull)
                     .findFirst()
                     .orElse(null);
@@ -64,13 +81,22 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
             if (coordinates != null) {
                 LOG.trace("Found a geocoder result to store in the Geocode Cache: {} {}", address, coordinates);
                 cacheRepository.save(new CacheEntry(address, coordinates));
+                reverseGeocodeIndex.add(address, coordinates);
             }
         }
 
+        if (coordinates != null) {
+            geocodeCache.put(address, coordinates);
+        } else {
+            geocodeCache.putMissing(address);
+        }
+
         return coordinates;
     }
 
-    @Transactional(transactionManager = "geocodeTransactionManager")
+    /**
+     * Not transactional, so results found in the index do not need a database connection
+     */
     @Override
     public ReverseResult<ImmutableAddress> reverse(LatLng coordinates) {
         boolean cache = false;
@@ -82,8 +108,10 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
             return nearest;
         }
 
-        for (Geocoder<ImmutableAddress> geocoder : geocoders) {
-            ReverseResult<ImmutableAddress> result = geocoder.reverse(coordinates);
+        // Results within 50 meters are good enough to stop looking
+        List<ReverseResult<ImmutableAddress>> results = geocoderInvoker.invoke(geocoders, g -> g.reverse(coordinates),
+                result -> result.dist < 50);
+        for (ReverseResult<ImmutableAddress> result : results) {
             if (result != null) {
                 if (nearest == null || result.dist < nearest.dist) {
                     nearest = result;
@@ -98,6 +126,8 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
 
         if (nearest != null && cache) {
             cacheRepository.save(new CacheEntry(nearest.result, nearest.coordinates));
+            reverseGeocodeIndex.add(nearest.result, nearest.coordinates);
+            geocodeCache.put(nearest.result, nearest.coordinates);
         }
 
         return nearest;
@@ -117,6 +147,11 @@ public class ChainedGeocoder implements Geocoder<ImmutableAddress> {
     }
 
     private ReverseResult<ImmutableAddress> findNearestFromCache(final LatLng coordinates, final int distance) {
+        if (reverseGeocodeIndex.isReady()) {
+            return reverseGeocodeIndex.findNearest(coordinates, distance);
+        }
+
+        LOG.trace("Reverse geocoding index is not loaded yet, search in database for ({}).", coordinates);
         Bounds bounds = coordinates.boundsForDistance(distance);
         List<CacheEntry> entries = cacheRepository.findNearest(coordinates.getLat(), coordinates.getLng(),
                 bounds.sw.getLat(), bounds.ne.getLat(), bounds.sw.getLng(), bounds.ne.getLng(), PageRequest.of(0, 1));
@@ -6,6 +6,7 @@ import at.wrk.geocode.poi.Poi;
 import at.wrk.geocode.poi.PoiSupplier;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,7 +45,8 @@ public class ChainedPoiSupplier implements PoiSupplier {
 
   @Override
   public ReverseResult<Poi> reverse(LatLng coordinates) {
-    return poiSuppliers.stream().map(s -> s.reverse(coordinates)).filter(Objects::nonNull).sorted().findFirst().orElse(null);
+    return poiSuppliers.stream().map(s -> s.reverse(coordinates)).filter(Objects::nonNull)
+        .min(Comparator.comparingInt(result -> result.dist)).orElse(null);
   }
 
 }
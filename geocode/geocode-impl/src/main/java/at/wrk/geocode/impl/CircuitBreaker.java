@@ -0,0 +1,155 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.GeocoderStatistics.BreakerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of a single geocoder
+ * <p>
+ * The outcomes of the last calls are kept in a window of fixed size. Once the window holds at least the minimum number of
+ * calls and the share of failures reaches the threshold, the breaker opens and the geocoder is not called anymore. After the
+ * open duration a single probe call is let through: if it succeeds the breaker closes with an empty window, otherwise it
+ * opens again for twice the previous duration, up to the maximum. So an unreachable backend is probed less and less often.
+ */
+class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final long maxOpenNanos;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private BreakerState state;
+    private int calls;
+    private int failures;
+    private int next;
+    private long currentOpenNanos;
+    private long openUntil;
+    private boolean probing;
+
+    /**
+     * @param name               The name of the geocoder for logging
+     * @param windowSize         The number of last calls the failure rate is computed of
+     * @param minimumCalls       The number of calls in the window needed before the breaker may open
+     * @param failureRatePercent The share of failed calls in percent opening the breaker
+     * @param openMillis         The time until the first probe after the breaker opened
+     * @param maxOpenMillis      The maximum time between two probes
+     * @param clock              The source of the current time in nanoseconds
+     */
+    CircuitBreaker(
+            final String name,
+            final int windowSize,
+            final int minimumCalls,
+            final int failureRatePercent,
+            final long openMillis,
+            final long maxOpenMillis,
+            final LongSupplier clock) {
+        this.name = name;
+        this.window = new boolean[Math.max(windowSize, 1)];
+        this.minimumCalls = Math.max(Math.min(minimumCalls, window.length), 1);
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.maxOpenNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(maxOpenMillis), openNanos);
+        this.clock = clock;
+        this.state = BreakerState.CLOSED;
+    }
+
+    /**
+     * Checks if the geocoder may be called now. Every permitted call has to be followed by exactly one call of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onCancelled()}.
+     *
+     * @return True if the geocoder may be called, false if the breaker is open or the probe is still running
+     */
+    synchronized boolean tryAcquire() {
+        if (state == BreakerState.OPEN && clock.getAsLong() - openUntil >= 0) {
+            state = BreakerState.HALF_OPEN;
+        }
+        if (state == BreakerState.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+        return state == BreakerState.CLOSED;
+    }
+
+    /**
+     * The geocoder answered, regardless if it found a result
+     */
+    synchronized void onSuccess() {
+        if (state == BreakerState.HALF_OPEN) {
+            LOG.info("Probe of geocoder {} succeeded, calling it again.", name);
+            state = BreakerState.CLOSED;
+            probing = false;
+            currentOpenNanos = 0;
+            calls = 0;
+            failures = 0;
+            next = 0;
+        } else if (state == BreakerState.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * The geocoder failed or did not answer in time
+     */
+    synchronized void onFailure() {
+        if (state == BreakerState.HALF_OPEN) {
+            probing = false;
+            open(Math.min(currentOpenNanos * 2, maxOpenNanos));
+        } else if (state == BreakerState.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures * 100L >= (long) failureRatePercent * calls) {
+                open(openNanos);
+            }
+        }
+    }
+
+    /**
+     * The call was cancelled without an outcome, so another probe may be sent
+     */
+    synchronized void onCancelled() {
+        if (state == BreakerState.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    synchronized BreakerState getState() {
+        return state;
+    }
+
+    private void record(final boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open(final long duration) {
+        LOG.warn("Geocoder {} is failing, not calling it for the next {} seconds.", name, TimeUnit.NANOSECONDS.toSeconds(duration));
+        state = BreakerState.OPEN;
+        currentOpenNanos = duration;
+        openUntil = clock.getAsLong() + duration;
+        calls = 0;
+        failures = 0;
+        next = 0;
+    }
+}
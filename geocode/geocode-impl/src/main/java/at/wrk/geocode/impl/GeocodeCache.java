@@ -0,0 +1,214 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.GeocodeCacheStatistics;
+import at.wrk.geocode.GeocodeCacheStatisticsProvider;
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.address.Address;
+import at.wrk.geocode.address.IAddressNumber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded in-memory cache of geocoding results in front of the geocode table
+ * <p>
+ * Addresses are compared case-insensitive like the query on the table. Addresses no geocoder could resolve are cached
+ * as missing for a limited time, so repeated saves of the same unresolvable address do not query all geocoders again.
+ */
+@Component
+class GeocodeCache implements GeocodeCacheStatisticsProvider {
+
+    private final int capacity;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private final Map<Key, Entry> entries;
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+
+    @Autowired
+    GeocodeCache(
+            @Value("${geocode.cache.size:10000}") final int capacity,
+            @Value("${geocode.cache.negative.ttl.minutes:10}") final long negativeTtlMinutes) {
+        this(capacity, TimeUnit.MINUTES.toMillis(negativeTtlMinutes), System::currentTimeMillis);
+    }
+
+    GeocodeCache(final int capacity, final long negativeTtlMillis, final LongSupplier clock) {
+        this.capacity = Math.max(capacity, 0);
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                if (size() > GeocodeCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized GeocodeCacheStatistics getStatistics() {
+        return new GeocodeCacheStatistics(entries.size(), capacity, hits, negativeHits, misses, evictions);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Looks up the address in the cache
+     *
+     * @return The cached coordinates, a result without coordinates if the address is known to be unresolvable, or null if
+     * the address is not cached
+     */
+    synchronized Lookup get(final Address address) {
+        Key key = new Key(address);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.coordinates == null && entry.expires < clock.getAsLong()) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (entry.coordinates == null) {
+            negativeHits++;
+        } else {
+            hits++;
+        }
+        return new Lookup(entry.coordinates);
+    }
+
+    synchronized void put(final Address address, final LatLng coordinates) {
+        if (capacity > 0) {
+            entries.put(new Key(address), new Entry(coordinates, 0));
+        }
+    }
+
+    /**
+     * Remembers that no geocoder could resolve the address
+     */
+    synchronized void putMissing(final Address address) {
+        if (capacity > 0 && negativeTtlMillis > 0) {
+            entries.put(new Key(address), new Entry(null, clock.getAsLong() + negativeTtlMillis));
+        }
+    }
+
+    /**
+     * Adds the entries loaded from the database, without replacing already cached addresses
+     *
+     * @return The number of added entries
+     */
+    synchronized int warmUp(final Iterable<CacheEntry> stored) {
+        int loaded = 0;
+        for (CacheEntry entry : stored) {
+            if (entries.size() >= capacity) {
+                break;
+            }
+            if (entries.putIfAbsent(new Key(entry), new Entry(entry.getCoordinates(), 0)) == null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    static class Lookup {
+
+        private final LatLng coordinates;
+
+        private Lookup(final LatLng coordinates) {
+            this.coordinates = coordinates;
+        }
+
+        /**
+         * @return The cached coordinates, or null if the address is cached as missing
+         */
+        LatLng getCoordinates() {
+            return coordinates;
+        }
+    }
+
+    private static class Entry {
+
+        private final LatLng coordinates;
+        private final long expires;
+
+        private Entry(final LatLng coordinates, final long expires) {
+            this.coordinates = coordinates;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Normalized address, with the same fields as compared by the query on the geocode table
+     */
+    private static class Key {
+
+        private final String street;
+        private final String intersection;
+        private final Integer numberFrom;
+        private final Integer numberTo;
+        private final String numberLetter;
+        private final String numberBlock;
+        private final Integer postCode;
+        private final String city;
+
+        private Key(final Address address) {
+            this.street = normalize(address.getStreet());
+            this.intersection = normalize(address.getIntersection());
+
+            IAddressNumber number = address.getNumber();
+            this.numberFrom = number == null ? null : number.getFrom();
+            this.numberTo = number == null ? null : number.getTo();
+            this.numberLetter = number == null ? null : normalize(number.getLetter());
+            this.numberBlock = number == null ? null : normalize(number.getBlock());
+
+            this.postCode = address.getPostCode();
+            this.city = normalize(address.getCity());
+        }
+
+        private static String normalize(final String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(street, key.street)
+                    && Objects.equals(intersection, key.intersection)
+                    && Objects.equals(numberFrom, key.numberFrom)
+                    && Objects.equals(numberTo, key.numberTo)
+                    && Objects.equals(numberLetter, key.numberLetter)
+                    && Objects.equals(numberBlock, key.numberBlock)
+                    && Objects.equals(postCode, key.postCode)
+                    && Objects.equals(city, key.city);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(street, intersection, numberFrom, numberTo, numberLetter, numberBlock, postCode, city);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package at.wrk.geocode.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the entries of the geocode table on startup into the reverse geocoding index, and the most recently stored ones
+ * into the geocode cache
+ */
+@Component
+class GeocodeCacheLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeocodeCacheLoader.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final CacheRepository cacheRepository;
+    private final GeocodeCache geocodeCache;
+    private final ReverseGeocodeIndex reverseGeocodeIndex;
+    private final boolean warmUp;
+    private final AtomicBoolean done;
+
+    @Autowired
+    GeocodeCacheLoader(
+            final CacheRepository cacheRepository,
+            final GeocodeCache geocodeCache,
+            final ReverseGeocodeIndex reverseGeocodeIndex,
+            @Value("${geocode.cache.warmup:true}") final boolean warmUp) {
+        this.cacheRepository = cacheRepository;
+        this.geocodeCache = geocodeCache;
+        this.reverseGeocodeIndex = reverseGeocodeIndex;
+        this.warmUp = warmUp;
+        this.done = new AtomicBoolean();
+    }
+
+    @EventListener
+    public void onContextRefreshed(final ContextRefreshedEvent event) {
+        // The event is published again for each child context
+        if (done.compareAndSet(false, true)) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to load geocode results from the database, reverse geocoding is done in the database.", e);
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        int warmUpRemaining = warmUp ? geocodeCache.getCapacity() : 0;
+        int loaded = 0, warmedUp = 0;
+
+        List<CacheEntry> page = cacheRepository.findByIdLessThanOrderByIdDesc(Integer.MAX_VALUE, PageRequest.of(0, PAGE_SIZE));
+        while (!page.isEmpty()) {
+            for (CacheEntry entry : page) {
+                reverseGeocodeIndex.add(entry, entry.getCoordinates());
+            }
+            loaded += page.size();
+
+            if (warmUpRemaining > 0) {
+                List<CacheEntry> newest = page.subList(0, Math.min(warmUpRemaining, page.size()));
+                warmedUp += geocodeCache.warmUp(newest);
+                warmUpRemaining -= newest.size();
+            }
+
+            page = page.size() < PAGE_SIZE
+                    ? page.subList(0, 0)
+                    : cacheRepository.findByIdLessThanOrderByIdDesc(page.get(page.size() - 1).getId(), PageRequest.of(0, PAGE_SIZE));
+        }
+
+        reverseGeocodeIndex.setReady();
+        LOG.info("Loaded {} geocode results from the database in {} ms, {} of them into the cache.",
+                loaded, System.currentTimeMillis() - start, warmedUp);
+    }
+}
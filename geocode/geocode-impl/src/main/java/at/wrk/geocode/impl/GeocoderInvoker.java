@@ -0,0 +1,245 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.GeocoderStatistics;
+import at.wrk.geocode.GeocoderStatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Calls the geocoders of the chained geocoder and records the statistics of each geocoder
+ * <p>
+ * By default the geocoders are called one after the other until one gives a sufficient result. In parallel mode all
+ * geocoders are called at once on a thread pool. The results are taken in the order of the geocoders, so the first
+ * sufficient result is returned as soon as all geocoders before have answered. Geocoders not answering before the deadline
+ * are skipped, and the calls still running once a result is chosen are cancelled.
+ * <p>
+ * Each geocoder has a {@link CircuitBreaker}, so a geocoder failing or timing out too often is skipped without being called
+ * until a probe call succeeds again.
+ */
+@Component
+class GeocoderInvoker implements GeocoderStatisticsProvider, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeocoderInvoker.class);
+
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private final Function<String, CircuitBreaker> breakerFactory;
+    private final Map<String, Stats> statistics;
+
+    @Autowired
+    GeocoderInvoker(
+            @Value("${geocode.parallel:false}") final boolean parallel,
+            @Value("${geocode.parallel.threads:8}") final int threads,
+            @Value("${geocode.parallel.timeout.ms:3000}") final long timeoutMillis,
+            @Value("${geocode.breaker.enabled:true}") final boolean breakerEnabled,
+            @Value("${geocode.breaker.window:20}") final int breakerWindow,
+            @Value("${geocode.breaker.minimum.calls:10}") final int breakerMinimumCalls,
+            @Value("${geocode.breaker.failure.rate:50}") final int breakerFailureRate,
+            @Value("${geocode.breaker.open.seconds:30}") final long breakerOpenSeconds,
+            @Value("${geocode.breaker.open.max.seconds:600}") final long breakerOpenMaxSeconds) {
+        this(parallel, threads, timeoutMillis, breakerEnabled
+                ? name -> new CircuitBreaker(name, breakerWindow, breakerMinimumCalls, breakerFailureRate,
+                TimeUnit.SECONDS.toMillis(breakerOpenSeconds), TimeUnit.SECONDS.toMillis(breakerOpenMaxSeconds), System::nanoTime)
+                : null);
+    }
+
+    /**
+     * @param breakerFactory Creates the circuit breaker for the geocoder with the given name, null to disable the breakers
+     */
+    GeocoderInvoker(final boolean parallel, final int threads, final long timeoutMillis, final Function<String, CircuitBreaker> breakerFactory) {
+        this.timeoutMillis = timeoutMillis;
+        this.breakerFactory = breakerFactory;
+        this.statistics = new ConcurrentHashMap<>();
+
+        if (parallel) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+                Thread thread = new Thread(runnable, "geocoder-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public List<GeocoderStatistics> getGeocoderStatistics() {
+        return statistics.entrySet().stream()
+                .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Calls the geocoders until a sufficient result is found
+     *
+     * @param geocoders  The geocoders in order of their priority
+     * @param call       The call to execute on each geocoder
+     * @param sufficient Test if a result is good enough to stop calling the geocoders after
+     * @return The results in the order of the geocoders, null for geocoders not called, failed or without result. The
+     * results after the first sufficient one may be missing
+     */
+    <G, R> List<R> invoke(final List<G> geocoders, final Function<G, R> call, final Predicate<R> sufficient) {
+        return executor == null
+                ? invokeSequential(geocoders, call, sufficient)
+                : invokeParallel(geocoders, call, sufficient);
+    }
+
+    private <G, R> List<R> invokeSequential(final List<G> geocoders, final Function<G, R> call, final Predicate<R> sufficient) {
+        List<R> results = new ArrayList<>(geocoders.size());
+        for (G geocoder : geocoders) {
+            R result = callAndRecord(geocoder, call);
+            results.add(result);
+            if (result != null && sufficient.test(result)) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private <G, R> List<R> invokeParallel(final List<G> geocoders, final Function<G, R> call, final Predicate<R> sufficient) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Future<R>> futures = new ArrayList<>(geocoders.size());
+        for (G geocoder : geocoders) {
+            futures.add(executor.submit(() -> callAndRecord(geocoder, call)));
+        }
+
+        List<R> results = new ArrayList<>(geocoders.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                R result = await(geocoders.get(i), futures.get(i), deadline);
+                results.add(result);
+                if (result != null && sufficient.test(result)) {
+                    break;
+                }
+            }
+        } finally {
+            for (int i = results.size(); i < futures.size(); i++) {
+                if (futures.get(i).cancel(true)) {
+                    getStats(geocoders.get(i)).cancelled.incrementAndGet();
+                }
+            }
+        }
+        return results;
+    }
+
+    private <G, R> R await(final G geocoder, final Future<R> future, final long deadline) {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            LOG.debug("Geocoder {} did not answer within {} ms.", getName(geocoder), timeoutMillis);
+            future.cancel(true);
+            Stats stats = getStats(geocoder);
+            stats.timeouts.incrementAndGet();
+            if (stats.breaker != null) {
+                stats.breaker.onFailure();
+            }
+        } catch (ExecutionException e) {
+            // Already recorded and logged by callAndRecord
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        return null;
+    }
+
+    private <G, R> R callAndRecord(final G geocoder, final Function<G, R> call) {
+        Stats stats = getStats(geocoder);
+        if (stats.breaker != null && !stats.breaker.tryAcquire()) {
+            LOG.trace("Circuit breaker of geocoder {} is open, not calling it.", getName(geocoder));
+            stats.rejected.incrementAndGet();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            R result = call.apply(geocoder);
+            (result == null ? stats.empty : stats.successes).incrementAndGet();
+            return result;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.debug("Cancelled call of geocoder {} failed.", getName(geocoder), e);
+            } else {
+                LOG.warn("Geocoder {} failed.", getName(geocoder), e);
+            }
+            stats.failures.incrementAndGet();
+            failed = true;
+            return null;
+        } finally {
+            if (stats.breaker != null) {
+                // Cancelled calls already counted as timeout or not needed anymore
+                if (Thread.currentThread().isInterrupted()) {
+                    stats.breaker.onCancelled();
+                } else if (failed) {
+                    stats.breaker.onFailure();
+                } else {
+                    stats.breaker.onSuccess();
+                }
+            }
+            stats.latencyHistogram.incrementAndGet(GeocoderStatistics.getLatencyBucket(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
+
+    private Stats getStats(final Object geocoder) {
+        return statistics.computeIfAbsent(getName(geocoder),
+                name -> new Stats(breakerFactory == null ? null : breakerFactory.apply(name)));
+    }
+
+    private static String getName(final Object geocoder) {
+        return geocoder.getClass().getSimpleName();
+    }
+
+    private static class Stats {
+
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong empty = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(GeocoderStatistics.getLatencyBucketsMillis().length + 1);
+        private final CircuitBreaker breaker;
+
+        private Stats(final CircuitBreaker breaker) {
+            this.breaker = breaker;
+        }
+
+        private GeocoderStatistics toStatistics(final String name) {
+            long[] histogram = new long[latencyHistogram.length()];
+            Arrays.setAll(histogram, latencyHistogram::get);
+            return new GeocoderStatistics(name, successes.get(), empty.get(), failures.get(), timeouts.get(), cancelled.get(),
+                    rejected.get(), breaker == null ? GeocoderStatistics.BreakerState.DISABLED : breaker.getState(), histogram);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.ReverseResult;
+import at.wrk.geocode.address.Address;
+import at.wrk.geocode.address.ImmutableAddress;
+import at.wrk.geocode.util.SpatialIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index over the coordinates of all entries in the geocode table, for reverse geocoding without a database
+ * query
+ * <p>
+ * Until the table is completely loaded, the index is not ready and must not be used.
+ */
+@Component
+class ReverseGeocodeIndex {
+
+    private final ReadWriteLock lock;
+
+    // Guarded by lock
+    private final SpatialIndex<ImmutableAddress> index;
+    private boolean ready;
+
+    ReverseGeocodeIndex() {
+        this.lock = new ReentrantReadWriteLock();
+        this.index = new SpatialIndex<>();
+    }
+
+    void add(final Address address, final LatLng coordinates) {
+        ImmutableAddress immutableAddress = ImmutableAddress.createFromAddress(address);
+
+        lock.writeLock().lock();
+        try {
+            index.add(coordinates, immutableAddress);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the index as ready after all stored entries were added
+     */
+    void setReady() {
+        lock.writeLock().lock();
+        try {
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the nearest entry within the bounds of the given distance, like {@link CacheRepository#findNearest}
+     *
+     * @param coordinates The coordinates to search for
+     * @param distance    The distance in meters used to calculate the bounds
+     * @return The nearest entry, or null if there is none within the bounds
+     */
+    ReverseResult<ImmutableAddress> findNearest(final LatLng coordinates, final int distance) {
+        lock.readLock().lock();
+        try {
+            return index.findNearest(coordinates, distance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.GeocoderStatistics.BreakerState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CircuitBreakerTest {
+
+    private long now;
+    private CircuitBreaker sut;
+
+    @Before
+    public void init() {
+        now = 0;
+        sut = new CircuitBreaker("Test", 4, 4, 50, 1000, 3000, () -> now);
+    }
+
+    @Test
+    public void failureRateBelowThreshold_staysClosed() {
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+        // The first failure leaves the window
+        call(false);
+        call(true);
+
+        assertThat(sut.getState(), is(BreakerState.CLOSED));
+        assertThat(sut.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void failureRateReached_opensAfterMinimumCalls() {
+        call(false);
+        call(false);
+        call(true);
+
+        assertThat("Not enough calls for the failure rate yet", sut.getState(), is(BreakerState.CLOSED));
+
+        call(true);
+
+        assertThat(sut.getState(), is(BreakerState.OPEN));
+        assertThat(sut.tryAcquire(), is(false));
+    }
+
+    @Test
+    public void afterOpenDuration_singleProbeLetThrough() {
+        trip();
+
+        advanceMillis(999);
+        assertThat(sut.tryAcquire(), is(false));
+
+        advanceMillis(1);
+        assertThat(sut.tryAcquire(), is(true));
+        assertThat(sut.getState(), is(BreakerState.HALF_OPEN));
+        assertThat("Only one probe at a time", sut.tryAcquire(), is(false));
+
+        sut.onSuccess();
+        assertThat(sut.getState(), is(BreakerState.CLOSED));
+        assertThat(sut.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void failedProbes_doubleOpenDurationUpToMaximum() {
+        trip();
+
+        advanceMillis(1000);
+        probe(false);
+        advanceMillis(1999);
+        assertThat(sut.tryAcquire(), is(false));
+
+        advanceMillis(1);
+        probe(false);
+        advanceMillis(2999);
+        assertThat("Limited to the maximum of 3 seconds", sut.tryAcquire(), is(false));
+
+        advanceMillis(1);
+        assertThat(sut.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void cancelledProbe_nextCallProbes() {
+        trip();
+        advanceMillis(1000);
+
+        assertThat(sut.tryAcquire(), is(true));
+        sut.onCancelled();
+
+        assertThat(sut.tryAcquire(), is(true));
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertThat(sut.getState(), is(BreakerState.OPEN));
+    }
+
+    private void probe(final boolean success) {
+        assertThat(sut.tryAcquire(), is(true));
+        if (success) {
+            sut.onSuccess();
+        } else {
+            sut.onFailure();
+        }
+    }
+
+    private void call(final boolean failure) {
+        assertThat(sut.tryAcquire(), is(true));
+        if (failure) {
+            sut.onFailure();
+        } else {
+            sut.onSuccess();
+        }
+    }
+
+    private void advanceMillis(final long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
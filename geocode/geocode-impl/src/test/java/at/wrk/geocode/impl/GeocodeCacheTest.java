@@ -0,0 +1,98 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.address.ImmutableAddress;
+import at.wrk.geocode.address.ImmutableAddressNumber;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GeocodeCacheTest {
+
+    private static final LatLng COORDINATES = new LatLng(48.2, 16.37);
+
+    private long now;
+    private GeocodeCache sut;
+
+    @Before
+    public void init() {
+        now = 1000;
+        sut = new GeocodeCache(2, 100, () -> now);
+    }
+
+    @Test
+    public void notCached_returnsNull() {
+        assertThat(sut.get(address("Street", 1)), is(nullValue()));
+        assertThat(sut.getStatistics().getMisses(), is(1L));
+    }
+
+    @Test
+    public void cached_foundIgnoringCase() {
+        sut.put(address("Street", 1), COORDINATES);
+
+        GeocodeCache.Lookup lookup = sut.get(address("STREET", 1));
+
+        assertThat(lookup.getCoordinates(), is(COORDINATES));
+        assertThat(sut.getStatistics().getHits(), is(1L));
+    }
+
+    @Test
+    public void otherNumber_notFound() {
+        sut.put(address("Street", 1), COORDINATES);
+
+        assertThat(sut.get(address("Street", 2)), is(nullValue()));
+        assertThat(sut.get(new ImmutableAddress("Street", null, null, 1010, "Wien")), is(nullValue()));
+    }
+
+    @Test
+    public void missing_cachedUntilExpired() {
+        sut.putMissing(address("Street", 1));
+
+        GeocodeCache.Lookup lookup = sut.get(address("Street", 1));
+        assertThat(lookup, is(notNullValue()));
+        assertThat(lookup.getCoordinates(), is(nullValue()));
+        assertThat(sut.getStatistics().getNegativeHits(), is(1L));
+
+        now += 101;
+        assertThat(sut.get(address("Street", 1)), is(nullValue()));
+        assertThat(sut.getStatistics().getSize(), is(0));
+    }
+
+    @Test
+    public void full_leastRecentlyUsedEvicted() {
+        sut.put(address("Street", 1), COORDINATES);
+        sut.put(address("Street", 2), COORDINATES);
+        sut.get(address("Street", 1));
+
+        sut.put(address("Street", 3), COORDINATES);
+
+        assertThat(sut.get(address("Street", 1)), is(notNullValue()));
+        assertThat(sut.get(address("Street", 2)), is(nullValue()));
+        assertThat(sut.getStatistics().getEvictions(), is(1L));
+    }
+
+    @Test
+    public void warmUp_storedEntriesAddedUpToCapacity() {
+        sut.put(address("Street", 1), new LatLng(1, 1));
+
+        int loaded = sut.warmUp(Arrays.asList(
+                new CacheEntry(address("Street", 1), COORDINATES),
+                new CacheEntry(address("Street", 2), COORDINATES),
+                new CacheEntry(address("Street", 3), COORDINATES)));
+
+        assertThat(loaded, is(1));
+        assertThat(sut.get(address("Street", 1)).getCoordinates().getLat(), is(1.0));
+        assertThat(sut.get(address("Street", 2)).getCoordinates().getLat(), is(COORDINATES.getLat()));
+        assertThat(sut.get(address("Street", 3)), is(nullValue()));
+    }
+
+    private static ImmutableAddress address(final String street, final int number) {
+        return new ImmutableAddress(street, null, new ImmutableAddressNumber(number, null, null, null), 1010, "Wien");
+    }
+}
@@ -0,0 +1,217 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.GeocoderException;
+import at.wrk.geocode.GeocoderStatistics;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class GeocoderInvokerTest {
+
+    private GeocoderInvoker sut;
+
+    @After
+    public void destroy() {
+        sut.destroy();
+    }
+
+    @Test
+    public void sequential_stopsAtFirstResult() {
+        sut = new GeocoderInvoker(false, 1, 1000, null);
+
+        List<String> results = sut.invoke(Arrays.asList(new First(0, null), new Second(0, "second"), new Third(0, "third")),
+                Stub::call, Objects::nonNull);
+
+        assertThat(results, contains(null, "second"));
+        assertThat(statistics("First").getEmpty(), is(1L));
+        assertThat(statistics("Second").getSuccesses(), is(1L));
+    }
+
+    @Test
+    public void sequential_failureCountedAndSkipped() {
+        sut = new GeocoderInvoker(false, 1, 1000, null);
+
+        List<String> results = sut.invoke(Arrays.asList(new First(0, Stub.FAIL), new Second(0, "second")), Stub::call, Objects::nonNull);
+
+        assertThat(results, contains(null, "second"));
+        assertThat(statistics("First").getFailures(), is(1L));
+    }
+
+    @Test
+    public void parallel_higherPriorityResultWinsOverFasterOne() {
+        sut = new GeocoderInvoker(true, 4, 1000, null);
+
+        List<String> results = sut.invoke(Arrays.asList(new First(200, "first"), new Second(0, "second")), Stub::call, Objects::nonNull);
+
+        assertThat(results, contains("first"));
+    }
+
+    @Test
+    public void parallel_remainingCallsCancelled() throws InterruptedException {
+        sut = new GeocoderInvoker(true, 4, 1000, null);
+        Stub third = new Third(10_000, "third");
+
+        List<String> results = sut.invoke(Arrays.asList(new First(0, null), new Second(50, "second"), third), Stub::call, Objects::nonNull);
+
+        assertThat(results, contains(null, "second"));
+        assertThat(third.interrupted.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(statistics("Third").getCancelled(), is(1L));
+    }
+
+    @Test
+    public void parallel_slowGeocoderSkippedAfterDeadline() {
+        sut = new GeocoderInvoker(true, 4, 100, null);
+
+        long start = System.nanoTime();
+        List<String> results = sut.invoke(Arrays.asList(new First(10_000, "first"), new Second(0, "second")), Stub::call, Objects::nonNull);
+
+        assertThat(results, contains(null, "second"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+        assertThat(statistics("First").getTimeouts(), is(1L));
+    }
+
+    @Test
+    public void latencyRecordedInBuckets() {
+        sut = new GeocoderInvoker(false, 1, 1000, null);
+
+        sut.invoke(Arrays.asList(new First(0, null), new Second(120, "second")), Stub::call, Objects::nonNull);
+
+        assertThat(statistics("First").getLatencyHistogram()[0], is(1L));
+        assertThat(statistics("Second").getLatencyHistogram()[GeocoderStatistics.getLatencyBucket(120)], is(1L));
+    }
+
+    @Test
+    public void breaker_unreachableServerNotCalledAfterTripping() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger status = new AtomicInteger(503);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            AtomicLong now = new AtomicLong();
+            sut = new GeocoderInvoker(false, 1, 1000, name -> new CircuitBreaker(name, 10, 5, 50, 1000, 60_000, now::get));
+            Remote remote = new Remote(new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), "/geocode"));
+
+            for (int i = 0; i < 20; i++) {
+                sut.invoke(Collections.singletonList(remote), Remote::call, Objects::nonNull);
+            }
+
+            assertThat(requests.get(), is(5));
+            assertThat(statistics("Remote").getFailures(), is(5L));
+            assertThat(statistics("Remote").getRejected(), is(15L));
+            assertThat(statistics("Remote").getBreakerState(), is(GeocoderStatistics.BreakerState.OPEN));
+
+            status.set(200);
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            List<String> results = sut.invoke(Collections.singletonList(remote), Remote::call, Objects::nonNull);
+
+            assertThat(results, contains("200"));
+            assertThat(requests.get(), is(6));
+            assertThat(statistics("Remote").getBreakerState(), is(GeocoderStatistics.BreakerState.CLOSED));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private GeocoderStatistics statistics(final String name) {
+        return sut.getGeocoderStatistics().stream()
+                .filter(statistics -> statistics.getGeocoder().equals(name))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static class Stub {
+
+        private static final String FAIL = "fail";
+
+        private final long delayMillis;
+        private final String result;
+        private final CountDownLatch interrupted;
+
+        private Stub(final long delayMillis, final String result) {
+            this.delayMillis = delayMillis;
+            this.result = result;
+            this.interrupted = new CountDownLatch(1);
+        }
+
+        private String call() {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return null;
+            }
+            if (FAIL.equals(result)) {
+                throw new IllegalStateException("Geocoder failed");
+            }
+            return result;
+        }
+    }
+
+    private static class First extends Stub {
+
+        private First(final long delayMillis, final String result) {
+            super(delayMillis, result);
+        }
+    }
+
+    private static class Second extends Stub {
+
+        private Second(final long delayMillis, final String result) {
+            super(delayMillis, result);
+        }
+    }
+
+    private static class Third extends Stub {
+
+        private Third(final long delayMillis, final String result) {
+            super(delayMillis, result);
+        }
+    }
+
+    private static class Remote {
+
+        private final URL url;
+
+        private Remote(final URL url) {
+            this.url = url;
+        }
+
+        private String call() {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                int status = connection.getResponseCode();
+                connection.disconnect();
+                if (status >= 500) {
+                    throw new GeocoderException("Server error " + status, null);
+                }
+                return Integer.toString(status);
+            } catch (IOException e) {
+                throw new GeocoderException("Server not reachable", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package at.wrk.geocode.impl;
+
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.ReverseResult;
+import at.wrk.geocode.address.ImmutableAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ReverseGeocodeIndexTest {
+
+    private static final LatLng CENTER = new LatLng(48.2082, 16.3738);
+
+    private ReverseGeocodeIndex sut;
+
+    @Before
+    public void init() {
+        sut = new ReverseGeocodeIndex();
+    }
+
+    @Test
+    public void empty_nothingFound() {
+        assertThat(sut.findNearest(CENTER, 50), is(nullValue()));
+    }
+
+    @Test
+    public void multipleWithinBounds_nearestFound() {
+        sut.add(address("Far"), new LatLng(CENTER.getLat() + 0.0003, CENTER.getLng()));
+        sut.add(address("Near"), new LatLng(CENTER.getLat() + 0.0001, CENTER.getLng()));
+        sut.add(address("Outside"), new LatLng(CENTER.getLat() + 0.01, CENTER.getLng()));
+
+        ReverseResult<ImmutableAddress> result = sut.findNearest(CENTER, 50);
+
+        assertThat(result.result.getStreet(), is("Near"));
+        assertThat(result.dist, is(CENTER.distance(result.coordinates)));
+        assertThat(result.dist, lessThan(50));
+    }
+
+    @Test
+    public void nearestInNeighbouringCell_found() {
+        // Center and entry are on different sides of a cell border
+        LatLng center = new LatLng(48.20999, 16.37999);
+        sut.add(address("Neighbour"), new LatLng(48.21001, 16.38001));
+        sut.add(address("Same cell"), new LatLng(48.2097, 16.3797));
+
+        assertThat(sut.findNearest(center, 50).result.getStreet(), is("Neighbour"));
+    }
+
+    @Test
+    public void outsideBounds_notFound() {
+        sut.add(address("Street"), new LatLng(CENTER.getLat() + 0.0006, CENTER.getLng()));
+
+        assertThat(sut.findNearest(CENTER, 50), is(nullValue()));
+    }
+
+    @Test
+    public void negativeCoordinates_found() {
+        LatLng center = new LatLng(-33.8688, -151.2093);
+        sut.add(address("Street"), new LatLng(-33.8689, -151.2092));
+
+        assertThat(sut.findNearest(center, 50).result.getStreet(), is("Street"));
+        assertThat(sut.size(), is(1));
+    }
+
+    private static ImmutableAddress address(final String street) {
+        return new ImmutableAddress(street, null, null, 1010, "Wien");
+    }
+}
@@ -0,0 +1,53 @@
+package at.wrk.geocode;
+
+/**
+ * Counters of the in-memory geocode cache.
+ */
+public class GeocodeCacheStatistics {
+
+    private final int size;
+    private final int capacity;
+    private final long hits;
+    private final long negativeHits;
+    private final long misses;
+    private final long evictions;
+
+    public GeocodeCacheStatistics(
+            final int size,
+            final int capacity,
+            final long hits,
+            final long negativeHits,
+            final long misses,
+            final long evictions) {
+        this.size = size;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.negativeHits = negativeHits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getNegativeHits() {
+        return negativeHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,9 @@
+package at.wrk.geocode;
+
+/**
+ * Provides the counters of the geocode cache, e.g. for the status page
+ */
+public interface GeocodeCacheStatisticsProvider {
+
+    GeocodeCacheStatistics getStatistics();
+}
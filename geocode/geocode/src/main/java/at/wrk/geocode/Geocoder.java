@@ -12,6 +12,7 @@ public interface Geocoder<T> {
    *
    * @param search The search data, must not be null
    * @return The coordinates, or null if none were found
+   * @throws GeocoderException If the backend of the geocoder could not be queried
    */
   LatLng geocode(T search);
 
@@ -20,6 +21,7 @@ public interface Geocoder<T> {
    *
    * @param coordinates The coordinates to reverse geocode, must not be null
    * @return The result, or null if none was found
+   * @throws GeocoderException If the backend of the geocoder could not be queried
    */
   ReverseResult<T> reverse(LatLng coordinates);
 
@@ -0,0 +1,14 @@
+package at.wrk.geocode;
+
+/**
+ * Thrown by a geocoder if its backend could not be queried, e.g. because the service is unreachable or answers with a
+ * server error. A geocoder finding nothing returns null instead.
+ * <p>
+ * The chained geocoder counts these failures per geocoder and stops calling a geocoder failing too often for a while.
+ */
+public class GeocoderException extends RuntimeException {
+
+    public GeocoderException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
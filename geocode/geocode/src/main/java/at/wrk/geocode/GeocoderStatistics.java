@@ -0,0 +1,120 @@
+package at.wrk.geocode;
+
+/**
+ * Counters and latency histogram of the calls to a single geocoder.
+ * <p>
+ * Completed calls are counted as success, empty or failure by their result. Calls the chained geocoder stopped waiting
+ * for are counted as timeout or cancelled, and are additionally counted by their result once they complete. Calls skipped
+ * because the circuit breaker of the geocoder is open are counted as rejected.
+ */
+public class GeocoderStatistics {
+
+    private static final long[] LATENCY_BUCKETS_MILLIS = {50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final String geocoder;
+    private final long successes;
+    private final long empty;
+    private final long failures;
+    private final long timeouts;
+    private final long cancelled;
+    private final long rejected;
+    private final BreakerState breakerState;
+    private final long[] latencyHistogram;
+
+    public GeocoderStatistics(
+            final String geocoder,
+            final long successes,
+            final long empty,
+            final long failures,
+            final long timeouts,
+            final long cancelled,
+            final long rejected,
+            final BreakerState breakerState,
+            final long[] latencyHistogram) {
+        this.geocoder = geocoder;
+        this.successes = successes;
+        this.empty = empty;
+        this.failures = failures;
+        this.timeouts = timeouts;
+        this.cancelled = cancelled;
+        this.rejected = rejected;
+        this.breakerState = breakerState;
+        this.latencyHistogram = latencyHistogram.clone();
+    }
+
+    /**
+     * @return The upper bounds of the latency histogram buckets in milliseconds, the last bucket has no upper bound
+     */
+    public static long[] getLatencyBucketsMillis() {
+        return LATENCY_BUCKETS_MILLIS.clone();
+    }
+
+    /**
+     * @return The index of the latency histogram bucket for the given latency
+     */
+    public static int getLatencyBucket(final long latencyMillis) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MILLIS.length && latencyMillis > LATENCY_BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    public String getGeocoder() {
+        return geocoder;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getEmpty() {
+        return empty;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public BreakerState getBreakerState() {
+        return breakerState;
+    }
+
+    /**
+     * @return The number of completed calls per latency bucket, see {@link #getLatencyBucketsMillis()}
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+
+    public enum BreakerState {
+        /**
+         * The circuit breaker is disabled, the geocoder is always called
+         */
+        DISABLED,
+        /**
+         * The geocoder is called and failures are counted
+         */
+        CLOSED,
+        /**
+         * The geocoder failed too often and is not called until the next probe
+         */
+        OPEN,
+        /**
+         * A single probe call decides if the geocoder is called again or stays open
+         */
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,11 @@
+package at.wrk.geocode;
+
+import java.util.List;
+
+/**
+ * Provides the counters of the calls to each geocoder, e.g. for the status page
+ */
+public interface GeocoderStatisticsProvider {
+
+    List<GeocoderStatistics> getGeocoderStatistics();
+}
@@ -6,16 +6,18 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
-import org.springframework.util.StreamUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -44,18 +46,17 @@ public abstract class CsvAutocomplete<T> extends PreloadedAutocomplete<T> {
             final Resource source,
             final CSVRecordParser<T> parser,
             final Function<T, String> keyExtractorFunction) {
-        String inputResourceAsString = readInputAsString(charset, source);
-
         CSVFormat csvFormat = CSVFormat.RFC4180.withDelimiter(delimiter).withHeader();
-        try (CSVParser csvParser = CSVParser.parse(inputResourceAsString, csvFormat)) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(source.getInputStream(), charset));
+             CSVParser csvParser = csvFormat.parse(reader)) {
             StopWatch stopWatch = StopWatch.createStarted();
-            Map<String, T> loadedCsvData = getEntitiesFromCsv(parser, keyExtractorFunction, csvParser);
-            super.values.putAll(loadedCsvData);
+            List<Map.Entry<String, T>> loadedCsvData = getEntitiesFromCsv(parser, keyExtractorFunction, csvParser);
+            setValues(loadedCsvData);
             stopWatch.stop();
             Duration parseDuration = Duration.ofNanos(stopWatch.getNanoTime());
             LOG.info(
                     "Successfully loaded {} entries of CSV file for autocomplete of feature {}. Parsing took {}.",
-                    loadedCsvData.size(),
+                    size(),
                     this.getClass().getSimpleName(),
                     parseDuration);
         } catch (IOException e) {
@@ -63,27 +64,16 @@ public abstract class CsvAutocomplete<T> extends PreloadedAutocomplete<T> {
         }
     }
 
-    private Map<String, T> getEntitiesFromCsv(
+    private List<Map.Entry<String, T>> getEntitiesFromCsv(
             final CSVRecordParser<T> parser,
             final Function<T, String> keyExtractorFunction,
             final CSVParser csvParser) {
+        Function<T, String> keyFunction = keyExtractorFunction.andThen(AutocompleteKeyParser::formatAutocompleteKey);
         return StreamSupport
-                .stream(csvParser.spliterator(), true)
+                .stream(csvParser.spliterator(), false)
                 .map(parser::parseCsvRecord)
                 .flatMap(Collection::stream)
-                .collect(Collectors.toMap(
-                        keyExtractorFunction.andThen(AutocompleteKeyParser::formatAutocompleteKey),
-                        Function.identity(),
-                        (a, b) -> a, TreeMap::new));
-    }
-
-    private String readInputAsString(final Charset charset, final Resource source) {
-        String inputResourceAsString;
-        try (InputStream inputStream = source.getInputStream()) {
-            inputResourceAsString = StreamUtils.copyToString(inputStream, charset);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-        return inputResourceAsString;
+                .map(entity -> new AbstractMap.SimpleImmutableEntry<>(keyFunction.apply(entity), entity))
+                .collect(Collectors.toList());
     }
 }
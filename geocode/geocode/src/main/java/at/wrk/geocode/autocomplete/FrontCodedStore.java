@@ -0,0 +1,313 @@
+package at.wrk.geocode.autocomplete;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Read-only sorted store of autocomplete entries with front-coded keys
+ * <p>
+ * The keys are split into blocks of {@link #BLOCK_SIZE}. The first key of each block is stored completely, each further
+ * key only as the length of the prefix shared with the previous key followed by the remaining characters. All blocks are
+ * stored in a single byte array, using one byte per character if all keys are ISO-8859-1 (like compact strings) and two
+ * bytes otherwise, with the lengths as variable-length integers. The values are stored in an array parallel to the
+ * sorted keys. Lookups search the first keys of the blocks binary and decode only the keys of a single block.
+ *
+ * @param <T> The type of the values
+ */
+final class FrontCodedStore<T> {
+
+    static final int BLOCK_SIZE = 16;
+
+    private static final FrontCodedStore<?> EMPTY = new FrontCodedStore<>(new byte[0], false, new int[0], new Object[0], 0);
+
+    private final byte[] data;
+    private final boolean wide;
+    private final int[] blocks;
+    private final Object[] values;
+    private final int maxKeyLength;
+
+    private FrontCodedStore(final byte[] data, final boolean wide, final int[] blocks, final Object[] values, final int maxKeyLength) {
+        this.data = data;
+        this.wide = wide;
+        this.blocks = blocks;
+        this.values = values;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> FrontCodedStore<T> empty() {
+        return (FrontCodedStore<T>) EMPTY;
+    }
+
+    /**
+     * Builds the store from the given entries, which are sorted by key. Of multiple entries with the same key, the first
+     * one is kept.
+     */
+    static <T> FrontCodedStore<T> of(final Collection<? extends Map.Entry<String, ? extends T>> entries) {
+        List<Map.Entry<String, ? extends T>> sorted = new ArrayList<>(entries);
+        // List.sort is stable, so the first of multiple entries with the same key stays first
+        sorted.sort(Comparator.comparing(Map.Entry::getKey));
+
+        boolean wide = sorted.stream().map(Map.Entry::getKey).anyMatch(FrontCodedStore::isWide);
+        Object[] values = new Object[sorted.size()];
+        int[] blocks = new int[(sorted.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int size = 0, maxKeyLength = 0;
+        String previous = null;
+        for (Map.Entry<String, ? extends T> entry : sorted) {
+            String key = entry.getKey();
+            if (key.equals(previous)) {
+                continue;
+            }
+
+            int prefix = 0;
+            if (size % BLOCK_SIZE == 0) {
+                blocks[size / BLOCK_SIZE] = data.size();
+            } else {
+                prefix = commonPrefix(previous, key);
+                writeLength(data, prefix);
+            }
+            writeLength(data, key.length() - prefix);
+            for (int i = prefix; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (wide) {
+                    data.write(c >>> 8);
+                }
+                data.write(c);
+            }
+
+            values[size++] = entry.getValue();
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+            previous = key;
+        }
+
+        return new FrontCodedStore<>(data.toByteArray(), wide, Arrays.copyOf(blocks, (size + BLOCK_SIZE - 1) / BLOCK_SIZE),
+                Arrays.copyOf(values, size), maxKeyLength);
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    String key(final int index) {
+        Cursor cursor = new Cursor(index / BLOCK_SIZE);
+        while (cursor.index < index) {
+            cursor.next();
+        }
+        return cursor.key();
+    }
+
+    /**
+     * Returns a reader for the keys at ascending indices, for a single query in one thread
+     */
+    KeyReader reader() {
+        return new KeyReader();
+    }
+
+    @SuppressWarnings("unchecked")
+    T value(final int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * @return The index of the first key greater than or equal to the given one, or {@link #size()} if there is none
+     */
+    int lowerBound(final String key) {
+        if (values.length == 0) {
+            return 0;
+        }
+
+        // Find the last block starting with a key less than or equal to the given one
+        int low = 0, high = blocks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (new Cursor(mid).compareTo(key) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        Cursor cursor = new Cursor(low);
+        int end = Math.min((low + 1) * BLOCK_SIZE, values.length);
+        while (cursor.compareTo(key) < 0) {
+            if (cursor.index + 1 >= end) {
+                return end;
+            }
+            cursor.next();
+        }
+        return cursor.index;
+    }
+
+    /**
+     * @return The index of the given key, or -1 if it is not stored
+     */
+    int indexOf(final String key) {
+        int index = lowerBound(key);
+        return index < values.length && key(index).equals(key) ? index : -1;
+    }
+
+    /**
+     * @return The index of the greatest key less than or equal to the given one, or -1 if there is none
+     */
+    int floorIndex(final String key) {
+        int index = lowerBound(key);
+        return index < values.length && key(index).equals(key) ? index : index - 1;
+    }
+
+    /**
+     * Calls the consumer with all keys and their index in ascending order
+     */
+    void forEachKey(final ObjIntConsumer<String> consumer) {
+        for (int block = 0; block < blocks.length; block++) {
+            Cursor cursor = new Cursor(block);
+            int end = Math.min((block + 1) * BLOCK_SIZE, values.length);
+            while (true) {
+                consumer.accept(cursor.key(), cursor.index);
+                if (cursor.index + 1 >= end) {
+                    break;
+                }
+                cursor.next();
+            }
+        }
+    }
+
+    private static boolean isWide(final String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) > 0xFF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int commonPrefix(final String a, final String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void writeLength(final ByteArrayOutputStream data, final int length) {
+        int remaining = length;
+        while (remaining >= 0x80) {
+            data.write(remaining & 0x7F | 0x80);
+            remaining >>>= 7;
+        }
+        data.write(remaining);
+    }
+
+    /**
+     * Reads keys at ascending indices, continuing to decode within the current block instead of starting over at its first
+     * key. All keys are decoded into the same buffer.
+     */
+    final class KeyReader {
+
+        private Cursor cursor;
+
+        private KeyReader() {
+        }
+
+        /**
+         * @param index The index of the key, not less than the index of the previous call
+         * @return The position of the first occurrence of part in the key, or -1 if the key does not contain it
+         */
+        int indexOf(final int index, final String part) {
+            int block = index / BLOCK_SIZE;
+            if (cursor == null) {
+                cursor = new Cursor(block);
+            } else if (cursor.index > index || cursor.index / BLOCK_SIZE != block) {
+                cursor.seek(block);
+            }
+            while (cursor.index < index) {
+                cursor.next();
+            }
+            return cursor.indexOf(part);
+        }
+    }
+
+    /**
+     * Decodes the keys of one block in order
+     */
+    private class Cursor {
+
+        private final char[] buffer;
+        private int index;
+        private int length;
+        private int offset;
+
+        private Cursor(final int block) {
+            this.buffer = new char[maxKeyLength];
+            seek(block);
+        }
+
+        private void seek(final int block) {
+            index = block * BLOCK_SIZE;
+            offset = blocks[block];
+            read(0);
+        }
+
+        private void next() {
+            read(readLength());
+            index++;
+        }
+
+        private void read(final int prefix) {
+            int suffix = readLength();
+            for (int i = prefix; i < prefix + suffix; i++) {
+                buffer[i] = wide
+                        ? (char) ((data[offset++] & 0xFF) << 8 | (data[offset++] & 0xFF))
+                        : (char) (data[offset++] & 0xFF);
+            }
+            length = prefix + suffix;
+        }
+
+        private int readLength() {
+            int length = 0, shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return length;
+        }
+
+        private String key() {
+            return new String(buffer, 0, length);
+        }
+
+        private int indexOf(final String part) {
+            int last = length - part.length();
+            for (int start = 0; start <= last; start++) {
+                int i = 0;
+                while (i < part.length() && buffer[start + i] == part.charAt(i)) {
+                    i++;
+                }
+                if (i == part.length()) {
+                    return start;
+                }
+            }
+            return -1;
+        }
+
+        private int compareTo(final String key) {
+            int common = Math.min(length, key.length());
+            for (int i = 0; i < common; i++) {
+                int diff = buffer[i] - key.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - key.length();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package at.wrk.geocode.autocomplete;
+
+import java.util.stream.Stream;
+
+/**
+ * Typo-tolerant autocomplete on top of a preloaded autocomplete
+ * <p>
+ * Only returns entries if the preloaded autocomplete does not find any entry starting with or containing the query string,
+ * so correctly typed queries give the same results as before. The entries are ranked by the number of edits needed, where queries with
+ * less than {@value #MIN_LENGTH_ONE_EDIT} characters are not searched and queries with at least
+ * {@value #MIN_LENGTH_TWO_EDITS} characters allow two edits. Queries ending in a word with digits, like a house number, are not
+ * searched either, as the edits would just drop the number. Containing queries are not supported.
+ *
+ * @param <T> The type of the returned data
+ */
+public class FuzzyAutocompleteSupplier<T> implements AutocompleteSupplier<T> {
+
+    static final int MIN_LENGTH_ONE_EDIT = 4;
+    static final int MIN_LENGTH_TWO_EDITS = 8;
+
+    private final PreloadedAutocomplete<T> autocomplete;
+
+    public FuzzyAutocompleteSupplier(final PreloadedAutocomplete<T> autocomplete) {
+        this.autocomplete = autocomplete;
+    }
+
+    @Override
+    public String getString(final T value) {
+        return autocomplete.getString(value);
+    }
+
+    @Override
+    public Stream<T> getStart(final String filter) {
+        int maxDistance = getMaxDistance(filter);
+        if (maxDistance == 0 || autocomplete.getStart(filter).findAny().isPresent()
+                || autocomplete.getContaining(filter, 1).findAny().isPresent()) {
+            return Stream.empty();
+        }
+
+        return autocomplete.getSimilar(filter, maxDistance);
+    }
+
+    @Override
+    public Stream<T> getContaining(final String filter, final Integer max) {
+        return Stream.empty();
+    }
+
+    private static int getMaxDistance(final String filter) {
+        if (endsWithNumber(filter)) {
+            return 0;
+        }
+        if (filter.length() >= MIN_LENGTH_TWO_EDITS) {
+            return 2;
+        }
+        return filter.length() >= MIN_LENGTH_ONE_EDIT ? 1 : 0;
+    }
+
+    private static boolean endsWithNumber(final String filter) {
+        for (int i = filter.length() - 1; i >= 0 && !Character.isWhitespace(filter.charAt(i)); i--) {
+            if (Character.isDigit(filter.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
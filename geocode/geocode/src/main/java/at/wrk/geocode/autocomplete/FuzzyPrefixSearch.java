@@ -0,0 +1,145 @@
+package at.wrk.geocode.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Typo-tolerant prefix search over the keys of an autocomplete store
+ * <p>
+ * A key matches if one of its prefixes can be turned into the query by at most the given number of insertions, deletions,
+ * substitutions and transpositions of adjacent characters. The sorted keys are walked like a trie: the rows of the edit
+ * distance matrix are kept per character of the key, so a key only computes the rows after the prefix it shares with the
+ * previous key. Once all entries of a row exceed the maximum distance, the remaining characters of the key are skipped.
+ */
+final class FuzzyPrefixSearch {
+
+    private FuzzyPrefixSearch() {
+    }
+
+    /**
+     * Returns the positions of all keys matching the query, ranked by their distance and in key order for equal distances
+     *
+     * @param store       The store to search
+     * @param query       The query string in lower case
+     * @param maxDistance The maximum edit distance of matching keys
+     * @return The positions of the matching keys
+     */
+    static List<Integer> search(final FrontCodedStore<?> store, final String query, final int maxDistance) {
+        Search search = new Search(query, maxDistance);
+        store.forEachKey(search::accept);
+        search.matches.sort(Comparator.comparingInt((Match match) -> match.distance).thenComparingInt(match -> match.position));
+
+        List<Integer> positions = new ArrayList<>(search.matches.size());
+        search.matches.forEach(match -> positions.add(match.position));
+        return positions;
+    }
+
+    private static class Search {
+
+        private final String query;
+        private final int maxDistance;
+        private final List<Match> matches;
+
+        // Row i holds the distances between the first i characters of the current key and all prefixes of the query
+        private final List<int[]> rows;
+        // Smallest entry of each row
+        private final List<Integer> rowMin;
+        // Smallest distance between the whole query and the first i or less characters of the current key
+        private final List<Integer> best;
+        private String previous;
+        private int computed;
+
+        private Search(final String query, final int maxDistance) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.matches = new ArrayList<>();
+
+            int[] first = new int[query.length() + 1];
+            for (int j = 0; j <= query.length(); j++) {
+                first[j] = j;
+            }
+            this.rows = new ArrayList<>();
+            this.rows.add(first);
+            this.rowMin = new ArrayList<>();
+            this.rowMin.add(0);
+            this.best = new ArrayList<>();
+            this.best.add(query.length());
+            this.previous = "";
+            this.computed = 0;
+        }
+
+        private void accept(final String key, final int position) {
+            // The rows up to the prefix shared with the previous key are still valid
+            int depth = Math.min(commonPrefix(previous, key), computed);
+            if (rowMin.get(depth) <= maxDistance) {
+                while (depth < key.length()) {
+                    depth++;
+                    if (computeRow(key, depth) > maxDistance) {
+                        break;
+                    }
+                }
+            }
+            computed = depth;
+            previous = key;
+
+            int distance = best.get(depth);
+            if (distance <= maxDistance) {
+                matches.add(new Match(position, distance));
+            }
+        }
+
+        /**
+         * Computes the row for the first i characters of the key from the rows before
+         *
+         * @return The smallest entry of the row
+         */
+        private int computeRow(final String key, final int i) {
+            if (rows.size() == i) {
+                rows.add(new int[query.length() + 1]);
+                rowMin.add(0);
+                best.add(0);
+            }
+            int[] row = rows.get(i);
+            int[] above = rows.get(i - 1);
+
+            char c = key.charAt(i - 1);
+            row[0] = i;
+            int min = i;
+            for (int j = 1; j <= query.length(); j++) {
+                int cost = c == query.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+                if (i > 1 && j > 1 && c == query.charAt(j - 2) && key.charAt(i - 2) == query.charAt(j - 1)) {
+                    // Transposition of the last two characters
+                    value = Math.min(value, rows.get(i - 2)[j - 2] + 1);
+                }
+                row[j] = value;
+                min = Math.min(min, value);
+            }
+
+            rowMin.set(i, min);
+            best.set(i, Math.min(best.get(i - 1), row[query.length()]));
+            return min;
+        }
+    }
+
+    private static int commonPrefix(final String a, final String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Match {
+
+        private final int position;
+        private final int distance;
+
+        private Match(final int position, final int distance) {
+            this.position = position;
+            this.distance = distance;
+        }
+    }
+}
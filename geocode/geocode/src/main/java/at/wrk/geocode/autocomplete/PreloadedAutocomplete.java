@@ -1,34 +1,81 @@
 package at.wrk.geocode.autocomplete;
 
+import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Abstract base class for autocomplete implemenations with (sorted) in-memory storage
+ * <p>
+ * The entries are stored read-only with front-coded keys and are replaced as a whole by {@link #setValues(Collection)}.
  *
  * @param <T> The type of data stored
  */
 public abstract class PreloadedAutocomplete<T> implements AutocompleteSupplier<T> {
 
   /**
-   * The data store for all available entries
+   * The data store for all available entries and the substring index over it, replaced together
    */
-  protected final NavigableMap<String, T> values;
+  private volatile Data<T> data;
 
   protected PreloadedAutocomplete() {
-    this(new TreeMap<>());
+    this.data = new Data<>(FrontCodedStore.empty());
   }
 
   protected PreloadedAutocomplete(final Map<String, T> values) {
-    this.values = new TreeMap<>(values);
+    this();
+    setValues(values.entrySet());
+  }
+
+  /**
+   * Replace all stored entries
+   *
+   * @param entries The entries with the autocomplete key, of multiple entries with the same key the first one is stored
+   */
+  protected final void setValues(final Collection<? extends Map.Entry<String, ? extends T>> entries) {
+    this.data = new Data<>(FrontCodedStore.of(entries));
+  }
+
+  /**
+   * @return The number of stored entries
+   */
+  protected final int size() {
+    return data.store.size();
+  }
+
+  /**
+   * @return The value stored for exactly this key, or null
+   */
+  protected final T getValue(final String key) {
+    FrontCodedStore<T> store = data.store;
+    int index = store.indexOf(key);
+    return index < 0 ? null : store.value(index);
+  }
+
+  /**
+   * @return The entry with the greatest key less than or equal to the given key, or null if there is none
+   */
+  protected final Map.Entry<String, T> getFloorEntry(final String key) {
+    FrontCodedStore<T> store = data.store;
+    int index = store.floorIndex(key);
+    return index < 0 ? null : new AbstractMap.SimpleImmutableEntry<>(store.key(index), store.value(index));
+  }
+
+  /**
+   * @return All stored values in key order
+   */
+  protected final Stream<T> getValues() {
+    FrontCodedStore<T> store = data.store;
+    return IntStream.range(0, store.size()).mapToObj(store::value);
   }
 
   @Override
   public Stream<T> getStart(final String filter) {
     String to = filter.substring(0, filter.length() - 1) + (char) (filter.charAt(filter.length() - 1) + 1);
-    return values.subMap(filter, to).values().stream();
+    FrontCodedStore<T> store = data.store;
+    return IntStream.range(store.lowerBound(filter), store.lowerBound(to)).mapToObj(store::value);
   }
 
   @Override
@@ -37,11 +84,32 @@ public abstract class PreloadedAutocomplete<T> implements AutocompleteSupplier<T
       return Stream.empty();
     }
 
-    Stream<T> filtered = values.entrySet()
-            .stream()
-            .filter(e -> e.getKey().indexOf(filter) > 0)
-            .map(Map.Entry::getValue);
+    Stream<T> filtered = data.index.getContaining(filter);
     return max == null ? filtered : filtered.limit(max);
   }
 
+  /**
+   * Get all entries with a key starting with a string similar to the query string
+   *
+   * @param filter The query string in lower case, must not be null
+   * @param maxDistance The maximum number of edits (insertions, deletions, substitutions, transpositions) to the query
+   * @return A (possibly empty) Stream of items, with the closest matches first
+   * @see FuzzyPrefixSearch
+   */
+  protected final Stream<T> getSimilar(final String filter, final int maxDistance) {
+    FrontCodedStore<T> store = data.store;
+    return FuzzyPrefixSearch.search(store, filter, maxDistance).stream().map(store::value);
+  }
+
+  private static class Data<T> {
+
+    private final FrontCodedStore<T> store;
+    private final SubstringIndex<T> index;
+
+    private Data(final FrontCodedStore<T> store) {
+      this.store = store;
+      this.index = new SubstringIndex<>(store);
+    }
+  }
+
 }
@@ -0,0 +1,97 @@
+package at.wrk.geocode.autocomplete;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Trigram index over the keys of an autocomplete store, for finding all keys containing a query string
+ * <p>
+ * For each trigram the ascending positions of the keys containing it are stored. A query with at least three characters
+ * only checks the keys of its rarest trigram that contain all other trigrams as well, shorter queries check all keys. The
+ * results are returned lazily in key order, so limiting the stream stops the search.
+ *
+ * @param <T> The type of the values
+ */
+class SubstringIndex<T> {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final FrontCodedStore<T> store;
+    private final Map<Long, int[]> postings;
+
+    SubstringIndex(final FrontCodedStore<T> store) {
+        this.store = store;
+
+        Map<Long, int[]> building = new HashMap<>();
+        store.forEachKey((key, i) -> {
+            for (int pos = 0; pos + 3 <= key.length(); pos++) {
+                add(building, trigram(key, pos), i);
+            }
+        });
+
+        // The first element is the number of stored positions, trim to the actual positions
+        building.replaceAll((trigram, positions) -> Arrays.copyOfRange(positions, 1, positions[0] + 1));
+        this.postings = building;
+    }
+
+    /**
+     * Returns all values with keys containing the filter, but not starting with it
+     *
+     * @param filter The query string in lower case
+     * @return A lazy stream in key order
+     */
+    Stream<T> getContaining(final String filter) {
+        // The candidates are in ascending order, so the keys of a block are decoded only once
+        FrontCodedStore<T>.KeyReader reader = store.reader();
+        return candidates(filter)
+                .filter(i -> reader.indexOf(i, filter) > 0)
+                .mapToObj(store::value);
+    }
+
+    private IntStream candidates(final String filter) {
+        if (filter.length() < 3) {
+            return IntStream.range(0, store.size());
+        }
+
+        int count = filter.length() - 2;
+        int[][] lists = new int[count][];
+        for (int pos = 0; pos < count; pos++) {
+            lists[pos] = postings.getOrDefault(trigram(filter, pos), EMPTY);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] rarest = lists[0];
+        return Arrays.stream(rarest).filter(i -> {
+            for (int list = 1; list < lists.length; list++) {
+                if (Arrays.binarySearch(lists[list], i) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private static void add(final Map<Long, int[]> building, final long trigram, final int position) {
+        int[] positions = building.get(trigram);
+        if (positions == null) {
+            positions = new int[4];
+            building.put(trigram, positions);
+        } else if (positions[positions[0]] == position) {
+            // Trigram occurs multiple times in the same key
+            return;
+        } else if (positions[0] + 1 == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+            building.put(trigram, positions);
+        }
+
+        positions[0]++;
+        positions[positions[0]] = position;
+    }
+
+    private static long trigram(final String key, final int pos) {
+        return ((long) key.charAt(pos) << 32) | ((long) key.charAt(pos + 1) << 16) | key.charAt(pos + 2);
+    }
+}
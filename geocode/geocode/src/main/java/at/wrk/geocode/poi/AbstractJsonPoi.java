@@ -1,10 +1,10 @@
 package at.wrk.geocode.poi;
 
-import at.wrk.geocode.Bounds;
 import at.wrk.geocode.LatLng;
 import at.wrk.geocode.ReverseResult;
 import at.wrk.geocode.autocomplete.AutocompleteKeyParser;
 import at.wrk.geocode.autocomplete.PreloadedAutocomplete;
+import at.wrk.geocode.util.SpatialIndex;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
@@ -12,9 +12,9 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -25,26 +25,35 @@ abstract class AbstractJsonPoi extends PreloadedAutocomplete<Poi> implements Poi
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Spatial index over all loaded POI, replaced as a whole after loading
+     */
+    private volatile SpatialIndex<Poi> index = new SpatialIndex<>();
+
     protected final void loadData() {
         StopWatch stopWatch = StopWatch.createStarted();
-        Map<String, Poi> loadedData = mapDataToPoiMap();
-        super.values.putAll(loadedData);
+        List<Map.Entry<String, Poi>> loadedData = readEntries();
+        setValues(loadedData);
+
+        SpatialIndex<Poi> loadedIndex = new SpatialIndex<>();
+        getValues()
+            .filter(poi -> poi.getCoordinates() != null)
+            .forEach(poi -> loadedIndex.add(poi.getCoordinates(), poi));
+        this.index = loadedIndex;
         stopWatch.stop();
         Duration parseDuration = Duration.ofNanos(stopWatch.getNanoTime());
         LOG.info(
             "Successfully loaded {} entries of JSON file for autocomplete of feature {}. Parsing took {}.",
-            loadedData.size(),
+            size(),
             this.getClass().getSimpleName(),
             parseDuration);
     }
 
-    private Map<String, Poi> mapDataToPoiMap() {
+    private List<Map.Entry<String, Poi>> readEntries() {
         return readResources()
             .filter(poi -> poi.getText() != null)
-            .collect(Collectors.toMap(
-                poi -> AutocompleteKeyParser.formatAutocompleteKey(poi.getText()),
-                Function.identity(),
-                (a, b) -> a, TreeMap::new));
+            .map(poi -> new AbstractMap.SimpleImmutableEntry<>(AutocompleteKeyParser.formatAutocompleteKey(poi.getText()), poi))
+            .collect(Collectors.toList());
     }
 
     protected abstract Stream<Poi> readResources();
@@ -65,7 +74,7 @@ abstract class AbstractJsonPoi extends PreloadedAutocomplete<Poi> implements Poi
             return null;
         }
 
-        Map.Entry<String, Poi> entry = values.floorEntry(text);
+        Map.Entry<String, Poi> entry = getFloorEntry(text);
         return (entry != null && text.startsWith(entry.getKey())) ? entry.getValue() : null;
     }
 
@@ -78,7 +87,7 @@ abstract class AbstractJsonPoi extends PreloadedAutocomplete<Poi> implements Poi
             return null;
         }
 
-        Poi found = values.get(poi.getText().trim().toLowerCase());
+        Poi found = getValue(poi.getText().trim().toLowerCase());
         return found == null ? null : found.getCoordinates();
     }
 
@@ -88,22 +97,7 @@ abstract class AbstractJsonPoi extends PreloadedAutocomplete<Poi> implements Poi
     @Override
     public ReverseResult<Poi> reverse(LatLng coordinates) {
         // Only look for POI within 100 meters
-        Bounds bounds = coordinates.boundsForDistance(100);
-        ReverseResult<Poi> nearest = null;
-        for (Poi poi : values.values()) {
-            if (bounds.contains(poi.getCoordinates())) {
-                int dist = coordinates.distance(poi.getCoordinates());
-                if (nearest == null || dist < nearest.dist) {
-                    nearest = new ReverseResult<>(dist, poi, poi.getCoordinates());
-                    if (dist == 0) {
-                        // Found an exact match
-                        break;
-                    }
-                }
-            }
-        }
-
-        return nearest;
+        return index.findNearest(coordinates, 100);
     }
 
 }
@@ -4,6 +4,10 @@ import at.wrk.geocode.LatLng;
 import at.wrk.geocode.ReverseResult;
 import at.wrk.geocode.autocomplete.AutocompleteKeyParser;
 import at.wrk.geocode.autocomplete.PreloadedAutocomplete;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,12 +40,15 @@ public abstract class GridSquarePoi extends PreloadedAutocomplete<Poi> implement
     this.xMax = xMax;
     this.yMax = yMax;
 
+    List<Map.Entry<String, Poi>> squares = new ArrayList<>();
     for (char x = start.x; x <= xMax; x++) {
       for (int y = start.y; y <= yMax; y++) {
         String val = name + x + y;
-        values.put(AutocompleteKeyParser.formatAutocompleteKey(val), new PoiImpl(val, start.calculate(x, xStep, y, yStep)));
+        squares.add(new AbstractMap.SimpleImmutableEntry<>(AutocompleteKeyParser.formatAutocompleteKey(val),
+            new PoiImpl(val, start.calculate(x, xStep, y, yStep))));
       }
     }
+    setValues(squares);
   }
 
   @Override
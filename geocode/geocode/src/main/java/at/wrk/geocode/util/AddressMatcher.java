@@ -1,25 +1,21 @@
 package at.wrk.geocode.util;
 
 import at.wrk.geocode.address.Address;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Objects;
+import java.util.function.Function;
 
 @Component
 public class AddressMatcher {
 
     private static final double MINIMUM_LEVENSHTEIN_TO_LENGTH_RATION_TO_MATCH = 0.2;
 
-    private final LevenshteinDistance levenshteinDistance;
     private final AddressNumberMatcher addressNumberMatcher;
 
     @Autowired
-    public AddressMatcher(
-            final LevenshteinDistance levenshteinDistance,
-            final AddressNumberMatcher addressNumberMatcher) {
-        this.levenshteinDistance = levenshteinDistance;
+    public AddressMatcher(final AddressNumberMatcher addressNumberMatcher) {
         this.addressNumberMatcher = addressNumberMatcher;
     }
 
@@ -42,6 +38,48 @@ public class AddressMatcher {
                 && isStreetMatchingByLevenshtein(foundAddress, searchInputAddress);
     }
 
+    /**
+     * Find the best match for the searched address within all found addresses in a single pass
+     *
+     * @param candidates         The found addresses by the search request, e.g. the entries of a geocoder response
+     * @param addressExtractor   Function to get the address of each candidate
+     * @param searchInputAddress The address searched for (search input)
+     * @param <T>                The type of the candidates
+     * @return The first candidate matching with the exact number if there is one, otherwise the first candidate containing
+     * the searched number (as given by {@link #isFoundAddressMatching}), null if none is matching
+     */
+    public <T> T findBestMatch(
+            final Iterable<T> candidates,
+            final Function<T, ? extends Address> addressExtractor,
+            final Address searchInputAddress) {
+        if (searchInputAddress == null) {
+            return null;
+        }
+
+        int maxDistance = getMaxStreetDistance(searchInputAddress);
+        T containingMatch = null;
+        for (T candidate : candidates) {
+            Address foundAddress = addressExtractor.apply(candidate);
+            if (foundAddress == null || !isPostCodeMatching(foundAddress, searchInputAddress)) {
+                continue;
+            }
+
+            boolean exactNumber = isNumberOfAddressMatching(foundAddress, searchInputAddress, true);
+            if (!exactNumber && (containingMatch != null || !isNumberOfAddressMatching(foundAddress, searchInputAddress, false))) {
+                continue;
+            }
+
+            if (isStreetMatching(foundAddress, searchInputAddress, maxDistance)) {
+                if (exactNumber) {
+                    return candidate;
+                }
+                containingMatch = candidate;
+            }
+        }
+
+        return containingMatch;
+    }
+
     private boolean isPostCodeMatching(final Address foundAddress, final Address searchInputAddress) {
         return searchInputAddress.getPostCode() == null || Objects.equals(foundAddress.getPostCode(), searchInputAddress.getPostCode());
     }
@@ -60,21 +98,27 @@ public class AddressMatcher {
      *
      * @param leftAddress  Left address to compare.
      * @param rightAddress Right address to compare.
-     * @return True iff both streets are null or the Levenshtein distance divided by the length is &lt;= 0.2
+     * @return True iff both streets are null or the Levenshtein distance divided by the length of the right street plus
+     * one is &lt;= 0.2
      */
     public boolean isStreetMatchingByLevenshtein(final Address leftAddress, final Address rightAddress) {
-        boolean addressesMatch = false;
+        return isStreetMatching(leftAddress, rightAddress, getMaxStreetDistance(rightAddress));
+    }
 
-        if (leftAddress.getStreet() == null && rightAddress.getStreet() == null) {
-            addressesMatch = true;
+    private static boolean isStreetMatching(final Address leftAddress, final Address rightAddress, final int maxDistance) {
+        if (leftAddress.getStreet() == null || rightAddress.getStreet() == null) {
+            return leftAddress.getStreet() == null && rightAddress.getStreet() == null;
         }
 
-        if (leftAddress.getStreet() != null && rightAddress.getStreet() != null) {
-            int levenshteinDistanceBetweenAddresses = levenshteinDistance.apply(leftAddress.getStreet(), rightAddress.getStreet());
-            final int levenshteinToLengthRatio = levenshteinDistanceBetweenAddresses / (rightAddress.getStreet().length() + 1);
-            addressesMatch = levenshteinToLengthRatio <= MINIMUM_LEVENSHTEIN_TO_LENGTH_RATION_TO_MATCH;
-        }
+        return BoundedLevenshteinDistance.apply(leftAddress.getStreet(), rightAddress.getStreet(), maxDistance) >= 0;
+    }
 
-        return addressesMatch;
+    /**
+     * @return The maximum Levenshtein distance to the street of the address to be considered matching
+     */
+    private static int getMaxStreetDistance(final Address address) {
+        return address.getStreet() == null
+                ? 0
+                : (int) (MINIMUM_LEVENSHTEIN_TO_LENGTH_RATION_TO_MATCH * (address.getStreet().length() + 1));
     }
 }
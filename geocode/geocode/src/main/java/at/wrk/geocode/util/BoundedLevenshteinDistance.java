@@ -0,0 +1,68 @@
+package at.wrk.geocode.util;
+
+/**
+ * Levenshtein distance limited to a maximum distance
+ * <p>
+ * Only the cells of the distance matrix at most the maximum distance away from the diagonal are computed, and the
+ * computation stops as soon as a whole row exceeds the maximum.
+ */
+public final class BoundedLevenshteinDistance {
+
+    private BoundedLevenshteinDistance() {
+    }
+
+    /**
+     * Compute the distance of two strings if it is not greater than the maximum
+     *
+     * @param left        First string, non-null
+     * @param right       Second string, non-null
+     * @param maxDistance The maximum distance of interest, not negative
+     * @return The Levenshtein distance, or -1 if it is greater than maxDistance
+     */
+    public static int apply(final CharSequence left, final CharSequence right, final int maxDistance) {
+        int n = left.length();
+        int m = right.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return -1;
+        }
+
+        // Distances greater than the maximum are all stored as max + 1, cells outside of the band are never read as less
+        int outside = maxDistance + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            current[0] = Math.min(i, outside);
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+
+            int rowMin = current[0];
+            char c = left.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == right.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+
+            if (rowMin > maxDistance) {
+                return -1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[m] > maxDistance ? -1 : previous[m];
+    }
+}
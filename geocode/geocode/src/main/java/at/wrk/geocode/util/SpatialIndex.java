@@ -0,0 +1,104 @@
+package at.wrk.geocode.util;
+
+import at.wrk.geocode.Bounds;
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.ReverseResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid index over coordinates for finding the nearest entry to a given point
+ * <p>
+ * The coordinates are put into buckets of {@link #CELL_SIZE} degrees. A search only checks the buckets overlapping the
+ * bounds of the search radius instead of all entries. Not thread-safe, concurrent access has to be synchronized or the
+ * index must not be modified after publishing it.
+ *
+ * @param <T> The type of the stored values
+ */
+public class SpatialIndex<T> {
+
+    /**
+     * Size of a grid cell in degrees, about 110 m in latitude
+     */
+    public static final double CELL_SIZE = 0.001;
+
+    private final Map<Long, List<Entry<T>>> cells;
+    private int size;
+
+    public SpatialIndex() {
+        this.cells = new HashMap<>();
+    }
+
+    public void add(final LatLng coordinates, final T value) {
+        long key = key(cell(coordinates.getLat()), cell(coordinates.getLng()));
+        cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(new Entry<>(coordinates, value, size++));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the nearest entry within the bounds of the given distance (see {@link LatLng#boundsForDistance(int)})
+     * <p>
+     * Of multiple entries with the same distance, the one added first is returned.
+     *
+     * @param coordinates The coordinates to search for
+     * @param distance    The distance in meters used to calculate the bounds
+     * @return The nearest entry, or null if there is none within the bounds
+     */
+    public ReverseResult<T> findNearest(final LatLng coordinates, final int distance) {
+        Bounds bounds = coordinates.boundsForDistance(distance);
+        int latMin = cell(bounds.sw.getLat()), latMax = cell(bounds.ne.getLat()),
+                lngMin = cell(bounds.sw.getLng()), lngMax = cell(bounds.ne.getLng());
+
+        Entry<T> nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int lat = latMin; lat <= latMax; lat++) {
+            for (int lng = lngMin; lng <= lngMax; lng++) {
+                List<Entry<T>> cell = cells.get(key(lat, lng));
+                if (cell == null) {
+                    continue;
+                }
+
+                for (Entry<T> entry : cell) {
+                    if (!bounds.contains(entry.coordinates)) {
+                        continue;
+                    }
+
+                    int entryDistance = coordinates.distance(entry.coordinates);
+                    if (entryDistance < nearestDistance || (entryDistance == nearestDistance && entry.order < nearest.order)) {
+                        nearest = entry;
+                        nearestDistance = entryDistance;
+                    }
+                }
+            }
+        }
+
+        return nearest == null ? null : new ReverseResult<>(nearestDistance, nearest.value, nearest.coordinates);
+    }
+
+    private static int cell(final double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE);
+    }
+
+    private static long key(final int lat, final int lng) {
+        return ((long) lat << 32) | (lng & 0xFFFFFFFFL);
+    }
+
+    private static class Entry<T> {
+
+        private final LatLng coordinates;
+        private final T value;
+        private final int order;
+
+        private Entry(final LatLng coordinates, final T value, final int order) {
+            this.coordinates = coordinates;
+            this.value = value;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package at.wrk.geocode.autocomplete;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FrontCodedStoreTest {
+
+    private TreeMap<String, Integer> expected;
+    private FrontCodedStore<Integer> sut;
+
+    @Before
+    public void init() {
+        Random random = new Random(42);
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String key = randomString(random, 1 + random.nextInt(10));
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(key, i));
+            expected.putIfAbsent(key, i);
+        }
+        sut = FrontCodedStore.of(entries);
+    }
+
+    @Test
+    public void keysAndValuesInOrder_firstOfDuplicatesKept() {
+        assertThat(sut.size(), is(expected.size()));
+
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertThat(sut.key(index), is(entry.getKey()));
+            assertThat(sut.value(index), is(entry.getValue()));
+            index++;
+        }
+
+        List<String> keys = new ArrayList<>();
+        sut.forEachKey((key, i) -> keys.add(key));
+        assertThat(keys, is(new ArrayList<>(expected.keySet())));
+    }
+
+    @Test
+    public void lookups_sameAsTreeMap() {
+        List<String> keys = new ArrayList<>(expected.keySet());
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String search = randomString(random, random.nextInt(6));
+
+            String ceiling = expected.ceilingKey(search);
+            assertThat(sut.lowerBound(search), is(ceiling == null ? keys.size() : keys.indexOf(ceiling)));
+
+            String floor = expected.floorKey(search);
+            assertThat(sut.floorIndex(search), is(floor == null ? -1 : keys.indexOf(floor)));
+
+            assertThat(sut.indexOf(search), is(expected.containsKey(search) ? keys.indexOf(search) : -1));
+        }
+    }
+
+    @Test
+    public void reader_ascendingIndices_sameAsKey() {
+        Random random = new Random(3);
+        for (int run = 0; run < 20; run++) {
+            FrontCodedStore<Integer>.KeyReader reader = sut.reader();
+            String part = randomString(random, 1 + random.nextInt(2));
+            for (int i = random.nextInt(5); i < sut.size(); i += 1 + random.nextInt(run + 1)) {
+                assertThat(reader.indexOf(i, part), is(sut.key(i).indexOf(part)));
+            }
+        }
+    }
+
+    @Test
+    public void keysBeyondLatin1_areDecoded() {
+        FrontCodedStore<Integer> wide = FrontCodedStore.of(Arrays.asList(
+                new AbstractMap.SimpleImmutableEntry<>("straße", 1),
+                new AbstractMap.SimpleImmutableEntry<>("stra\u0142a", 2)));
+
+        assertThat(wide.key(0), is("straße"));
+        assertThat(wide.key(1), is("stra\u0142a"));
+        assertThat(wide.indexOf("stra\u0142a"), is(1));
+    }
+
+    @Test
+    public void empty() {
+        FrontCodedStore<String> empty = FrontCodedStore.of(Arrays.asList());
+
+        assertThat(empty.size(), is(0));
+        assertThat(empty.lowerBound("a"), is(0));
+        assertThat(empty.floorIndex("a"), is(-1));
+        assertThat(empty.indexOf("a"), is(-1));
+    }
+
+    private static String randomString(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append("abcöß ".charAt(random.nextInt(6)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package at.wrk.geocode.autocomplete;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class FuzzyAutocompleteSupplierTest {
+
+    private FuzzyAutocompleteSupplier<String> sut;
+
+    @Before
+    public void init() {
+        Map<String, String> values = new HashMap<>();
+        values.put("hauptstraße", "Hauptstraße");
+        values.put("hauptplatz", "Hauptplatz");
+        values.put("kaiserstraße", "Kaiserstraße");
+        values.put("neubaugasse", "Neubaugasse");
+        values.put("allerheiligengasse", "Allerheiligengasse");
+        values.put("lindenallee", "Lindenallee");
+        sut = new FuzzyAutocompleteSupplier<>(new PreloadedAutocomplete<String>(values) {
+            @Override
+            public String getString(final String value) {
+                return value;
+            }
+        });
+    }
+
+    @Test
+    public void misspelled_closestFirst() {
+        assertThat(sut.getStartCollection("haupstraße"), contains("Hauptstraße"));
+        assertThat(sut.getStartCollection("kaisre"), contains("Kaiserstraße"));
+    }
+
+    @Test
+    public void exactPrefixFound_noFuzzyResults() {
+        assertThat(sut.getStartCollection("haupt"), is(empty()));
+    }
+
+    @Test
+    public void containingFound_noFuzzyResults() {
+        // "allee" is one edit away from the start of "allerheiligengasse", but contained in "lindenallee"
+        assertThat(sut.getStartCollection("allee"), is(empty()));
+    }
+
+    @Test
+    public void houseNumber_notDropped() {
+        assertThat(sut.getStartCollection("neubaugasse 7"), is(empty()));
+        assertThat(sut.getStartCollection("neubaugase 12a"), is(empty()));
+    }
+
+    @Test
+    public void shortQuery_noFuzzyResults() {
+        assertThat(sut.getStartCollection("hau"), is(empty()));
+    }
+}
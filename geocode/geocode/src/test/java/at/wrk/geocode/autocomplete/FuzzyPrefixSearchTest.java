@@ -0,0 +1,108 @@
+package at.wrk.geocode.autocomplete;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class FuzzyPrefixSearchTest {
+
+    @Test
+    public void typos_prefixFound() {
+        List<String> keys = Arrays.asList("mariahilfer straße", "marxergasse", "nottendorfer gasse", "wiedner hauptstraße");
+
+        assertThat(search(keys, "mariahlifer", 1), contains("mariahilfer straße"));
+        assertThat(search(keys, "marihilfer", 1), contains("mariahilfer straße"));
+        assertThat(search(keys, "mariahillfer", 1), contains("mariahilfer straße"));
+        assertThat(search(keys, "mariahulfer", 1), contains("mariahilfer straße"));
+        assertThat(search(keys, "notendorfr", 1), is(empty()));
+        assertThat(search(keys, "notendorfr", 2), contains("nottendorfer gasse"));
+    }
+
+    @Test
+    public void rankedByDistance() {
+        List<String> keys = Arrays.asList("gasse a", "gasse b", "gassa", "gaste", "gosso");
+
+        assertThat(search(keys, "gasse", 2), contains("gasse a", "gasse b", "gassa", "gaste", "gosso"));
+        assertThat(search(keys, "gosse", 1), contains("gasse a", "gasse b", "gosso"));
+    }
+
+    @Test
+    public void randomKeys_sameResultAsFullDistance() {
+        Random random = new Random(42);
+        TreeMap<String, Integer> store = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            store.put(randomString(random, 1 + random.nextInt(10)), i);
+        }
+        FrontCodedStore<Integer> sut = FrontCodedStore.of(store.entrySet());
+        List<String> keys = new ArrayList<>(store.keySet());
+
+        for (int i = 0; i < 100; i++) {
+            String query = randomString(random, 1 + random.nextInt(6));
+            int maxDistance = random.nextInt(3);
+            List<Integer> expected = new ArrayList<>();
+            for (int position = 0; position < keys.size(); position++) {
+                if (prefixDistance(keys.get(position), query) <= maxDistance) {
+                    expected.add(position);
+                }
+            }
+            expected.sort(Comparator.comparingInt(position -> prefixDistance(keys.get(position), query)));
+
+            assertThat(FuzzyPrefixSearch.search(sut, query, maxDistance), is(expected));
+        }
+    }
+
+    private static List<String> search(final List<String> keys, final String query, final int maxDistance) {
+        TreeMap<String, String> store = new TreeMap<>();
+        keys.forEach(key -> store.put(key, key));
+        FrontCodedStore<String> sut = FrontCodedStore.of(store.entrySet());
+        return FuzzyPrefixSearch.search(sut, query, maxDistance).stream().map(sut::value).collect(Collectors.toList());
+    }
+
+    /**
+     * Smallest optimal string alignment distance between the query and any prefix of the key, computed separately
+     */
+    private static int prefixDistance(final String key, final String query) {
+        int best = Integer.MAX_VALUE;
+        for (int length = 0; length <= key.length(); length++) {
+            best = Math.min(best, distance(key.substring(0, length), query));
+        }
+        return best;
+    }
+
+    private static int distance(final String a, final String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                    continue;
+                }
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomString(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append("abcd ".charAt(random.nextInt(5)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package at.wrk.geocode.autocomplete;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class SubstringIndexTest {
+
+    @Test
+    public void containing_notAtStartAndInKeyOrder() {
+        SubstringIndex<String> sut = index("hauptstraße", "am hauptplatz", "neue hauptstraße", "haupt", "kleine gasse");
+
+        assertThat(sut.getContaining("haupt").collect(Collectors.toList()), contains("Am hauptplatz", "Neue hauptstraße"));
+    }
+
+    @Test
+    public void allTrigramsRequired() {
+        SubstringIndex<String> sut = index("abcxyz", "xabc", "xabcd", "bcd");
+
+        assertThat(sut.getContaining("abcd").collect(Collectors.toList()), contains("Xabcd"));
+        assertThat(sut.getContaining("zzz").collect(Collectors.toList()), is(empty()));
+    }
+
+    @Test
+    public void repeatedTrigrams() {
+        SubstringIndex<String> sut = index("aaaa", "baaaa", "baab");
+
+        assertThat(sut.getContaining("aaaa").collect(Collectors.toList()), contains("Baaaa"));
+        assertThat(sut.getContaining("aa").collect(Collectors.toList()), contains("Baaaa", "Baab"));
+    }
+
+    @Test
+    public void randomKeys_sameResultAsScan() {
+        Random random = new Random(42);
+        TreeMap<String, String> store = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            store.put(randomString(random, 4 + random.nextInt(12)), "value " + i);
+        }
+        SubstringIndex<String> sut = new SubstringIndex<>(FrontCodedStore.of(store.entrySet()));
+
+        for (int i = 0; i < 300; i++) {
+            String filter = randomString(random, 1 + random.nextInt(4));
+            List<String> expected = store.entrySet().stream()
+                    .filter(e -> e.getKey().indexOf(filter) > 0)
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+
+            assertThat(sut.getContaining(filter).collect(Collectors.toList()), is(expected));
+        }
+    }
+
+    private static SubstringIndex<String> index(final String... keys) {
+        TreeMap<String, String> store = new TreeMap<>();
+        Arrays.stream(keys).forEach(key -> store.put(key, Character.toUpperCase(key.charAt(0)) + key.substring(1)));
+        return new SubstringIndex<>(FrontCodedStore.of(store.entrySet()));
+    }
+
+    private static String randomString(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append("abcde ".charAt(random.nextInt(6)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package at.wrk.geocode.poi;
+
+import at.wrk.geocode.Bounds;
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.ReverseResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reverse lookup of random positions in Vienna over the POI files bundled with the plugins, comparing the spatial index
+ * to a linear scan over all POI of each supplier (the previous implementation).
+ * <p>
+ * The files are read relative to the working directory, which has to be this module. The patterns can be changed with
+ * the system properties "poi.json" (Coceso JSON format) and "poi.geojson" (GeoJSON). The Vienna GeoJSON files are not
+ * part of the repository and have to be downloaded first.
+ * <p>
+ * Not run as part of the test suite, start it using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoiReverseBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<BenchmarkPoi> suppliers = new ArrayList<>();
+    private LatLng[] positions;
+    private int next;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PoiReverseBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (Resource resource : resolver.getResources(System.getProperty("poi.json", "file:../../plugin/*/src/main/resources/old/*.json"))) {
+            suppliers.add(new BenchmarkJsonPoi(mapper, resource));
+        }
+        String geoJson = System.getProperty("poi.geojson", "file:../../plugin/vienna/src/main/resources/geojson/**/*.json");
+        if (resolver.getResources(geoJson).length > 0) {
+            suppliers.add(new BenchmarkGeoJsonPoi(mapper, geoJson));
+        }
+
+        int count = suppliers.stream().mapToInt(supplier -> supplier.all().size()).sum();
+        if (count == 0) {
+            throw new IllegalStateException("No POI found, check the working directory");
+        }
+        System.out.printf("Loaded %d POI from %d suppliers%n", count, suppliers.size());
+
+        // Positions around the center of Vienna, so some of them are near a POI
+        Random random = new Random(42);
+        positions = new LatLng[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = new LatLng(48.17 + random.nextDouble() * 0.08, 16.32 + random.nextDouble() * 0.12);
+        }
+    }
+
+    @Benchmark
+    public ReverseResult<Poi> indexed() {
+        LatLng position = nextPosition();
+        ReverseResult<Poi> nearest = null;
+        for (BenchmarkPoi supplier : suppliers) {
+            nearest = nearer(nearest, supplier.reverse(position));
+        }
+        return nearest;
+    }
+
+    @Benchmark
+    public ReverseResult<Poi> linearScan() {
+        LatLng position = nextPosition();
+        ReverseResult<Poi> nearest = null;
+        for (BenchmarkPoi supplier : suppliers) {
+            nearest = nearer(nearest, linearScan(supplier.all(), position));
+        }
+        return nearest;
+    }
+
+    private LatLng nextPosition() {
+        next = (next + 1) % POSITIONS;
+        return positions[next];
+    }
+
+    private static ReverseResult<Poi> nearer(final ReverseResult<Poi> a, final ReverseResult<Poi> b) {
+        return a == null || (b != null && b.dist < a.dist) ? b : a;
+    }
+
+    private static ReverseResult<Poi> linearScan(final Collection<Poi> values, final LatLng coordinates) {
+        Bounds bounds = coordinates.boundsForDistance(100);
+        ReverseResult<Poi> nearest = null;
+        for (Poi poi : values) {
+            if (bounds.contains(poi.getCoordinates())) {
+                int dist = coordinates.distance(poi.getCoordinates());
+                if (nearest == null || dist < nearest.dist) {
+                    nearest = new ReverseResult<>(dist, poi, poi.getCoordinates());
+                    if (dist == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private interface BenchmarkPoi extends PoiSupplier {
+
+        Collection<Poi> all();
+    }
+
+    private static class BenchmarkJsonPoi extends JsonPoi implements BenchmarkPoi {
+
+        private final List<Poi> all;
+
+        private BenchmarkJsonPoi(final ObjectMapper mapper, final Resource resource) {
+            super(mapper, resource);
+            loadData();
+            all = getValues().collect(Collectors.toList());
+        }
+
+        @Override
+        public Collection<Poi> all() {
+            return all;
+        }
+    }
+
+    private static class BenchmarkGeoJsonPoi extends GeoJsonPoi implements BenchmarkPoi {
+
+        private final List<Poi> all;
+
+        private BenchmarkGeoJsonPoi(final ObjectMapper mapper, final String path) throws IOException {
+            super(mapper, path, null);
+            loadData();
+            all = getValues().collect(Collectors.toList());
+        }
+
+        @Override
+        public Collection<Poi> all() {
+            return all;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package at.wrk.geocode.util;
+
+import at.wrk.geocode.address.Address;
+import at.wrk.geocode.address.ImmutableAddress;
+import at.wrk.geocode.address.ImmutableAddressNumber;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Matching a searched address against all entries of a typical geocoder response, comparing the single pass with the
+ * bounded Levenshtein distance to the previous two passes computing the full distance for every entry.
+ * <p>
+ * The response contains entries of similar streets, with the searched one as last entry, either with the searched or with
+ * a different number.
+ * <p>
+ * Not run as part of the test suite, start it using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressMatcherBenchmark {
+
+    private static final String[] STREETS = {
+            "Neubaugasse", "Neubaugürtel", "Neubauer Straße", "Neuer Markt", "Neustiftgasse", "Neulinggasse",
+            "Neudeggergasse", "Neilreichgasse", "Nelkengasse", "Naglergasse", "Nestroyplatz", "Neumayrgasse",
+            "Mariahilfer Straße", "Mariahilfer Gürtel", "Westbahnstraße", "Zieglergasse", "Kaiserstraße", "Lindengasse",
+            "Burggasse", "Siebensterngasse"
+    };
+
+    private final AddressMatcher addressMatcher = new AddressMatcher(new AddressNumberMatcher());
+    private final AddressNumberMatcher addressNumberMatcher = new AddressNumberMatcher();
+    private final LevenshteinDistance levenshteinDistance = LevenshteinDistance.getDefaultInstance();
+
+    @Param({"true", "false"})
+    public boolean matching;
+
+    private List<Address> response;
+    private Address searched;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AddressMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        searched = address("Neubaugasse", 7);
+        response = new ArrayList<>();
+        for (int i = 1; i < STREETS.length; i++) {
+            response.add(address(STREETS[i], 7));
+        }
+        response.add(address("Neubaugasse", matching ? 7 : 8));
+    }
+
+    @Benchmark
+    public Address singlePassBounded() {
+        return addressMatcher.findBestMatch(response, Function.identity(), searched);
+    }
+
+    @Benchmark
+    public Address twoPassesUnbounded() {
+        for (Address found : response) {
+            if (isMatchingUnbounded(found, true)) {
+                return found;
+            }
+        }
+        for (Address found : response) {
+            if (isMatchingUnbounded(found, false)) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private boolean isMatchingUnbounded(final Address found, final boolean exactNumber) {
+        boolean numberMatching = exactNumber
+                ? addressNumberMatcher.exactMatch(found.getNumber(), searched.getNumber())
+                : addressNumberMatcher.contains(found.getNumber(), searched.getNumber());
+        return numberMatching
+                && Objects.equals(found.getPostCode(), searched.getPostCode())
+                && levenshteinDistance.apply(found.getStreet(), searched.getStreet()) <= (searched.getStreet().length() + 1) / 5;
+    }
+
+    private static Address address(final String street, final int number) {
+        return new ImmutableAddress(street, null, new ImmutableAddressNumber(number, null, null, null), 1070, "Wien");
+    }
+}
@@ -0,0 +1,71 @@
+package at.wrk.geocode.util;
+
+import at.wrk.geocode.address.Address;
+import at.wrk.geocode.address.ImmutableAddress;
+import at.wrk.geocode.address.ImmutableAddressNumber;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AddressMatcherTest {
+
+    private AddressMatcher sut;
+
+    @Before
+    public void init() {
+        sut = new AddressMatcher(new AddressNumberMatcher());
+    }
+
+    @Test
+    public void streetWithinFifthOfLength_matching() {
+        assertThat(sut.isStreetMatchingByLevenshtein(address("Neubaugase", 7, null, 1070), address("Neubaugasse", 7, null, 1070)), is(true));
+        assertThat(sut.isStreetMatchingByLevenshtein(address(null, 7, null, 1070), address(null, 7, null, 1070)), is(true));
+    }
+
+    @Test
+    public void streetBeyondFifthOfLength_notMatching() {
+        assertThat(sut.isStreetMatchingByLevenshtein(address("Neubau", 7, null, 1070), address("Neubaugasse", 7, null, 1070)), is(false));
+        assertThat(sut.isStreetMatchingByLevenshtein(address("Neubaugasse", 7, null, 1070), address(null, 7, null, 1070)), is(false));
+    }
+
+    @Test
+    public void findBestMatch_exactNumberPreferred() {
+        Address containing = address("Neubaugasse", 5, 9, 1070);
+        Address exact = address("Neubaugasse", 7, null, 1070);
+
+        Address result = sut.findBestMatch(Arrays.asList(containing, exact), Function.identity(), address("Neubaugasse", 7, null, 1070));
+
+        assertThat(result, is(exact));
+    }
+
+    @Test
+    public void findBestMatch_firstContainingWithoutExact() {
+        Address otherStreet = address("Kaiserstraße", 5, 9, 1070);
+        Address otherPostCode = address("Neubaugasse", 5, 9, 1150);
+        Address first = address("Neubaugase", 5, 9, 1070);
+        Address second = address("Neubaugasse", 1, 11, 1070);
+
+        Address result = sut.findBestMatch(Arrays.asList(otherStreet, otherPostCode, first, second), Function.identity(),
+                address("Neubaugasse", 7, null, 1070));
+
+        assertThat(result, is(first));
+    }
+
+    @Test
+    public void findBestMatch_noneMatching_null() {
+        Address result = sut.findBestMatch(Arrays.asList(address("Kaiserstraße", 7, null, 1070), address("Neubaugasse", 9, null, 1070)),
+                Function.identity(), address("Neubaugasse", 7, null, 1070));
+
+        assertThat(result, is(nullValue()));
+    }
+
+    private static Address address(final String street, final Integer from, final Integer to, final Integer postCode) {
+        return new ImmutableAddress(street, null, new ImmutableAddressNumber(from, to, null, null), postCode, "Wien");
+    }
+}
@@ -0,0 +1,49 @@
+package at.wrk.geocode.util;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class BoundedLevenshteinDistanceTest {
+
+    @Test
+    public void withinMaximum_exactDistance() {
+        assertThat(BoundedLevenshteinDistance.apply("Neubaugasse", "Neubaugasse", 0), is(0));
+        assertThat(BoundedLevenshteinDistance.apply("Neubaugasse", "Neubaugase", 2), is(1));
+        assertThat(BoundedLevenshteinDistance.apply("Mariahilfer Str.", "Mariahilfer Straße", 3), is(3));
+        assertThat(BoundedLevenshteinDistance.apply("", "abc", 3), is(3));
+    }
+
+    @Test
+    public void beyondMaximum_minusOne() {
+        assertThat(BoundedLevenshteinDistance.apply("Mariahilfer Str.", "Mariahilfer Straße", 2), is(-1));
+        assertThat(BoundedLevenshteinDistance.apply("Neubaugasse", "Kaiserstraße", 3), is(-1));
+        assertThat(BoundedLevenshteinDistance.apply("a", "abcde", 3), is(-1));
+    }
+
+    @Test
+    public void randomStrings_sameAsUnboundedDistance() {
+        Random random = new Random(42);
+        LevenshteinDistance unbounded = LevenshteinDistance.getDefaultInstance();
+        for (int i = 0; i < 5000; i++) {
+            String left = randomString(random, random.nextInt(12));
+            String right = randomString(random, random.nextInt(12));
+            int maxDistance = random.nextInt(6);
+
+            int distance = unbounded.apply(left, right);
+            assertThat(left + " / " + right, BoundedLevenshteinDistance.apply(left, right, maxDistance), is(distance <= maxDistance ? distance : -1));
+        }
+    }
+
+    private static String randomString(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append("abc".charAt(random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package at.wrk.geocode.util;
+
+import at.wrk.geocode.Bounds;
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.ReverseResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SpatialIndexTest {
+
+    private static final LatLng CENTER = new LatLng(48.2082, 16.3738);
+
+    private SpatialIndex<String> sut;
+
+    @Before
+    public void init() {
+        sut = new SpatialIndex<>();
+    }
+
+    @Test
+    public void empty_nothingFound() {
+        assertThat(sut.findNearest(CENTER, 100), is(nullValue()));
+    }
+
+    @Test
+    public void sameDistance_firstAddedReturned() {
+        sut.add(new LatLng(CENTER.getLat() + 0.0002, CENTER.getLng()), "first");
+        sut.add(new LatLng(CENTER.getLat() - 0.0002, CENTER.getLng()), "second");
+        sut.add(CENTER, "exact");
+        sut.add(CENTER, "exact again");
+
+        assertThat(sut.findNearest(CENTER, 100).result, is("exact"));
+    }
+
+    @Test
+    public void randomPoints_sameResultAsLinearScan() {
+        Random random = new Random(42);
+        List<LatLng> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LatLng point = new LatLng(48.2 + random.nextDouble() * 0.02, 16.37 + random.nextDouble() * 0.02);
+            points.add(point);
+            sut.add(point, "POI " + i);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LatLng search = new LatLng(48.2 + random.nextDouble() * 0.02, 16.37 + random.nextDouble() * 0.02);
+            ReverseResult<String> expected = linearScan(points, search, 100);
+            ReverseResult<String> result = sut.findNearest(search, 100);
+
+            if (expected == null) {
+                assertThat(result, is(nullValue()));
+            } else {
+                assertThat(result.result, is(expected.result));
+                assertThat(result.dist, is(expected.dist));
+            }
+        }
+    }
+
+    private static ReverseResult<String> linearScan(final List<LatLng> points, final LatLng search, final int distance) {
+        Bounds bounds = search.boundsForDistance(distance);
+        ReverseResult<String> nearest = null;
+        for (int i = 0; i < points.size(); i++) {
+            if (bounds.contains(points.get(i))) {
+                int dist = search.distance(points.get(i));
+                if (nearest == null || dist < nearest.dist) {
+                    nearest = new ReverseResult<>(dist, "POI " + i, points.get(i));
+                }
+            }
+        }
+        return nearest;
+    }
+}
@@ -3,6 +3,9 @@ package at.wrk.coceso.repository;
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Incident;
 import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.helper.IncidentStatisticsRow;
+import at.wrk.coceso.entity.helper.IncidentTypeCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -20,6 +23,9 @@ public interface IncidentRepository extends JpaRepository<Incident, Integer> {
 
     List<Incident> findByConcern(Concern concern);
 
+    @Query("SELECT i.concern.id FROM Incident i WHERE i.id = :id")
+    Integer findConcernIdById(@Param("id") int id);
+
     List<Incident> findByConcern(Concern concern, Sort sort);
 
     /**
@@ -29,11 +35,37 @@ public interface IncidentRepository extends JpaRepository<Incident, Integer> {
     @Query("SELECT i FROM Incident i WHERE concern = :concern AND (type IN ('Task', 'Transport') OR state <> 'Done')")
     List<Incident> findRelevant(@Param("concern") Concern concern);
 
+    @Query("SELECT DISTINCT i FROM Incident i LEFT JOIN FETCH i.units LEFT JOIN FETCH i.patient "
+            + "WHERE i.concern = :concern AND (i.type IN ('Task', 'Transport') OR i.state <> 'Done')")
+    List<Incident> findRelevantFetchUnits(@Param("concern") Concern concern);
+
+    /**
+     * Loads the units with tasks of the concern together with their crew into the current persistence context. The units are the
+     * keys of the task map, which can't be fetched together with the map and would otherwise be loaded one by one.
+     */
+    @Query("SELECT DISTINCT u FROM Unit u LEFT JOIN FETCH u.crew "
+            + "WHERE u IN (SELECT KEY(t) FROM Incident i JOIN i.units t WHERE i.concern = :concern)")
+    List<Unit> findTaskUnitsByConcern(@Param("concern") Concern concern);
+
+    /**
+     * Loads the incidents relevant for the initial loading with units and patient, independent of the number of incidents
+     *
+     * @see #findRelevant(Concern)
+     */
+    default List<Incident> findRelevantWithUnits(final Concern concern) {
+        findTaskUnitsByConcern(concern);
+        return findRelevantFetchUnits(concern);
+    }
+
     @Query("SELECT i FROM Incident i WHERE concern = :concern AND state <> 'Done'")
     List<Incident> findActive(@Param("concern") Concern concern, Sort sort);
 
-    @Query("SELECT i FROM Incident i WHERE concern = :concern AND " + NOT_SINGLE_UNIT_INCIDENT)
-    List<Incident> findNonSingleUnit(@Param("concern") Concern concern, Sort sort);
+    /**
+     * Returns the next page of incidents for the final report ordered by id, with the patient already loaded
+     */
+    @Query("SELECT i FROM Incident i LEFT JOIN FETCH i.patient WHERE i.concern = :concern AND i.id > :id AND i." + NOT_SINGLE_UNIT_INCIDENT
+            + " ORDER BY i.id")
+    List<Incident> findNonSingleUnitAfter(@Param("concern") Concern concern, @Param("id") int id, Pageable pageable);
 
     @Query("SELECT i FROM Incident i WHERE concern = :concern AND state <> 'Done' AND " + NOT_SINGLE_UNIT_INCIDENT)
     List<Incident> findActiveNonSingleUnit(@Param("concern") Concern concern, Sort sort);
@@ -54,6 +86,17 @@ public interface IncidentRepository extends JpaRepository<Incident, Integer> {
                     "AND i.type IN ('Task', 'Transport') AND i.concern_fk = :concern AND i.state <> 'Done'")
     List<Incident> findIncoming(@Param("concern") Concern concern, @Param("unit") int unit);
 
+    @Query("SELECT NEW at.wrk.coceso.entity.helper.IncidentTypeCount(i.type, i.blue, COUNT(i)) FROM Incident i "
+            + "WHERE i.concern = :concern GROUP BY i.type, i.blue")
+    List<IncidentTypeCount> countByType(@Param("concern") Concern concern);
+
+    /**
+     * Returns the attributes of all incidents of the concern needed for the statistics, without loading the incidents
+     */
+    @Query("SELECT NEW at.wrk.coceso.entity.helper.IncidentStatisticsRow(i.id, i.type, i.blue, p.id, i.bo) FROM Incident i "
+            + "LEFT JOIN i.patient p WHERE i.concern = :concern")
+    List<IncidentStatisticsRow> findStatisticsRows(@Param("concern") Concern concern);
+
     @Query("SELECT COUNT(DISTINCT patient) FROM Incident i WHERE type = 'Treatment' AND patient IS NOT NULL AND concern = :concern")
     long countTreatments(@Param("concern") Concern concern);
 
@@ -15,17 +15,25 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface LogRepository extends JpaRepository<LogEntry, Integer> {
+public interface LogRepository extends JpaRepository<LogEntry, Integer>, LogRepositoryCustom {
 
-  List<LogEntry> findByConcern(Concern concern, Pageable pageable);
+  /**
+   * Fetches the referenced entities with the entries, the associations are eager and would otherwise be loaded one by one
+   */
+  String FETCH_REFERENCES = "LEFT JOIN FETCH l.unit LEFT JOIN FETCH l.incident LEFT JOIN FETCH l.patient LEFT JOIN FETCH l.user ";
+
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.concern = :concern")
+  List<LogEntry> findByConcern(@Param("concern") Concern concern, Pageable pageable);
 
   List<LogEntry> findByIncident(Incident incident, Pageable pageable);
 
-  List<LogEntry> findByUnit(Unit unit, Pageable pageable);
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.unit = :unit")
+  List<LogEntry> findByUnit(@Param("unit") Unit unit, Pageable pageable);
 
   List<LogEntry> findByConcern(Concern concern, Sort sort);
 
@@ -36,17 +44,44 @@ public interface LogRepository extends JpaRepository<LogEntry, Integer> {
   @Query("SELECT l FROM LogEntry l WHERE l.patient = :patient")
   List<LogEntry> findByPatient(@Param("patient") Patient patient, Sort sort);
 
-  @Query("SELECT l FROM LogEntry l WHERE l.incident IN :incidents")
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.incident IN :incidents")
   List<LogEntry> findByIncidentList(@Param("incidents") Collection<Incident> incidents, Sort sort);
 
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.unit IN :units")
+  List<LogEntry> findByUnitList(@Param("units") Collection<Unit> units, Sort sort);
+
   List<LogEntry> findByIncidentAndUnit(Incident incident, Unit unit, Sort sort);
 
   @Query("SELECT l FROM LogEntry l WHERE l.incident = :incident AND l.unit = :unit AND l.type IN :types "
       + "ORDER BY l.timestamp DESC")
   List<LogEntry> findLast(Pageable pageable, @Param("incident") Incident incident, @Param("unit") Unit unit, @Param("types") LogEntryType... types);
 
+  @Query("SELECT MAX(l.id) FROM LogEntry l WHERE l.concern = :concern")
+  Integer findLastId(@Param("concern") Concern concern);
+
   List<LogEntry> findByConcernAndType(Concern concern, LogEntryType type, Sort sort);
 
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.concern = :concern AND l.type = :type")
+  List<LogEntry> findByConcernAndType(@Param("concern") Concern concern, @Param("type") LogEntryType type, Pageable pageable);
+
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.concern = :concern "
+      + "AND (l.timestamp < :timestamp OR (l.timestamp = :timestamp AND l.id < :id)) "
+      + "ORDER BY l.timestamp DESC, l.id DESC")
+  List<LogEntry> findByConcernBefore(@Param("concern") Concern concern, @Param("timestamp") Timestamp timestamp,
+      @Param("id") int id, Pageable pageable);
+
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.concern = :concern AND l.type = :type "
+      + "AND (l.timestamp < :timestamp OR (l.timestamp = :timestamp AND l.id < :id)) "
+      + "ORDER BY l.timestamp DESC, l.id DESC")
+  List<LogEntry> findByConcernAndTypeBefore(@Param("concern") Concern concern, @Param("type") LogEntryType type,
+      @Param("timestamp") Timestamp timestamp, @Param("id") int id, Pageable pageable);
+
+  @Query("SELECT l FROM LogEntry l " + FETCH_REFERENCES + "WHERE l.unit = :unit "
+      + "AND (l.timestamp < :timestamp OR (l.timestamp = :timestamp AND l.id < :id)) "
+      + "ORDER BY l.timestamp DESC, l.id DESC")
+  List<LogEntry> findByUnitBefore(@Param("unit") Unit unit, @Param("timestamp") Timestamp timestamp,
+      @Param("id") int id, Pageable pageable);
+
   @Modifying
   @Transactional
   @Query("UPDATE LogEntry SET unit = NULL, text = 'Unit created - REMOVED', type = 'UNIT_CREATE_REMOVED' "
@@ -0,0 +1,32 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Sort;
+
+public interface LogRepositoryCustom {
+
+  /**
+   * Inserts the entries in a single JDBC batch, in the order of the list. The entries are not attached to the persistence
+   * context and don't get an id assigned, the timestamp has to be set before.
+   */
+  void insertBatch(List<LogEntry> entries);
+
+  /**
+   * Streams the entries of the concern ordered by timestamp and id, reading {@code fetchSize} rows at once. Each entry is
+   * detached from the persistence context after it was passed on. The stream has to be consumed and closed in the
+   * transaction it was opened in.
+   *
+   * @param type Only entries of this type, or all entries if null
+   */
+  Stream<LogEntry> streamByConcern(Concern concern, LogEntryType type, Sort.Direction direction, int fetchSize);
+
+  /**
+   * Streams the entries of the unit ordered by timestamp and id, see {@link #streamByConcern}
+   */
+  Stream<LogEntry> streamByUnit(Unit unit, Sort.Direction direction, int fetchSize);
+}
@@ -0,0 +1,102 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.types.ChangesUserType;
+import at.wrk.coceso.entity.types.EnumUserType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Log entries use an identity column, so Hibernate would execute a separate insert for each entry instead of batching them.
+ */
+public class LogRepositoryImpl implements LogRepositoryCustom {
+
+  private static final String INSERT = "INSERT INTO log "
+      + "(timestamp, type, text, concern_fk, unit_fk, incident_fk, patient_fk, taskstate, changes, user_fk) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // The user types don't access the session for binding values
+  private static final EnumUserType ENUM_TYPE = new EnumUserType();
+  private static final ChangesUserType CHANGES_TYPE = new ChangesUserType();
+
+  private EntityManager entityManager;
+
+  @PersistenceContext
+  public void setEntityManager(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public void insertBatch(List<LogEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement st = connection.prepareStatement(INSERT)) {
+        for (LogEntry entry : entries) {
+          st.setTimestamp(1, entry.getTimestamp());
+          ENUM_TYPE.nullSafeSet(st, entry.getType(), 2, null);
+          st.setString(3, entry.getText());
+          setId(st, 4, entry.getConcern() == null ? null : entry.getConcern().getId());
+          setId(st, 5, entry.getUnit() == null ? null : entry.getUnit().getId());
+          setId(st, 6, entry.getIncident() == null ? null : entry.getIncident().getId());
+          setId(st, 7, entry.getPatient() == null ? null : entry.getPatient().getId());
+          ENUM_TYPE.nullSafeSet(st, entry.getState(), 8, null);
+          CHANGES_TYPE.nullSafeSet(st, entry.getChanges(), 9, null);
+          setId(st, 10, entry.getUser() == null ? null : entry.getUser().getId());
+          st.addBatch();
+        }
+        st.executeBatch();
+      }
+    });
+  }
+
+  @Override
+  public Stream<LogEntry> streamByConcern(Concern concern, LogEntryType type, Sort.Direction direction, int fetchSize) {
+    String condition = type == null ? "l.concern = :concern" : "l.concern = :concern AND l.type = :type";
+    Query<LogEntry> query = createStreamQuery(condition, direction, fetchSize).setParameter("concern", concern);
+    if (type != null) {
+      query.setParameter("type", type);
+    }
+    return stream(query);
+  }
+
+  @Override
+  public Stream<LogEntry> streamByUnit(Unit unit, Sort.Direction direction, int fetchSize) {
+    return stream(createStreamQuery("l.unit = :unit", direction, fetchSize).setParameter("unit", unit));
+  }
+
+  private Query<LogEntry> createStreamQuery(String condition, Sort.Direction direction, int fetchSize) {
+    String order = direction.isAscending() ? "ASC" : "DESC";
+    return entityManager.unwrap(Session.class)
+        .createQuery("SELECT l FROM LogEntry l " + LogRepository.FETCH_REFERENCES + "WHERE " + condition + " ORDER BY l.timestamp " + order + ", l.id " + order, LogEntry.class)
+        .setFetchSize(fetchSize)
+        .setReadOnly(true);
+  }
+
+  private Stream<LogEntry> stream(Query<LogEntry> query) {
+    Session session = entityManager.unwrap(Session.class);
+    // Referenced units, incidents, patients and users stay in the persistence context, their number is bounded by the concern
+    return query.stream().peek(session::detach);
+  }
+
+  private static void setId(PreparedStatement st, int index, Integer id) throws SQLException {
+    if (id == null) {
+      st.setNull(index, Types.INTEGER);
+    } else {
+      st.setInt(index, id);
+    }
+  }
+}
@@ -5,8 +5,10 @@ import at.wrk.coceso.entity.Incident;
 import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.User;
 import at.wrk.coceso.entity.enums.UnitType;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -14,7 +16,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UnitRepository extends JpaRepository<Unit, Integer> {
+public interface UnitRepository extends JpaRepository<Unit, Integer>, UnitRepositoryCustom {
 
   List<Unit> findByIdIn(List<Integer> id);
 
@@ -22,6 +24,8 @@ public interface UnitRepository extends JpaRepository<Unit, Integer> {
 
   List<Unit> findByConcern(Concern concern, Sort sort);
 
+  List<Unit> findByConcernAndIdGreaterThanOrderByIdAsc(Concern concern, int id, Pageable pageable);
+
   Unit findFirstByCallIgnoreCaseAndConcernAndTypeIn(String call, Concern concern, Collection<UnitType> type);
 
   List<Unit> findByConcernAndTypeIn(Concern concern, Collection<UnitType> type);
@@ -38,4 +42,59 @@ public interface UnitRepository extends JpaRepository<Unit, Integer> {
   @Query("SELECT l.unit.id FROM LogEntry l WHERE l.incident = :incident AND l.unit IS NOT NULL GROUP BY l.unit")
   List<Integer> findRelated(@Param("incident") Incident incident);
 
+  @Query("SELECT DISTINCT l.unit.id FROM LogEntry l WHERE l.incident IN :incidents AND l.unit IS NOT NULL")
+  List<Integer> findRelated(@Param("incidents") Collection<Incident> incidents);
+
+  @Query("SELECT DISTINCT u FROM Unit u LEFT JOIN FETCH u.crew LEFT JOIN FETCH u.incidents WHERE u.concern = :concern")
+  List<Unit> findByConcernFetchTasks(@Param("concern") Concern concern);
+
+  @Query("SELECT DISTINCT u FROM Unit u LEFT JOIN FETCH u.concern LEFT JOIN FETCH u.crew LEFT JOIN FETCH u.incidents WHERE u.id IN :ids")
+  List<Unit> findByIdInFetchTasks(@Param("ids") Collection<Integer> ids);
+
+  /**
+   * Loads the incidents referenced by tasks of units of the concern into the current persistence context. The incidents are
+   * the keys of the task map, which can't be fetched together with the map and would otherwise be loaded one by one.
+   */
+  @Query("SELECT DISTINCT KEY(t) FROM Unit u JOIN u.incidents t WHERE u.concern = :concern")
+  List<Incident> findTaskIncidentsByConcern(@Param("concern") Concern concern);
+
+  @Query("SELECT DISTINCT KEY(t) FROM Unit u JOIN u.incidents t WHERE u.id IN :ids")
+  List<Incident> findTaskIncidentsByIdIn(@Param("ids") Collection<Integer> ids);
+
+  /**
+   * Initializes the state change timestamps of the given units, which must be attached to the current persistence context.
+   * The timestamps are mapped from the same table as the tasks, so they are loaded in a separate query to avoid joining the
+   * task table twice.
+   */
+  @Query("SELECT DISTINCT u FROM Unit u LEFT JOIN FETCH u.incidentStateChangedAtMap WHERE u IN :units")
+  List<Unit> fetchIncidentStateChangedAt(@Param("units") Collection<Unit> units);
+
+  /**
+   * Loads all units of the concern with crew, tasks and state change timestamps, independent of the number of units
+   */
+  default List<Unit> findByConcernWithTasks(final Concern concern) {
+    findTaskIncidentsByConcern(concern);
+    List<Unit> units = findByConcernFetchTasks(concern);
+    if (!units.isEmpty()) {
+      fetchIncidentStateChangedAt(units);
+    }
+    return units;
+  }
+
+  /**
+   * Loads the given units with concern, crew, tasks and state change timestamps, independent of the number of units
+   */
+  default List<Unit> findByIdInWithTasks(final Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    findTaskIncidentsByIdIn(ids);
+    List<Unit> units = findByIdInFetchTasks(ids);
+    if (!units.isEmpty()) {
+      fetchIncidentStateChangedAt(units);
+    }
+    return units;
+  }
+
 }
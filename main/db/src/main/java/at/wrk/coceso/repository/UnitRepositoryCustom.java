@@ -0,0 +1,13 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Unit;
+import java.util.List;
+
+public interface UnitRepositoryCustom {
+
+  /**
+   * Inserts the new units and their crews in JDBC batches and sets the generated ids. The units are not attached to the
+   * persistence context, so they have to be loaded again for further changes in the same transaction.
+   */
+  void insertBatch(List<Unit> units);
+}
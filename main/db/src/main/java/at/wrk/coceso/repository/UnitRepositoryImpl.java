@@ -0,0 +1,104 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.types.EnumUserType;
+import at.wrk.coceso.entity.types.PointUserType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+/**
+ * Units use an identity column, so Hibernate would execute a separate insert for each unit instead of batching them.
+ */
+public class UnitRepositoryImpl implements UnitRepositoryCustom {
+
+  private static final String INSERT = "INSERT INTO unit "
+      + "(concern_fk, state, call, ani, withDoc, portable, transportVehicle, type, info, position, home, capacity, imgsrc, section_fk) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_CREW = "INSERT INTO crew (unit_fk, user_fk) VALUES (?, ?)";
+
+  // The user types don't access the session for binding values
+  private static final EnumUserType ENUM_TYPE = new EnumUserType();
+  private static final PointUserType POINT_TYPE = new PointUserType();
+
+  private EntityManager entityManager;
+
+  @PersistenceContext
+  public void setEntityManager(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public void insertBatch(List<Unit> units) {
+    if (units.isEmpty()) {
+      return;
+    }
+
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement st = connection.prepareStatement(INSERT, new String[]{"id"})) {
+        for (Unit unit : units) {
+          unit.prePersist();
+          st.setInt(1, unit.getConcern().getId());
+          ENUM_TYPE.nullSafeSet(st, unit.getState(), 2, null);
+          st.setString(3, unit.getCall());
+          st.setString(4, unit.getAni());
+          st.setBoolean(5, unit.isWithDoc());
+          st.setBoolean(6, unit.isPortable());
+          st.setBoolean(7, unit.isTransportVehicle());
+          ENUM_TYPE.nullSafeSet(st, unit.getType(), 8, null);
+          st.setString(9, unit.getInfo());
+          POINT_TYPE.nullSafeSet(st, unit.getPosition(), 10, null);
+          POINT_TYPE.nullSafeSet(st, unit.getHome(), 11, null);
+          setNullable(st, 12, unit.getCapacity());
+          st.setString(13, unit.getImgsrc());
+          st.setString(14, unit.getSection());
+          st.addBatch();
+        }
+        st.executeBatch();
+
+        // The generated keys are returned in the order of the batch
+        Iterator<Unit> iterator = units.iterator();
+        try (ResultSet keys = st.getGeneratedKeys()) {
+          while (keys.next() && iterator.hasNext()) {
+            iterator.next().setId(keys.getInt(1));
+          }
+        }
+        if (iterator.hasNext()) {
+          throw new SQLException("Not all ids of the inserted units were returned");
+        }
+      }
+
+      try (PreparedStatement st = connection.prepareStatement(INSERT_CREW)) {
+        boolean crew = false;
+        for (Unit unit : units) {
+          if (unit.getCrew() != null) {
+            for (User user : unit.getCrew()) {
+              st.setInt(1, unit.getId());
+              st.setInt(2, user.getId());
+              st.addBatch();
+              crew = true;
+            }
+          }
+        }
+        if (crew) {
+          st.executeBatch();
+        }
+      }
+    });
+  }
+
+  private static void setNullable(PreparedStatement st, int index, Integer value) throws SQLException {
+    if (value == null) {
+      st.setNull(index, Types.INTEGER);
+    } else {
+      st.setInt(index, value);
+    }
+  }
+}
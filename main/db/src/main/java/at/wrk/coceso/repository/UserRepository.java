@@ -1,6 +1,8 @@
 package at.wrk.coceso.repository;
 
 import at.wrk.coceso.entity.User;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
@@ -12,4 +14,6 @@ public interface UserRepository extends JpaRepository<User, Integer>, JpaSpecifi
 
   User findByPersonnelId(int pid);
 
+  List<User> findByPersonnelIdIn(Collection<Integer> pids);
+
 }
@@ -0,0 +1,100 @@
+package at.wrk.coceso.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.hibernate.dialect.H2Dialect;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Creates an empty in-memory database with the schema generated from the entities, used for repository tests and benchmarks
+ */
+public final class H2TestDatabase {
+
+    private H2TestDatabase() {
+    }
+
+    /**
+     * Creates a new database, which is not shared with other entity manager factories
+     */
+    public static EntityManagerFactory createEntityManagerFactory() {
+        JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", H2TestDialect.class.getName());
+        properties.setProperty("hibernate.hbm2ddl.auto", "create");
+        properties.setProperty("hibernate.generate_statistics", "true");
+        // The container of a unit is mapped as join table, which is not nullable for Hibernate
+        properties.setProperty("hibernate.check_nullability", "false");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(withStringsForOtherTypes(dataSource));
+        factoryBean.setPackagesToScan("at.wrk.coceso.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    /**
+     * The enum and JSON types are bound as {@link Types#OTHER}, which H2 would store as serialized Java objects
+     */
+    private static DataSource withStringsForOtherTypes(final DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, "getConnection",
+                connection -> proxy(Connection.class, (Connection) connection, "prepareStatement",
+                        statement -> proxy(PreparedStatement.class, (PreparedStatement) statement, null, null)));
+    }
+
+    private static <T> T proxy(final Class<T> type, final T target, final String wrappedMethod, final Wrapper wrapper) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof PreparedStatement && args != null && isOtherType(args[args.length - 1])) {
+                PreparedStatement statement = (PreparedStatement) target;
+                if (method.getName().equals("setObject") && args.length == 3) {
+                    statement.setString((Integer) args[0], (String) args[1]);
+                    return null;
+                }
+                if (method.getName().equals("setNull") && args.length == 2) {
+                    statement.setNull((Integer) args[0], Types.VARCHAR);
+                    return null;
+                }
+            }
+
+            try {
+                Object result = method.invoke(target, args);
+                return method.getName().equals(wrappedMethod) ? wrapper.wrap(result) : result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static boolean isOtherType(final Object sqlType) {
+        return sqlType instanceof Integer && (Integer) sqlType == Types.OTHER;
+    }
+
+    private interface Wrapper {
+        Object wrap(Object result);
+    }
+
+    /**
+     * Maps the column types of the enum and JSON types, which are native types in PostgreSQL
+     */
+    public static class H2TestDialect extends H2Dialect {
+
+        public H2TestDialect() {
+            registerColumnType(Types.OTHER, "varchar(255)");
+            registerColumnType(Types.JAVA_OBJECT, "varchar(4000)");
+        }
+    }
+}
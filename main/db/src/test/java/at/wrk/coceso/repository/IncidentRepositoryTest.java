@@ -0,0 +1,138 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Patient;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.helper.IncidentStatisticsRow;
+import at.wrk.coceso.entity.point.UnitPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IncidentRepositoryTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private IncidentRepository incidentRepository;
+
+    @Before
+    public void init() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        entityManager = entityManagerFactory.createEntityManager();
+        incidentRepository = new JpaRepositoryFactory(entityManager).getRepository(IncidentRepository.class);
+    }
+
+    @After
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void findNonSingleUnitAfter_pagesOrderedById() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        Incident first = persistIncident(concern, IncidentType.Task, false);
+        persistIncident(concern, IncidentType.Standby, false);
+        Incident second = persistIncident(concern, IncidentType.Transport, false);
+        Incident third = persistIncident(concern, IncidentType.Relocation, false);
+        entityManager.getTransaction().commit();
+
+        List<Incident> page = incidentRepository.findNonSingleUnitAfter(concern, 0, PageRequest.of(0, 2));
+        assertThat(ids(page), is(ids(first, second)));
+
+        page = incidentRepository.findNonSingleUnitAfter(concern, second.getId(), PageRequest.of(0, 2));
+        assertThat(ids(page), is(ids(third)));
+
+        page = incidentRepository.findNonSingleUnitAfter(concern, third.getId(), PageRequest.of(0, 2));
+        assertThat(page, is(empty()));
+    }
+
+    @Test
+    public void countByType_groupedByTypeAndBlue() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        persistIncident(concern, IncidentType.Task, false);
+        persistIncident(concern, IncidentType.Task, true);
+        persistIncident(concern, IncidentType.Task, true);
+        persistIncident(concern, IncidentType.Transport, false);
+        entityManager.getTransaction().commit();
+
+        List<String> counts = incidentRepository.countByType(concern).stream()
+                .map(count -> count.getType() + "/" + count.isBlue() + "=" + count.getCount())
+                .collect(Collectors.toList());
+        assertThat(counts, containsInAnyOrder("Task/false=1", "Task/true=2", "Transport/false=1"));
+    }
+
+    @Test
+    public void findStatisticsRows_withPatientAndBo() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        Patient patient = new Patient();
+        patient.setConcern(concern);
+        entityManager.persist(patient);
+        Incident transport = persistIncident(concern, IncidentType.Transport, true);
+        transport.setPatient(patient);
+        transport.setBo(new UnitPoint(7));
+        Incident task = persistIncident(concern, IncidentType.Task, false);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        Map<Integer, IncidentStatisticsRow> rows = incidentRepository.findStatisticsRows(concern).stream()
+                .collect(Collectors.toMap(IncidentStatisticsRow::getId, Function.identity()));
+
+        assertThat(rows.keySet(), containsInAnyOrder(transport.getId(), task.getId()));
+        IncidentStatisticsRow row = rows.get(transport.getId());
+        assertThat(row.getType(), is(IncidentType.Transport));
+        assertThat(row.isBlue(), is(true));
+        assertThat(row.getPatient(), is(patient.getId()));
+        assertThat(row.getBo(), instanceOf(UnitPoint.class));
+        assertThat(rows.get(task.getId()).getPatient(), is(nullValue()));
+        assertThat(rows.get(task.getId()).getBo(), is(nullValue()));
+    }
+
+    private Concern persistConcern() {
+        Concern concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        entityManager.persist(concern);
+        return concern;
+    }
+
+    private Incident persistIncident(final Concern concern, final IncidentType type, final boolean blue) {
+        Incident incident = new Incident();
+        incident.setConcern(concern);
+        incident.setState(IncidentState.Open);
+        incident.setType(type);
+        incident.setBlue(blue);
+        entityManager.persist(incident);
+        return incident;
+    }
+
+    private static List<Integer> ids(final List<Incident> incidents) {
+        return incidents.stream().map(Incident::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(final Incident... incidents) {
+        return ids(Arrays.asList(incidents));
+    }
+}
@@ -0,0 +1,224 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Patient;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.helper.Changes;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LogRepositoryImplTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private LogRepository logRepository;
+
+    @Before
+    public void init() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        LogRepositoryImpl fragment = new LogRepositoryImpl();
+        fragment.setEntityManager(entityManager);
+        logRepository = new JpaRepositoryFactory(entityManager).getRepository(LogRepository.class, RepositoryFragments.just(fragment));
+    }
+
+    @After
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void insertBatch_allFieldsWritten() {
+        entityManager.getTransaction().begin();
+        Concern concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        entityManager.persist(concern);
+
+        User user = new User();
+        user.setFirstname("First");
+        user.setLastname("Last");
+        entityManager.persist(user);
+
+        Unit unit = new Unit();
+        unit.setConcern(concern);
+        unit.setCall("Unit");
+        entityManager.persist(unit);
+
+        Changes changes = new Changes("unit");
+        changes.put("info", "old", "new");
+
+        List<LogEntry> entries = Arrays.asList(
+                new LogEntry(user, LogEntryType.UNIT_UPDATE, "first", concern, unit, null, null, null, changes),
+                new LogEntry(user, LogEntryType.TASKSTATE_CHANGED, "second", concern, unit, null, null, TaskState.ZAO, null),
+                new LogEntry(user, LogEntryType.CUSTOM, "third", concern, null, null, null, null, null));
+        entries.forEach(LogEntry::prePersist);
+        logRepository.insertBatch(entries);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        List<LogEntry> loaded = logRepository.findByConcern(concern, Sort.by("id"));
+        assertThat(loaded.stream().map(LogEntry::getText).collect(Collectors.toList()), contains("first", "second", "third"));
+
+        LogEntry first = loaded.get(0);
+        assertThat(first.getType(), is(LogEntryType.UNIT_UPDATE));
+        assertThat(first.getUnit().getId(), is(unit.getId()));
+        assertThat(first.getUser().getId(), is(user.getId()));
+        assertThat(first.getTimestamp(), is(entries.get(0).getTimestamp()));
+        assertThat(first.getChanges().getType(), is("unit"));
+        assertThat(first.getChanges().isEmpty(), is(false));
+        assertThat(loaded.get(1).getState(), is(TaskState.ZAO));
+        assertThat(loaded.get(2).getUnit(), is(nullValue()));
+    }
+
+    @Test
+    public void findByConcernBefore_pagesWithEqualTimestamps() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        User user = persistUser();
+        Timestamp timestamp = new Timestamp(1_500_000_000_000L);
+        for (int i = 0; i < 5; i++) {
+            persistEntry(user, LogEntryType.CUSTOM, "entry" + i, concern, new Timestamp(timestamp.getTime() + i / 2));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        List<LogEntry> first = logRepository.findByConcern(concern, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "timestamp", "id")));
+        assertThat(texts(first), contains("entry4", "entry3"));
+
+        LogEntry last = first.get(1);
+        List<LogEntry> second = logRepository.findByConcernBefore(concern, last.getTimestamp(), last.getId(), PageRequest.of(0, 2));
+        assertThat(texts(second), contains("entry2", "entry1"));
+
+        last = second.get(1);
+        List<LogEntry> third = logRepository.findByConcernBefore(concern, last.getTimestamp(), last.getId(), PageRequest.of(0, 2));
+        assertThat(texts(third), contains("entry0"));
+    }
+
+    @Test
+    public void streamByConcern_orderedAndFilteredByType() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        User user = persistUser();
+        persistEntry(user, LogEntryType.CUSTOM, "first", concern, new Timestamp(2000));
+        persistEntry(user, LogEntryType.UNIT_UPDATE, "second", concern, new Timestamp(1000));
+        persistEntry(user, LogEntryType.CUSTOM, "third", concern, new Timestamp(3000));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        entityManager.getTransaction().begin();
+        try (Stream<LogEntry> stream = logRepository.streamByConcern(concern, null, Sort.Direction.ASC, 2)) {
+            assertThat(texts(stream.collect(Collectors.toList())), contains("second", "first", "third"));
+        }
+        try (Stream<LogEntry> stream = logRepository.streamByConcern(concern, LogEntryType.CUSTOM, Sort.Direction.DESC, 2)) {
+            List<LogEntry> custom = stream.collect(Collectors.toList());
+            assertThat(texts(custom), contains("third", "first"));
+            assertThat(entityManager.contains(custom.get(0)), is(false));
+        }
+        entityManager.getTransaction().commit();
+    }
+
+    @Test
+    public void streamAndPage_referencedEntitiesFetchedWithEntries() {
+        entityManager.getTransaction().begin();
+        Concern concern = persistConcern();
+        User user = persistUser();
+        Unit unit = new Unit();
+        unit.setConcern(concern);
+        unit.setCall("Unit");
+        unit.addCrew(user);
+        entityManager.persist(unit);
+        for (int i = 0; i < 10; i++) {
+            Incident incident = new Incident();
+            incident.setConcern(concern);
+            incident.setState(IncidentState.InProgress);
+            incident.setType(IncidentType.Task);
+            entityManager.persist(incident);
+            Patient patient = new Patient();
+            patient.setConcern(concern);
+            entityManager.persist(patient);
+            entityManager.persist(new LogEntry(user, LogEntryType.CUSTOM, "entry" + i, concern, unit, incident, patient, null, null));
+        }
+        entityManager.getTransaction().commit();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // One statement for the entries and one for the crew of the unit, independent of the number of entries
+        entityManager.clear();
+        statistics.clear();
+        entityManager.getTransaction().begin();
+        try (Stream<LogEntry> stream = logRepository.streamByConcern(concern, null, Sort.Direction.DESC, 4)) {
+            assertThat(stream.filter(entry -> entry.getIncident().getId() != null && entry.getPatient().getId() != null).count(), is(10L));
+        }
+        entityManager.getTransaction().commit();
+        assertThat(statistics.getPrepareStatementCount(), is(2L));
+
+        // One statement for each page, the unit of the second page is already loaded
+        entityManager.clear();
+        statistics.clear();
+        List<LogEntry> page = logRepository.findByConcern(concern, PageRequest.of(0, 8, Sort.by(Sort.Direction.DESC, "timestamp", "id")));
+        LogEntry last = page.get(page.size() - 1);
+        assertThat(logRepository.findByConcernBefore(concern, last.getTimestamp(), last.getId(), PageRequest.of(0, 8)).size(), is(2));
+        assertThat(statistics.getPrepareStatementCount(), is(3L));
+    }
+
+    private Concern persistConcern() {
+        Concern concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        entityManager.persist(concern);
+        return concern;
+    }
+
+    private User persistUser() {
+        User user = new User();
+        user.setFirstname("First");
+        user.setLastname("Last");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private LogEntry persistEntry(final User user, final LogEntryType type, final String text, final Concern concern, final Timestamp timestamp) {
+        LogEntry entry = new LogEntry(user, type, text, concern, null, null, null, null, null);
+        entityManager.persist(entry);
+        // The timestamp is always set on persist, so it is overwritten afterwards
+        entityManager.flush();
+        entityManager.createQuery("UPDATE LogEntry l SET l.timestamp = :timestamp WHERE l.id = :id")
+                .setParameter("timestamp", timestamp)
+                .setParameter("id", entry.getId())
+                .executeUpdate();
+        return entry;
+    }
+
+    private static List<String> texts(final List<LogEntry> entries) {
+        return entries.stream().map(LogEntry::getText).collect(Collectors.toList());
+    }
+}
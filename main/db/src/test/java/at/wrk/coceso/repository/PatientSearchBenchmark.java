@@ -0,0 +1,198 @@
+package at.wrk.coceso.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the patient searches of the patient administration in a concern with 50000 patients, comparing the queries with and
+ * without the trigram indexes on names and external ids. The SQL corresponds to the statements Hibernate generates for the
+ * {@link at.wrk.coceso.specification.PatientSearchSpecification} and the autocompletion of the registration.
+ * <p>
+ * Needs a local PostgreSQL database with the pg_trgm extension, configured by the same system properties as
+ * {@link PostgresIndexUsageTest}. Not run as part of the test suite, start it using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSearchBenchmark {
+
+    private static final Path SQL_DIRECTORY = Paths.get("..", "resources", "sql");
+    private static final int PATIENTS = 50000;
+    private static final String[] LASTNAMES = {"Huber", "Gruber", "Wagner", "Müller", "Pichler", "Steiner", "Moser", "Mayer",
+            "Hofer", "Leitner", "Berger", "Fuchs", "Eder", "Fischer", "Schmid", "Winkler", "Weber", "Schwarz", "Maier", "Reiter"};
+    private static final String[] FIRSTNAMES = {"Anna", "Maria", "Lena", "Julia", "Sophie", "Laura", "Lukas", "Tobias",
+            "David", "Paul", "Jakob", "Felix", "Elias", "Simon", "Florian", "Sebastian", "Katharina", "Sarah", "Hannah", "Leon"};
+    private static final String[] PREFIXES = {"", "m-", "h-", "s-"};
+    private static final String[] SUFFIXES = {"", "a", "b"};
+
+    private static final String SEARCH = "SELECT * FROM patient p WHERE p.concern_fk = ? AND p.done = FALSE "
+            + "AND (p.id = ? OR lower(p.externalId) LIKE ? OR lower(p.firstname) LIKE ? OR lower(p.lastname) LIKE ?)";
+    private static final String AUTOCOMPLETE_LASTNAME = "SELECT * FROM patient p WHERE p.concern_fk = ? AND p.done = FALSE "
+            + "AND lower(p.lastname) LIKE ?";
+    private static final String AUTOCOMPLETE_EXTERNAL_ID = "SELECT * FROM patient p WHERE p.concern_fk = ? AND p.done = FALSE "
+            + "AND (lower(p.externalId) LIKE ? OR lower(p.externalId) LIKE ?)";
+
+    @Param({"false", "true"})
+    public boolean trigramIndexes;
+
+    private Connection connection;
+    private String schema;
+    private int concern;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PatientSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws SQLException, IOException {
+        String url = System.getProperty("coceso.test.postgres.url");
+        if (url == null || url.isEmpty()) {
+            throw new IllegalStateException("No PostgreSQL database configured, set coceso.test.postgres.url");
+        }
+
+        connection = DriverManager.getConnection(url,
+                System.getProperty("coceso.test.postgres.user", "coceso"),
+                System.getProperty("coceso.test.postgres.password", "password"));
+        schema = "search_benchmark_" + UUID.randomUUID().toString().replace('-', '_');
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema + ", public");
+            statement.execute(readScript("create00.sql"));
+            if (!trigramIndexes) {
+                statement.execute("DROP INDEX patient_lastname_trgm_index, patient_firstname_trgm_index, patient_externalid_trgm_index");
+            }
+
+            try (ResultSet result = statement.executeQuery("INSERT INTO concern (name) VALUES ('Benchmark') RETURNING id")) {
+                result.next();
+                concern = result.getInt(1);
+            }
+        }
+
+        insertPatients();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE patient");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + schema + " CASCADE");
+        }
+        connection.close();
+    }
+
+    /**
+     * Search for a part of a name, e.g. in the patient administration search field
+     */
+    @Benchmark
+    public int searchName() throws SQLException {
+        return query(SEARCH, concern, null, "%uber%", "%uber%", "%uber%");
+    }
+
+    /**
+     * Search for a number of an external id, which matches all prefixes and suffixes
+     */
+    @Benchmark
+    public int searchExternalId() throws SQLException {
+        return query(SEARCH, concern, 12345, "%12345%", "%12345%", "%12345%");
+    }
+
+    /**
+     * Autocompletion of the lastname after a few keystrokes
+     */
+    @Benchmark
+    public int autocompleteLastname() throws SQLException {
+        return query(AUTOCOMPLETE_LASTNAME, concern, "leit%");
+    }
+
+    /**
+     * Autocompletion of the external id, with and without prefix
+     */
+    @Benchmark
+    public int autocompleteExternalId() throws SQLException {
+        return query(AUTOCOMPLETE_EXTERNAL_ID, concern, "4711%", "_-4711%");
+    }
+
+    private int query(final String sql, final Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i] == null) {
+                    statement.setNull(i + 1, Types.INTEGER);
+                } else {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+            }
+
+            int found = 0;
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+
+    private void insertPatients() throws SQLException {
+        Random random = new Random(42);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO patient (concern_fk, lastname, firstname, externalId, done) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= PATIENTS; i++) {
+                String lastname = LASTNAMES[random.nextInt(LASTNAMES.length)];
+                if (random.nextInt(5) == 0) {
+                    lastname += "-" + LASTNAMES[random.nextInt(LASTNAMES.length)];
+                }
+
+                statement.setInt(1, concern);
+                statement.setString(2, lastname);
+                statement.setString(3, FIRSTNAMES[random.nextInt(FIRSTNAMES.length)]);
+                statement.setString(4, PREFIXES[random.nextInt(PREFIXES.length)] + i + SUFFIXES[random.nextInt(SUFFIXES.length)]);
+                statement.setBoolean(5, random.nextInt(3) == 0);
+                statement.addBatch();
+
+                if (i % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String readScript(final String name) throws IOException {
+        return new String(Files.readAllBytes(SQL_DIRECTORY.resolve(name)), StandardCharsets.UTF_8);
+    }
+}
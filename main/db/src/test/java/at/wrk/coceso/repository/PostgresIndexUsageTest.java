@@ -0,0 +1,402 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Patient;
+import at.wrk.coceso.entity.Patient_;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.enums.UnitState;
+import at.wrk.coceso.entity.enums.UnitType;
+import at.wrk.coceso.specification.PatientSearchSpecification;
+import org.hibernate.dialect.PostgreSQL9Dialect;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Checks with EXPLAIN that the statements Hibernate generates for the queries of the repositories on the hot paths use an
+ * index.
+ * <p>
+ * Needs a local PostgreSQL database, which is configured by the system properties {@code coceso.test.postgres.url},
+ * {@code coceso.test.postgres.user} and {@code coceso.test.postgres.password}, e.g. the one started by the Dockerfile in
+ * {@code main/resources/sql}. These tests are skipped if no URL is set. The schema is created from {@code create00.sql} and
+ * {@code update_v2.8.0.sql} in a schema of its own, which is dropped afterwards.
+ * <p>
+ * The repositories run on a connection which explains each query with the parameters bound by Hibernate before executing it.
+ * Sequential scans are disabled, as the tables are almost empty, so a sequential scan in the plan means that no index matches
+ * the query. The patients are filled and analyzed for the trigram indexes, so the planner can tell them apart from the index
+ * on the concern.
+ */
+public class PostgresIndexUsageTest {
+
+    private static final Path SQL_DIRECTORY = Paths.get("..", "resources", "sql");
+    private static final Pattern INDEX_NAME = Pattern.compile("CREATE (?:UNIQUE )?INDEX IF NOT EXISTS (\\w+)");
+    private static final int PATIENTS = 20000;
+
+    private Connection connection;
+    private String schema;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+
+    // Plans of the queries executed since the last call of explained, by statement
+    private final Map<String, String> plans = new LinkedHashMap<>();
+
+    private LogRepository logRepository;
+    private IncidentRepository incidentRepository;
+    private UnitRepository unitRepository;
+    private PatientRepository patientRepository;
+
+    private Concern concern;
+    private User user;
+    private Unit unit;
+    private Incident incident;
+    private Patient patient;
+
+    private void connect() throws SQLException, IOException {
+        String url = System.getProperty("coceso.test.postgres.url");
+        Assume.assumeTrue("No PostgreSQL database configured", url != null && !url.isEmpty());
+
+        connection = DriverManager.getConnection(url,
+                System.getProperty("coceso.test.postgres.user", "coceso"),
+                System.getProperty("coceso.test.postgres.password", "password"));
+        schema = "index_test_" + UUID.randomUUID().toString().replace('-', '_');
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            // The extensions are usually installed in the public schema
+            statement.execute("SET search_path TO " + schema + ", public");
+            statement.execute(readScript("create00.sql"));
+            statement.execute(readScript("update_v2.8.0.sql"));
+            statement.execute("SET enable_seqscan TO off");
+        }
+
+        entityManagerFactory = createEntityManagerFactory(explaining(connection));
+        entityManager = entityManagerFactory.createEntityManager();
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        LogRepositoryImpl logFragment = new LogRepositoryImpl();
+        logFragment.setEntityManager(entityManager);
+        logRepository = repositoryFactory.getRepository(LogRepository.class, RepositoryFragments.just(logFragment));
+        incidentRepository = repositoryFactory.getRepository(IncidentRepository.class);
+        UnitRepositoryImpl unitFragment = new UnitRepositoryImpl();
+        unitFragment.setEntityManager(entityManager);
+        unitRepository = repositoryFactory.getRepository(UnitRepository.class, RepositoryFragments.just(unitFragment));
+        patientRepository = repositoryFactory.getRepository(PatientRepository.class);
+
+        entityManager.getTransaction().begin();
+        persistEntities();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (entityManager != null) {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+            entityManagerFactory.close();
+        }
+        if (connection != null) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA " + schema + " CASCADE");
+            }
+            connection.close();
+        }
+    }
+
+    @Test
+    public void logQueries_useIndex() throws SQLException, IOException {
+        connect();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        assertIndexScan("log", () -> logRepository.findByConcern(concern,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "timestamp", "id"))));
+        assertIndexScan("log", () -> logRepository.findByConcernBefore(concern, now, 100, PageRequest.of(0, 20)));
+        assertIndexScan("log", () -> logRepository.findByConcernAndTypeBefore(concern, LogEntryType.CUSTOM, now, 100,
+                PageRequest.of(0, 20)));
+        assertIndexScan("log", () -> logRepository.findLastId(concern));
+        assertIndexScan("log", () -> logRepository.findByIncident(incident, Sort.by(Sort.Direction.DESC, "timestamp")));
+        assertIndexScan("log", () -> logRepository.findByUnitBefore(unit, now, 100, PageRequest.of(0, 20)));
+        assertIndexScan("log", () -> logRepository.findLast(PageRequest.of(0, 1), incident, unit,
+                LogEntryType.TASKSTATE_CHANGED, LogEntryType.UNIT_ASSIGN));
+        assertIndexScan("log", () -> logRepository.findByPatient(patient, Sort.by(Sort.Direction.DESC, "timestamp")));
+        assertIndexScan("log", () -> incidentRepository.findRelated(unit));
+        assertIndexScan("log", () -> unitRepository.findRelated(incident));
+        assertIndexScan("log", () -> logRepository.streamByConcern(concern, null, Sort.Direction.DESC, 500).count());
+    }
+
+    @Test
+    public void incidentQueries_useIndex() throws SQLException, IOException {
+        connect();
+
+        assertIndexScan("incident", () -> incidentRepository.findIncoming(concern));
+        assertIndexScan("incident", () -> incidentRepository.findIncoming(concern, unit.getId()));
+        assertIndexScan("incident", () -> incidentRepository.findActive(concern, Sort.by("id")));
+        assertIndexScan("incident", () -> incidentRepository.findTransports(concern, Sort.by("id")));
+        assertIndexScan("incident", () -> incidentRepository.countTransports(concern));
+        assertIndexScan("incident", () -> incidentRepository.findRelevantWithUnits(concern));
+        assertIndexScan("incident", () -> entityManager.find(Patient.class, patient.getId()).getIncidents().size());
+    }
+
+    @Test
+    public void unitQueries_useIndex() throws SQLException, IOException {
+        connect();
+
+        assertIndexScan("unit", () -> unitRepository.findSpare(concern));
+        assertIndexScan("unit_in_container", () -> unitRepository.findSpare(concern));
+        assertIndexScan("unit", () -> unitRepository.findFirstByCallIgnoreCaseAndConcernAndTypeIn("RTW 1", concern,
+                Collections.singletonList(UnitType.Treatment)));
+        assertIndexScan("crew", () -> unitRepository.findByUser(user, Collections.singletonList(UnitType.Treatment)));
+        assertIndexScan("task", () -> entityManager.find(Unit.class, unit.getId()).getIncidents().size());
+        assertIndexScan("patient", () -> patientRepository.findByConcern(concern, Sort.by("id")));
+    }
+
+    @Test
+    public void patientSearch_usesTrigramIndexes() throws SQLException, IOException {
+        connect();
+        insertPatients();
+
+        // Search of the patient administration
+        assertIndexUsed("patient_lastname_trgm_index",
+                () -> patientRepository.findAll(new PatientSearchSpecification("huber", concern, false)));
+        // Autocompletion of the registration, see RegistrationServiceImpl.getForAutocomplete
+        assertIndexUsed("patient_lastname_trgm_index", () -> patientRepository.findAll(new PatientSearchSpecification("hub", concern, false) {
+            @Override
+            protected Predicate buildKeywordPredicate(String keyword, Root<Patient> root, CriteriaBuilder builder) {
+                return builder.like(builder.lower(root.get(Patient_.lastname)), keyword + "%");
+            }
+        }));
+        assertIndexUsed("patient_externalid_trgm_index", () -> patientRepository.findAll(new PatientSearchSpecification("4711", concern, false) {
+            @Override
+            protected Predicate buildKeywordPredicate(String keyword, Root<Patient> root, CriteriaBuilder builder) {
+                return builder.or(
+                        builder.like(builder.lower(root.get(Patient_.externalId)), keyword + "%"),
+                        builder.like(builder.lower(root.get(Patient_.externalId)), "_-" + keyword + "%"));
+            }
+        }));
+    }
+
+    @Test
+    public void createAndUpdateScript_sameIndexes() throws IOException {
+        // Not depending on a database, the fresh schema must have the same indexes as a migrated one
+        Set<String> created = indexNames(readScript("create00.sql"));
+        Set<String> migrated = indexNames(readScript("update_v2.8.0.sql"));
+
+        assertThat(created.containsAll(migrated), is(true));
+    }
+
+    /**
+     * Runs the query and checks the plans of all statements reading from the table
+     */
+    private void assertIndexScan(final String table, final Runnable query) {
+        for (Map.Entry<String, String> entry : explained(table, query).entrySet()) {
+            String description = String.format("Plan of '%s'", entry.getKey());
+            assertThat(description, entry.getValue(), not(containsString("Seq Scan on " + table + " ")));
+            assertThat(description, entry.getValue(), containsString("Index"));
+        }
+    }
+
+    private void assertIndexUsed(final String index, final Runnable query) {
+        for (Map.Entry<String, String> entry : explained("patient", query).entrySet()) {
+            String description = String.format("Plan of '%s'", entry.getKey());
+            assertThat(description, entry.getValue(), containsString(index));
+        }
+    }
+
+    private Map<String, String> explained(final String table, final Runnable query) {
+        entityManager.clear();
+        plans.clear();
+        query.run();
+
+        Pattern tablePattern = Pattern.compile("\\b(from|join) " + table + "\\b", Pattern.CASE_INSENSITIVE);
+        Map<String, String> matching = new LinkedHashMap<>();
+        plans.forEach((sql, plan) -> {
+            if (tablePattern.matcher(sql).find()) {
+                matching.put(sql, plan);
+            }
+        });
+        assertThat("Statements reading from " + table + ": " + plans.keySet(), matching.isEmpty(), is(false));
+        return matching;
+    }
+
+    /**
+     * Wraps the connection, so each query is explained with the same parameters before it is executed
+     */
+    private Connection explaining(final Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = method.invoke(target, args);
+            if (method.getName().equals("prepareStatement") && isQuery((String) args[0])) {
+                return explaining((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement explaining(final PreparedStatement target, final String sql) {
+        List<Object[]> parameters = new ArrayList<>();
+        return proxy(PreparedStatement.class, target, (method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.add(new Object[]{method, args});
+            } else if (method.getName().equals("clearParameters")) {
+                parameters.clear();
+            } else if (method.getName().equals("executeQuery") || method.getName().equals("execute")) {
+                plans.put(sql, explain(sql, parameters));
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private String explain(final String sql, final List<Object[]> parameters) throws SQLException, ReflectiveOperationException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Object[] parameter : parameters) {
+                ((Method) parameter[0]).invoke(statement, (Object[]) parameter[1]);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    plan.append(result.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private void persistEntities() {
+        concern = new Concern();
+        concern.setName("Concern");
+        entityManager.persist(concern);
+
+        user = new User();
+        user.setFirstname("First");
+        user.setLastname("Last");
+        entityManager.persist(user);
+
+        incident = new Incident();
+        incident.setConcern(concern);
+        incident.setState(IncidentState.InProgress);
+        incident.setType(IncidentType.Task);
+        entityManager.persist(incident);
+
+        unit = new Unit();
+        unit.setConcern(concern);
+        unit.setCall("RTW 1");
+        unit.setState(UnitState.EB);
+        unit.addCrew(user);
+        unit.addIncident(incident, TaskState.ZBO);
+        entityManager.persist(unit);
+
+        patient = new Patient();
+        patient.setConcern(concern);
+        patient.setLastname("Huber");
+        entityManager.persist(patient);
+
+        entityManager.flush();
+    }
+
+    private void insertPatients() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO patient (concern_fk, lastname, firstname, externalId) "
+                + "SELECT ?, md5(i::text), md5((i + 1)::text), 'H-' || i FROM generate_series(1, ?) i")) {
+            statement.setInt(1, concern.getId());
+            statement.setInt(2, PATIENTS);
+            statement.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE patient");
+        }
+    }
+
+    private static EntityManagerFactory createEntityManagerFactory(final Connection connection) {
+        Properties properties = new Properties();
+        // Generates the same SQL as the dialect of the application, which only adds the JSON column types
+        properties.setProperty("hibernate.dialect", PostgreSQL9Dialect.class.getName());
+
+        // The container of a unit is mapped as join table, which is not nullable for Hibernate
+        properties.setProperty("hibernate.check_nullability", "false");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new SingleConnectionDataSource(connection, true));
+        factoryBean.setPackagesToScan("at.wrk.coceso.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    private static boolean isQuery(final String sql) {
+        return sql.trim().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+
+    private static <T> T proxy(final Class<T> type, final T target, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return handler.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    private interface Handler {
+        Object invoke(Method method, Object[] args) throws Exception;
+    }
+
+    private static Set<String> indexNames(final String script) {
+        Set<String> names = new TreeSet<>();
+        Matcher matcher = INDEX_NAME.matcher(script);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static String readScript(final String name) throws IOException {
+        return new String(Files.readAllBytes(SQL_DIRECTORY.resolve(name)), StandardCharsets.UTF_8);
+    }
+}
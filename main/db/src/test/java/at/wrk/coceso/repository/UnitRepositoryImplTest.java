@@ -0,0 +1,125 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.UnitState;
+import at.wrk.coceso.entity.enums.UnitType;
+import at.wrk.coceso.entity.point.UnitPoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class UnitRepositoryImplTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private UnitRepository unitRepository;
+
+    @Before
+    public void init() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        entityManager = entityManagerFactory.createEntityManager();
+
+        UnitRepositoryImpl fragment = new UnitRepositoryImpl();
+        fragment.setEntityManager(entityManager);
+        unitRepository = new JpaRepositoryFactory(entityManager).getRepository(UnitRepository.class, RepositoryFragments.just(fragment));
+    }
+
+    @After
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void insertBatch_idsAndCrewWritten() {
+        entityManager.getTransaction().begin();
+        Concern concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        entityManager.persist(concern);
+
+        User first = persistUser("First");
+        User second = persistUser("Second");
+
+        Unit withCrew = new Unit();
+        withCrew.setConcern(concern);
+        withCrew.setCall("Unit 1");
+        withCrew.setType(UnitType.Treatment);
+        withCrew.setHome(new UnitPoint(7));
+        withCrew.setPortable(true);
+        withCrew.addCrew(first);
+        withCrew.addCrew(second);
+
+        Unit withoutCrew = new Unit();
+        withoutCrew.setConcern(concern);
+        withoutCrew.setCall("Unit 2");
+
+        unitRepository.insertBatch(Arrays.asList(withCrew, withoutCrew));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        assertThat(withCrew.getId(), is(notNullValue()));
+        assertThat(withoutCrew.getId(), is(notNullValue()));
+
+        Unit loaded = unitRepository.findById(withCrew.getId()).orElseThrow(IllegalStateException::new);
+        assertThat(loaded.getCall(), is("Unit 1"));
+        assertThat(loaded.getState(), is(UnitState.AD));
+        assertThat(loaded.getType(), is(UnitType.Treatment));
+        assertThat(loaded.isPortable(), is(true));
+        assertThat(((UnitPoint) loaded.getHome()).getId(), is(7));
+        assertThat(loaded.getCrew().stream().map(User::getFirstname).collect(Collectors.toList()), containsInAnyOrder("First", "Second"));
+
+        loaded = unitRepository.findById(withoutCrew.getId()).orElseThrow(IllegalStateException::new);
+        assertThat(loaded.getCall(), is("Unit 2"));
+        assertThat(loaded.getAni(), is(""));
+        assertThat(loaded.getHome(), is(nullValue()));
+        assertThat(loaded.getCrew(), is(empty()));
+    }
+
+    @Test
+    public void insertBatch_idsInOrderOfList() {
+        entityManager.getTransaction().begin();
+        Concern concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        entityManager.persist(concern);
+
+        Unit first = new Unit();
+        first.setConcern(concern);
+        first.setCall("A");
+        Unit second = new Unit();
+        second.setConcern(concern);
+        second.setCall("B");
+
+        unitRepository.insertBatch(Arrays.asList(first, second));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        assertThat(unitRepository.findById(first.getId()).map(Unit::getCall).orElse(null), is("A"));
+        assertThat(unitRepository.findById(second.getId()).map(Unit::getCall).orElse(null), is("B"));
+    }
+
+    private User persistUser(final String firstname) {
+        User user = new User();
+        user.setFirstname(firstname);
+        user.setLastname("Last");
+        entityManager.persist(user);
+        return user;
+    }
+}
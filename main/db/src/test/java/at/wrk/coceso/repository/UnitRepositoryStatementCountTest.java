@@ -0,0 +1,219 @@
+package at.wrk.coceso.repository;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Patient;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.enums.UnitState;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Counts the statements needed to load units and incidents with their tasks, which must not depend on the number of entities
+ */
+public class UnitRepositoryStatementCountTest {
+
+    private static final int MAX_STATEMENTS = 4;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private UnitRepository unitRepository;
+    private IncidentRepository incidentRepository;
+    private Statistics statistics;
+
+    @Before
+    public void init() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager = entityManagerFactory.createEntityManager();
+        UnitRepositoryImpl fragment = new UnitRepositoryImpl();
+        fragment.setEntityManager(entityManager);
+        unitRepository = new JpaRepositoryFactory(entityManager).getRepository(UnitRepository.class, RepositoryFragments.just(fragment));
+        incidentRepository = new JpaRepositoryFactory(entityManager).getRepository(IncidentRepository.class);
+    }
+
+    @After
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void findByConcernWithTasks_statementsIndependentOfUnitCount() {
+        Concern small = persistConcern(2);
+        Concern large = persistConcern(10);
+
+        long smallCount = countStatements(() -> assertTasksLoaded(unitRepository.findByConcernWithTasks(small), 2));
+        long largeCount = countStatements(() -> assertTasksLoaded(unitRepository.findByConcernWithTasks(large), 10));
+
+        assertThat(largeCount, is(smallCount));
+        assertThat(largeCount, lessThanOrEqualTo((long) MAX_STATEMENTS));
+    }
+
+    @Test
+    public void findByIdInWithTasks_statementsIndependentOfUnitCount() {
+        List<Integer> small = getUnitIds(persistConcern(2));
+        List<Integer> large = getUnitIds(persistConcern(10));
+
+        long smallCount = countStatements(() -> assertTasksLoaded(unitRepository.findByIdInWithTasks(small), 2));
+        long largeCount = countStatements(() -> assertTasksLoaded(unitRepository.findByIdInWithTasks(large), 10));
+
+        assertThat(largeCount, is(smallCount));
+        assertThat(largeCount, lessThanOrEqualTo((long) MAX_STATEMENTS));
+    }
+
+    @Test
+    public void findByIdInWithTasks_unitsLoadedAgain_tasksStayInitialized() {
+        List<Integer> ids = getUnitIds(persistConcern(5));
+
+        long count = countStatements(() -> {
+            unitRepository.findByIdInWithTasks(ids);
+            // Units referenced by entities loaded afterwards are the instances already in the persistence context
+            assertTasksLoaded(unitRepository.findAllById(ids), 5);
+        });
+
+        assertThat(count, lessThanOrEqualTo((long) MAX_STATEMENTS + 1));
+    }
+
+    @Test
+    public void findRelevantWithUnits_statementsIndependentOfIncidentCount() {
+        Concern small = persistConcern(2);
+        Concern large = persistConcern(10);
+
+        long smallCount = countStatements(() -> assertUnitsLoaded(incidentRepository.findRelevantWithUnits(small), 4));
+        long largeCount = countStatements(() -> assertUnitsLoaded(incidentRepository.findRelevantWithUnits(large), 20));
+
+        assertThat(largeCount, is(smallCount));
+        assertThat(largeCount, lessThanOrEqualTo((long) MAX_STATEMENTS));
+    }
+
+    @Test
+    public void findByIdInWithTasks_emptyList_noStatement() {
+        long count = countStatements(() -> assertThat(unitRepository.findByIdInWithTasks(new ArrayList<>()), hasSize(0)));
+
+        assertThat(count, is(0L));
+    }
+
+    private long countStatements(final Runnable runnable) {
+        entityManager.clear();
+        statistics.clear();
+
+        entityManager.getTransaction().begin();
+        runnable.run();
+        entityManager.getTransaction().commit();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static void assertTasksLoaded(final List<Unit> units, final int expectedUnits) {
+        assertThat(units, hasSize(expectedUnits));
+        // Accessing everything the main view serializes must not trigger additional queries
+        List<Integer> crewSizes = units.stream().map(unit -> unit.getCrew().size()).collect(Collectors.toList());
+        List<Integer> incidentIds = units.stream()
+                .flatMap(unit -> unit.getIncidents().keySet().stream())
+                .map(Incident::getId)
+                .collect(Collectors.toList());
+        List<Integer> timestamps = units.stream()
+                .map(unit -> unit.getIncidentStateChangedAtMap().size())
+                .collect(Collectors.toList());
+
+        assertThat(crewSizes, everyItem(is(1)));
+        assertThat(incidentIds, hasSize(expectedUnits * 2));
+        assertThat(timestamps, everyItem(is(2)));
+    }
+
+    private static void assertUnitsLoaded(final List<Incident> incidents, final int expectedIncidents) {
+        assertThat(incidents, hasSize(expectedIncidents));
+        // Accessing everything the main view serializes must not trigger additional queries
+        List<Integer> crewSizes = incidents.stream()
+                .flatMap(incident -> incident.getUnits().keySet().stream())
+                .map(unit -> unit.getCrew().size())
+                .collect(Collectors.toList());
+        List<Integer> patients = incidents.stream()
+                .map(incident -> incident.getPatient().getId())
+                .collect(Collectors.toList());
+        List<String> patientNames = incidents.stream()
+                .map(incident -> incident.getPatient().getLastname())
+                .collect(Collectors.toList());
+
+        assertThat(crewSizes, hasSize(expectedIncidents));
+        assertThat(crewSizes, everyItem(is(1)));
+        assertThat(patients, hasSize(expectedIncidents));
+        assertThat(patientNames, everyItem(is("Patient")));
+    }
+
+    private List<Integer> getUnitIds(final Concern concern) {
+        return entityManager.createQuery("SELECT u.id FROM Unit u WHERE u.concern = :concern", Integer.class)
+                .setParameter("concern", concern)
+                .getResultList();
+    }
+
+    private Concern persistConcern(final int unitCount) {
+        entityManager.getTransaction().begin();
+        Concern concern = new Concern();
+        concern.setName("Concern " + unitCount);
+        concern.setInfo("");
+        entityManager.persist(concern);
+
+        for (int i = 0; i < unitCount; i++) {
+            User user = new User();
+            user.setFirstname("First");
+            user.setLastname("Last " + i);
+            entityManager.persist(user);
+
+            Unit unit = new Unit();
+            unit.setConcern(concern);
+            unit.setCall("Unit " + i);
+            unit.setState(UnitState.EB);
+            unit.addCrew(user);
+            unit.addIncident(persistIncident(concern), TaskState.ZBO);
+            unit.addIncident(persistIncident(concern), TaskState.ABO);
+            entityManager.persist(unit);
+        }
+
+        entityManager.flush();
+        // The timestamp is set by the database in production
+        entityManager.createNativeQuery("UPDATE task SET lastStateChangeAt = CURRENT_TIMESTAMP").executeUpdate();
+        entityManager.getTransaction().commit();
+        return concern;
+    }
+
+    private Incident persistIncident(final Concern concern) {
+        Incident incident = new Incident();
+        incident.setConcern(concern);
+        incident.setState(IncidentState.InProgress);
+        incident.setType(IncidentType.Task);
+        incident.setPatient(persistPatient(concern));
+        entityManager.persist(incident);
+        return incident;
+    }
+
+    private Patient persistPatient(final Concern concern) {
+        Patient patient = new Patient();
+        patient.setConcern(concern);
+        patient.setLastname("Patient");
+        entityManager.persist(patient);
+        return patient;
+    }
+}
@@ -2,5 +2,7 @@ package at.wrk.coceso.entity;
 
 public interface ConcernBoundEntity {
 
+  public Integer getId();
+
   public Concern getConcern();
 }
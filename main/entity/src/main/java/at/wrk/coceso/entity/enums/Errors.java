@@ -29,6 +29,7 @@ public enum Errors {
     PatientCreateNotAllowed(23),
     UnitLocked(24),
     Import(25),
+    PdfQueueFull(26),
 
     NoTargetsForAlarmText(60),
     NoGatewayForAlarmTextConfigured(61),
@@ -0,0 +1,43 @@
+package at.wrk.coceso.entity.helper;
+
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.point.Point;
+
+/**
+ * The attributes of an incident the statistics of a concern are computed of, loaded without the incident itself.
+ */
+public class IncidentStatisticsRow {
+  private final int id;
+  private final IncidentType type;
+  private final boolean blue;
+  private final Integer patient;
+  private final Point bo;
+
+  public IncidentStatisticsRow(int id, IncidentType type, boolean blue, Integer patient, Point bo) {
+    this.id = id;
+    this.type = type;
+    this.blue = blue;
+    this.patient = patient;
+    this.bo = bo;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public IncidentType getType() {
+    return type;
+  }
+
+  public boolean isBlue() {
+    return blue;
+  }
+
+  public Integer getPatient() {
+    return patient;
+  }
+
+  public Point getBo() {
+    return bo;
+  }
+}
@@ -0,0 +1,30 @@
+package at.wrk.coceso.entity.helper;
+
+import at.wrk.coceso.entity.enums.IncidentType;
+
+/**
+ * Number of incidents of a type and blue flag in a concern, used for the statistics in the final report.
+ */
+public class IncidentTypeCount {
+  private final IncidentType type;
+  private final boolean blue;
+  private final long count;
+
+  public IncidentTypeCount(IncidentType type, boolean blue, long count) {
+    this.type = type;
+    this.blue = blue;
+    this.count = count;
+  }
+
+  public IncidentType getType() {
+    return type;
+  }
+
+  public boolean isBlue() {
+    return blue;
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
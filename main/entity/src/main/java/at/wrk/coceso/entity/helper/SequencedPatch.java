@@ -0,0 +1,30 @@
+package at.wrk.coceso.entity.helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Sequenced message containing only the fields of an entity which changed since the previous message for the same entity.
+ */
+public class SequencedPatch {
+  private final int hver;
+  private final int seq;
+  private final JsonNode patch;
+
+  public SequencedPatch(int hver, int seq, JsonNode patch) {
+    this.hver = hver;
+    this.seq = seq;
+    this.patch = patch;
+  }
+
+  public int getHver() {
+    return hver;
+  }
+
+  public int getSeq() {
+    return seq;
+  }
+
+  public JsonNode getPatch() {
+    return patch;
+  }
+}
@@ -0,0 +1,24 @@
+package at.wrk.coceso.entity.helper;
+
+import at.wrk.coceso.entity.Unit;
+
+/**
+ * A unit together with the changes to log for it. New units have no id yet, so they can't be used as key of a map.
+ */
+public class UnitChanges {
+  private final Unit unit;
+  private final Changes changes;
+
+  public UnitChanges(Unit unit, Changes changes) {
+    this.unit = unit;
+    this.changes = changes;
+  }
+
+  public Unit getUnit() {
+    return unit;
+  }
+
+  public Changes getChanges() {
+    return changes;
+  }
+}
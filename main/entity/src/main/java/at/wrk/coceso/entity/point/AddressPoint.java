@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Objects;
 
@@ -28,6 +29,9 @@ class AddressPoint implements Point, Address {
     @Qualifier("ChainedGeocoder")
     private Geocoder<ImmutableAddress> addressGeocoder;
 
+    @Value("${geocode.async:false}")
+    private boolean deferred;
+
     private final String title;
     private final String street;
     private final String intersection;
@@ -63,6 +67,7 @@ class AddressPoint implements Point, Address {
         additional = other.additional;
         coordinates = other.coordinates;
         addressGeocoder = other.addressGeocoder;
+        deferred = other.deferred;
     }
 
     public AddressPoint(
@@ -158,7 +163,14 @@ class AddressPoint implements Point, Address {
 
     @Override
     public void tryToResolveExternalData() {
-        if (!filled && coordinates == null && !isEmpty()) {
+        if (!deferred) {
+            resolveExternalData();
+        }
+    }
+
+    @Override
+    public void resolveExternalData() {
+        if (isExternalDataPending()) {
             filled = true;
             LOG.debug("Address point was not resolved yet. Address geocoder is called for: {}", this);
 
@@ -167,6 +179,11 @@ class AddressPoint implements Point, Address {
         }
     }
 
+    @Override
+    public boolean isExternalDataPending() {
+        return !filled && coordinates == null && !isEmpty();
+    }
+
     @Override
     public boolean isEmpty() {
         return StringUtils.isEmpty(this.title) && StringUtils.isEmpty(this.street);
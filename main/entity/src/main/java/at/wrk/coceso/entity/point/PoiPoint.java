@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Objects;
 
@@ -31,6 +32,9 @@ class PoiPoint implements Poi, Point {
   @Qualifier("ChainedPoi")
   private Geocoder<Poi> poiGeocoder;
 
+  @Value("${geocode.async:false}")
+  private boolean deferred;
+
   private boolean filled = false;
 
   private final String text, additional;
@@ -92,7 +96,14 @@ class PoiPoint implements Poi, Point {
 
   @Override
   public void tryToResolveExternalData() {
-    if (!filled && coordinates == null && !isEmpty()) {
+    if (!deferred) {
+      resolveExternalData();
+    }
+  }
+
+  @Override
+  public void resolveExternalData() {
+    if (isExternalDataPending()) {
       filled = true;
       LOG.debug("POI point is not yet resolved. POI geocoder is called.");
 
@@ -105,6 +116,11 @@ class PoiPoint implements Poi, Point {
     }
   }
 
+  @Override
+  public boolean isExternalDataPending() {
+    return !filled && coordinates == null && !isEmpty();
+  }
+
   @Override
   public boolean isEmpty() {
     return StringUtils.isEmpty(text);
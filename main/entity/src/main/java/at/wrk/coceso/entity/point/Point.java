@@ -64,10 +64,26 @@ public interface Point extends Serializable {
      * The geocoding features are a big mess and have a huge impact on performance.
      * To mitigate it, a point needs to be called explicitly to this hook to resolve any external data.
      * This should be done only once in a lifetime of a Point.
+     * If geocoding is deferred to the background ("geocode.async"), this does nothing and {@link #resolveExternalData()}
+     * is called later by the background worker.
      */
     default void tryToResolveExternalData() {
     }
 
+    /**
+     * Resolve any external data now, even if geocoding is deferred to the background.
+     */
+    default void resolveExternalData() {
+    }
+
+    /**
+     * True if the point needs external data (e.g. coordinates from a geocoder), which is not resolved yet.
+     */
+    @JsonIgnore
+    default boolean isExternalDataPending() {
+        return false;
+    }
+
     /**
      * Resolve the information stored in the instance to the appropriate subclass
      *
@@ -157,4 +173,17 @@ public interface Point extends Serializable {
         );
     }
 
+    /**
+     * Check if a point resolved in the background can replace the currently stored point
+     *
+     * @param resolved The copy of the point with the resolved external data
+     * @param current  The point currently stored
+     * @return True if coordinates were resolved and the current point still has the same info, but no coordinates
+     */
+    static boolean isResolutionOf(Point resolved, Point current) {
+        return resolved != null && resolved.getCoordinates() != null
+                && current != null && current.getCoordinates() == null
+                && infoEquals(resolved, current);
+    }
+
 }
@@ -1,8 +1,11 @@
 package at.wrk.coceso.entity.types;
 
 import at.wrk.coceso.entity.point.Point;
+import at.wrk.geocode.LatLng;
 import org.hibernate.HibernateException;
 
+import java.util.Objects;
+
 public class PointUserType extends JsonUserType<Point> {
 
   @Override
@@ -21,4 +24,17 @@ public class PointUserType extends JsonUserType<Point> {
     return ((Point) o).deepCopy();
   }
 
+  @Override
+  public boolean equals(Object x, Object y) throws HibernateException {
+    // Points are equal by their info, but coordinates resolved later have to be stored as well
+    return Objects.equals(x, y) && (x == null || coordinatesEqual(((Point) x).getCoordinates(), ((Point) y).getCoordinates()));
+  }
+
+  private static boolean coordinatesEqual(final LatLng a, final LatLng b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return a.getLat() == b.getLat() && a.getLng() == b.getLng();
+  }
+
 }
@@ -3,9 +3,16 @@ package at.wrk.coceso.specification;
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Patient;
 import at.wrk.coceso.entity.Patient_;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import org.apache.commons.lang3.StringUtils;
 
 public class PatientSearchSpecification extends SearchSpecification<Patient> {
 
@@ -43,6 +50,47 @@ public class PatientSearchSpecification extends SearchSpecification<Patient> {
         builder.like(builder.lower(root.get(Patient_.lastname)), keyword));
   }
 
+  /**
+   * Orders the patients found by how well they match the keywords: For each keyword an exact match (also of the external id
+   * with prefix and suffix) counts more than a match at the start of a field, which counts more than a match anywhere.
+   * Patients matching equally well are ordered by id.
+   */
+  public Comparator<Patient> byRelevance() {
+    Set<String> keywords = getKeywords();
+    Map<String, Set<String>> externals = new HashMap<>();
+    keywords.forEach(keyword -> externals.put(keyword, buildExternal(keyword)));
+
+    Map<Patient, Integer> ranks = new IdentityHashMap<>();
+    ToIntFunction<Patient> rank = patient -> ranks.computeIfAbsent(patient, p -> keywords.stream()
+        .mapToInt(keyword -> rank(p, keyword, externals.get(keyword)))
+        .sum());
+    return Comparator.comparingInt(rank).reversed()
+        .thenComparing(Patient::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+  }
+
+  private int rank(Patient patient, String keyword, Set<String> externals) {
+    String externalId = StringUtils.lowerCase(patient.getExternalId());
+    if (keyword.equals(String.valueOf(patient.getId())) || externals.contains(externalId)) {
+      return 3;
+    }
+    return Math.max(rank(externalId, keyword), Math.max(
+        rank(StringUtils.lowerCase(patient.getFirstname()), keyword),
+        rank(StringUtils.lowerCase(patient.getLastname()), keyword)));
+  }
+
+  private static int rank(String value, String keyword) {
+    if (value == null) {
+      return 0;
+    }
+    if (value.equals(keyword)) {
+      return 3;
+    }
+    if (value.startsWith(keyword)) {
+      return 2;
+    }
+    return value.contains(keyword) ? 1 : 0;
+  }
+
   @Override
   protected Predicate buildAdditionalPredicates(Root<Patient> root, CriteriaBuilder builder) {
     Predicate pred = builder.equal(root.get(Patient_.concern), concern);
@@ -29,6 +29,19 @@ public abstract class SearchSpecification<T> implements Specification<T> {
     this.strict = strict;
   }
 
+  /**
+   * Returns the keywords of the query in lower case, as matched by the predicates
+   */
+  protected Set<String> getKeywords() {
+    Set<String> ret = new HashSet<>();
+    for (String keyword : keywords) {
+      if (!StringUtils.isBlank(keyword)) {
+        ret.add(keyword.toLowerCase());
+      }
+    }
+    return ret;
+  }
+
   @Override
   public Predicate toPredicate(Root<T> root, CriteriaQuery<?> cq, CriteriaBuilder builder) {
     Map<String, Predicate> queries = new HashMap<>();
@@ -0,0 +1,75 @@
+package at.wrk.coceso.entity.types;
+
+import at.wrk.coceso.entity.point.Point;
+import at.wrk.geocode.LatLng;
+import org.junit.Test;
+
+import java.util.Objects;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class PointUserTypeTest {
+
+    private final PointUserType sut = new PointUserType();
+
+    @Test
+    public void sameInfoAndCoordinates_equal() {
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", new LatLng(48.2, 16.35)), new TestPoint("Neubaugasse 7", new LatLng(48.2, 16.35))), is(true));
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", null), new TestPoint("Neubaugasse 7", null)), is(true));
+        assertThat(sut.equals(null, null), is(true));
+    }
+
+    @Test
+    public void coordinatesResolved_notEqual() {
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", null), new TestPoint("Neubaugasse 7", new LatLng(48.2, 16.35))), is(false));
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", new LatLng(48.2, 16.35)), new TestPoint("Neubaugasse 7", new LatLng(48.2, 16.36))), is(false));
+    }
+
+    @Test
+    public void differentInfo_notEqual() {
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", null), new TestPoint("Neubaugasse 8", null)), is(false));
+        assertThat(sut.equals(new TestPoint("Neubaugasse 7", null), null), is(false));
+    }
+
+    private static class TestPoint implements Point {
+
+        private final String info;
+        private final LatLng coordinates;
+
+        private TestPoint(final String info, final LatLng coordinates) {
+            this.info = info;
+            this.coordinates = coordinates;
+        }
+
+        @Override
+        public String getInfo() {
+            return info;
+        }
+
+        @Override
+        public LatLng getCoordinates() {
+            return coordinates;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public Point deepCopy() {
+            return new TestPoint(info, coordinates);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof TestPoint && Objects.equals(info, ((TestPoint) obj).info);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(info);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package at.wrk.coceso.specification;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Patient;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class PatientSearchSpecificationTest {
+
+  @Test
+  public void byRelevance_exactBeforePrefixBeforeContains() {
+    List<Patient> patients = Arrays.asList(
+        patient(1, "Schuber", "Anna", "m-10"),
+        patient(2, "Huberhof", "Anna", "m-11"),
+        patient(3, "Huber", "Anna", "m-12"),
+        patient(4, "Berger", "Hubert", "m-13"));
+
+    assertThat(sort(patients, "huber*"), contains(3, 2, 4, 1));
+  }
+
+  @Test
+  public void byRelevance_externalIdWithPrefixAndSuffixIsExact() {
+    List<Patient> patients = Arrays.asList(
+        patient(1, "Huber", "Anna", "m-1234"),
+        patient(2, "Huber", "Anna", "h-123a"),
+        patient(3, "Huber", "Anna", "1231"));
+
+    assertThat(sort(patients, "123*"), contains(2, 3, 1));
+  }
+
+  @Test
+  public void byRelevance_allKeywordsCount() {
+    List<Patient> patients = Arrays.asList(
+        patient(1, "Huber", "Annabell", "m-1"),
+        patient(2, "Huber", "Anna", "m-2"),
+        patient(3, "Hubert", "Anna", "m-3"));
+
+    assertThat(sort(patients, "anna huber"), contains(2, 1, 3));
+  }
+
+  private static List<Integer> sort(final List<Patient> patients, final String query) {
+    return patients.stream()
+        .sorted(new PatientSearchSpecification(query, new Concern(1), false).byRelevance())
+        .map(Patient::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static Patient patient(final int id, final String lastname, final String firstname, final String externalId) {
+    Patient patient = new Patient(id);
+    patient.setLastname(lastname);
+    patient.setFirstname(firstname);
+    patient.setExternalId(externalId);
+    return patient;
+  }
+}
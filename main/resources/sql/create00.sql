@@ -1,4 +1,7 @@
 START TRANSACTION;
+-- Trigram indexes for the patient search, creating the extension requires superuser privileges before PostgreSQL 13
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 CREATE TYPE E_DIRECTION AS ENUM ('RX', 'RX_ACK', 'RX_EMG', 'TX', 'TX_FAILED');
 CREATE TYPE E_UNITSTATE AS ENUM ('AD', 'EB', 'NEB');
 CREATE TYPE E_UNITTYPE AS ENUM ('Portable', 'Triage', 'Treatment', 'Postprocessing', 'Info', 'Officer');
@@ -70,6 +73,8 @@ CREATE TABLE IF NOT EXISTS unit
     FOREIGN KEY (concern_fk, section_fk) REFERENCES sections
 );
 
+CREATE INDEX IF NOT EXISTS unit_concern_call_index ON unit (concern_fk, upper(call));
+
 CREATE TABLE IF NOT EXISTS users
 (
     id          SERIAL PRIMARY KEY,
@@ -98,6 +103,8 @@ CREATE TABLE IF NOT EXISTS crew
     PRIMARY KEY (unit_fk, user_fk)
 );
 
+CREATE INDEX IF NOT EXISTS crew_user_index ON crew (user_fk);
+
 CREATE TABLE IF NOT EXISTS patient
 (
     id         SERIAL PRIMARY KEY,
@@ -115,6 +122,13 @@ CREATE TABLE IF NOT EXISTS patient
     done       BOOLEAN     NOT NULL DEFAULT FALSE
 );
 
+CREATE INDEX IF NOT EXISTS patient_concern_index ON patient (concern_fk);
+
+-- Patient search matching parts of names and external ids (LIKE '%keyword%' and autocompletion on every keystroke)
+CREATE INDEX IF NOT EXISTS patient_lastname_trgm_index ON patient USING gin (lower(lastname) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS patient_firstname_trgm_index ON patient USING gin (lower(firstname) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS patient_externalid_trgm_index ON patient USING gin (lower(externalId) gin_trgm_ops);
+
 CREATE TABLE IF NOT EXISTS incident
 (
     id          SERIAL PRIMARY KEY,
@@ -137,6 +151,12 @@ CREATE TABLE IF NOT EXISTS incident
     FOREIGN KEY (concern_fk, section_fk) REFERENCES sections
 );
 
+CREATE INDEX IF NOT EXISTS incident_concern_type_index ON incident (concern_fk, type);
+CREATE INDEX IF NOT EXISTS incident_active_index ON incident (concern_fk) WHERE state <> 'Done';
+CREATE INDEX IF NOT EXISTS incident_incoming_index ON incident (concern_fk, (ao ->> 'id'))
+    WHERE ao ->> '@type' = 'unit' AND type IN ('Task', 'Transport') AND state <> 'Done';
+CREATE INDEX IF NOT EXISTS incident_patient_index ON incident (patient_fk);
+
 CREATE TABLE IF NOT EXISTS log
 (
     id          SERIAL PRIMARY KEY,
@@ -152,6 +172,12 @@ CREATE TABLE IF NOT EXISTS log
     changes     JSON
 );
 
+CREATE INDEX IF NOT EXISTS log_concern_timestamp_index ON log (concern_fk, timestamp, id);
+CREATE INDEX IF NOT EXISTS log_concern_type_timestamp_index ON log (concern_fk, type, timestamp, id);
+CREATE INDEX IF NOT EXISTS log_incident_unit_index ON log (incident_fk, unit_fk);
+CREATE INDEX IF NOT EXISTS log_unit_timestamp_index ON log (unit_fk, timestamp, id);
+CREATE INDEX IF NOT EXISTS log_patient_index ON log (patient_fk);
+
 CREATE TABLE IF NOT EXISTS task
 (
     incident_fk       INTEGER     NOT NULL REFERENCES incident ON DELETE CASCADE,
@@ -161,6 +187,8 @@ CREATE TABLE IF NOT EXISTS task
     PRIMARY KEY (incident_fk, unit_fk)
 );
 
+CREATE INDEX IF NOT EXISTS task_unit_index ON task (unit_fk);
+
 CREATE TRIGGER set_update_timestamp_of_task
     BEFORE UPDATE
     ON task
@@ -177,6 +205,7 @@ CREATE TABLE IF NOT EXISTS container
 );
 
 CREATE UNIQUE INDEX IF NOT EXISTS container_fk_index ON container (concern_fk) WHERE parent IS NULL;
+CREATE INDEX IF NOT EXISTS container_concern_index ON container (concern_fk);
 
 CREATE TABLE IF NOT EXISTS unit_in_container
 (
@@ -185,4 +214,6 @@ CREATE TABLE IF NOT EXISTS unit_in_container
     ordering     DOUBLE PRECISION NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS unit_in_container_container_index ON unit_in_container (container_fk);
+
 COMMIT;
@@ -0,0 +1,60 @@
+START TRANSACTION;
+
+-- Indexes for the foreign keys and JSON paths the repositories filter on. PostgreSQL only indexes primary keys and unique
+-- constraints by itself, so all of these queries scanned the whole table before.
+
+-- Log of a concern, optionally by type, ordered by timestamp and id (log pages, reports, last id of a concern)
+CREATE INDEX IF NOT EXISTS log_concern_timestamp_index ON log (concern_fk, timestamp, id);
+CREATE INDEX IF NOT EXISTS log_concern_type_timestamp_index ON log (concern_fk, type, timestamp, id);
+
+-- Log of an incident, also restricted to a unit (last state change of a task, related units)
+CREATE INDEX IF NOT EXISTS log_incident_unit_index ON log (incident_fk, unit_fk);
+
+-- Log of a unit ordered by timestamp and id (unit log pages, related incidents)
+CREATE INDEX IF NOT EXISTS log_unit_timestamp_index ON log (unit_fk, timestamp, id);
+
+CREATE INDEX IF NOT EXISTS log_patient_index ON log (patient_fk);
+
+-- Incidents of a concern, optionally by type (lists, transports, statistics)
+CREATE INDEX IF NOT EXISTS incident_concern_type_index ON incident (concern_fk, type);
+
+-- Incidents not done yet, which are only a small part of the incidents of a concern on long running events
+CREATE INDEX IF NOT EXISTS incident_active_index ON incident (concern_fk) WHERE state <> 'Done';
+
+-- Incoming incidents of a treatment group, which reference the group as unit point in the AO
+CREATE INDEX IF NOT EXISTS incident_incoming_index ON incident (concern_fk, (ao ->> 'id'))
+    WHERE ao ->> '@type' = 'unit' AND type IN ('Task', 'Transport') AND state <> 'Done';
+
+CREATE INDEX IF NOT EXISTS incident_patient_index ON incident (patient_fk);
+
+-- Units of a concern, also looked up by call ignoring case
+CREATE INDEX IF NOT EXISTS unit_concern_call_index ON unit (concern_fk, upper(call));
+
+CREATE INDEX IF NOT EXISTS task_unit_index ON task (unit_fk);
+
+CREATE INDEX IF NOT EXISTS crew_user_index ON crew (user_fk);
+
+CREATE INDEX IF NOT EXISTS patient_concern_index ON patient (concern_fk);
+
+-- Needs the pg_trgm extension of the PostgreSQL contrib modules. Before PostgreSQL 13 creating it requires superuser
+-- privileges, since 13 it is a trusted extension and the owner of the database can create it as well.
+DO $$
+  BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+  EXCEPTION
+    WHEN insufficient_privilege THEN
+      RAISE EXCEPTION 'Missing privileges to create the extension pg_trgm. Run "CREATE EXTENSION pg_trgm;" as superuser in this database and run this script again.';
+    WHEN undefined_file THEN
+      RAISE EXCEPTION 'The extension pg_trgm is not installed. Install the contrib modules of PostgreSQL and run this script again.';
+  END $$;
+
+-- Patient search matching parts of names and external ids (LIKE '%keyword%' and autocompletion on every keystroke)
+CREATE INDEX IF NOT EXISTS patient_lastname_trgm_index ON patient USING gin (lower(lastname) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS patient_firstname_trgm_index ON patient USING gin (lower(firstname) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS patient_externalid_trgm_index ON patient USING gin (lower(externalId) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS container_concern_index ON container (concern_fk);
+
+CREATE INDEX IF NOT EXISTS unit_in_container_container_index ON unit_in_container (container_fk);
+
+COMMIT;
@@ -0,0 +1,167 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entityevent.EntityEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the listeners holding a state built from the entities of each loaded concern, updated by the entity events.
+ * <p>
+ * The listener keeps track of the sequence number of the last event for each concern. The state of a concern is only stored
+ * if no event happened between reading the sequence number and loading the entities, so the sequence number has to be read
+ * before loading. The state is dropped as soon as an event is missing. Only the states of the most recently used concerns are
+ * kept, so closed concerns are dropped eventually.
+ *
+ * @param <T> The type of the entities
+ * @param <S> The type of the state of a concern
+ */
+public abstract class ConcernStateListener<T, S> implements EntityEventListener<T> {
+
+    public static final int DEFAULT_MAX_CONCERNS = 10;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+
+    // Guarded by this
+    private final Map<Integer, Integer> lastSeq;
+    private final Map<Integer, S> states;
+
+    /**
+     * @param name The description of the state used in the log messages
+     */
+    protected ConcernStateListener(final String name) {
+        this(name, DEFAULT_MAX_CONCERNS);
+    }
+
+    /**
+     * @param name        The description of the state used in the log messages
+     * @param maxConcerns The number of concerns to keep the state of
+     */
+    protected ConcernStateListener(final String name, final int maxConcerns) {
+        this.name = name;
+        this.lastSeq = new HashMap<>();
+        this.states = new LinkedHashMap<Integer, S>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, S> eldest) {
+                if (size() > Math.max(maxConcerns, 1)) {
+                    log.info("Dropped {} of least recently used concern #{}.", name, eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Drops the state of the concern
+     *
+     * @return true if the concern was loaded
+     */
+    public synchronized boolean invalidate(final int concern) {
+        if (states.remove(concern) == null) {
+            return false;
+        }
+
+        log.info("Dropped {} of concern #{}.", name, concern);
+        return true;
+    }
+
+    @Override
+    public final void entityChanged(final T entity, final int concern, final int hver, final int seq) {
+        update(concern, seq, state -> applyChanged(state, entity, concern));
+    }
+
+    @Override
+    public final void entityDeleted(final int id, final int concern, final int hver, final int seq) {
+        update(concern, seq, state -> applyDeleted(state, id));
+    }
+
+    @Override
+    public boolean isSupported(final Class<?> supportedClass) {
+        // This listener is registered dynamically for the correct type. No type check needed.
+        return true;
+    }
+
+    @Override
+    public final boolean isGaplessSequenceRequired() {
+        // The state would not match the sequence number anymore if events were coalesced
+        return true;
+    }
+
+    /**
+     * Updates the state of the concern with the changed entity, called while holding the lock on this listener
+     */
+    protected abstract void applyChanged(S state, T entity, int concern);
+
+    /**
+     * Removes the deleted entity from the state of the concern, called while holding the lock on this listener
+     */
+    protected abstract void applyDeleted(S state, int id);
+
+    /**
+     * Applies the update of the event with the sequence number to the state of the concern, if the concern is loaded and no
+     * event is missing
+     */
+    protected final synchronized void update(final int concern, final int seq, final Consumer<S> update) {
+        S state = getForUpdate(concern, seq);
+        if (state != null) {
+            update.accept(state);
+        }
+    }
+
+    /**
+     * Returns the state of the concern, or null if the concern is not loaded
+     */
+    protected synchronized S getState(final int concern) {
+        return states.get(concern);
+    }
+
+    /**
+     * Returns the sequence number of the last event of the concern
+     */
+    protected synchronized int getSeq(final int concern) {
+        return lastSeq.getOrDefault(concern, 0);
+    }
+
+    /**
+     * Returns the states of all loaded concerns, only to be used while holding the lock on this listener
+     */
+    protected Collection<S> getStates() {
+        return states.values();
+    }
+
+    /**
+     * Stores the state built from the entities loaded from the database
+     *
+     * @param seq The sequence number read before loading the entities
+     * @return true if the state was stored, false if an event happened in the meantime
+     */
+    protected synchronized boolean putState(final int concern, final int seq, final S state) {
+        if (getSeq(concern) != seq) {
+            log.debug("Entities of concern #{} changed while loading (seq {} instead of {}), not storing {}.",
+                    concern, lastSeq.get(concern), seq, name);
+            return false;
+        }
+
+        states.put(concern, state);
+        return true;
+    }
+
+    private S getForUpdate(final int concern, final int seq) {
+        Integer previousSeq = lastSeq.put(concern, seq);
+        S state = states.get(concern);
+        if (state != null && seq != (previousSeq == null ? 0 : previousSeq) + 1) {
+            log.warn("Missed events for {} of concern #{} (got seq {} after {}).", name, concern, seq, previousSeq);
+            invalidate(concern);
+            return null;
+        }
+        return state;
+    }
+}
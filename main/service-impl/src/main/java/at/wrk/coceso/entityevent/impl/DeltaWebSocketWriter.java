@@ -0,0 +1,133 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entity.helper.SequencedPatch;
+import at.wrk.coceso.entity.helper.SequencedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Publishes only the fields of an entity which changed since the last message for the same entity. The client keeps the last
+ * full state of each entity and merges the patch into it. As every change still gets its own sequence number, a client missing
+ * a message performs a full reload of the data.
+ * <p>
+ * The first change of an entity since startup (or since it was deleted) is sent as full entity. Only the state of the most
+ * recently changed concerns is kept, a concern not changed for a long time (e.g. because it was closed) starts over with full
+ * entities.
+ */
+class DeltaWebSocketWriter<T> extends WebSocketWriter<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeltaWebSocketWriter.class);
+
+    private static final String ID_FIELD = "id";
+    private static final int DEFAULT_MAX_CONCERNS = 10;
+
+    private final SocketMessagingTemplate messagingTemplate;
+    private final Class<?> jsonView;
+
+    // Last published state by concern and entity id, guarded by itself
+    private final Map<Integer, Map<Integer, ObjectNode>> published;
+
+    public DeltaWebSocketWriter(
+            final SocketMessagingTemplate messagingTemplate,
+            final String url,
+            final Class<?> jsonView,
+            final Function<T, Integer> delete) {
+        this(messagingTemplate, url, jsonView, delete, DEFAULT_MAX_CONCERNS);
+    }
+
+    DeltaWebSocketWriter(
+            final SocketMessagingTemplate messagingTemplate,
+            final String url,
+            final Class<?> jsonView,
+            final Function<T, Integer> delete,
+            final int maxConcerns) {
+        super(messagingTemplate, url, jsonView, delete);
+        this.messagingTemplate = messagingTemplate;
+        this.jsonView = jsonView;
+        this.published = new LinkedHashMap<Integer, Map<Integer, ObjectNode>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, Map<Integer, ObjectNode>> eldest) {
+                if (size() > maxConcerns) {
+                    LOG.debug("Dropping published state of concern #{} with {} entities.", eldest.getKey(), eldest.getValue().size());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    protected Runnable preparePublish(final T entity, final int concern, final String destination, final int hver, final int seq) {
+        Integer id = entity instanceof ConcernBoundEntity ? ((ConcernBoundEntity) entity).getId() : null;
+        if (id == null || !messagingTemplate.isAvailable()) {
+            return super.preparePublish(entity, concern, destination, hver, seq);
+        }
+
+        JsonNode tree = messagingTemplate.toTree(entity, jsonView);
+        if (!tree.isObject()) {
+            return super.preparePublish(entity, concern, destination, hver, seq);
+        }
+
+        return () -> publishTree(id, (ObjectNode) tree, concern, destination, hver, seq);
+    }
+
+    private void publishTree(final int id, final ObjectNode current, final int concern, final String destination, final int hver, final int seq) {
+        // The patch must be computed and sent atomically, otherwise patches for the same entity could be reordered
+        synchronized (published) {
+            ObjectNode previous = published.computeIfAbsent(concern, c -> new HashMap<>()).put(id, current);
+            if (previous == null) {
+                LOG.debug("Publishing full entity on WebSocket. URL: '{}', Entity: '{}', hver: '{}', cseq: '{}'", destination, current, hver, seq);
+                messagingTemplate.send(destination, new SequencedResponse<>(hver, seq, current), null);
+                return;
+            }
+
+            ObjectNode patch = createPatch(previous, current);
+            LOG.debug("Publishing patch on WebSocket. URL: '{}', Patch: '{}', hver: '{}', cseq: '{}'", destination, patch, hver, seq);
+            messagingTemplate.send(destination, new SequencedPatch(hver, seq, patch), null);
+        }
+    }
+
+    @Override
+    public void entityDeleted(final int id, final int concern, final int hver, final int seq) {
+        synchronized (published) {
+            Map<Integer, ObjectNode> concernEntities = published.get(concern);
+            if (concernEntities != null) {
+                concernEntities.remove(id);
+            }
+            super.entityDeleted(id, concern, hver, seq);
+        }
+    }
+
+    private static ObjectNode createPatch(final ObjectNode previous, final ObjectNode current) {
+        ObjectNode patch = current.objectNode();
+        patch.set(ID_FIELD, current.get(ID_FIELD));
+
+        Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!Objects.equals(previous.get(field.getKey()), field.getValue())) {
+                patch.set(field.getKey(), field.getValue());
+            }
+        }
+
+        Iterator<String> previousFields = previous.fieldNames();
+        while (previousFields.hasNext()) {
+            String name = previousFields.next();
+            if (!current.has(name)) {
+                patch.putNull(name);
+            }
+        }
+
+        return patch;
+    }
+}
@@ -0,0 +1,35 @@
+package at.wrk.coceso.entityevent.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+class EntityEventDispatchConfig {
+
+    private final boolean async;
+    private final int queueCapacity;
+    private final long coalesceWindowMillis;
+
+    @Autowired
+    public EntityEventDispatchConfig(
+            @Value("${entityevent.dispatch.async:false}") final boolean async,
+            @Value("${entityevent.dispatch.queue.capacity:1000}") final int queueCapacity,
+            @Value("${entityevent.dispatch.coalesce.window.ms:50}") final long coalesceWindowMillis) {
+        this.async = async;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.coalesceWindowMillis = Math.max(coalesceWindowMillis, 0);
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getCoalesceWindowMillis() {
+        return coalesceWindowMillis;
+    }
+}
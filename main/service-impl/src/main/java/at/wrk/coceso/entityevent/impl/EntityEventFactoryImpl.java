@@ -1,11 +1,13 @@
 package at.wrk.coceso.entityevent.impl;
 
+import at.wrk.coceso.entityevent.DispatchStatistics;
 import at.wrk.coceso.entityevent.EntityEventFactory;
 import at.wrk.coceso.entityevent.EntityEventHandler;
 import at.wrk.coceso.entityevent.EntityEventListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -20,15 +22,26 @@ class EntityEventFactoryImpl implements EntityEventFactory {
     private final static Set<EntityEventHandler<?>> instances = new HashSet<>();
 
     private final SocketMessagingTemplate template;
+    private final EntityEventDispatchConfig dispatchConfig;
     private final Collection<EntityEventListener<?>> serviceEntityEventListeners;
 
     @Autowired
     public EntityEventFactoryImpl(
-            final SocketMessagingTemplate template) {
+            final SocketMessagingTemplate template,
+            final EntityEventDispatchConfig dispatchConfig) {
         this.template = template;
+        this.dispatchConfig = dispatchConfig;
         this.serviceEntityEventListeners = new ArrayList<>();
     }
 
+    @PreDestroy
+    public void destroy() {
+        synchronized (instances) {
+            instances.forEach(handler -> ((EntityEventHandlerImpl<?>) handler).shutdown());
+            instances.clear();
+        }
+    }
+
     @Autowired(required = false)
     public void setServiceEntityEventListeners(final Collection<EntityEventListener<?>> listeners) {
         if (listeners != null) {
@@ -38,20 +51,31 @@ class EntityEventFactoryImpl implements EntityEventFactory {
 
     @Override
     public <T> EntityEventHandler<T> getEntityEventHandler(Class<T> type) {
-        EntityEventHandler<T> instance = null;
-        for (EntityEventHandler<?> existingInstance : instances) {
-            if (existingInstance.matches(type)) {
-                instance = (EntityEventHandler<T>) existingInstance;
+        synchronized (instances) {
+            EntityEventHandler<T> instance = null;
+            for (EntityEventHandler<?> existingInstance : instances) {
+                if (existingInstance.matches(type)) {
+                    instance = (EntityEventHandler<T>) existingInstance;
+                }
+            }
+
+            if (instance == null) {
+                List<EntityEventListener<T>> supportedServiceListeners = fillterSupportedListeners(type);
+                instance = new EntityEventHandlerImpl<>(type, supportedServiceListeners, dispatchConfig);
+                instances.add(instance);
             }
-        }
 
-        if (instance == null) {
-            List<EntityEventListener<T>> supportedServiceListeners = fillterSupportedListeners(type);
-            instance = new EntityEventHandlerImpl<>(type, supportedServiceListeners);
-            instances.add(instance);
+            return instance;
         }
+    }
 
-        return instance;
+    @Override
+    public List<DispatchStatistics> getDispatchStatistics() {
+        synchronized (instances) {
+            return instances.stream()
+                    .flatMap(handler -> handler.getDispatchStatistics().stream())
+                    .collect(Collectors.toList());
+        }
     }
 
     private <T> List<EntityEventListener<T>> fillterSupportedListeners(final Class<T> type) {
@@ -66,4 +90,9 @@ class EntityEventFactoryImpl implements EntityEventFactory {
     public <T> WebSocketWriter<T> getWebSocketWriter(final String url, final Class<?> jsonView, final Function<T, Integer> delete) {
         return new WebSocketWriter<>(template, url, jsonView, delete);
     }
+
+    @Override
+    public <T> DeltaWebSocketWriter<T> getDeltaWebSocketWriter(final String url, final Class<?> jsonView, final Function<T, Integer> delete) {
+        return new DeltaWebSocketWriter<>(template, url, jsonView, delete);
+    }
 }
@@ -1,24 +1,33 @@
 package at.wrk.coceso.entityevent.impl;
 
 import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entityevent.DispatchStatistics;
 import at.wrk.coceso.entityevent.EntityEventHandler;
 import at.wrk.coceso.entityevent.EntityEventListener;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 class EntityEventHandlerImpl<T> implements EntityEventHandler<T> {
 
   private final Class<T> type;
-  private final Collection<EntityEventListener<T>> listeners;
+  private final EntityEventDispatchConfig dispatchConfig;
+  // Maps the registered listeners to the listeners actually called, which are queued wrappers on asynchronous dispatch
+  private final Map<EntityEventListener<T>, EntityEventListener<T>> listeners;
   private final int hver;
   private final Map<Integer, Integer> seq;
 
-  EntityEventHandlerImpl(Class<T> type, final List<EntityEventListener<T>> supportedServiceListeners) {
+  EntityEventHandlerImpl(
+      final Class<T> type,
+      final List<EntityEventListener<T>> supportedServiceListeners,
+      final EntityEventDispatchConfig dispatchConfig) {
     this.type = type;
-    this.listeners = new HashSet<>(supportedServiceListeners);
+    this.dispatchConfig = dispatchConfig;
+    this.listeners = new ConcurrentHashMap<>();
+    supportedServiceListeners.forEach(this::addListener);
 
     // Use time since 2016-01-01 as handler version
     this.hver = (int) (System.currentTimeMillis() / 1000 - 1451602800);
@@ -42,24 +51,27 @@ class EntityEventHandlerImpl<T> implements EntityEventHandler<T> {
   @Override
   public synchronized void entityChanged(T entity, int concern) {
     int cseq = getNextCSeq(concern);
-    listeners.parallelStream().forEach(l -> l.entityChanged(entity, concern, hver, cseq));
+    dispatch(l -> l.entityChanged(entity, concern, hver, cseq));
   }
 
   @Override
   public synchronized void entityDeleted(int id, int concern) {
     int cseq = getNextCSeq(concern);
-    listeners.parallelStream().forEach(l -> l.entityDeleted(id, concern, hver, cseq));
+    dispatch(l -> l.entityDeleted(id, concern, hver, cseq));
   }
 
   @Override
   public EntityEventListener<T> addListener(EntityEventListener<T> listener) {
-    listeners.add(listener);
+    listeners.computeIfAbsent(listener, l -> dispatchConfig.isAsync() ? new QueuedEntityEventListener<>(type, l, dispatchConfig) : l);
     return listener;
   }
 
   @Override
   public void removeListener(EntityEventListener<T> listener) {
-    listeners.remove(listener);
+    EntityEventListener<T> removed = listeners.remove(listener);
+    if (removed instanceof QueuedEntityEventListener) {
+      ((QueuedEntityEventListener<T>) removed).shutdown();
+    }
   }
 
   @Override
@@ -68,10 +80,33 @@ class EntityEventHandlerImpl<T> implements EntityEventHandler<T> {
   }
 
   @Override
-  public int getSeq(int concern) {
+  public synchronized int getSeq(int concern) {
     return seq.getOrDefault(concern, 0);
   }
 
+  @Override
+  public List<DispatchStatistics> getDispatchStatistics() {
+    return listeners.values().stream()
+        .filter(QueuedEntityEventListener.class::isInstance)
+        .map(l -> ((QueuedEntityEventListener<T>) l).getStatistics())
+        .collect(Collectors.toList());
+  }
+
+  void shutdown() {
+    listeners.values().stream()
+        .filter(QueuedEntityEventListener.class::isInstance)
+        .forEach(l -> ((QueuedEntityEventListener<T>) l).shutdown());
+  }
+
+  private void dispatch(final Consumer<EntityEventListener<T>> call) {
+    if (dispatchConfig.isAsync()) {
+      // Only enqueues the event, delivery happens on the threads of the listeners
+      listeners.values().forEach(call);
+    } else {
+      listeners.values().parallelStream().forEach(call);
+    }
+  }
+
   private synchronized int getNextCSeq(final int concern) {
     int cseq = seq.getOrDefault(concern, 0) + 1;
     seq.put(concern, cseq);
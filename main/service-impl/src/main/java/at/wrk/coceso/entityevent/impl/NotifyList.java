@@ -69,9 +69,7 @@ public class NotifyList {
 
   @Transactional
   public List<Unit> loadUnitsByIdList(final List<Integer> unitIdsToSend) {
-    List<Unit> units = unitRepository.findByIdIn(unitIdsToSend);
-    units.forEach(unit -> Initializer.init(unit, Unit::getConcern, Unit::getIncidents, Unit::getIncidentStateChangedAtMap));
-    return units;
+    return unitRepository.findByIdInWithTasks(unitIdsToSend);
   }
 
   private synchronized <T> void sendNotifications(final Collection<T> entities, final Class<T> type) {
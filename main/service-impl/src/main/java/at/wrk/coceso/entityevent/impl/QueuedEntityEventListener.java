@@ -0,0 +1,246 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entityevent.DispatchStatistics;
+import at.wrk.coceso.entityevent.EntityEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples a listener from the thread publishing the entity events: Events are put into a bounded queue and delivered by a
+ * dedicated thread in the order they were published, so the per-concern sequence order is kept.
+ * <p>
+ * If the listener does not require a gapless sequence, a pending event is replaced by a newer event of the same entity. The
+ * replacing event is moved to the end of the queue, but keeps the due time of the first one. Those listeners additionally wait
+ * for the coalescing window before an event is delivered, and events are dropped if the queue is full. For listeners requiring
+ * a gapless sequence the publishing thread waits for free space instead, as a dropped event could not be noticed until the
+ * next one arrives.
+ * <p>
+ * A change is prepared by the listener on the publishing thread (see {@link EntityEventListener#prepareChanged}), only the
+ * prepared task is run on the thread of the listener.
+ */
+class QueuedEntityEventListener<T> implements EntityEventListener<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueuedEntityEventListener.class);
+
+    private final String type;
+    private final EntityEventListener<T> delegate;
+    private final int capacity;
+    private final long coalesceWindowMillis;
+    private final boolean coalescing;
+
+    // Guarded by itself
+    private final LinkedHashMap<Object, PendingEvent> pending;
+
+    private final AtomicLong delivered;
+    private final AtomicLong coalesced;
+    private final AtomicLong dropped;
+    private final AtomicLong failed;
+
+    private final ExecutorService executor;
+    private volatile boolean stopped;
+
+    QueuedEntityEventListener(final Class<T> type, final EntityEventListener<T> delegate, final EntityEventDispatchConfig config) {
+        this.type = type.getSimpleName();
+        this.delegate = delegate;
+        this.capacity = config.getQueueCapacity();
+        this.coalescing = !delegate.isGaplessSequenceRequired();
+        this.coalesceWindowMillis = coalescing ? config.getCoalesceWindowMillis() : 0;
+        this.pending = new LinkedHashMap<>();
+        this.delivered = new AtomicLong();
+        this.coalesced = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.failed = new AtomicLong();
+
+        String threadName = String.format("entity-event-%s-%s", this.type, delegate);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.execute(this::deliverLoop);
+    }
+
+    @Override
+    public void entityChanged(final T entity, final int concern, final int hver, final int seq) {
+        Integer id = entity instanceof ConcernBoundEntity ? ((ConcernBoundEntity) entity).getId() : null;
+        Runnable task;
+        try {
+            task = delegate.prepareChanged(entity, concern, hver, seq);
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOG.error("Listener '{}' failed to prepare event #{} of {} in concern #{}.", delegate, seq, type, concern, e);
+            return;
+        }
+        enqueue(new PendingEvent(task, concern, seq), id);
+    }
+
+    @Override
+    public void entityDeleted(final int id, final int concern, final int hver, final int seq) {
+        enqueue(new PendingEvent(() -> delegate.entityDeleted(id, concern, hver, seq), concern, seq), id);
+    }
+
+    @Override
+    public boolean isSupported(final Class<?> supportedClass) {
+        return delegate.isSupported(supportedClass);
+    }
+
+    @Override
+    public boolean isGaplessSequenceRequired() {
+        return delegate.isGaplessSequenceRequired();
+    }
+
+    DispatchStatistics getStatistics() {
+        int depth;
+        synchronized (pending) {
+            depth = pending.size();
+        }
+        return new DispatchStatistics(type, delegate.toString(), depth, capacity,
+                delivered.get(), coalesced.get(), dropped.get(), failed.get());
+    }
+
+    void shutdown() {
+        stopped = true;
+        executor.shutdownNow();
+        synchronized (pending) {
+            // Wakes up publishers waiting for free space
+            pending.notifyAll();
+        }
+    }
+
+    private void enqueue(final PendingEvent event, final Integer entityId) {
+        Object key = coalescing && entityId != null ? new EntityKey(event.concern, entityId) : new Object();
+
+        synchronized (pending) {
+            PendingEvent replaced = pending.remove(key);
+            if (replaced != null) {
+                event.dueAt = replaced.dueAt;
+                coalesced.incrementAndGet();
+                LOG.trace("Coalesced event #{} of {} into event #{}", replaced.seq, type, event.seq);
+            } else if (pending.size() >= capacity && (coalescing || !awaitSpace(event))) {
+                dropped.incrementAndGet();
+                LOG.warn("Queue of listener '{}' for {} is full ({} events). Dropped event #{} of concern #{}.",
+                        delegate, type, capacity, event.seq, event.concern);
+                return;
+            } else {
+                event.dueAt = System.currentTimeMillis() + coalesceWindowMillis;
+            }
+
+            pending.put(key, event);
+            pending.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the queue has space for the event, only called while holding the lock on the queue
+     *
+     * @return false if the listener was shut down or the publishing thread interrupted in the meantime
+     */
+    private boolean awaitSpace(final PendingEvent event) {
+        LOG.warn("Queue of listener '{}' for {} is full ({} events). Waiting to add event #{} of concern #{}.",
+                delegate, type, capacity, event.seq, event.concern);
+        try {
+            while (pending.size() >= capacity && !stopped) {
+                pending.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !stopped;
+    }
+
+    private void deliverLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                deliver(takeNext());
+            }
+        } catch (InterruptedException e) {
+            LOG.debug("Delivery of events to listener '{}' for {} was stopped.", delegate, type);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PendingEvent takeNext() throws InterruptedException {
+        synchronized (pending) {
+            while (true) {
+                Iterator<PendingEvent> iterator = pending.values().iterator();
+                if (!iterator.hasNext()) {
+                    pending.wait();
+                    continue;
+                }
+
+                PendingEvent next = iterator.next();
+                long remaining = next.dueAt - System.currentTimeMillis();
+                if (remaining > 0) {
+                    pending.wait(remaining);
+                    continue;
+                }
+
+                iterator.remove();
+                // Publishers may wait for free space
+                pending.notifyAll();
+                return next;
+            }
+        }
+    }
+
+    private void deliver(final PendingEvent event) {
+        try {
+            event.task.run();
+            delivered.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            LOG.error("Listener '{}' failed to handle event #{} of {} in concern #{}.", delegate, event.seq, type, event.concern, e);
+        }
+    }
+
+    private static class PendingEvent {
+
+        private final Runnable task;
+        private final int concern;
+        private final int seq;
+        private long dueAt;
+
+        private PendingEvent(final Runnable task, final int concern, final int seq) {
+            this.task = task;
+            this.concern = concern;
+            this.seq = seq;
+        }
+    }
+
+    private static class EntityKey {
+
+        private final int concern;
+        private final int id;
+
+        private EntityKey(final int concern, final int id) {
+            this.concern = concern;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EntityKey that = (EntityKey) o;
+            return concern == that.concern && id == that.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(concern, id);
+        }
+    }
+}
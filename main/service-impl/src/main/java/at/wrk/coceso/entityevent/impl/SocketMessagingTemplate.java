@@ -1,53 +1,98 @@
 package at.wrk.coceso.entityevent.impl;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.stream.Collectors;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 
+/**
+ * Sends payloads to the STOMP broker. The payload is serialized to JSON once and the resulting bytes are passed to the broker,
+ * which delivers the same message to all subscribers of the destination.
+ */
 @Component
 class SocketMessagingTemplate {
 
   private final SimpMessagingTemplate template;
+  private final ObjectMapper objectMapper;
+  // Writers are created lazily, as modules may be registered to the ObjectMapper during startup
+  private final ConcurrentMap<Class<?>, ObjectWriter> writers;
 
   public SocketMessagingTemplate() {
-    this.template = null;
+    this(null, null);
   }
 
   @Autowired(required = false)
-  public SocketMessagingTemplate(SimpMessagingTemplate template) {
+  public SocketMessagingTemplate(SimpMessagingTemplate template, ObjectMapper objectMapper) {
     this.template = template;
-    //this.template = new ConversionMessagingTemplate(template.getMessageChannel());
+    this.objectMapper = objectMapper;
+    this.writers = new ConcurrentHashMap<>();
+  }
+
+  public boolean isAvailable() {
+    return template != null;
   }
 
   public void send(String destination, Object payload, Class<?> jsonView) {
     if (template != null) {
-      if (jsonView == null) {
-        template.convertAndSend(destination, payload);
-      } else {
-        template.convertAndSend(destination, payload, Collections.singletonMap(SimpMessagingTemplate.CONVERSION_HINT_HEADER, jsonView));
-      }
+      sendSerialized(destination, serialize(payload, jsonView));
     }
   }
 
-  private static class ConversionMessagingTemplate extends SimpMessagingTemplate {
+  /**
+   * Serializes the payload using the given JSON view, the result can be sent to multiple destinations using
+   * {@link #sendSerialized(String, byte[])}.
+   */
+  public byte[] serialize(Object payload, Class<?> jsonView) {
+    try {
+      return getWriter(jsonView).writeValueAsBytes(payload);
+    } catch (JsonProcessingException e) {
+      throw new MessageConversionException("Could not serialize payload for WebSocket: " + e.getMessage(), e);
+    }
+  }
 
-    public ConversionMessagingTemplate(MessageChannel messageChannel) {
-      super(messageChannel);
+  /**
+   * Converts the payload to a JSON tree using the given JSON view, e.g. for comparing it to a previously sent payload.
+   */
+  public JsonNode toTree(Object payload, Class<?> jsonView) {
+    try (TokenBuffer buffer = new TokenBuffer(objectMapper, false)) {
+      getWriter(jsonView).writeValue(buffer, payload);
+      return objectMapper.readTree(buffer.asParser());
+    } catch (IOException e) {
+      throw new MessageConversionException("Could not convert payload for WebSocket: " + e.getMessage(), e);
     }
+  }
 
-    @Override
-    protected Map<String, Object> processHeadersToSend(Map<String, Object> headers) {
-      if (headers != null) {
-        headers = headers.entrySet().stream()
-            .filter(e -> CONVERSION_HINT_HEADER.equals(e.getKey()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-      }
-      return super.processHeadersToSend(headers);
+  public void sendSerialized(String destination, byte[] payload) {
+    if (template != null) {
+      template.send(destination, MessageBuilder.createMessage(payload, createHeaders()));
     }
   }
 
+  private ObjectWriter getWriter(Class<?> jsonView) {
+    // ConcurrentHashMap does not support null keys, so the writer without view is not cached
+    if (jsonView == null) {
+      return objectMapper.writer();
+    }
+    return writers.computeIfAbsent(jsonView, objectMapper::writerWithView);
+  }
+
+  private static MessageHeaders createHeaders() {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+    accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    accessor.setLeaveMutable(true);
+    return accessor.getMessageHeaders();
+  }
+
 }
@@ -6,6 +6,8 @@ import at.wrk.coceso.entityevent.EntityEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
 class WebSocketWriter<T> implements EntityEventListener<T> {
@@ -15,6 +17,7 @@ class WebSocketWriter<T> implements EntityEventListener<T> {
     private final String url;
     private final Class<?> jsonView;
     private final Function<T, Integer> delete;
+    private final ConcurrentMap<Integer, String> destinations;
 
     public WebSocketWriter(
             final SocketMessagingTemplate messagingTemplate,
@@ -25,35 +28,68 @@ class WebSocketWriter<T> implements EntityEventListener<T> {
         this.url = url;
         this.jsonView = jsonView;
         this.delete = delete;
+        this.destinations = new ConcurrentHashMap<>();
     }
 
     @Override
     public void entityChanged(T entity, int concern, int hver, int seq) {
+        prepareChanged(entity, concern, hver, seq).run();
+    }
+
+    @Override
+    public Runnable prepareChanged(T entity, int concern, int hver, int seq) {
         LOG.trace("Got changed entity: {}", entity);
 
         if (delete != null) {
             Integer deleteId = delete.apply(entity);
             if (deleteId != null) {
-                entityDeleted(deleteId, concern, hver, seq);
-                return;
+                return () -> entityDeleted(deleteId, concern, hver, seq);
             }
         }
 
-        String formattedUrl = String.format(url, concern);
-        LOG.debug("Publishing changed entity on WebSocket. URL: '{}', Entity: '{}', hver: '{}', cseq: '{}'", formattedUrl, entity, hver, seq);
-        messagingTemplate.send(formattedUrl, new SequencedResponse<>(hver, seq, entity), jsonView);
+        return preparePublish(entity, concern, getDestination(concern), hver, seq);
     }
 
     @Override
     public void entityDeleted(int id, int concern, int hver, int seq) {
-        String formattedUrl = String.format(url, concern);
+        String formattedUrl = getDestination(concern);
         LOG.debug("Publishing deleted entity on WebSocket. URL: '{}', ID: '{}', hver: '{}', cseq: '{}'", formattedUrl, id, hver, seq);
         messagingTemplate.send(formattedUrl, new SequencedDeleted(hver, seq, id), null);
     }
 
+    /**
+     * Serializes the changed entity and returns the task publishing it to the given destination, by default the full entity
+     * is sent.
+     */
+    protected Runnable preparePublish(T entity, int concern, String destination, int hver, int seq) {
+        if (!messagingTemplate.isAvailable()) {
+            return () -> {
+            };
+        }
+
+        LOG.debug("Publishing changed entity on WebSocket. URL: '{}', Entity: '{}', hver: '{}', cseq: '{}'", destination, entity, hver, seq);
+        byte[] payload = messagingTemplate.serialize(new SequencedResponse<>(hver, seq, entity), jsonView);
+        return () -> messagingTemplate.sendSerialized(destination, payload);
+    }
+
     @Override
     public boolean isSupported(final Class<?> supportedClass) {
         // This listener is registered dynamically for the correct type. No type check needed.
         return true;
     }
+
+    @Override
+    public boolean isGaplessSequenceRequired() {
+        // Clients perform a full reload if a sequence number is missing
+        return true;
+    }
+
+    protected String getDestination(final int concern) {
+        return destinations.computeIfAbsent(concern, c -> String.format(url, c));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + url + "}";
+    }
 }
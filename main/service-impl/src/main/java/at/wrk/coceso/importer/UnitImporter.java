@@ -6,6 +6,7 @@ import at.wrk.coceso.entity.User;
 import at.wrk.coceso.entity.enums.Errors;
 import at.wrk.coceso.entity.enums.UnitType;
 import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.entity.helper.UnitChanges;
 import at.wrk.coceso.entity.point.Point;
 import at.wrk.coceso.exceptions.ErrorsException;
 import at.wrk.coceso.service.UserService;
@@ -18,14 +19,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -52,26 +63,41 @@ public class UnitImporter {
   @Autowired
   private UserService userService;
 
-  public Map<Unit, Changes> importUnits(String data, Concern concern, Collection<Unit> existing) {
+  @Value("${import.units.home.threads:4}")
+  private int homeThreads;
+
+  public List<UnitChanges> importUnits(String data, Concern concern, Collection<Unit> existing) {
     // Put all existing units in cache
     Map<String, Unit> cache = existing.stream().collect(Collectors.toMap(Unit::getCall, Function.identity()));
 
-    CSVParser records;
+    // Parse the whole file first, so nothing is resolved or saved for an invalid file
+    List<CSVRecord> records;
+    Map<String, Integer> header;
     try {
-      records = CSVParser.parse(data, CSVFormat.RFC4180.withDelimiter(DELIMITER).withHeader());
-    } catch (IOException e) {
+      CSVParser parser = CSVParser.parse(data, CSVFormat.RFC4180.withDelimiter(DELIMITER).withHeader());
+      header = parser.getHeaderMap();
+      records = parser.getRecords();
+    } catch (IOException | IllegalStateException e) {
       throw new ErrorsException(Errors.Import, e);
     }
 
+    if (!header.containsKey(CALL)) {
+      LOG.info("Column '{}' is missing in unit import.", CALL);
+      throw new ErrorsException(Errors.Import);
+    }
+
     // Get crew fields
     List<Integer> crewFields = new LinkedList<>();
-    Map<String, Integer> header = records.getHeaderMap();
     if (header.containsKey(COMMANDER)) {
       crewFields.add(header.get(COMMANDER));
     }
     crewFields.addAll(header.entrySet().stream().filter(e -> e.getKey().startsWith(CREW)).map(Map.Entry::getValue).collect(Collectors.toList()));
 
-    Map<Unit, Changes> updated = new HashMap<>();
+    Map<String, Point> homes = resolveHomes(records, cache);
+    Map<Integer, User> crew = loadCrew(records, crewFields);
+
+    // Mapped by call, so a unit listed twice is only saved once
+    Map<String, UnitChanges> updated = new LinkedHashMap<>();
     for (CSVRecord record : records) {
       if (!record.isSet(CALL)) {
         continue;
@@ -126,8 +152,7 @@ public class UnitImporter {
       }
 
       if (record.isSet(HOME) && (isNew || Point.isEmpty(unit.getHome()))) {
-        String parsedHomePoint = record.get(HOME);
-        Point home = Point.create(parsedHomePoint, null, poiSupplier, null);
+        Point home = homes.get(record.get(HOME));
         unit.setHome(home);
         changes.put("home", null, home);
       }
@@ -139,14 +164,8 @@ public class UnitImporter {
           String parsedPersonnelIdString = record.get(i).trim();
           if (!parsedPersonnelIdString.isEmpty()) {
             String[] parts = parsedPersonnelIdString.split(" ", 2);
-            // Try to parse personnel number
-            User user = null;
-            try {
-              int pnr = Integer.parseInt(parts[0]);
-              user = userService.getByPersonnelId(pnr);
-            } catch (NumberFormatException e) {
-              LOG.debug("Could not parse personnel ID from '{}'.", parsedPersonnelIdString);
-            }
+            Integer pnr = parsePersonnelId(parts[0]);
+            User user = pnr == null ? null : crew.get(pnr);
 
             if (user == null) {
               unmappedCrew.add(parsedPersonnelIdString);
@@ -166,9 +185,79 @@ public class UnitImporter {
       }
 
       cache.put(unit.getCall(), unit);
-      updated.put(unit, changes);
+      updated.put(unit.getCall(), new UnitChanges(unit, changes));
+    }
+
+    return new ArrayList<>(updated.values());
+  }
+
+  /**
+   * Resolves the distinct home points of all units getting a home in parallel, as each may need a request to a geocoder
+   */
+  private Map<String, Point> resolveHomes(List<CSVRecord> records, Map<String, Unit> cache) {
+    Set<String> homes = records.stream()
+        .filter(record -> record.isSet(CALL) && record.isSet(HOME))
+        .filter(record -> !cache.containsKey(record.get(CALL)) || Point.isEmpty(cache.get(record.get(CALL)).getHome()))
+        .map(record -> record.get(HOME))
+        .collect(Collectors.toSet());
+    if (homes.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    LOG.debug("Resolving {} home points for unit import.", homes.size());
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(Math.min(homeThreads, homes.size()), 1));
+    try {
+      Map<String, CompletableFuture<Point>> futures = new HashMap<>();
+      homes.forEach(home -> futures.put(home, CompletableFuture.supplyAsync(
+          () -> Point.create(home, null, poiSupplier, null), executor)));
+
+      Map<String, Point> resolved = new HashMap<>();
+      futures.forEach((home, future) -> resolved.put(home, getResolved(future)));
+      return resolved;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Point getResolved(CompletableFuture<Point> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Loads the users for all personnel ids given in the crew fields with one query
+   */
+  private Map<Integer, User> loadCrew(List<CSVRecord> records, List<Integer> crewFields) {
+    Set<Integer> personnelIds = new HashSet<>();
+    records.forEach(record -> crewFields.forEach(i -> {
+      if (record.size() > i) {
+        Integer pnr = parsePersonnelId(record.get(i).trim().split(" ", 2)[0]);
+        if (pnr != null) {
+          personnelIds.add(pnr);
+        }
+      }
+    }));
+
+    return userService.getByPersonnelIds(personnelIds).stream()
+        .collect(Collectors.toMap(User::getPersonnelId, Function.identity(), (first, second) -> first));
+  }
+
+  private static Integer parsePersonnelId(String value) {
+    if (value.isEmpty()) {
+      return null;
     }
 
-    return updated;
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      LOG.debug("Could not parse personnel ID from '{}'.", value);
+      return null;
+    }
   }
 }
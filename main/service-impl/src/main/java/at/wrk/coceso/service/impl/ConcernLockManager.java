@@ -0,0 +1,50 @@
+package at.wrk.coceso.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Provides one lock per concern, so that task state changes in different concerns do not block each other. Within one concern
+ * all changes are still serialized, as the task state hooks may update the incident and other units of the same concern.
+ * The locks are reentrant, so nested calls (e.g. creating a hold position during a state change) are possible.
+ */
+@Component
+class ConcernLockManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcernLockManager.class);
+
+    private final ConcurrentMap<Integer, ReentrantLock> locks;
+
+    ConcernLockManager() {
+        this.locks = new ConcurrentHashMap<>();
+    }
+
+    public <T> T executeLocked(final int concernId, final Supplier<T> action) {
+        ReentrantLock lock = getLock(concernId);
+        lock.lock();
+        try {
+            LOG.trace("Acquired lock for concern #{}, hold count: {}", concernId, lock.getHoldCount());
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void executeLockedVoid(final int concernId, final Runnable action) {
+        executeLocked(concernId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    ReentrantLock getLock(final int concernId) {
+        // The number of concerns is small, so the locks are never removed.
+        return locks.computeIfAbsent(concernId, id -> new ReentrantLock(true));
+    }
+}
@@ -0,0 +1,148 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entityevent.impl.ConcernStateListener;
+import at.wrk.coceso.service.livestate.LiveStateStatistics;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Holds the JSON representation of all entities of a type for each loaded concern, updated by the entity events.
+ */
+class ConcernSnapshotCache<T extends ConcernBoundEntity> extends ConcernStateListener<T, Map<Integer, JsonNode>> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcernSnapshotCache.class);
+
+    private final String type;
+    private final Function<T, JsonNode> converter;
+    private final Predicate<T> included;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong invalidations;
+
+    ConcernSnapshotCache(final Class<T> type, final Function<T, JsonNode> converter, final Predicate<T> included) {
+        this(type, converter, included, DEFAULT_MAX_CONCERNS);
+    }
+
+    ConcernSnapshotCache(final Class<T> type, final Function<T, JsonNode> converter, final Predicate<T> included,
+                         final int maxConcerns) {
+        super("cached " + type.getSimpleName(), maxConcerns);
+        this.type = type.getSimpleName();
+        this.converter = converter;
+        this.included = included;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * Returns the cached entities of the concern, or null if the concern is not loaded
+     */
+    synchronized Snapshot get(final int concern) {
+        Map<Integer, JsonNode> snapshot = getState(concern);
+        if (snapshot == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return new Snapshot(getSeq(concern), new ArrayList<>(snapshot.values()));
+    }
+
+    /**
+     * Stores the entities loaded from the database for the concern, already converted to JSON and mapped by id
+     *
+     * @param seq The sequence number read before loading the entities
+     * @return true if the entities were stored, false if an event happened in the meantime
+     */
+    boolean put(final int concern, final int seq, final Map<Integer, JsonNode> entities) {
+        return putState(concern, seq, new LinkedHashMap<>(entities));
+    }
+
+    @Override
+    public synchronized boolean invalidate(final int concern) {
+        if (!super.invalidate(concern)) {
+            return false;
+        }
+
+        invalidations.incrementAndGet();
+        return true;
+    }
+
+    synchronized LiveStateStatistics getStatistics() {
+        int entities = getStates().stream().mapToInt(Map::size).sum();
+        return new LiveStateStatistics(type, getStates().size(), entities, hits.get(), misses.get(), invalidations.get());
+    }
+
+    @Override
+    public Runnable prepareChanged(final T entity, final int concern, final int hver, final int seq) {
+        if (getState(concern) == null) {
+            // Nothing to convert, but a concern loaded until the event is delivered may be missing the change
+            return () -> update(concern, seq, snapshot -> invalidate(concern));
+        }
+
+        // Converted on the publishing thread, the entity may not be readable anymore when the event is delivered
+        Consumer<Map<Integer, JsonNode>> update = toUpdate(entity, concern);
+        return () -> update(concern, seq, update);
+    }
+
+    @Override
+    protected void applyChanged(final Map<Integer, JsonNode> snapshot, final T entity, final int concern) {
+        toUpdate(entity, concern).accept(snapshot);
+    }
+
+    private Consumer<Map<Integer, JsonNode>> toUpdate(final T entity, final int concern) {
+        int id = entity.getId();
+        try {
+            if (!included.test(entity)) {
+                return snapshot -> snapshot.remove(id);
+            }
+
+            JsonNode node = converter.apply(entity);
+            return snapshot -> snapshot.put(id, node);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to update cached {} #{} of concern #{}.", type, id, concern, e);
+            return snapshot -> invalidate(concern);
+        }
+    }
+
+    @Override
+    protected void applyDeleted(final Map<Integer, JsonNode> snapshot, final int id) {
+        snapshot.remove(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcernSnapshotCache{" + type + "}";
+    }
+
+    static class Snapshot {
+
+        private final int seq;
+        private final List<JsonNode> entities;
+
+        private Snapshot(final int seq, final List<JsonNode> entities) {
+            this.seq = seq;
+            this.entities = entities;
+        }
+
+        int getSeq() {
+            return seq;
+        }
+
+        List<JsonNode> getEntities() {
+            return entities;
+        }
+    }
+}
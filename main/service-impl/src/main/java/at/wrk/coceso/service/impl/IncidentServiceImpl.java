@@ -10,8 +10,11 @@ import at.wrk.coceso.entity.enums.IncidentType;
 import at.wrk.coceso.entity.enums.LogEntryType;
 import at.wrk.coceso.entity.enums.TaskState;
 import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.entity.helper.IncidentTypeCount;
 import at.wrk.coceso.entity.point.Point;
 import at.wrk.coceso.entity.point.UnitPoint;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.entityevent.EntityEventHandler;
 import at.wrk.coceso.entityevent.impl.NotifyList;
 import at.wrk.coceso.exceptions.ErrorsException;
 import at.wrk.coceso.repository.IncidentRepository;
@@ -26,10 +29,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -58,10 +64,30 @@ class IncidentServiceImpl implements IncidentServiceInternal {
     private UnitService unitService;
 
     private final AuthenticatedUserProvider authenticatedUserProvider;
+    private final EntityEventHandler<Incident> incidentEventHandler;
+    private final IncidentStatisticsCache statistics;
+    private final boolean statisticsCached;
 
     @Autowired
-    IncidentServiceImpl(final AuthenticatedUserProvider authenticatedUserProvider) {
+    IncidentServiceImpl(
+            final AuthenticatedUserProvider authenticatedUserProvider,
+            final EntityEventFactory entityEventFactory,
+            @Value("${statistics.cache.enabled:false}") final boolean statisticsCached) {
         this.authenticatedUserProvider = authenticatedUserProvider;
+        this.incidentEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
+        this.statistics = new IncidentStatisticsCache();
+        this.statisticsCached = statisticsCached;
+
+        if (statisticsCached) {
+            incidentEventHandler.addListener(statistics);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (statisticsCached) {
+            incidentEventHandler.removeListener(statistics);
+        }
     }
 
     @Override
@@ -69,6 +95,11 @@ class IncidentServiceImpl implements IncidentServiceInternal {
         return incidentRepository.findById(id).orElse(null);
     }
 
+    @Override
+    public Integer getConcernId(final int incidentId) {
+        return incidentRepository.findConcernIdById(incidentId);
+    }
+
     @Override
     public List<Incident> getAll(Concern concern) {
         return incidentRepository.findByConcern(concern);
@@ -81,12 +112,42 @@ class IncidentServiceImpl implements IncidentServiceInternal {
 
     @Override
     public List<Incident> getAllRelevant(Concern concern) {
-        return incidentRepository.findRelevant(concern);
+        return incidentRepository.findRelevantWithUnits(concern);
+    }
+
+    @Override
+    public List<Incident> getPageForReport(final Concern concern, final int afterId, final int count) {
+        return incidentRepository.findNonSingleUnitAfter(concern, afterId, PageRequest.of(0, count));
+    }
+
+    @Override
+    public List<IncidentTypeCount> countByType(final Concern concern) {
+        return statisticsCached ? getStatistics(concern).getCountByType() : incidentRepository.countByType(concern);
+    }
+
+    @Override
+    public long countTreatedPatients(final Concern concern) {
+        return statisticsCached ? getStatistics(concern).getTreatedPatients() : incidentRepository.countTreatments(concern);
     }
 
     @Override
-    public List<Incident> getAllForReport(Concern concern) {
-        return incidentRepository.findNonSingleUnit(concern, SORT);
+    public long countTransportedPatients(final Concern concern) {
+        return statisticsCached ? getStatistics(concern).getTransportedPatients() : incidentRepository.countTransports(concern);
+    }
+
+    @Override
+    public void invalidateStatistics(final int concernId) {
+        statistics.invalidate(concernId);
+    }
+
+    private IncidentStatisticsCache.Statistics getStatistics(final Concern concern) {
+        IncidentStatisticsCache.Statistics cached = statistics.get(concern.getId());
+        if (cached != null) {
+            return cached;
+        }
+
+        int seq = incidentEventHandler.getSeq(concern.getId());
+        return statistics.put(concern.getId(), seq, incidentRepository.findStatisticsRows(concern));
     }
 
     @Override
@@ -222,6 +283,29 @@ class IncidentServiceImpl implements IncidentServiceInternal {
         notify.addIncident(updatedIncident);
     }
 
+    @Override
+    public void updateResolvedPoints(final int incidentId, final Point bo, final Point ao, final NotifyList notify) {
+        Incident incident = getById(incidentId);
+        if (incident == null) {
+            LOG.debug("Incident #{} was deleted before its points were resolved.", incidentId);
+            return;
+        }
+
+        boolean changed = false;
+        if (Point.isResolutionOf(bo, incident.getBo())) {
+            incident.setBo(bo);
+            changed = true;
+        }
+        if (Point.isResolutionOf(ao, incident.getAo())) {
+            incident.setAo(ao);
+            changed = true;
+        }
+
+        if (changed) {
+            notify.addIncident(incidentRepository.saveAndFlush(incident));
+        }
+    }
+
     private void postProcessUpdatedIncident(final NotifyList notify, final Incident updatedIncident, final Map<Unit, TaskState> units) {
         if (updatedIncident.getState().isDone()) {
             hookService.callIncidentDone(updatedIncident, notify);
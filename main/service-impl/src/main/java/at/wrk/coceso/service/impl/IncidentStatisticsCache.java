@@ -0,0 +1,171 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.helper.IncidentStatisticsRow;
+import at.wrk.coceso.entity.helper.IncidentTypeCount;
+import at.wrk.coceso.entity.point.UnitPoint;
+import at.wrk.coceso.entityevent.impl.ConcernStateListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the statistics of the incidents for each loaded concern, updated incrementally by the incident events.
+ * <p>
+ * For each incident only the attributes relevant for the statistics are kept, so the counts can be corrected if an incident
+ * changes its type or patient.
+ */
+class IncidentStatisticsCache extends ConcernStateListener<Incident, IncidentStatisticsCache.ConcernStatistics> {
+
+    IncidentStatisticsCache() {
+        super("incident statistics");
+    }
+
+    /**
+     * Returns the current statistics of the concern, or null if the concern is not loaded
+     */
+    synchronized Statistics get(final int concern) {
+        ConcernStatistics statistics = getState(concern);
+        return statistics == null ? null : statistics.toStatistics();
+    }
+
+    /**
+     * Computes the statistics of the incidents loaded from the database and stores them, if no event happened in the meantime
+     *
+     * @param seq The sequence number read before loading the incidents
+     * @return The statistics computed of the loaded incidents
+     */
+    Statistics put(final int concern, final int seq, final List<IncidentStatisticsRow> incidents) {
+        ConcernStatistics statistics = new ConcernStatistics();
+        incidents.forEach(statistics::update);
+        Statistics computed = statistics.toStatistics();
+        putState(concern, seq, statistics);
+        return computed;
+    }
+
+    @Override
+    protected void applyChanged(final ConcernStatistics statistics, final Incident entity, final int concern) {
+        statistics.update(new IncidentStatisticsRow(entity.getId(), entity.getType(), entity.isBlue(), entity.getPatientSlim(),
+                entity.getBo()));
+    }
+
+    @Override
+    protected void applyDeleted(final ConcernStatistics statistics, final int id) {
+        statistics.remove(id);
+    }
+
+    @Override
+    public String toString() {
+        return "IncidentStatisticsCache";
+    }
+
+    /**
+     * Statistics of a concern at one point in time
+     */
+    static class Statistics {
+
+        private final List<IncidentTypeCount> countByType;
+        private final long treatedPatients;
+        private final long transportedPatients;
+
+        private Statistics(final List<IncidentTypeCount> countByType, final long treatedPatients, final long transportedPatients) {
+            this.countByType = countByType;
+            this.treatedPatients = treatedPatients;
+            this.transportedPatients = transportedPatients;
+        }
+
+        /**
+         * The number of incidents for each type and blue flag, without the combinations not occurring
+         */
+        List<IncidentTypeCount> getCountByType() {
+            return countByType;
+        }
+
+        /**
+         * The number of distinct patients with a treatment incident
+         */
+        long getTreatedPatients() {
+            return treatedPatients;
+        }
+
+        /**
+         * The number of distinct patients with a transport to a treatment group
+         */
+        long getTransportedPatients() {
+            return transportedPatients;
+        }
+    }
+
+    static class ConcernStatistics {
+
+        private final Map<Integer, Entry> incidents = new HashMap<>();
+        private final Map<IncidentType, long[]> typeCounts = new EnumMap<>(IncidentType.class);
+        private final Map<Integer, Integer> treatedPatients = new HashMap<>();
+        private final Map<Integer, Integer> transportedPatients = new HashMap<>();
+
+        private void update(final IncidentStatisticsRow incident) {
+            Entry entry = new Entry(incident);
+            Entry previous = incidents.put(incident.getId(), entry);
+            if (previous != null) {
+                count(previous, -1);
+            }
+            count(entry, 1);
+        }
+
+        private void remove(final int incident) {
+            Entry previous = incidents.remove(incident);
+            if (previous != null) {
+                count(previous, -1);
+            }
+        }
+
+        private void count(final Entry entry, final int delta) {
+            if (entry.type != null) {
+                typeCounts.computeIfAbsent(entry.type, type -> new long[2])[entry.blue ? 1 : 0] += delta;
+            }
+            if (entry.treatedPatient != null) {
+                countPatient(treatedPatients, entry.treatedPatient, delta);
+            }
+            if (entry.transportedPatient != null) {
+                countPatient(transportedPatients, entry.transportedPatient, delta);
+            }
+        }
+
+        private static void countPatient(final Map<Integer, Integer> patients, final int patient, final int delta) {
+            // Counting the incidents of each patient, the map only contains patients with at least one incident
+            patients.merge(patient, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+
+        private Statistics toStatistics() {
+            List<IncidentTypeCount> countByType = new ArrayList<>();
+            typeCounts.forEach((type, counts) -> {
+                if (counts[0] > 0) {
+                    countByType.add(new IncidentTypeCount(type, false, counts[0]));
+                }
+                if (counts[1] > 0) {
+                    countByType.add(new IncidentTypeCount(type, true, counts[1]));
+                }
+            });
+            return new Statistics(countByType, treatedPatients.size(), transportedPatients.size());
+        }
+    }
+
+    private static class Entry {
+
+        private final IncidentType type;
+        private final boolean blue;
+        private final Integer treatedPatient;
+        private final Integer transportedPatient;
+
+        private Entry(final IncidentStatisticsRow incident) {
+            this.type = incident.getType();
+            this.blue = incident.isBlue();
+            this.treatedPatient = type == IncidentType.Treatment ? incident.getPatient() : null;
+            this.transportedPatient = type == IncidentType.Transport && incident.getBo() instanceof UnitPoint ? incident.getPatient() : null;
+        }
+    }
+}
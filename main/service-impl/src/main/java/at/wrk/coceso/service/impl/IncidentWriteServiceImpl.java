@@ -1,5 +1,6 @@
 package at.wrk.coceso.service.impl;
 
+import at.wrk.coceso.config.CocesoConfig;
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Incident;
 import at.wrk.coceso.entity.helper.JsonViews;
@@ -26,25 +27,36 @@ class IncidentWriteServiceImpl implements IncidentWriteService {
     private final IncidentServiceInternal incidentService;
     private final EntityEventHandler<Incident> entityEventHandler;
     private final EntityEventListener<Incident> entityEventListener;
+    private final EntityEventListener<Incident> deltaEventListener;
     private final NotifyListExecutor notifyListExecutor;
 
     @Autowired
     public IncidentWriteServiceImpl(
             final EntityEventFactory entityEventFactory,
             final IncidentServiceInternal incidentService,
-            final NotifyListExecutor notifyListExecutor) {
+            final NotifyListExecutor notifyListExecutor,
+            final CocesoConfig cocesoConfig) {
         this.incidentService = incidentService;
 
         this.entityEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
         this.entityEventListener = entityEventFactory.getWebSocketWriter("/topic/incident/main/%d", JsonViews.Main.class, INCIDENT_DELETE_FUNCTION);
+        this.deltaEventListener = cocesoConfig.isDeltaUpdates()
+                ? entityEventFactory.getDeltaWebSocketWriter("/topic/incident/main/delta/%d", JsonViews.Main.class, INCIDENT_DELETE_FUNCTION)
+                : null;
         this.notifyListExecutor = notifyListExecutor;
 
         this.entityEventHandler.addListener(entityEventListener);
+        if (deltaEventListener != null) {
+            this.entityEventHandler.addListener(deltaEventListener);
+        }
     }
 
     @PreDestroy
     public void destroy() {
         entityEventHandler.removeListener(entityEventListener);
+        if (deltaEventListener != null) {
+            entityEventHandler.removeListener(deltaEventListener);
+        }
     }
 
     @Override
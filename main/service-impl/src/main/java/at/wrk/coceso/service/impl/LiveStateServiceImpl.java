@@ -0,0 +1,187 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.helper.JsonViews;
+import at.wrk.coceso.entity.helper.SequencedResponse;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.entityevent.EntityEventHandler;
+import at.wrk.coceso.service.IncidentService;
+import at.wrk.coceso.service.LiveStateService;
+import at.wrk.coceso.service.UnitService;
+import at.wrk.coceso.service.livestate.LiveStateStatistics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+class LiveStateServiceImpl implements LiveStateService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiveStateServiceImpl.class);
+
+    private final UnitService unitService;
+    private final IncidentService incidentService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private final EntityEventHandler<Unit> unitEventHandler;
+    private final EntityEventHandler<Incident> incidentEventHandler;
+    private final ConcernSnapshotCache<Unit> units;
+    private final ConcernSnapshotCache<Incident> incidents;
+
+    @Autowired
+    public LiveStateServiceImpl(
+            final EntityEventFactory entityEventFactory,
+            final UnitService unitService,
+            final IncidentService incidentService,
+            final ObjectMapper objectMapper,
+            @Value("${livestate.cache.enabled:false}") final boolean enabled,
+            @Value("${livestate.cache.concerns:10}") final int maxConcerns) {
+        this.unitService = unitService;
+        this.incidentService = incidentService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+
+        this.unitEventHandler = entityEventFactory.getEntityEventHandler(Unit.class);
+        this.incidentEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
+        this.units = new ConcernSnapshotCache<>(Unit.class, this::toTree, unit -> true, maxConcerns);
+        this.incidents = new ConcernSnapshotCache<>(Incident.class, this::toTree, Incident::isRelevant, maxConcerns);
+
+        if (enabled) {
+            unitEventHandler.addListener(units);
+            incidentEventHandler.addListener(incidents);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (enabled) {
+            unitEventHandler.removeListener(units);
+            incidentEventHandler.removeListener(incidents);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public SequencedResponse<List<JsonNode>> getUnitsForMain(final Concern concern) {
+        return get(concern, unitEventHandler, units, () -> loadUnits(concern));
+    }
+
+    @Override
+    public SequencedResponse<List<JsonNode>> getIncidentsForMain(final Concern concern) {
+        return get(concern, incidentEventHandler, incidents, () -> loadIncidents(concern));
+    }
+
+    @Override
+    public boolean verify(final Concern concern) {
+        boolean unitsValid = verify(concern, unitEventHandler, units, () -> loadUnits(concern));
+        boolean incidentsValid = verify(concern, incidentEventHandler, incidents, () -> loadIncidents(concern));
+        return unitsValid && incidentsValid;
+    }
+
+    @Override
+    public void invalidate(final int concernId) {
+        units.invalidate(concernId);
+        incidents.invalidate(concernId);
+    }
+
+    @Override
+    public List<LiveStateStatistics> getStatistics() {
+        return Arrays.asList(units.getStatistics(), incidents.getStatistics());
+    }
+
+    private List<Unit> loadUnits(final Concern concern) {
+        return unitService.getAllWithTasks(concern);
+    }
+
+    private List<Incident> loadIncidents(final Concern concern) {
+        return incidentService.getAllRelevant(concern);
+    }
+
+    private <T extends ConcernBoundEntity> SequencedResponse<List<JsonNode>> get(
+            final Concern concern,
+            final EntityEventHandler<T> handler,
+            final ConcernSnapshotCache<T> cache,
+            final Supplier<List<T>> loader) {
+        if (enabled) {
+            ConcernSnapshotCache.Snapshot snapshot = cache.get(concern.getId());
+            if (snapshot != null) {
+                return new SequencedResponse<>(handler.getHver(), snapshot.getSeq(), snapshot.getEntities());
+            }
+        }
+
+        // The sequence number has to be read before loading, so changes in the meantime are applied again by the client
+        int seq = handler.getSeq(concern.getId());
+        Map<Integer, JsonNode> entities = new LinkedHashMap<>();
+        loader.get().forEach(entity -> entities.put(entity.getId(), toTree(entity)));
+        if (enabled) {
+            cache.put(concern.getId(), seq, entities);
+        }
+        return new SequencedResponse<>(handler.getHver(), seq, new ArrayList<>(entities.values()));
+    }
+
+    private <T extends ConcernBoundEntity> boolean verify(
+            final Concern concern,
+            final EntityEventHandler<T> handler,
+            final ConcernSnapshotCache<T> cache,
+            final Supplier<List<T>> loader) {
+        int seq = handler.getSeq(concern.getId());
+        List<T> entities = loader.get();
+
+        ConcernSnapshotCache.Snapshot snapshot = cache.get(concern.getId());
+        if (snapshot == null || snapshot.getSeq() != seq) {
+            // Nothing cached or events still pending, no comparable state
+            return true;
+        }
+
+        Map<JsonNode, JsonNode> cached = snapshot.getEntities().stream()
+                .collect(Collectors.toMap(node -> node.get("id"), Function.identity()));
+        Map<JsonNode, JsonNode> loaded = new HashMap<>();
+        entities.forEach(entity -> {
+            JsonNode node = toTree(entity);
+            loaded.put(node.get("id"), node);
+        });
+
+        if (!Objects.equals(cached, loaded)) {
+            LOG.warn("Cached state of concern #{} differs from the database, dropping it.", concern.getId());
+            cache.invalidate(concern.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private JsonNode toTree(final Object entity) {
+        try (TokenBuffer buffer = new TokenBuffer(objectMapper, false)) {
+            objectMapper.writerWithView(JsonViews.Main.class).writeValue(buffer, entity);
+            return objectMapper.readTree(buffer.asParser());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not convert entity to JSON", e);
+        }
+    }
+}
@@ -17,18 +17,23 @@ import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -38,35 +43,53 @@ class LogServiceImpl implements LogService {
     private final static Sort TIMESTAMP_DESCENDING = Sort.by(Sort.Direction.DESC, "timestamp");
     private final static Sort TIMESTAMP_ASCENDING = Sort.by(Sort.Direction.ASC, "timestamp");
 
+    private final static Sort TIMESTAMP_ID_DESCENDING = Sort.by(Sort.Direction.DESC, "timestamp", "id");
+    private final static Sort TIMESTAMP_ID_ASCENDING = Sort.by(Sort.Direction.ASC, "timestamp", "id");
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final static Set<LogEntryType> OVERVIEW_ENTRY_TYPE = ImmutableSet.of(
             LogEntryType.UNIT_ASSIGN,
             LogEntryType.UNIT_DETACH,
             LogEntryType.UNIT_AUTO_DETACH,
             LogEntryType.TASKSTATE_CHANGED);
 
-    @Autowired
-    private LogRepository logRepository;
+    /**
+     * Types of entries considered as update of a task, see {@link #getLastTaskStateUpdate(Incident, Unit)}
+     */
+    final static Set<LogEntryType> TASK_STATE_UPDATE_TYPES = ImmutableSet.of(
+            LogEntryType.TASKSTATE_CHANGED,
+            LogEntryType.UNIT_ASSIGN,
+            LogEntryType.UNIT_DETACH,
+            LogEntryType.UNIT_AUTO_DETACH);
 
+    private final LogRepository logRepository;
     private final AuthenticatedUserProvider authenticatedUserProvider;
+    private final boolean batched;
 
     @Autowired
-    LogServiceImpl(final AuthenticatedUserProvider authenticatedUserProvider) {
+    LogServiceImpl(
+            final LogRepository logRepository,
+            final AuthenticatedUserProvider authenticatedUserProvider,
+            @Value("${log.write.batched:false}") final boolean batched) {
+        this.logRepository = logRepository;
         this.authenticatedUserProvider = authenticatedUserProvider;
+        this.batched = batched;
     }
 
     @Override
     public void logAuto(final LogEntryType type, final Concern concern, final Changes changes) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, null, null, null, null, changes));
+        write(new LogEntry(getUser(), type, type.name(), concern, null, null, null, null, changes));
     }
 
     @Override
     public void logAuto(final LogEntryType type, final Concern concern, final Unit unit, final Incident incident, final Changes changes) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, null, changes));
+        write(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, null, changes));
     }
 
     @Override
     public void logAuto(final LogEntryType type, final Concern concern, final Unit unit, final Incident incident, final TaskState state) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, state, null));
+        write(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, state, null));
     }
 
     @Override
@@ -76,22 +99,27 @@ class LogServiceImpl implements LogService {
             final Incident incident,
             final TaskState state,
             final Changes changes) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, state, changes));
+        write(new LogEntry(getUser(), type, type.name(), concern, unit, incident, null, state, changes));
     }
 
     @Override
     public void logAuto(final LogEntryType type, final Concern concern, final Patient patient, final Changes changes) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, null, null, patient, null, changes));
+        write(new LogEntry(getUser(), type, type.name(), concern, null, null, patient, null, changes));
     }
 
     @Override
     public void logAuto(final LogEntryType type, final Concern concern, final Incident incident, final Patient patient) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), type, type.name(), concern, null, incident, patient, null, null));
+        write(new LogEntry(getUser(), type, type.name(), concern, null, incident, patient, null, null));
     }
 
     @Override
     public void logCustom(final String text, final Concern concern, final Unit unit, final Incident incident) {
-        logRepository.saveAndFlush(new LogEntry(getUser(), LogEntryType.CUSTOM, text, concern, unit, incident, null, null, null));
+        write(new LogEntry(getUser(), LogEntryType.CUSTOM, text, concern, unit, incident, null, null, null));
+    }
+
+    @Override
+    public void batchLogEntries() {
+        PendingLogEntries.forCurrentTransaction(logRepository);
     }
 
     @Override
@@ -114,6 +142,16 @@ class LogServiceImpl implements LogService {
         return logRepository.findByIncident(incident, TIMESTAMP_ASCENDING);
     }
 
+    @Override
+    public List<LogEntry> getByIncidentsAsc(final Collection<Incident> incidents) {
+        return incidents.isEmpty() ? new ArrayList<>() : logRepository.findByIncidentList(incidents, TIMESTAMP_ID_ASCENDING);
+    }
+
+    @Override
+    public List<LogEntry> getByUnitsAsc(final Collection<Unit> units) {
+        return units.isEmpty() ? new ArrayList<>() : logRepository.findByUnitList(units, TIMESTAMP_ID_ASCENDING);
+    }
+
     @Override
     public List<LogEntry> getByUnit(final Unit unit) {
         return logRepository.findByUnit(unit, TIMESTAMP_DESCENDING);
@@ -147,10 +185,16 @@ class LogServiceImpl implements LogService {
     @Override
     public Timestamp getLastTaskStateUpdate(final Incident incident, final Unit unit) {
         List<LogEntry> last = logRepository.findLast(PageRequest.of(0, 1), incident, unit,
-                LogEntryType.TASKSTATE_CHANGED, LogEntryType.UNIT_ASSIGN, LogEntryType.UNIT_DETACH, LogEntryType.UNIT_AUTO_DETACH);
+                TASK_STATE_UPDATE_TYPES.toArray(new LogEntryType[0]));
         return last.isEmpty() ? null : last.get(0).getTimestamp();
     }
 
+    @Override
+    public int getLastId(final Concern concern) {
+        Integer lastId = logRepository.findLastId(concern);
+        return lastId == null ? 0 : lastId;
+    }
+
     @Override
     public List<LogEntry> getCustom(final Concern concern) {
         return logRepository.findByConcernAndType(concern, LogEntryType.CUSTOM, TIMESTAMP_DESCENDING);
@@ -161,12 +205,76 @@ class LogServiceImpl implements LogService {
         return logRepository.findByConcernAndType(concern, LogEntryType.CUSTOM, TIMESTAMP_ASCENDING);
     }
 
+    @Override
+    public List<LogEntry> getPage(final Concern concern, final Timestamp beforeTimestamp, final Integer beforeId, final int count) {
+        return isFirstPage(beforeTimestamp, beforeId)
+                ? logRepository.findByConcern(concern, PageRequest.of(0, count, TIMESTAMP_ID_DESCENDING))
+                : logRepository.findByConcernBefore(concern, beforeTimestamp, beforeId, PageRequest.of(0, count));
+    }
+
+    @Override
+    public List<LogEntry> getCustomPage(final Concern concern, final Timestamp beforeTimestamp, final Integer beforeId, final int count) {
+        return isFirstPage(beforeTimestamp, beforeId)
+                ? logRepository.findByConcernAndType(concern, LogEntryType.CUSTOM, PageRequest.of(0, count, TIMESTAMP_ID_DESCENDING))
+                : logRepository.findByConcernAndTypeBefore(concern, LogEntryType.CUSTOM, beforeTimestamp, beforeId, PageRequest.of(0, count));
+    }
+
+    @Override
+    public List<LogEntry> getPageByUnit(final Unit unit, final Timestamp beforeTimestamp, final Integer beforeId, final int count) {
+        return isFirstPage(beforeTimestamp, beforeId)
+                ? logRepository.findByUnit(unit, PageRequest.of(0, count, TIMESTAMP_ID_DESCENDING))
+                : logRepository.findByUnitBefore(unit, beforeTimestamp, beforeId, PageRequest.of(0, count));
+    }
+
+    @Override
+    public void streamAll(final Concern concern, final Consumer<LogEntry> consumer) {
+        try (Stream<LogEntry> entries = logRepository.streamByConcern(concern, null, Sort.Direction.DESC, STREAM_FETCH_SIZE)) {
+            entries.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamCustom(final Concern concern, final Consumer<LogEntry> consumer) {
+        try (Stream<LogEntry> entries = logRepository.streamByConcern(concern, LogEntryType.CUSTOM, Sort.Direction.DESC, STREAM_FETCH_SIZE)) {
+            entries.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamCustomAsc(final Concern concern, final Consumer<LogEntry> consumer) {
+        try (Stream<LogEntry> entries = logRepository.streamByConcern(concern, LogEntryType.CUSTOM, Sort.Direction.ASC, STREAM_FETCH_SIZE)) {
+            entries.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamByUnit(final Unit unit, final Consumer<LogEntry> consumer) {
+        try (Stream<LogEntry> entries = logRepository.streamByUnit(unit, Sort.Direction.DESC, STREAM_FETCH_SIZE)) {
+            entries.forEach(consumer);
+        }
+    }
+
     @Override
     public void updateForRemoval(final Unit unit) {
         logRepository.updateForRemoval(unit);
     }
 
 
+    private static boolean isFirstPage(final Timestamp beforeTimestamp, final Integer beforeId) {
+        return beforeTimestamp == null || beforeId == null;
+    }
+
+    private void write(final LogEntry entry) {
+        PendingLogEntries pending = batched
+                ? PendingLogEntries.forCurrentTransaction(logRepository)
+                : PendingLogEntries.getCurrentTransaction();
+        if (pending != null) {
+            pending.add(entry);
+        } else {
+            logRepository.saveAndFlush(entry);
+        }
+    }
+
     private List<LogEntry> getLogEntriesForPatient(final Patient patient, final Predicate<LogEntry> logEntryFilter) {
         List<LogEntry> logEntries = new LinkedList<>(logRepository.findByPatient(patient, TIMESTAMP_DESCENDING));
         if (patient.getIncidents() != null && !patient.getIncidents().isEmpty()) {
@@ -0,0 +1,253 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.enums.Errors;
+import at.wrk.coceso.exceptions.ErrorsException;
+import at.wrk.coceso.service.LogService;
+import at.wrk.coceso.service.PdfJobService;
+import at.wrk.coceso.service.PdfService;
+import at.wrk.coceso.service.pdf.PdfJob;
+import at.wrk.coceso.service.pdf.PdfType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+class PdfJobServiceImpl implements PdfJobService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PdfJobServiceImpl.class);
+
+    private final PdfService pdfService;
+    private final LogService logService;
+    private final Path directory;
+    private final long retentionMillis;
+    private final ExecutorService executor;
+
+    // Guarded by this
+    private final Map<String, Job> jobs;
+    private final Map<String, Job> rendering;
+
+    @Autowired
+    public PdfJobServiceImpl(
+            final PdfService pdfService,
+            final LogService logService,
+            @Value("${pdf.job.threads:2}") final int threads,
+            @Value("${pdf.job.queue.capacity:10}") final int queueCapacity,
+            @Value("${pdf.job.directory:}") final String directory,
+            @Value("${pdf.job.retention.minutes:60}") final long retentionMinutes) {
+        this.pdfService = pdfService;
+        this.logService = logService;
+        this.directory = directory.isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "coceso-pdf")
+                : Paths.get(directory);
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        this.jobs = new HashMap<>();
+        this.rendering = new HashMap<>();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        int poolSize = Math.max(threads, 1);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), runnable -> {
+            Thread thread = new Thread(runnable, "pdf-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public PdfJob submit(final PdfType type, final Concern concern, final boolean fullDate, final Locale locale) {
+        String variant = String.format("%s-%s", fullDate ? "full" : "time", locale.toLanguageTag());
+        String key = String.format("%d-%s-%d-%s", concern.getId(), type, logService.getLastId(concern), variant);
+        return submit(key, variant, type, concern, fullDate, locale);
+    }
+
+    private synchronized PdfJob submit(
+            final String key,
+            final String variant,
+            final PdfType type,
+            final Concern concern,
+            final boolean fullDate,
+            final Locale locale) {
+        removeExpiredJobs();
+
+        Job running = rendering.get(key);
+        if (running != null) {
+            LOG.debug("PDF {} is already rendered by job {}", key, running.id);
+            return running.toPdfJob();
+        }
+
+        Job job = new Job(type, concern.getId(), variant, directory.resolve(key + ".pdf"));
+        if (Files.isRegularFile(job.file)) {
+            LOG.debug("PDF {} is served from file", key);
+            job.finish(PdfJob.State.DONE, true);
+            jobs.put(job.id, job);
+            return job.toPdfJob();
+        }
+
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(() -> render(job, key, concern, fullDate, locale)));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Too many PDFs waiting to be rendered, rejected {}", key);
+            throw new ErrorsException(Errors.PdfQueueFull, e);
+        }
+
+        jobs.put(job.id, job);
+        rendering.put(key, job);
+        return job.toPdfJob();
+    }
+
+    @Override
+    public synchronized PdfJob getJob(final String id) {
+        removeExpiredJobs();
+
+        Job job = jobs.get(id);
+        return job == null ? null : job.toPdfJob();
+    }
+
+    @Override
+    public synchronized Path getFile(final String id) {
+        Job job = jobs.get(id);
+        return job != null && job.state == PdfJob.State.DONE && Files.isRegularFile(job.file) ? job.file : null;
+    }
+
+    private void render(final Job job, final String key, final Concern concern, final boolean fullDate, final Locale locale) {
+        job.state = PdfJob.State.RUNNING;
+        LOG.info("Start rendering PDF {} in job {}", key, job.id);
+
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream output = new CountingOutputStream(Files.newOutputStream(temp), job.written)) {
+                pdfService.generate(job.type, concern, fullDate, output, locale);
+            }
+
+            Files.move(temp, job.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deletePreviousFiles(job);
+            job.finish(PdfJob.State.DONE, false);
+            LOG.info("Finished rendering PDF {} in job {}", key, job.id);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to render PDF {} in job {}", key, job.id, e);
+            job.finish(PdfJob.State.FAILED, false);
+            deleteQuietly(temp);
+        } finally {
+            synchronized (this) {
+                rendering.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Deletes the files of the same document rendered for an earlier state of the concern
+     */
+    private void deletePreviousFiles(final Job job) throws IOException {
+        String pattern = String.format("%d-%s-*-%s.pdf", job.concern, job.type, job.variant);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+            for (Path file : files) {
+                if (!file.equals(job.file)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private void removeExpiredJobs() {
+        long expired = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < expired);
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete file {}", file, e);
+            }
+        }
+    }
+
+    private static class Job {
+
+        private final String id;
+        private final PdfType type;
+        private final int concern;
+        private final String variant;
+        private final Path file;
+        private final AtomicLong written;
+
+        private volatile PdfJob.State state;
+        private volatile boolean cached;
+        private volatile long finishedAt;
+
+        private Job(final PdfType type, final int concern, final String variant, final Path file) {
+            this.id = UUID.randomUUID().toString();
+            this.type = type;
+            this.concern = concern;
+            this.variant = variant;
+            this.file = file;
+            this.written = new AtomicLong();
+            this.state = PdfJob.State.QUEUED;
+        }
+
+        private void finish(final PdfJob.State state, final boolean cached) {
+            this.cached = cached;
+            this.finishedAt = System.currentTimeMillis();
+            this.state = state;
+        }
+
+        private PdfJob toPdfJob() {
+            return new PdfJob(id, type, concern, state, written.get(), cached);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final AtomicLong count;
+
+        private CountingOutputStream(final OutputStream out, final AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package at.wrk.coceso.service.impl;
 
+import at.wrk.coceso.data.AuthenticatedUser;
 import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.ConcernBoundEntity;
 import at.wrk.coceso.entity.Incident;
 import at.wrk.coceso.entity.LogEntry;
 import at.wrk.coceso.entity.Unit;
@@ -10,8 +12,11 @@ import at.wrk.coceso.service.LogService;
 import at.wrk.coceso.service.PatientService;
 import at.wrk.coceso.service.PdfService;
 import at.wrk.coceso.service.UnitService;
+import at.wrk.coceso.service.pdf.PdfType;
 import at.wrk.coceso.utils.AuthenticatedUserProvider;
 import at.wrk.coceso.utils.impl.PdfDocument;
+import at.wrk.coceso.utils.impl.PdfReportPage;
+import com.google.common.collect.AbstractIterator;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.PageSize;
 import org.slf4j.Logger;
@@ -23,14 +28,16 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.IntFunction;
 
 @Service
 @Transactional
@@ -38,6 +45,12 @@ class PdfServiceImpl implements PdfService {
 
     private final static Logger LOG = LoggerFactory.getLogger(PdfServiceImpl.class);
 
+    // Number of units or incidents loaded at once for the final report
+    private final static int REPORT_PAGE_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private MessageSource messageSource;
 
@@ -61,23 +74,15 @@ class PdfServiceImpl implements PdfService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public void generateReport(
             final Concern concern,
             final boolean fullDate,
             final HttpServletResponse response,
             final Locale locale) {
-        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
-            addContentDispositionHeaderWithFilename(response, "coceso-report");
-            addContentTypeHeader(response);
-
-            doc.start(response);
-            doc.addFrontPage("pdf.report.header", concern, authenticatedUserProvider.getAuthenticatedUser());
-            doc.addStatistics(incidentService.getAll(concern));
-            doc.addCustomLog(logService.getCustomAsc(concern));
-            doc.addUnitsLog(unitService.getAllSorted(concern));
-            doc.addIncidentsLog(incidentService.getAllForReport(concern));
-            doc.addLastPage();
-
+        addHeaders(response, PdfType.REPORT);
+        try {
+            writeReport(concern, fullDate, authenticatedUserProvider.getAuthenticatedUser(), response.getOutputStream(), locale);
             LOG.info("PDF for concern {} completely written", concern);
         } catch (IOException | DocumentException e) {
             LOG.error("Error on printing pdf for concern {}", concern, e);
@@ -90,17 +95,9 @@ class PdfServiceImpl implements PdfService {
             final boolean fullDate,
             final HttpServletResponse response,
             final Locale locale) {
-        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
-            addContentDispositionHeaderWithFilename(response, "coceso-dump");
-            addContentTypeHeader(response);
-
-            doc.start(response);
-            doc.addFrontPage("pdf.dump.header", concern, authenticatedUserProvider.getAuthenticatedUser());
-            doc.addUnitsCurrent(unitService.getAllSorted(concern));
-            doc.addIncidentsCurrent(incidentService.getAllForDump(concern));
-            doc.addLastPage();
-
-
+        addHeaders(response, PdfType.DUMP);
+        try {
+            writeDump(concern, fullDate, authenticatedUserProvider.getAuthenticatedUser(), response.getOutputStream(), locale);
             LOG.info("PDF for concern {} completely written", concern);
         } catch (IOException | DocumentException e) {
             LOG.error("Error on printing pdf for concern {}", concern, e);
@@ -113,15 +110,9 @@ class PdfServiceImpl implements PdfService {
             final boolean fullDate,
             final HttpServletResponse response,
             final Locale locale) {
-        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
-            addContentDispositionHeaderWithFilename(response, "coceso-transport-report");
-            addContentTypeHeader(response);
-
-            doc.start(response);
-            doc.addFrontPage("pdf.transport.header", concern, authenticatedUserProvider.getAuthenticatedUser());
-            doc.addTransports(incidentService.getAllTransports(concern));
-            doc.addLastPage();
-
+        addHeaders(response, PdfType.TRANSPORT);
+        try {
+            writeTransport(concern, fullDate, authenticatedUserProvider.getAuthenticatedUser(), response.getOutputStream(), locale);
             LOG.info("PDF for concern {} completely written", concern);
         } catch (IOException | DocumentException e) {
             LOG.error("Error on printing pdf for concern {}", concern, e);
@@ -133,15 +124,9 @@ class PdfServiceImpl implements PdfService {
             final Concern concern,
             final HttpServletResponse response,
             final Locale locale) {
-        try (final PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), false, this, messageSource, locale)) {
-            addContentDispositionHeaderWithFilename(response, "coceso-patient-report");
-            addContentTypeHeader(response);
-
-            doc.start(response);
-            doc.addFrontPage("pdf.patients.header", concern, authenticatedUserProvider.getAuthenticatedUser());
-            doc.addPatients(patientService.getAllSorted(concern));
-            doc.addLastPage();
-
+        addHeaders(response, PdfType.PATIENTS);
+        try {
+            writePatients(concern, authenticatedUserProvider.getAuthenticatedUser(), response.getOutputStream(), locale);
             LOG.info("PDF for concern {} completely written", concern);
         } catch (IOException | DocumentException e) {
             LOG.error("Error on printing pdf for concern {}", concern, e);
@@ -149,13 +134,94 @@ class PdfServiceImpl implements PdfService {
     }
 
     @Override
-    public List<LogEntry> getLogByIncident(final Incident incident) {
-        return logService.getByIncidentAsc(incident);
+    @Transactional(readOnly = true)
+    public void generate(
+            final PdfType type,
+            final Concern concern,
+            final boolean fullDate,
+            final OutputStream output,
+            final Locale locale) throws IOException {
+        // The document is stored to be served to other users as well, so it does not name the requesting user
+        try {
+            switch (type) {
+                case REPORT:
+                    writeReport(concern, fullDate, null, output, locale);
+                    break;
+                case DUMP:
+                    writeDump(concern, fullDate, null, output, locale);
+                    break;
+                case TRANSPORT:
+                    writeTransport(concern, fullDate, null, output, locale);
+                    break;
+                case PATIENTS:
+                    writePatients(concern, null, output, locale);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported PDF type " + type);
+            }
+            LOG.info("PDF {} for concern {} completely written", type, concern);
+        } catch (DocumentException e) {
+            throw new IOException("Error on printing pdf for concern " + concern, e);
+        }
     }
 
-    @Override
-    public List<LogEntry> getLogByUnit(final Unit unit) {
-        return logService.getByUnitAsc(unit);
+    private void writeReport(
+            final Concern concern,
+            final boolean fullDate,
+            final AuthenticatedUser user,
+            final OutputStream output,
+            final Locale locale)
+            throws IOException, DocumentException {
+        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
+            doc.start(output);
+            doc.addFrontPage("pdf.report.header", concern, user);
+            doc.addStatistics(incidentService.countByType(concern));
+            doc.addCustomLog(consumer -> logService.streamCustomAsc(concern, consumer));
+            doc.addUnitsLog(pages(afterId -> loadUnitsPage(concern, afterId)));
+            doc.addIncidentsLog(pages(afterId -> loadIncidentsPage(concern, afterId)));
+            doc.addLastPage();
+        }
+    }
+
+    private void writeDump(
+            final Concern concern,
+            final boolean fullDate,
+            final AuthenticatedUser user,
+            final OutputStream output,
+            final Locale locale)
+            throws IOException, DocumentException {
+        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
+            doc.start(output);
+            doc.addFrontPage("pdf.dump.header", concern, user);
+            doc.addUnitsCurrent(unitService.getAllSorted(concern));
+            doc.addIncidentsCurrent(incidentService.getAllForDump(concern));
+            doc.addLastPage();
+        }
+    }
+
+    private void writeTransport(
+            final Concern concern,
+            final boolean fullDate,
+            final AuthenticatedUser user,
+            final OutputStream output,
+            final Locale locale)
+            throws IOException, DocumentException {
+        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), fullDate, this, messageSource, locale)) {
+            doc.start(output);
+            doc.addFrontPage("pdf.transport.header", concern, user);
+            doc.addTransports(incidentService.getAllTransports(concern));
+            doc.addLastPage();
+        }
+    }
+
+    private void writePatients(final Concern concern, final AuthenticatedUser user, final OutputStream output, final Locale locale)
+            throws IOException, DocumentException {
+        try (PdfDocument doc = new PdfDocument(PageSize.A4.rotate(), false, this, messageSource, locale)) {
+            doc.start(output);
+            doc.addFrontPage("pdf.patients.header", concern, user);
+            doc.addPatients(patientService.getAllSorted(concern));
+            doc.addLastPage();
+        }
     }
 
     @Override
@@ -168,12 +234,45 @@ class PdfServiceImpl implements PdfService {
         return logService.getLastTaskStateUpdate(incident, unit);
     }
 
-    private static void addContentTypeHeader(final HttpServletResponse response) {
-        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+    private PdfReportPage<Unit> loadUnitsPage(final Concern concern, final int afterId) {
+        List<Unit> units = unitService.getPageSorted(concern, afterId, REPORT_PAGE_SIZE);
+        return PreloadedReportPage.ofUnits(units, logService.getByUnitsAsc(units));
     }
 
-    private void addContentDispositionHeaderWithFilename(final HttpServletResponse response, final String reportTypeFilenameSuffix) {
-        String filename = String.format("%s_%s.pdf", DateTimeFormatter.ISO_DATE.format(LocalDate.now()), reportTypeFilenameSuffix);
-        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "filename=" + filename);
+    private PdfReportPage<Incident> loadIncidentsPage(final Concern concern, final int afterId) {
+        List<Incident> incidents = incidentService.getPageForReport(concern, afterId, REPORT_PAGE_SIZE);
+
+        // The units have to be loaded with their tasks before the log, which then references the same instances
+        unitService.getRelatedWithTasks(incidents);
+        return PreloadedReportPage.ofIncidents(incidents, logService.getByIncidentsAsc(incidents));
+    }
+
+    /**
+     * Loads the pages one after the other while iterating, starting after the last entity of the previous page. All entities
+     * are removed from the persistence context before loading the next page, so memory usage does not depend on the size of
+     * the concern.
+     */
+    private <T extends ConcernBoundEntity> Iterable<PdfReportPage<T>> pages(final IntFunction<PdfReportPage<T>> loader) {
+        return () -> new AbstractIterator<PdfReportPage<T>>() {
+            private int lastId = 0;
+
+            @Override
+            protected PdfReportPage<T> computeNext() {
+                entityManager.clear();
+                PdfReportPage<T> page = loader.apply(lastId);
+                List<T> entities = page.getEntities();
+                if (entities.isEmpty()) {
+                    return endOfData();
+                }
+
+                lastId = entities.get(entities.size() - 1).getId();
+                return page;
+            }
+        };
+    }
+
+    private static void addHeaders(final HttpServletResponse response, final PdfType type) {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "filename=" + type.createFilename());
     }
 }
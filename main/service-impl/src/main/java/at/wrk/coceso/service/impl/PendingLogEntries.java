@@ -0,0 +1,101 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.repository.LogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the log entries written in a transaction and inserts them as one batch right before the transaction is committed.
+ * <p>
+ * The entries are inserted within the transaction, so they are rolled back together with the changes they describe. The
+ * timestamp is set when an entry is added, the entries are inserted in the same order. Queries in the same transaction insert
+ * the pending entries first, see {@link PendingLogEntriesIntegrator}.
+ */
+class PendingLogEntries implements TransactionSynchronization {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PendingLogEntries.class);
+
+    private final LogRepository logRepository;
+    private final List<LogEntry> entries;
+
+    private PendingLogEntries(final LogRepository logRepository) {
+        this.logRepository = logRepository;
+        this.entries = new ArrayList<>();
+    }
+
+    /**
+     * Returns the pending entries of the current transaction, or null if no transaction with synchronization is active
+     */
+    static PendingLogEntries forCurrentTransaction(final LogRepository logRepository) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        // Synchronizations are suspended with their transaction, so each transaction gets its own instance
+        PendingLogEntries pending = getCurrentTransaction();
+        if (pending == null) {
+            pending = new PendingLogEntries(logRepository);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the pending entries already registered for the current transaction, or null if entries are not batched
+     */
+    static PendingLogEntries getCurrentTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (synchronization instanceof PendingLogEntries) {
+                    return (PendingLogEntries) synchronization;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the pending entries of the current transaction, so they are visible to queries in the same transaction
+     */
+    static void flushCurrentTransaction() {
+        PendingLogEntries pending = getCurrentTransaction();
+        if (pending != null) {
+            pending.flush();
+        }
+    }
+
+    void add(final LogEntry entry) {
+        entry.prePersist();
+        entries.add(entry);
+    }
+
+    @Override
+    public void flush() {
+        if (!entries.isEmpty()) {
+            List<LogEntry> batch = new ArrayList<>(entries);
+            entries.clear();
+            LOG.trace("Inserting {} log entries.", batch.size());
+            logRepository.insertBatch(batch);
+        }
+    }
+
+    @Override
+    public void beforeCommit(final boolean readOnly) {
+        flush();
+    }
+
+    @Override
+    public void afterCompletion(final int status) {
+        if (!entries.isEmpty()) {
+            LOG.debug("Discarding {} log entries of transaction completed with status {}.", entries.size(), status);
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package at.wrk.coceso.service.impl;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Inserts the pending log entries of the current transaction whenever Hibernate flushes before a query, so all queries reading
+ * the log table see the entries written before. This includes queries not going through the log service, e.g. the related
+ * units of an incident or the locked flag of a unit.
+ * <p>
+ * Registered by the service loader of Hibernate. The listener is appended, so the entities referenced by the entries are
+ * already inserted.
+ */
+public class PendingLogEntriesIntegrator implements Integrator {
+
+    @Override
+    public void integrate(
+            final Metadata metadata,
+            final SessionFactoryImplementor sessionFactory,
+            final SessionFactoryServiceRegistry serviceRegistry) {
+        serviceRegistry.getService(EventListenerRegistry.class).appendListeners(EventType.AUTO_FLUSH, new FlushListener());
+    }
+
+    @Override
+    public void disintegrate(final SessionFactoryImplementor sessionFactory, final SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private static class FlushListener implements AutoFlushEventListener {
+
+        @Override
+        public void onAutoFlush(final AutoFlushEvent event) {
+            PendingLogEntries.flushCurrentTransaction();
+        }
+    }
+}
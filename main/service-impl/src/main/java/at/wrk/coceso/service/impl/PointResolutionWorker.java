@@ -0,0 +1,202 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.point.Point;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.entityevent.EntityEventHandler;
+import at.wrk.coceso.entityevent.EntityEventListener;
+import at.wrk.coceso.entityevent.impl.NotifyListExecutor;
+import at.wrk.coceso.service.internal.IncidentServiceInternal;
+import at.wrk.coceso.service.internal.UnitServiceInternal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Resolves the points of incidents and units in the background, if geocoding is deferred ("geocode.async").
+ * <p>
+ * Incidents and units are saved with the points as entered, and queued if a point is still unresolved. The worker loads the
+ * entity again, resolves copies of its points and stores them only if the points were not changed in the meantime. Storing
+ * the resolved points sends the usual entity events, so the clients get the coordinates. An entity is queued at most once
+ * at a time, if the queue is full its points are not resolved until the entity is changed again.
+ */
+@Component
+class PointResolutionWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PointResolutionWorker.class);
+
+    private final IncidentServiceInternal incidentService;
+    private final UnitServiceInternal unitService;
+    private final NotifyListExecutor notifyListExecutor;
+    private final boolean enabled;
+
+    private final EntityEventHandler<Incident> incidentEventHandler;
+    private final EntityEventHandler<Unit> unitEventHandler;
+    private final EntityEventListener<Incident> incidentListener;
+    private final EntityEventListener<Unit> unitListener;
+    private final ExecutorService executor;
+    private final Set<String> queued;
+
+    @Autowired
+    public PointResolutionWorker(
+            final EntityEventFactory entityEventFactory,
+            final IncidentServiceInternal incidentService,
+            final UnitServiceInternal unitService,
+            final NotifyListExecutor notifyListExecutor,
+            @Value("${geocode.async:false}") final boolean enabled,
+            @Value("${geocode.async.queue.capacity:1000}") final int queueCapacity) {
+        this.incidentService = incidentService;
+        this.unitService = unitService;
+        this.notifyListExecutor = notifyListExecutor;
+        this.enabled = enabled;
+        this.queued = ConcurrentHashMap.newKeySet();
+
+        this.incidentEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
+        this.unitEventHandler = entityEventFactory.getEntityEventHandler(Unit.class);
+        this.incidentListener = new PendingPointsListener<>("Incident", Incident::getId,
+                incident -> isPending(incident.getBo()) || isPending(incident.getAo()), this::resolveIncident);
+        this.unitListener = new PendingPointsListener<>("Unit", Unit::getId,
+                unit -> isPending(unit.getPosition()) || isPending(unit.getHome()), this::resolveUnit);
+
+        if (enabled) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), runnable -> {
+                Thread thread = new Thread(runnable, "point-resolution");
+                thread.setDaemon(true);
+                return thread;
+            });
+            incidentEventHandler.addListener(incidentListener);
+            unitEventHandler.addListener(unitListener);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (enabled) {
+            incidentEventHandler.removeListener(incidentListener);
+            unitEventHandler.removeListener(unitListener);
+            executor.shutdownNow();
+        }
+    }
+
+    private void resolveIncident(final int incidentId) {
+        Incident incident = incidentService.getById(incidentId);
+        if (incident == null) {
+            return;
+        }
+
+        Point bo = resolve(incident.getBo());
+        Point ao = resolve(incident.getAo());
+        if (bo != null || ao != null) {
+            notifyListExecutor.executeVoid(notify -> incidentService.updateResolvedPoints(incidentId, bo, ao, notify));
+        }
+    }
+
+    private void resolveUnit(final int unitId) {
+        Unit unit = unitService.getById(unitId);
+        if (unit == null) {
+            return;
+        }
+
+        Point position = resolve(unit.getPosition());
+        Point home = resolve(unit.getHome());
+        if (position != null || home != null) {
+            notifyListExecutor.executeVoid(notify -> unitService.updateResolvedPoints(unitId, position, home, notify));
+        }
+    }
+
+    /**
+     * Resolves a copy of the point
+     *
+     * @return The resolved copy, or null if nothing was resolved
+     */
+    private static Point resolve(final Point point) {
+        if (!isPending(point)) {
+            return null;
+        }
+
+        Point copy = point.deepCopy();
+        copy.resolveExternalData();
+        return copy.getCoordinates() == null ? null : copy;
+    }
+
+    private static boolean isPending(final Point point) {
+        return point != null && point.isExternalDataPending();
+    }
+
+    private void submit(final String key, final int id, final IntConsumer resolver) {
+        if (!queued.add(key)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                // Removed before loading, so changes from now on are queued again
+                queued.remove(key);
+                try {
+                    resolver.accept(id);
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to resolve points of {}.", key, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(key);
+            LOG.warn("Queue for resolving points is full, {} is not resolved.", key);
+        }
+    }
+
+    private class PendingPointsListener<T> implements EntityEventListener<T> {
+
+        private final String type;
+        private final ToIntFunction<T> id;
+        private final Predicate<T> pending;
+        private final IntConsumer resolver;
+
+        private PendingPointsListener(final String type, final ToIntFunction<T> id, final Predicate<T> pending, final IntConsumer resolver) {
+            this.type = type;
+            this.id = id;
+            this.pending = pending;
+            this.resolver = resolver;
+        }
+
+        @Override
+        public void entityChanged(final T entity, final int concern, final int hver, final int seq) {
+            if (pending.test(entity)) {
+                int entityId = id.applyAsInt(entity);
+                submit(type + " #" + entityId, entityId, resolver);
+            }
+        }
+
+        @Override
+        public void entityDeleted(final int id, final int concern, final int hver, final int seq) {
+        }
+
+        @Override
+        public boolean isSupported(final Class<?> supportedClass) {
+            // This listener is registered dynamically for the correct type. No type check needed.
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "PointResolutionWorker{" + type + "}";
+        }
+    }
+}
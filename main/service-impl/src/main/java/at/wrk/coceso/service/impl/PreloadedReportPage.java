@@ -0,0 +1,81 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.ConcernBoundEntity;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.utils.impl.PdfReportPage;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Report page built from the log entries of all entities on the page, loaded in a single query. Related units and the time
+ * of the last task update of an incident are derived from its log instead of being queried for each incident.
+ */
+class PreloadedReportPage<T extends ConcernBoundEntity> implements PdfReportPage<T> {
+
+    private final List<T> entities;
+    private final Map<Integer, List<LogEntry>> logs;
+
+    private PreloadedReportPage(final List<T> entities, final List<LogEntry> logs, final Function<LogEntry, ConcernBoundEntity> owner) {
+        this.entities = entities;
+        this.logs = logs.stream()
+                .filter(log -> owner.apply(log) != null)
+                .collect(Collectors.groupingBy(log -> owner.apply(log).getId(), HashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * @param logs All entries of the incidents ordered by time. The units referenced by these entries need to have their tasks
+     * loaded.
+     */
+    static PreloadedReportPage<Incident> ofIncidents(final List<Incident> incidents, final List<LogEntry> logs) {
+        return new PreloadedReportPage<>(incidents, logs, LogEntry::getIncident);
+    }
+
+    /**
+     * @param logs All entries of the units ordered by time
+     */
+    static PreloadedReportPage<Unit> ofUnits(final List<Unit> units, final List<LogEntry> logs) {
+        return new PreloadedReportPage<>(units, logs, LogEntry::getUnit);
+    }
+
+    @Override
+    public List<T> getEntities() {
+        return entities;
+    }
+
+    @Override
+    public List<LogEntry> getLog(final T entity) {
+        return logs.getOrDefault(entity.getId(), Collections.emptyList());
+    }
+
+    @Override
+    public Map<Unit, TaskState> getRelatedUnits(final Incident incident) {
+        Map<Unit, TaskState> related = new LinkedHashMap<>();
+        logs.getOrDefault(incident.getId(), Collections.emptyList()).stream()
+                .map(LogEntry::getUnit)
+                .filter(Objects::nonNull)
+                .forEach(unit -> related.put(unit, unit.getIncidents().getOrDefault(incident, TaskState.Detached)));
+        return related;
+    }
+
+    @Override
+    public Timestamp getLastUpdate(final Incident incident, final Unit unit) {
+        Timestamp last = null;
+        for (LogEntry log : logs.getOrDefault(incident.getId(), Collections.emptyList())) {
+            if (unit.equals(log.getUnit()) && LogServiceImpl.TASK_STATE_UPDATE_TYPES.contains(log.getType())) {
+                last = log.getTimestamp();
+            }
+        }
+        return last;
+    }
+}
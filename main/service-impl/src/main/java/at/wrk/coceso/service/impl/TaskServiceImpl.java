@@ -43,6 +43,9 @@ class TaskServiceImpl implements TaskServiceInternal {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private ConcernLockManager concernLockManager;
+
     @Override
     public void assignUnit(final int incidentId, final int unitId, final NotifyList notify) {
         Incident incident = incidentService.getById(incidentId);
@@ -55,14 +58,14 @@ class TaskServiceImpl implements TaskServiceInternal {
     }
 
     @Override
-    public synchronized void changeState(int incidentId, int unitId, TaskState state, NotifyList notify) {
+    public void changeState(int incidentId, int unitId, TaskState state, NotifyList notify) {
         Incident incident = incidentService.getById(incidentId);
         Unit unit = unitService.getById(unitId);
         changeState(incident, unit, state, notify);
     }
 
     @Override
-    public synchronized void changeState(final Incident incident, final Unit unit, final TaskState state, final NotifyList notify) {
+    public void changeState(final Incident incident, final Unit unit, final TaskState state, final NotifyList notify) {
         LOG.debug("Trying to update unit {} and incident {} to '{}'", unit, incident, state);
 
         if (incident == null || unit == null) {
@@ -70,6 +73,10 @@ class TaskServiceImpl implements TaskServiceInternal {
             throw new ErrorsException(Errors.EntityMissing);
         }
 
+        concernLockManager.executeLockedVoid(incident.getConcern().getId(), () -> changeStateLocked(incident, unit, state, notify));
+    }
+
+    private void changeStateLocked(final Incident incident, final Unit unit, final TaskState state, final NotifyList notify) {
         if (!Objects.equals(incident.getConcern(), unit.getConcern())) {
             LOG.warn("Combination of unit {} and incident {} is in different concerns.", unit, incident);
             throw new ErrorsException(Errors.ConcernMismatch);
@@ -3,6 +3,7 @@ package at.wrk.coceso.service.impl;
 import at.wrk.coceso.entity.enums.TaskState;
 import at.wrk.coceso.entityevent.impl.NotifyListExecutor;
 import at.wrk.coceso.service.TaskWriteService;
+import at.wrk.coceso.service.internal.IncidentServiceInternal;
 import at.wrk.coceso.service.internal.TaskServiceInternal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,21 +15,40 @@ import org.springframework.transaction.annotation.Transactional;
 class TaskWriteServiceImpl implements TaskWriteService {
 
   private final TaskServiceInternal taskService;
+  private final IncidentServiceInternal incidentService;
   private final NotifyListExecutor notifyListExecutor;
+  private final ConcernLockManager concernLockManager;
 
   @Autowired
-  public TaskWriteServiceImpl(final TaskServiceInternal taskService, final NotifyListExecutor notifyListExecutor) {
+  public TaskWriteServiceImpl(
+      final TaskServiceInternal taskService,
+      final IncidentServiceInternal incidentService,
+      final NotifyListExecutor notifyListExecutor,
+      final ConcernLockManager concernLockManager) {
     this.taskService = taskService;
+    this.incidentService = incidentService;
     this.notifyListExecutor = notifyListExecutor;
+    this.concernLockManager = concernLockManager;
   }
 
   @Override
-  public synchronized void changeState(int incidentId, int unitId, TaskState state) {
-    notifyListExecutor.executeVoid(n -> taskService.changeState(incidentId, unitId, state, n));
+  public void changeState(int incidentId, int unitId, TaskState state) {
+    // The lock is held until the transaction is committed and the notifications are sent
+    executeLocked(incidentId, () -> notifyListExecutor.executeVoid(n -> taskService.changeState(incidentId, unitId, state, n)));
   }
 
   @Override
   public void assignUnit(final int incidentId, final int unitId) {
-    notifyListExecutor.executeVoid(notifyList -> taskService.assignUnit(incidentId, unitId, notifyList));
+    executeLocked(incidentId, () -> notifyListExecutor.executeVoid(notifyList -> taskService.assignUnit(incidentId, unitId, notifyList)));
+  }
+
+  private void executeLocked(final int incidentId, final Runnable action) {
+    Integer concernId = incidentService.getConcernId(incidentId);
+    if (concernId == null) {
+      // Incident does not exist, the task service reports the error
+      action.run();
+    } else {
+      concernLockManager.executeLockedVoid(concernId, action);
+    }
   }
 }
@@ -13,6 +13,7 @@ import at.wrk.coceso.entity.enums.TaskState;
 import at.wrk.coceso.entity.enums.UnitType;
 import at.wrk.coceso.entity.helper.BatchUnits;
 import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.entity.helper.UnitChanges;
 import at.wrk.coceso.entity.point.Point;
 import at.wrk.coceso.entity.point.UnitSupplier;
 import at.wrk.coceso.entityevent.impl.NotifyList;
@@ -31,10 +32,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -91,11 +94,21 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
     return unitRepository.findByConcern(concern);
   }
 
+  @Override
+  public List<Unit> getAllWithTasks(Concern concern) {
+    return unitRepository.findByConcernWithTasks(concern);
+  }
+
   @Override
   public List<Unit> getAllSorted(Concern concern) {
     return unitRepository.findByConcern(concern, Sort.by(Sort.Direction.ASC, "id"));
   }
 
+  @Override
+  public List<Unit> getPageSorted(final Concern concern, final int afterId, final int count) {
+    return unitRepository.findByConcernAndIdGreaterThanOrderByIdAsc(concern, afterId, PageRequest.of(0, count));
+  }
+
   @Override
   public List<Unit> getByUser(User user, Collection<UnitType> types) {
     return user == null ? null : unitRepository.findByUser(user, types);
@@ -110,10 +123,15 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
 
   @Override
   public Map<Unit, TaskState> getRelated(Incident incident) {
-    return unitRepository.findByIdIn(unitRepository.findRelated(incident)).stream().collect(Collectors.toMap(
+    return unitRepository.findByIdInWithTasks(unitRepository.findRelated(incident)).stream().collect(Collectors.toMap(
         Function.identity(), u -> u.getIncidents().getOrDefault(incident, TaskState.Detached)));
   }
 
+  @Override
+  public List<Unit> getRelatedWithTasks(final Collection<Incident> incidents) {
+    return incidents.isEmpty() ? new ArrayList<>() : unitRepository.findByIdInWithTasks(unitRepository.findRelated(incidents));
+  }
+
   @Override
   public Unit updateMain(final Unit unit, final NotifyList notify) {
     LOG.debug("{}: Triggered update of unit {}", authenticatedUserProvider.getAuthenticatedUser(), unit);
@@ -169,53 +187,7 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
     Changes changes = new Changes("unit");
     Unit save;
     if (unit.getId() == null) {
-      LOG.info("{}: Triggered unit create: {}", authenticatedUserProvider.getAuthenticatedUser(), unit);
-
-      if (Concern.isClosedOrNull(concern)) {
-        LOG.warn("{}: Tried to create unit {} in closed concern.", authenticatedUserProvider.getAuthenticatedUser(), unit);
-        throw new ErrorsException(Errors.ConcernClosed);
-      }
-
-      save = new Unit();
-
-      // Set updated properties
-      save.setConcern(concern);
-
-      changes.put("call", null, unit.getCall());
-      save.setCall(unit.getCall());
-
-      if (StringUtils.isNotBlank(unit.getAni())) {
-        changes.put("ani", null, unit.getAni());
-        save.setAni(unit.getAni());
-      }
-
-      if (StringUtils.isNotBlank(unit.getInfo())) {
-        changes.put("info", null, unit.getInfo());
-        save.setInfo(unit.getInfo());
-      }
-
-      // Using null for the concern prevents a UnitPoint being created. Maybe make that more explicit?
-      Point home = Point.create(unit.getHome(), null);
-      if (!Point.isEmpty(home)) {
-        changes.put("home", null, Point.toStringOrNull(home));
-        save.setHome(home);
-      }
-
-      if (unit.getType() != null) {
-        changes.put("type", null, unit.getType());
-        save.setType(unit.getType());
-      }
-
-      changes.put("withDoc", null, unit.isWithDoc());
-      save.setWithDoc(unit.isWithDoc());
-
-      changes.put("portable", null, unit.isPortable());
-      save.setPortable(unit.isPortable());
-
-      changes.put("transportVehicle", null, unit.isTransportVehicle());
-      save.setTransportVehicle(unit.isTransportVehicle());
-
-      save.setLocked(false);
+      save = prepareCreate(unit, concern, changes);
     } else {
       LOG.info("{}: Triggered update of unit: {}", authenticatedUserProvider, unit);
 
@@ -287,10 +259,67 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
     return updatedUnit;
   }
 
+  /**
+   * Builds a new unit of the given data without saving it, the initial values are written to changes
+   */
+  private Unit prepareCreate(final Unit unit, final Concern concern, final Changes changes) {
+    LOG.info("{}: Triggered unit create: {}", authenticatedUserProvider.getAuthenticatedUser(), unit);
+
+    if (Concern.isClosedOrNull(concern)) {
+      LOG.warn("{}: Tried to create unit {} in closed concern.", authenticatedUserProvider.getAuthenticatedUser(), unit);
+      throw new ErrorsException(Errors.ConcernClosed);
+    }
+
+    Unit save = new Unit();
+
+    // Set updated properties
+    save.setConcern(concern);
+
+    changes.put("call", null, unit.getCall());
+    save.setCall(unit.getCall());
+
+    if (StringUtils.isNotBlank(unit.getAni())) {
+      changes.put("ani", null, unit.getAni());
+      save.setAni(unit.getAni());
+    }
+
+    if (StringUtils.isNotBlank(unit.getInfo())) {
+      changes.put("info", null, unit.getInfo());
+      save.setInfo(unit.getInfo());
+    }
+
+    // Using null for the concern prevents a UnitPoint being created. Maybe make that more explicit?
+    Point home = Point.create(unit.getHome(), null);
+    if (!Point.isEmpty(home)) {
+      changes.put("home", null, Point.toStringOrNull(home));
+      save.setHome(home);
+    }
+
+    if (unit.getType() != null) {
+      changes.put("type", null, unit.getType());
+      save.setType(unit.getType());
+    }
+
+    changes.put("withDoc", null, unit.isWithDoc());
+    save.setWithDoc(unit.isWithDoc());
+
+    changes.put("portable", null, unit.isPortable());
+    save.setPortable(unit.isPortable());
+
+    changes.put("transportVehicle", null, unit.isTransportVehicle());
+    save.setTransportVehicle(unit.isTransportVehicle());
+
+    save.setLocked(false);
+
+    if (unit.getSection() != null && concern.containsSection(unit.getSection())) {
+      save.setSection(unit.getSection());
+    }
+
+    return save;
+  }
+
   @Override
   public List<Integer> batchCreate(final BatchUnits batch, final Concern concern, final NotifyList notify) {
-    List<Integer> ids = new LinkedList<>();
-
     Unit unit = new Unit();
     unit.setId(null);
     unit.setPortable(batch.isPortable());
@@ -298,13 +327,16 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
     unit.setTransportVehicle(batch.isTransportVehicle());
     unit.setHome(batch.getHome());
 
+    List<UnitChanges> units = new ArrayList<>();
     for (int i = batch.getFrom(); i <= batch.getTo(); i++) {
       unit.setCall(batch.getCall() + i);
-      Unit added = updateEdit(unit, concern, notify);
-      ids.add(added.getId());
+      Changes changes = new Changes("unit");
+      units.add(new UnitChanges(prepareCreate(unit, concern, changes), changes));
     }
 
-    return ids;
+    insertAll(units.stream().map(UnitChanges::getUnit).collect(Collectors.toList()));
+    logCreated(units, notify);
+    return units.stream().map(created -> created.getUnit().getId()).collect(Collectors.toList());
   }
 
   @Override
@@ -417,15 +449,63 @@ class UnitServiceImpl implements UnitServiceInternal, UnitSupplier {
   public int importUnits(final String data, final Concern concern, final NotifyList notify) {
     LOG.info("{}: started import of units", authenticatedUserProvider.getAuthenticatedUser());
 
-    Map<Unit, Changes> units = unitImporter.importUnits(data, concern, getAll(concern));
-    units.forEach((unit, changes) -> {
-      Unit savedUnit = unitRepository.saveAndFlush(unit);
-      logService.logAuto(LogEntryType.UNIT_CREATE, savedUnit.getConcern(), savedUnit, null, changes);
-      notify.addUnit(savedUnit.getId());
-    });
+    List<UnitChanges> units = unitImporter.importUnits(data, concern, getAll(concern));
+
+    // Existing units are still attached and only need to be flushed, new units are inserted in one batch
+    unitRepository.flush();
+    insertAll(units.stream().map(UnitChanges::getUnit).filter(unit -> unit.getId() == null).collect(Collectors.toList()));
+    logCreated(units, notify);
+
     return units.size();
   }
 
+  /**
+   * Inserts all new units with one batch
+   */
+  private void insertAll(final List<Unit> units) {
+    if (units.isEmpty()) {
+      return;
+    }
+
+    unitRepository.insertBatch(units);
+    LOG.debug("Inserted {} units in one batch.", units.size());
+  }
+
+  /**
+   * Writes the log entries of the created or imported units as one batch on commit
+   */
+  private void logCreated(final List<UnitChanges> units, final NotifyList notify) {
+    logService.batchLogEntries();
+    units.forEach(created -> {
+      Unit unit = created.getUnit();
+      logService.logAuto(LogEntryType.UNIT_CREATE, unit.getConcern(), unit, null, created.getChanges());
+      notify.addUnit(unit.getId());
+    });
+  }
+
+  @Override
+  public void updateResolvedPoints(final int unitId, final Point position, final Point home, final NotifyList notify) {
+    Unit unit = getById(unitId);
+    if (unit == null) {
+      LOG.debug("Unit #{} was deleted before its points were resolved.", unitId);
+      return;
+    }
+
+    boolean changed = false;
+    if (Point.isResolutionOf(position, unit.getPosition())) {
+      unit.setPosition(position);
+      changed = true;
+    }
+    if (Point.isResolutionOf(home, unit.getHome())) {
+      unit.setHome(home);
+      changed = true;
+    }
+
+    if (changed) {
+      unitRepository.saveAndFlush(unit);
+      notify.addUnit(unit.getId());
+    }
+  }
 
   private void setPropertiesAndSave(final NotifyList notify, final Unit unit, final Incident inc) {
     inc.setState(IncidentState.InProgress);
@@ -1,5 +1,6 @@
 package at.wrk.coceso.service.impl;
 
+import at.wrk.coceso.config.CocesoConfig;
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.helper.BatchUnits;
@@ -34,23 +35,33 @@ class UnitWriteServiceImpl implements UnitWriteService {
   private final EntityEventHandler<Unit> entityEventHandler;
   private final EntityEventListener<Unit> mainEventListener;
   private final EntityEventListener<Unit> editEventListener;
+  private final EntityEventListener<Unit> deltaEventListener;
   private final NotifyListExecutor notifyListExecutor;
 
   @Autowired
-  public UnitWriteServiceImpl(final EntityEventFactory eef, final NotifyListExecutor notifyListExecutor) {
+  public UnitWriteServiceImpl(final EntityEventFactory eef, final NotifyListExecutor notifyListExecutor, final CocesoConfig cocesoConfig) {
     entityEventHandler = eef.getEntityEventHandler(Unit.class);
 
     mainEventListener = eef.getWebSocketWriter("/topic/unit/main/%d", JsonViews.Main.class, null);
     editEventListener = eef.getWebSocketWriter("/topic/unit/edit/%d", JsonViews.Edit.class, null);
+    deltaEventListener = cocesoConfig.isDeltaUpdates()
+        ? eef.getDeltaWebSocketWriter("/topic/unit/main/delta/%d", JsonViews.Main.class, null)
+        : null;
     this.notifyListExecutor = notifyListExecutor;
     entityEventHandler.addListener(mainEventListener);
     entityEventHandler.addListener(editEventListener);
+    if (deltaEventListener != null) {
+      entityEventHandler.addListener(deltaEventListener);
+    }
   }
 
   @PreDestroy
   public void destroy() {
     entityEventHandler.removeListener(mainEventListener);
     entityEventHandler.removeListener(editEventListener);
+    if (deltaEventListener != null) {
+      entityEventHandler.removeListener(deltaEventListener);
+    }
   }
 
   @Override
@@ -32,6 +32,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -75,6 +76,11 @@ class UserServiceImpl implements UserService {
         return userRepository.findByPersonnelId(personnelId);
     }
 
+    @Override
+    public List<User> getByPersonnelIds(final Collection<Integer> personnelIds) {
+        return personnelIds.isEmpty() ? Collections.emptyList() : userRepository.findByPersonnelIdIn(personnelIds);
+    }
+
     @Override
     public List<User> getAll() {
         return userRepository.findAll();
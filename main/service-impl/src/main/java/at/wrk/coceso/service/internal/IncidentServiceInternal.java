@@ -11,6 +11,11 @@ import at.wrk.coceso.service.IncidentService;
 
 public interface IncidentServiceInternal extends IncidentService {
 
+  /**
+   * Returns the id of the concern the incident belongs to without loading the incident, or null if the incident does not exist.
+   */
+  Integer getConcernId(int incidentId);
+
   Incident update(Incident incident, Concern concern, NotifyList notify);
 
   Incident createHoldPosition(Point position, Unit unit, TaskState state, NotifyList notify);
@@ -22,4 +27,13 @@ public interface IncidentServiceInternal extends IncidentService {
   void assignPatient(int incidentId, int patientId, NotifyList notify);
 
   void assignPatient(Incident incident, Patient patient, NotifyList notify);
+
+  /**
+   * Stores the points resolved in the background, if the incident still has the same unresolved points.
+   * No log entry is written, as the points are not changed by a user.
+   *
+   * @param bo The resolved copy of the BO, or null if not resolved
+   * @param ao The resolved copy of the AO, or null if not resolved
+   */
+  void updateResolvedPoints(int incidentId, Point bo, Point ao, NotifyList notify);
 }
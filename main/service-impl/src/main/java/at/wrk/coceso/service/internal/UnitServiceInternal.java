@@ -3,6 +3,7 @@ package at.wrk.coceso.service.internal;
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.helper.BatchUnits;
+import at.wrk.coceso.entity.point.Point;
 import at.wrk.coceso.entityevent.impl.NotifyList;
 import at.wrk.coceso.service.UnitService;
 
@@ -30,4 +31,13 @@ public interface UnitServiceInternal extends UnitService {
 
     int importUnits(String data, Concern concern, NotifyList notify);
 
+    /**
+     * Stores the points resolved in the background, if the unit still has the same unresolved points.
+     * No log entry is written, as the points are not changed by a user.
+     *
+     * @param position The resolved copy of the position, or null if not resolved
+     * @param home     The resolved copy of the home, or null if not resolved
+     */
+    void updateResolvedPoints(int unitId, Point position, Point home, NotifyList notify);
+
 }
@@ -0,0 +1,122 @@
+package at.wrk.coceso.service.patadmin.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.point.UnitPoint;
+import at.wrk.coceso.entityevent.impl.ConcernStateListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Holds the ids of the incidents incoming to a treatment group for each loaded concern, updated by the incident events.
+ * <p>
+ * An incident is incoming if it is a task or transport not done yet, which has a unit (the treatment group) as AO.
+ */
+class IncomingIncidentIndex extends ConcernStateListener<Incident, IncomingIncidentIndex.ConcernIndex> {
+
+    IncomingIncidentIndex() {
+        super("incoming incidents");
+    }
+
+    /**
+     * Returns the ids of all incoming incidents of the concern ordered by id, or null if the concern is not loaded
+     */
+    synchronized List<Integer> get(final int concern) {
+        ConcernIndex index = getState(concern);
+        return index == null ? null : new ArrayList<>(index.groupByIncident.keySet());
+    }
+
+    /**
+     * Returns the ids of the incidents incoming to the treatment group ordered by id, or null if the concern is not loaded
+     */
+    synchronized List<Integer> get(final int concern, final int group) {
+        ConcernIndex index = getState(concern);
+        if (index == null) {
+            return null;
+        }
+
+        Set<Integer> incidents = index.incidentsByGroup.get(group);
+        return incidents == null ? Collections.emptyList() : new ArrayList<>(incidents);
+    }
+
+    /**
+     * Stores the incoming incidents of the concern loaded from the database
+     *
+     * @param seq The sequence number read before loading the incidents
+     * @return true if the incidents were stored, false if an event happened in the meantime
+     */
+    boolean put(final int concern, final int seq, final List<Incident> incidents) {
+        ConcernIndex index = new ConcernIndex();
+        incidents.forEach(index::update);
+        return putState(concern, seq, index);
+    }
+
+    @Override
+    protected void applyChanged(final ConcernIndex index, final Incident entity, final int concern) {
+        index.update(entity);
+    }
+
+    @Override
+    protected void applyDeleted(final ConcernIndex index, final int id) {
+        index.remove(id);
+    }
+
+    @Override
+    public String toString() {
+        return "IncomingIncidentIndex";
+    }
+
+    /**
+     * Returns the id of the treatment group the incident is incoming to, or null if it is not incoming
+     */
+    static Integer getIncomingGroup(final Incident incident) {
+        if ((incident.getType() != IncidentType.Task && incident.getType() != IncidentType.Transport)
+                || !(incident.getAo() instanceof UnitPoint)
+                || incident.getState() == null
+                || incident.getState().isDone()) {
+            return null;
+        }
+        return ((UnitPoint) incident.getAo()).getId();
+    }
+
+    static class ConcernIndex {
+
+        private final Map<Integer, Integer> groupByIncident = new TreeMap<>();
+        private final Map<Integer, Set<Integer>> incidentsByGroup = new HashMap<>();
+
+        private void update(final Incident incident) {
+            Integer group = getIncomingGroup(incident);
+            Integer previous = group == null ? groupByIncident.remove(incident.getId()) : groupByIncident.put(incident.getId(), group);
+            if (previous != null && !previous.equals(group)) {
+                removeFromGroup(previous, incident.getId());
+            }
+            if (group != null) {
+                incidentsByGroup.computeIfAbsent(group, key -> new TreeSet<>()).add(incident.getId());
+            }
+        }
+
+        private void remove(final int incident) {
+            Integer previous = groupByIncident.remove(incident);
+            if (previous != null) {
+                removeFromGroup(previous, incident);
+            }
+        }
+
+        private void removeFromGroup(final int group, final int incident) {
+            Set<Integer> incidents = incidentsByGroup.get(group);
+            if (incidents != null) {
+                incidents.remove(incident);
+                if (incidents.isEmpty()) {
+                    incidentsByGroup.remove(group);
+                }
+            }
+        }
+    }
+}
@@ -90,7 +90,9 @@ class PatadminServiceImpl implements PatadminServiceInternal {
             return Collections.emptyList();
         }
 
-        List<Patient> patients = patientRepository.findAll(new PatientSearchSpecification(query, concern, showDone));
+        PatientSearchSpecification specification = new PatientSearchSpecification(query, concern, showDone);
+        List<Patient> patients = patientRepository.findAll(specification);
+        patients.sort(specification.byRelevance());
         dataAccessLogger.logPatientAccess(patients, concern);
         return patients;
     }
@@ -8,6 +8,8 @@ import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.enums.Errors;
 import at.wrk.coceso.entity.enums.IncidentType;
 import at.wrk.coceso.entity.point.UnitPoint;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.entityevent.EntityEventHandler;
 import at.wrk.coceso.entityevent.impl.NotifyList;
 import at.wrk.coceso.exceptions.ErrorsException;
 import at.wrk.coceso.form.RegistrationForm;
@@ -22,14 +24,19 @@ import at.wrk.coceso.utils.DataAccessLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -52,30 +59,90 @@ class RegistrationServiceImpl implements RegistrationServiceInternal {
     private PatadminService patadminService;
 
     private final DataAccessLogger dataAccessLogger;
+    private final EntityEventHandler<Incident> incidentEventHandler;
+    private final IncomingIncidentIndex incomingIndex;
+    private final boolean indexEnabled;
 
     @Autowired
-    RegistrationServiceImpl(final DataAccessLogger dataAccessLogger) {
+    RegistrationServiceImpl(
+            final DataAccessLogger dataAccessLogger,
+            final EntityEventFactory entityEventFactory,
+            @Value("${patadmin.incoming.index.enabled:false}") final boolean indexEnabled) {
         this.dataAccessLogger = dataAccessLogger;
+        this.incidentEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
+        this.incomingIndex = new IncomingIncidentIndex();
+        this.indexEnabled = indexEnabled;
+
+        if (indexEnabled) {
+            incidentEventHandler.addListener(incomingIndex);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (indexEnabled) {
+            incidentEventHandler.removeListener(incomingIndex);
+        }
     }
 
     @Override
     public List<Incident> getIncoming(Concern concern) {
-        return incidentRepository.findIncoming(concern);
+        if (!indexEnabled) {
+            return incidentRepository.findIncoming(concern);
+        }
+
+        List<Integer> ids = incomingIndex.get(concern.getId());
+        if (ids == null) {
+            return loadIncoming(concern);
+        }
+        return loadByIds(ids, null);
     }
 
     @Override
     public List<Incident> getIncoming(Unit unit) {
-        return incidentRepository.findIncoming(unit.getConcern(), unit.getId());
+        if (!indexEnabled) {
+            return incidentRepository.findIncoming(unit.getConcern(), unit.getId());
+        }
+
+        List<Integer> ids = incomingIndex.get(unit.getConcern().getId(), unit.getId());
+        if (ids == null) {
+            return loadIncoming(unit.getConcern()).stream()
+                    .filter(incident -> unit.getId().equals(IncomingIncidentIndex.getIncomingGroup(incident)))
+                    .collect(Collectors.toList());
+        }
+        return loadByIds(ids, unit.getId());
+    }
+
+    private List<Incident> loadIncoming(final Concern concern) {
+        int seq = incidentEventHandler.getSeq(concern.getId());
+        List<Incident> incoming = incidentRepository.findIncoming(concern);
+        incomingIndex.put(concern.getId(), seq, incoming);
+        return incoming;
+    }
+
+    private List<Incident> loadByIds(final List<Integer> ids, final Integer group) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Events of transactions not committed yet may already be applied, so the loaded state is checked again
+        return incidentRepository.findAllById(ids).stream()
+                .filter(incident -> {
+                    Integer incomingGroup = IncomingIncidentIndex.getIncomingGroup(incident);
+                    return incomingGroup != null && (group == null || group.equals(incomingGroup));
+                })
+                .sorted(Comparator.comparing(Incident::getId))
+                .collect(Collectors.toList());
     }
 
     @Override
     public long getTreatmentCount(Concern concern) {
-        return incidentRepository.countTreatments(concern);
+        return incidentService.countTreatedPatients(concern);
     }
 
     @Override
     public long getTransportCount(Concern concern) {
-        return incidentRepository.countTransports(concern);
+        return incidentService.countTransportedPatients(concern);
     }
 
     @Override
@@ -89,11 +156,11 @@ class RegistrationServiceImpl implements RegistrationServiceInternal {
 
     @Override
     public List<Patient> getForAutocomplete(final Concern concern, final String query, final String field) {
-        List<Patient> patients;
+        PatientSearchSpecification specification;
 
         switch (field) {
             case "externalId":
-                patients = patientRepository.findAll(new PatientSearchSpecification(query, concern, false) {
+                specification = new PatientSearchSpecification(query, concern, false) {
                     @Override
                     protected Predicate buildKeywordPredicate(String keyword, Root<Patient> root, CriteriaBuilder builder) {
                         return builder.or(
@@ -101,18 +168,21 @@ class RegistrationServiceImpl implements RegistrationServiceInternal {
                                 builder.like(builder.lower(root.get(Patient_.externalId)), "_-" + keyword + "%")
                         );
                     }
-                });
+                };
                 break;
             case "lastname":
-                patients = patientRepository.findAll(createSpecification(concern, query, Patient_.lastname));
+                specification = createSpecification(concern, query, Patient_.lastname);
                 break;
             case "firstname":
-                patients = patientRepository.findAll(createSpecification(concern, query, Patient_.firstname));
+                specification = createSpecification(concern, query, Patient_.firstname);
                 break;
             default:
                 return null;
         }
 
+        List<Patient> patients = patientRepository.findAll(specification);
+        patients.sort(specification.byRelevance());
+
         dataAccessLogger.logPatientAccess(patients, concern, query);
         return patients;
     }
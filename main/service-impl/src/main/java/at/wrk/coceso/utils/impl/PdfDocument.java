@@ -10,11 +10,13 @@ import at.wrk.coceso.entity.enums.IncidentType;
 import at.wrk.coceso.entity.enums.LogEntryType;
 import at.wrk.coceso.entity.enums.TaskState;
 import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.entity.helper.IncidentTypeCount;
 import at.wrk.coceso.entity.point.Point;
 import at.wrk.coceso.service.PdfService;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
+import com.itextpdf.text.ExceptionConverter;
 import com.itextpdf.text.Font;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.Phrase;
@@ -26,8 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.MessageSource;
 import org.springframework.context.NoSuchMessageException;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -36,6 +37,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 public class PdfDocument extends Document implements AutoCloseable {
 
@@ -45,6 +49,9 @@ public class PdfDocument extends Document implements AutoCloseable {
     private static final Font DESCRIPTION_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
     private static final Font DEFAULT_FONT = new Font(Font.FontFamily.HELVETICA, 10);
 
+    // Number of rows after which a long table is written to the output and removed from memory
+    private static final int TABLE_FLUSH_ROWS = 100;
+
     private final PdfService pdfService;
     private final MessageSource messageSource;
     private final Locale locale;
@@ -68,11 +75,16 @@ public class PdfDocument extends Document implements AutoCloseable {
         this.timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.MEDIUM).withLocale(locale);
     }
 
-    public void start(final HttpServletResponse response) throws DocumentException, IOException {
-        PdfWriter.getInstance(this, response.getOutputStream());
+    public void start(final OutputStream output) throws DocumentException {
+        PdfWriter.getInstance(this, output);
         this.open();
     }
 
+    /**
+     * Adds the title page
+     *
+     * @param user The user requesting the document, or null if the document is not created for a single user
+     */
     public void addFrontPage(final String titleMessageCode, final Concern concern, final AuthenticatedUser user) throws DocumentException {
         String title = getMessage(titleMessageCode, new String[]{concern.getName()}, titleMessageCode);
 
@@ -88,8 +100,10 @@ public class PdfDocument extends Document implements AutoCloseable {
         p.add(p0);
         addEmptyLine(p, 1);
 
-        Paragraph p1 = new Paragraph(getMessage("pdf.created",
-                new String[]{user == null ? "N/A" : user.getDisplayName(), dateTimeFormatter.format(LocalDateTime.now())}), SUB_TITLE_FONT);
+        String created = dateTimeFormatter.format(LocalDateTime.now());
+        Paragraph p1 = new Paragraph(user == null
+                ? getMessage("pdf.created.time", new String[]{created})
+                : getMessage("pdf.created", new String[]{user.getDisplayName(), created}), SUB_TITLE_FONT);
         p1.setAlignment(Element.ALIGN_CENTER);
         p.add(p1);
 
@@ -107,34 +121,34 @@ public class PdfDocument extends Document implements AutoCloseable {
         this.add(new Paragraph(getMessage("pdf.complete", new String[]{currentDateTimeString})));
     }
 
-    public void addStatistics(final List<Incident> incidents) throws DocumentException {
-        int task, taskBlue, transport, transportBlue, relocation, relocationBlue, other, otherBlue;
+    public void addStatistics(final List<IncidentTypeCount> counts) throws DocumentException {
+        long task, taskBlue, transport, transportBlue, relocation, relocationBlue, other, otherBlue;
         task = taskBlue = transport = transportBlue = relocation = relocationBlue = other = otherBlue = 0;
 
-        for (Incident incident : incidents) {
-            switch (incident.getType()) {
+        for (IncidentTypeCount count : counts) {
+            switch (count.getType()) {
                 case Task:
-                    task++;
-                    if (incident.isBlue()) {
-                        taskBlue++;
+                    task += count.getCount();
+                    if (count.isBlue()) {
+                        taskBlue += count.getCount();
                     }
                     break;
                 case Transport:
-                    transport++;
-                    if (incident.isBlue()) {
-                        transportBlue++;
+                    transport += count.getCount();
+                    if (count.isBlue()) {
+                        transportBlue += count.getCount();
                     }
                     break;
                 case Relocation:
-                    relocation++;
-                    if (incident.isBlue()) {
-                        relocationBlue++;
+                    relocation += count.getCount();
+                    if (count.isBlue()) {
+                        relocationBlue += count.getCount();
                     }
                     break;
                 default:
-                    other++;
-                    if (incident.isBlue()) {
-                        otherBlue++;
+                    other += count.getCount();
+                    if (count.isBlue()) {
+                        otherBlue += count.getCount();
                     }
                     break;
             }
@@ -173,14 +187,18 @@ public class PdfDocument extends Document implements AutoCloseable {
         this.newPage();
     }
 
-    public void addCustomLog(final List<LogEntry> logs) throws DocumentException {
-        Paragraph p = new Paragraph();
-        Paragraph h = new Paragraph(getMessage("log.custom", null), TITLE_2_FONT);
-        p.add(h);
+    /**
+     * Add all custom log entries. The entries are passed to the given consumer by the source and written while reading them,
+     * so the rows are not kept in memory.
+     */
+    public void addCustomLog(final Consumer<Consumer<LogEntry>> source) throws DocumentException {
+        this.add(new Paragraph(getMessage("log.custom", null), TITLE_2_FONT));
 
         PdfPTable table = new PdfPTable(new float[]{2, 2, 7.5F, 2, 2.5F});
         table.setWidthPercentage(100);
         table.getDefaultCell().setBorder(PdfPCell.BOTTOM);
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         addCell(table, getMessage("log.timestamp", null));
         addCell(table, getMessage("user", null));
@@ -188,33 +206,40 @@ public class PdfDocument extends Document implements AutoCloseable {
         addCell(table, getMessage("unit", null));
         addCell(table, getMessage("incident", null));
 
-        logs.forEach(log -> {
+        AtomicInteger rows = new AtomicInteger();
+        source.accept(log -> {
             addCell(table, getFormattedTime(log.getTimestamp()));
             addCell(table, log.getUsername());
             addCell(table, log.getText());
             addCell(table, getUnitTitle(log.getUnit()));
             addCell(table, getIncidentTitle(log.getIncident()));
+
+            if (rows.incrementAndGet() % TABLE_FLUSH_ROWS == 0) {
+                addPartialTable(table);
+            }
         });
 
-        p.add(table);
-        this.add(p);
+        table.setComplete(true);
+        this.add(table);
         this.newPage();
     }
 
     /**
      * Add log entries and details for all non-single incidents (for final report)
      */
-    public void addIncidentsLog(List<Incident> incidents) throws DocumentException {
+    public void addIncidentsLog(final Iterable<? extends PdfReportPage<Incident>> pages) throws DocumentException {
         this.add(new Paragraph(getMessage("incidents", null), TITLE_FONT));
         this.add(new Paragraph(" "));
 
-        for (Incident incident : incidents) {
-            Paragraph p = printIncident(incident);
-            p.add(printRelatedUnits(incident));
-            addEmptyLine(p, 1);
-            p.add(printIncidentLog(incident));
-            addEmptyLine(p, 1);
-            this.add(p);
+        for (PdfReportPage<Incident> page : pages) {
+            for (Incident incident : page.getEntities()) {
+                Paragraph p = printIncident(incident);
+                p.add(printUnits(incident, page.getRelatedUnits(incident), page::getLastUpdate));
+                addEmptyLine(p, 1);
+                p.add(printIncidentLog(page.getLog(incident)));
+                addEmptyLine(p, 1);
+                this.add(p);
+            }
         }
         this.newPage();
     }
@@ -254,15 +279,17 @@ public class PdfDocument extends Document implements AutoCloseable {
     /**
      * Add log entries for all units (final report)
      */
-    public void addUnitsLog(List<Unit> units) throws DocumentException {
+    public void addUnitsLog(final Iterable<? extends PdfReportPage<Unit>> pages) throws DocumentException {
         this.add(new Paragraph(getMessage("units", null), TITLE_FONT));
         this.add(new Paragraph(" "));
 
-        for (Unit unit : units) {
-            Paragraph p = printUnitTitle(unit);
-            p.add(printUnitLog(unit));
-            addEmptyLine(p, 1);
-            this.add(p);
+        for (PdfReportPage<Unit> page : pages) {
+            for (Unit unit : page.getEntities()) {
+                Paragraph p = printUnitTitle(unit);
+                p.add(printUnitLog(page.getLog(unit)));
+                addEmptyLine(p, 1);
+                this.add(p);
+            }
         }
         this.newPage();
     }
@@ -451,9 +478,7 @@ public class PdfDocument extends Document implements AutoCloseable {
         return table;
     }
 
-    private Element printIncidentLog(Incident inc) {
-        List<LogEntry> logs = pdfService.getLogByIncident(inc);
-
+    private Element printIncidentLog(final List<LogEntry> logs) {
         Paragraph p = new Paragraph(getMessage("log", null), DESCRIPTION_FONT);
 
         PdfPTable table = new PdfPTable(new float[]{2, 2, 4, 2, 1, 5});
@@ -469,15 +494,18 @@ public class PdfDocument extends Document implements AutoCloseable {
 
     private Element printIncidentUnits(Incident inc) {
         Map<Unit, TaskState> units = inc.getUnits();
-        return printUnits(inc, units);
+        return printUnits(inc, units, pdfService::getLastUpdate);
     }
 
     private Element printRelatedUnits(Incident inc) {
         Map<Unit, TaskState> units = pdfService.getRelatedUnits(inc);
-        return printUnits(inc, units);
+        return printUnits(inc, units, pdfService::getLastUpdate);
     }
 
-    private Element printUnits(final Incident inc, final Map<Unit, TaskState> units) {
+    private Element printUnits(
+            final Incident inc,
+            final Map<Unit, TaskState> units,
+            final BiFunction<Incident, Unit, Timestamp> lastUpdate) {
         if (units == null || units.isEmpty()) {
             return null;
         }
@@ -494,7 +522,7 @@ public class PdfDocument extends Document implements AutoCloseable {
         units.forEach((unit, state) -> {
             addCell(table, getUnitTitle(unit));
             addCell(table, getTaskState(state));
-            addCell(table, getFormattedTime(pdfService.getLastUpdate(inc, unit)));
+            addCell(table, getFormattedTime(lastUpdate.apply(inc, unit)));
         });
 
         p.add(table);
@@ -553,9 +581,7 @@ public class PdfDocument extends Document implements AutoCloseable {
         return table;
     }
 
-    private Element printUnitLog(Unit unit) {
-        List<LogEntry> logs = pdfService.getLogByUnit(unit);
-
+    private Element printUnitLog(final List<LogEntry> logs) {
         PdfPTable table = new PdfPTable(new float[]{2, 2, 3.5F, 2.5F, 1, 5});
         table.setWidthPercentage(100);
         table.getDefaultCell().setBorder(PdfPCell.BOTTOM);
@@ -612,6 +638,17 @@ public class PdfDocument extends Document implements AutoCloseable {
         return p;
     }
 
+    /**
+     * Writes the rows added so far to the document, the table has to be marked as incomplete
+     */
+    private void addPartialTable(final PdfPTable table) {
+        try {
+            this.add(table);
+        } catch (DocumentException e) {
+            throw new ExceptionConverter(e);
+        }
+    }
+
     private static void addEmptyLine(Paragraph paragraph, int number) {
         for (int i = 0; i < number; i++) {
             paragraph.add(new Paragraph(" "));
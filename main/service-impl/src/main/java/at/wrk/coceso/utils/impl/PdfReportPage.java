@@ -0,0 +1,24 @@
+package at.wrk.coceso.utils.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.TaskState;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of units or incidents for the final report, with all data needed for printing them already loaded.
+ */
+public interface PdfReportPage<T> {
+
+    List<T> getEntities();
+
+    List<LogEntry> getLog(T entity);
+
+    Map<Unit, TaskState> getRelatedUnits(Incident incident);
+
+    Timestamp getLastUpdate(Incident incident, Unit unit);
+}
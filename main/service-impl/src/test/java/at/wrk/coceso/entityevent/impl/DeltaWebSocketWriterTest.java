@@ -0,0 +1,149 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.UnitState;
+import at.wrk.coceso.entity.helper.JsonViews;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class DeltaWebSocketWriterTest {
+
+    private static final String DESTINATION = "/topic/unit/main/delta/5";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpMessagingTemplate template;
+    private DeltaWebSocketWriter<Unit> sut;
+
+    @Before
+    public void init() {
+        template = mock(SimpMessagingTemplate.class);
+        sut = new DeltaWebSocketWriter<>(new SocketMessagingTemplate(template, objectMapper), "/topic/unit/main/delta/%d",
+                JsonViews.Main.class, null);
+    }
+
+    @Test
+    public void firstChange_fullEntityIsSent() throws IOException {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+
+        JsonNode message = getSentMessages().get(0);
+        assertThat(message.get("seq").asInt(), is(1));
+        assertThat(message.get("data").get("id").asInt(), is(1));
+        assertThat(message.get("data").get("state").asText(), is("EB"));
+        assertThat(message.get("data").get("info").asText(), is("info"));
+    }
+
+    @Test
+    public void secondChange_onlyChangedFieldsAreSent() throws IOException {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+        sut.entityChanged(unit(1, UnitState.NEB, "info"), 5, 1, 2);
+
+        JsonNode message = getSentMessages().get(1);
+        assertThat(message.get("seq").asInt(), is(2));
+        assertThat(fieldNames(message.get("patch")), containsInAnyOrder("id", "state"));
+        assertThat(message.get("patch").get("state").asText(), is("NEB"));
+    }
+
+    @Test
+    public void unchangedEntity_messageWithIdIsSentToKeepSequence() throws IOException {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 2);
+
+        JsonNode message = getSentMessages().get(1);
+        assertThat(message.get("seq").asInt(), is(2));
+        assertThat(fieldNames(message.get("patch")), contains("id"));
+    }
+
+    @Test
+    public void changeAfterDelete_fullEntityIsSent() throws IOException {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+        sut.entityDeleted(1, 5, 1, 2);
+        sut.entityChanged(unit(1, UnitState.NEB, "info"), 5, 1, 3);
+
+        List<JsonNode> messages = getSentMessages();
+        assertThat(messages.get(1).get("delete").asInt(), is(1));
+        assertThat(messages.get(2).get("data").get("info").asText(), is("info"));
+    }
+
+    @Test
+    public void sameIdInOtherConcern_fullEntityIsSent() throws IOException {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 6, 1, 1);
+
+        JsonNode message = getSentMessages().get(1);
+        assertThat(message.has("data"), is(true));
+        verify(template).send(eq("/topic/unit/main/delta/6"), any());
+    }
+
+    @Test
+    public void leastRecentlyChangedConcern_isDropped() throws IOException {
+        sut = new DeltaWebSocketWriter<>(new SocketMessagingTemplate(template, objectMapper), "/topic/unit/main/delta/%d",
+                JsonViews.Main.class, null, 2);
+
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+        sut.entityChanged(unit(2, UnitState.EB, "info"), 6, 1, 1);
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 2);
+        sut.entityChanged(unit(3, UnitState.EB, "info"), 7, 1, 1);
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 3);
+        sut.entityChanged(unit(2, UnitState.EB, "info"), 6, 1, 2);
+
+        List<JsonNode> messages = getSentMessages();
+        assertThat("Concern 5 was changed recently and is kept", messages.get(4).has("patch"), is(true));
+        assertThat("Concern 6 was dropped for concern 7", messages.get(5).has("data"), is(true));
+    }
+
+    @Test
+    public void destinationIsFormattedWithConcern() {
+        sut.entityChanged(unit(1, UnitState.EB, "info"), 5, 1, 1);
+
+        verify(template).send(eq(DESTINATION), any());
+    }
+
+    private List<JsonNode> getSentMessages() throws IOException {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(template, atLeastOnce()).send(anyString(), captor.capture());
+
+        List<JsonNode> messages = new ArrayList<>();
+        for (Message<byte[]> message : captor.getAllValues()) {
+            messages.add(objectMapper.readTree(message.getPayload()));
+        }
+        return messages;
+    }
+
+    private static List<String> fieldNames(final JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static Unit unit(final int id, final UnitState state, final String info) {
+        Unit unit = new Unit(id);
+        unit.setConcern(new Concern(5));
+        unit.setCall("Unit " + id);
+        unit.setState(state);
+        unit.setInfo(info);
+        return unit;
+    }
+}
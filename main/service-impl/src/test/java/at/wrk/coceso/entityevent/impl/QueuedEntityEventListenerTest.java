@@ -0,0 +1,215 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entityevent.DispatchStatistics;
+import at.wrk.coceso.entityevent.EntityEventListener;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+public class QueuedEntityEventListenerTest {
+
+    private QueuedEntityEventListener<Unit> sut;
+
+    @After
+    public void tearDown() {
+        if (sut != null) {
+            sut.shutdown();
+        }
+    }
+
+    @Test
+    public void coalescingListener_multipleChangesOfSameEntity_onlyLatestIsDelivered() {
+        RecordingListener listener = new RecordingListener(false);
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 100, 200));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+        sut.entityChanged(unit(2), 5, 1, 2);
+        sut.entityChanged(unit(1), 5, 1, 3);
+        sut.entityDeleted(3, 5, 1, 4);
+        sut.entityChanged(unit(1), 5, 1, 5);
+
+        Awaitility.await().until(() -> listener.received.size() == 3);
+        assertThat(listener.received, contains("2:2", "4:-3", "5:1"));
+        assertThat(sut.getStatistics().getCoalesced(), equalTo(2L));
+    }
+
+    @Test
+    public void coalescingListener_sameIdInDifferentConcerns_notCoalesced() {
+        RecordingListener listener = new RecordingListener(false);
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 100, 100));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+        sut.entityChanged(unit(1), 6, 1, 1);
+
+        Awaitility.await().until(() -> listener.received.size() == 2);
+        assertThat(sut.getStatistics().getCoalesced(), equalTo(0L));
+    }
+
+    @Test
+    public void gaplessListener_everyEventIsDeliveredInOrder() {
+        RecordingListener listener = new RecordingListener(true);
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 100, 1000));
+
+        for (int seq = 1; seq <= 20; seq++) {
+            sut.entityChanged(unit(seq % 2), 5, 1, seq);
+        }
+
+        Awaitility.await().until(() -> listener.received.size() == 20);
+        for (int seq = 1; seq <= 20; seq++) {
+            assertThat(listener.received.get(seq - 1), equalTo(seq + ":" + seq % 2));
+        }
+    }
+
+    @Test
+    public void coalescingListener_queueFull_eventsAreDroppedAndCounted() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(false) {
+            @Override
+            public void entityChanged(final Unit entity, final int concern, final int hver, final int seq) {
+                blocked.countDown();
+                awaitQuietly(release);
+                super.entityChanged(entity, concern, hver, seq);
+            }
+        };
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 2, 0));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+        blocked.await(5, TimeUnit.SECONDS);
+        sut.entityChanged(unit(2), 5, 1, 2);
+        sut.entityChanged(unit(3), 5, 1, 3);
+        sut.entityChanged(unit(4), 5, 1, 4);
+
+        DispatchStatistics statistics = sut.getStatistics();
+        assertThat(statistics.getQueueDepth(), equalTo(2));
+        assertThat(statistics.getDropped(), equalTo(1L));
+
+        release.countDown();
+        Awaitility.await().until(() -> listener.received.size() == 3);
+        assertThat(listener.received, contains("1:1", "2:2", "3:3"));
+    }
+
+    @Test
+    public void gaplessListener_queueFull_publisherWaitsForSpace() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(true) {
+            @Override
+            public void entityChanged(final Unit entity, final int concern, final int hver, final int seq) {
+                blocked.countDown();
+                awaitQuietly(release);
+                super.entityChanged(entity, concern, hver, seq);
+            }
+        };
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 2, 0));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+        blocked.await(5, TimeUnit.SECONDS);
+        sut.entityChanged(unit(1), 5, 1, 2);
+        sut.entityChanged(unit(1), 5, 1, 3);
+
+        Thread publisher = new Thread(() -> sut.entityChanged(unit(1), 5, 1, 4));
+        publisher.start();
+        Awaitility.await().until(() -> publisher.getState() == Thread.State.WAITING);
+        assertThat(sut.getStatistics().getQueueDepth(), equalTo(2));
+
+        release.countDown();
+        publisher.join(5000);
+        Awaitility.await().until(() -> listener.received.size() == 4);
+        assertThat(listener.received, contains("1:1", "2:1", "3:1", "4:1"));
+        assertThat(sut.getStatistics().getDropped(), equalTo(0L));
+    }
+
+    @Test
+    public void changePreparedOnPublishingThread() {
+        List<Thread> preparedBy = new CopyOnWriteArrayList<>();
+        RecordingListener listener = new RecordingListener(true) {
+            @Override
+            public Runnable prepareChanged(final Unit entity, final int concern, final int hver, final int seq) {
+                preparedBy.add(Thread.currentThread());
+                return super.prepareChanged(entity, concern, hver, seq);
+            }
+        };
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 10, 0));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+
+        assertThat(preparedBy, contains(Thread.currentThread()));
+        Awaitility.await().until(() -> listener.received.size() == 1);
+    }
+
+    @Test
+    public void listenerThrows_followingEventsAreDelivered() {
+        RecordingListener listener = new RecordingListener(true) {
+            @Override
+            public void entityChanged(final Unit entity, final int concern, final int hver, final int seq) {
+                if (seq == 1) {
+                    throw new IllegalStateException("Expected by test");
+                }
+                super.entityChanged(entity, concern, hver, seq);
+            }
+        };
+        sut = new QueuedEntityEventListener<>(Unit.class, listener, new EntityEventDispatchConfig(true, 10, 0));
+
+        sut.entityChanged(unit(1), 5, 1, 1);
+        sut.entityChanged(unit(1), 5, 1, 2);
+
+        Awaitility.await().until(() -> listener.received.size() == 1);
+        assertThat(sut.getStatistics().getFailed(), equalTo(1L));
+    }
+
+    private static Unit unit(final int id) {
+        Unit unit = new Unit(id);
+        unit.setConcern(new Concern(5));
+        return unit;
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingListener implements EntityEventListener<Unit> {
+
+        private final boolean gapless;
+        private final List<String> received = new CopyOnWriteArrayList<>();
+
+        private RecordingListener(final boolean gapless) {
+            this.gapless = gapless;
+        }
+
+        @Override
+        public void entityChanged(final Unit entity, final int concern, final int hver, final int seq) {
+            received.add(seq + ":" + entity.getId());
+        }
+
+        @Override
+        public void entityDeleted(final int id, final int concern, final int hver, final int seq) {
+            received.add(seq + ":-" + id);
+        }
+
+        @Override
+        public boolean isSupported(final Class<?> supportedClass) {
+            return true;
+        }
+
+        @Override
+        public boolean isGaplessSequenceRequired() {
+            return gapless;
+        }
+    }
+}
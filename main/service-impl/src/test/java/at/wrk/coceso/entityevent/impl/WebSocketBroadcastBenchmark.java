@@ -0,0 +1,138 @@
+package at.wrk.coceso.entityevent.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.UnitState;
+import at.wrk.coceso.entity.enums.UnitType;
+import at.wrk.coceso.entity.helper.JsonViews;
+import at.wrk.coceso.entity.helper.SequencedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a unit update to a simple broker with the given number of subscribers, comparing the conversion by the
+ * {@link SimpMessagingTemplate} with a JSON view hint to the payload serialized once by {@link SocketMessagingTemplate}.
+ * <p>
+ * Not run as part of the test suite, start it using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketBroadcastBenchmark {
+
+    private static final String DESTINATION = "/topic/unit/main/1";
+
+    @Param({"1", "10", "50", "200"})
+    public int subscribers;
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate conversionTemplate;
+    private SocketMessagingTemplate serializingTemplate;
+    private SequencedResponse<Unit> payload;
+    private Blackhole blackhole;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WebSocketBroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        MessageChannel clientOutbound = new ConsumingChannel();
+
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, Collections.singletonList("/topic/"));
+        broker.start();
+        for (int i = 0; i < subscribers; i++) {
+            broker.handleMessage(subscribe("session-" + i));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        conversionTemplate = new SimpMessagingTemplate(brokerChannel);
+        conversionTemplate.setMessageConverter(converter);
+        serializingTemplate = new SocketMessagingTemplate(new SimpMessagingTemplate(brokerChannel), objectMapper);
+
+        payload = new SequencedResponse<>(1, 42, createUnit());
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public void convertWithViewHint() {
+        conversionTemplate.convertAndSend(DESTINATION, payload,
+                Collections.singletonMap(SimpMessagingTemplate.CONVERSION_HINT_HEADER, JsonViews.Main.class));
+    }
+
+    @Benchmark
+    public void serializeOnce() {
+        serializingTemplate.send(DESTINATION, payload, JsonViews.Main.class);
+    }
+
+    private static Message<byte[]> subscribe(final String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(DESTINATION);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Unit createUnit() {
+        Unit unit = new Unit(1);
+        unit.setConcern(new Concern(1));
+        unit.setCall("RTW 1/23");
+        unit.setAni("1234");
+        unit.setInfo("Benchmark unit");
+        unit.setState(UnitState.EB);
+        unit.setType(UnitType.Triage);
+        unit.setTransportVehicle(true);
+        unit.setWithDoc(true);
+        return unit;
+    }
+
+    private class ConsumingChannel implements MessageChannel {
+
+        @Override
+        public boolean send(final Message<?> message, final long timeout) {
+            blackhole.consume(message);
+            return true;
+        }
+    }
+}
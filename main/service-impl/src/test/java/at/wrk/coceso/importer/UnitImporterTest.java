@@ -0,0 +1,90 @@
+package at.wrk.coceso.importer;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.helper.UnitChanges;
+import at.wrk.coceso.exceptions.ErrorsException;
+import at.wrk.coceso.service.UserService;
+import at.wrk.geocode.poi.PoiSupplier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UnitImporterTest {
+
+    @Mock
+    private PoiSupplier poiSupplier;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private UnitImporter sut;
+
+    @Test
+    public void crewOfAllUnits_loadedWithOneQuery() {
+        when(userService.getByPersonnelIds(any())).thenReturn(Arrays.asList(new User(100, "Huber", "Anna"),
+                new User(101, "Gruber", "Paul")));
+
+        List<Unit> units = sut.importUnits("Rufname,Home,Kdt,Crew1\n"
+                + "Unit 1,Hauptstraße 1,100,101 Paul\n"
+                + "Unit 2,Hauptstraße 1,101,999 Unknown\n", new Concern(1), Collections.emptyList())
+                .stream().map(UnitChanges::getUnit).collect(Collectors.toList());
+
+        assertThat(units.stream().map(Unit::getCall).collect(Collectors.toList()), contains("Unit 1", "Unit 2"));
+
+        Unit first = units.get(0);
+        assertThat(first.getHome(), is(notNullValue()));
+        assertThat(first.getCrew().stream().map(User::getPersonnelId).collect(Collectors.toList()), containsInAnyOrder(100, 101));
+
+        Unit second = units.get(1);
+        assertThat("Home is resolved once for both units", second.getHome(), is(sameInstance(first.getHome())));
+        assertThat(second.getInfo(), is("Crew:\n999 Unknown"));
+
+        verify(userService).getByPersonnelIds(new HashSet<>(Arrays.asList(100, 101, 999)));
+        verify(userService, never()).getByPersonnelId(anyInt());
+    }
+
+    @Test
+    public void unitListedTwice_returnedOnce() {
+        List<UnitChanges> units = sut.importUnits("Rufname,Info\n"
+                + "Unit 1,First\n"
+                + "Unit 2,\n"
+                + "Unit 1,Second\n", new Concern(1), Collections.emptyList());
+
+        assertThat(units.stream().map(imported -> imported.getUnit().getCall()).collect(Collectors.toList()),
+                contains("Unit 1", "Unit 2"));
+    }
+
+    @Test(expected = ErrorsException.class)
+    public void callColumnMissing_nothingResolved() {
+        try {
+            sut.importUnits("Name,Home\nUnit 1,Somewhere\n", new Concern(1), Collections.emptyList());
+        } finally {
+            verify(poiSupplier, never()).getPoi(any());
+            verify(userService, never()).getByPersonnelIds(any());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.enums.IncidentState;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ConcernSnapshotCacheTest {
+
+    private static final int CONCERN = 5;
+
+    private ConcernSnapshotCache<Incident> sut;
+
+    @Before
+    public void init() {
+        sut = new ConcernSnapshotCache<>(Incident.class, ConcernSnapshotCacheTest::toTree, Incident::isRelevant);
+    }
+
+    @Test
+    public void notLoaded_returnsNull() {
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.getStatistics().getMisses(), is(1L));
+    }
+
+    @Test
+    public void loaded_eventsAreApplied() {
+        assertThat(sut.put(CONCERN, 0, loaded(1, 2)), is(true));
+
+        sut.entityChanged(incident(3, IncidentState.Open), CONCERN, 1, 1);
+        sut.entityChanged(incident(1, IncidentState.InProgress), CONCERN, 1, 2);
+        sut.entityDeleted(2, CONCERN, 1, 3);
+
+        ConcernSnapshotCache.Snapshot snapshot = sut.get(CONCERN);
+        assertThat(snapshot.getSeq(), is(3));
+        assertThat(ids(snapshot), contains(1, 3));
+        assertThat(snapshot.getEntities().get(0).get("state").asText(), is("InProgress"));
+    }
+
+    @Test
+    public void changedToNotRelevant_isRemoved() {
+        sut.put(CONCERN, 0, loaded(1, 2));
+
+        sut.entityChanged(incident(1, IncidentState.Done), CONCERN, 1, 1);
+
+        assertThat(ids(sut.get(CONCERN)), contains(2));
+    }
+
+    @Test
+    public void eventWhileLoading_notStored() {
+        sut.entityChanged(incident(1, IncidentState.Open), CONCERN, 1, 1);
+
+        assertThat(sut.put(CONCERN, 0, loaded(1)), is(false));
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.put(CONCERN, 1, loaded(1)), is(true));
+    }
+
+    @Test
+    public void moreConcernsThanMax_leastRecentlyUsedIsDropped() {
+        sut = new ConcernSnapshotCache<>(Incident.class, ConcernSnapshotCacheTest::toTree, Incident::isRelevant, 2);
+        sut.put(1, 0, loaded(1));
+        sut.put(2, 0, loaded(2));
+        sut.get(1);
+
+        sut.put(3, 0, loaded(3));
+
+        assertThat(sut.get(2), is(nullValue()));
+        assertThat(ids(sut.get(1)), contains(1));
+        assertThat(ids(sut.get(3)), contains(3));
+    }
+
+    @Test
+    public void preparedChange_entityConvertedBeforeDelivery() {
+        sut.put(CONCERN, 0, loaded(1));
+        Incident incident = incident(1, IncidentState.InProgress);
+
+        Runnable delivery = sut.prepareChanged(incident, CONCERN, 1, 1);
+        incident.setState(IncidentState.Open);
+        delivery.run();
+
+        assertThat(sut.get(CONCERN).getEntities().get(0).get("state").asText(), is("InProgress"));
+    }
+
+    @Test
+    public void loadedAfterChangeWasPrepared_concernIsDropped() {
+        Runnable delivery = sut.prepareChanged(incident(1, IncidentState.InProgress), CONCERN, 1, 1);
+        sut.put(CONCERN, 0, loaded(1));
+        delivery.run();
+
+        assertThat(sut.get(CONCERN), is(nullValue()));
+    }
+
+    @Test
+    public void missedEvent_concernIsDropped() {
+        sut.put(CONCERN, 0, loaded(1));
+
+        sut.entityChanged(incident(1, IncidentState.Open), CONCERN, 1, 1);
+        sut.entityChanged(incident(1, IncidentState.InProgress), CONCERN, 1, 3);
+
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.getStatistics().getInvalidations(), is(1L));
+
+        // Can be loaded again with the current sequence number
+        assertThat(sut.put(CONCERN, 3, loaded(1)), is(true));
+    }
+
+    @Test
+    public void eventsOfOtherConcern_doNotAffectLoadedConcern() {
+        sut.put(CONCERN, 0, loaded(1));
+
+        sut.entityChanged(incident(1, IncidentState.InProgress), CONCERN + 1, 1, 1);
+
+        ConcernSnapshotCache.Snapshot snapshot = sut.get(CONCERN);
+        assertThat(snapshot.getSeq(), is(0));
+        assertThat(snapshot.getEntities().get(0).get("state").asText(), is("Open"));
+    }
+
+    @Test
+    public void invalidate_concernIsDropped() {
+        sut.put(CONCERN, 0, loaded(1));
+
+        sut.invalidate(CONCERN);
+
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.getStatistics().getConcerns(), equalTo(0));
+    }
+
+    private static Map<Integer, JsonNode> loaded(final int... ids) {
+        Map<Integer, JsonNode> entities = new LinkedHashMap<>();
+        for (int id : ids) {
+            entities.put(id, toTree(incident(id, IncidentState.Open)));
+        }
+        return entities;
+    }
+
+    private static List<Integer> ids(final ConcernSnapshotCache.Snapshot snapshot) {
+        return snapshot.getEntities().stream().map(node -> node.get("id").asInt()).collect(Collectors.toList());
+    }
+
+    private static Incident incident(final int id, final IncidentState state) {
+        Incident incident = new Incident(id);
+        incident.setConcern(new Concern(CONCERN));
+        incident.setState(state);
+        return incident;
+    }
+
+    private static JsonNode toTree(final Incident incident) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("id", incident.getId());
+        node.put("state", incident.getState().name());
+        return node;
+    }
+}
@@ -0,0 +1,109 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.helper.IncidentStatisticsRow;
+import at.wrk.coceso.entity.point.UnitPoint;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IncidentStatisticsCacheTest {
+
+    private static final int CONCERN = 5;
+
+    private IncidentStatisticsCache sut;
+
+    @Before
+    public void init() {
+        sut = new IncidentStatisticsCache();
+    }
+
+    @Test
+    public void loaded_countsAsQueries() {
+        IncidentStatisticsCache.Statistics statistics = sut.put(CONCERN, 0, Arrays.asList(
+                new IncidentStatisticsRow(1, IncidentType.Task, false, null, null),
+                new IncidentStatisticsRow(2, IncidentType.Task, true, null, null),
+                new IncidentStatisticsRow(3, IncidentType.Transport, true, 100, new UnitPoint(10)),
+                new IncidentStatisticsRow(4, IncidentType.Transport, false, 100, new UnitPoint(11)),
+                new IncidentStatisticsRow(5, IncidentType.Transport, false, 101, null),
+                new IncidentStatisticsRow(6, IncidentType.Treatment, false, 100, null),
+                new IncidentStatisticsRow(7, IncidentType.Treatment, false, 102, null)));
+
+        assertThat(counts(statistics), containsInAnyOrder("Task/false=1", "Task/true=1", "Transport/false=2", "Transport/true=1",
+                "Treatment/false=2"));
+        assertThat("Patient 101 is not transported to a unit", statistics.getTransportedPatients(), is(1L));
+        assertThat(statistics.getTreatedPatients(), is(2L));
+        assertThat(sut.get(CONCERN), is(notNullValue()));
+    }
+
+    @Test
+    public void events_updateCounts() {
+        sut.put(CONCERN, 0, Collections.singletonList(new IncidentStatisticsRow(1, IncidentType.Treatment, false, 100, null)));
+
+        sut.entityChanged(incident(2, IncidentType.Treatment, false, 100), CONCERN, 1, 1);
+        sut.entityChanged(incident(3, IncidentType.Task, false, null), CONCERN, 1, 2);
+        assertThat(sut.get(CONCERN).getTreatedPatients(), is(1L));
+
+        // Type and blue flag of an incident changed
+        sut.entityChanged(incident(3, IncidentType.Relocation, true, null), CONCERN, 1, 3);
+        sut.entityChanged(incident(1, IncidentType.Treatment, false, 101), CONCERN, 1, 4);
+
+        IncidentStatisticsCache.Statistics statistics = sut.get(CONCERN);
+        assertThat(counts(statistics), containsInAnyOrder("Treatment/false=2", "Relocation/true=1"));
+        assertThat(statistics.getTreatedPatients(), is(2L));
+
+        sut.entityDeleted(2, CONCERN, 1, 5);
+        sut.entityDeleted(3, CONCERN, 1, 6);
+
+        statistics = sut.get(CONCERN);
+        assertThat(counts(statistics), containsInAnyOrder("Treatment/false=1"));
+        assertThat(statistics.getTreatedPatients(), is(1L));
+    }
+
+    @Test
+    public void eventWhileLoading_computedButNotStored() {
+        sut.entityChanged(incident(1, IncidentType.Task, false, null), CONCERN, 1, 1);
+
+        IncidentStatisticsCache.Statistics statistics = sut.put(CONCERN, 0,
+                Collections.singletonList(new IncidentStatisticsRow(1, IncidentType.Task, false, null, null)));
+
+        assertThat(counts(statistics), containsInAnyOrder("Task/false=1"));
+        assertThat(sut.get(CONCERN), is(nullValue()));
+    }
+
+    @Test
+    public void missedEvent_concernIsDropped() {
+        sut.put(CONCERN, 0, Collections.emptyList());
+
+        sut.entityChanged(incident(1, IncidentType.Task, false, null), CONCERN, 1, 2);
+
+        assertThat(sut.get(CONCERN), is(nullValue()));
+    }
+
+    private static Incident incident(final int id, final IncidentType type, final boolean blue, final Integer patient) {
+        Incident incident = new Incident(id);
+        incident.setConcern(new Concern(CONCERN));
+        incident.setType(type);
+        incident.setBlue(blue);
+        incident.setPatientSlim(patient);
+        return incident;
+    }
+
+    private static List<String> counts(final IncidentStatisticsCache.Statistics statistics) {
+        return statistics.getCountByType().stream()
+                .map(count -> count.getType() + "/" + count.isBlue() + "=" + count.getCount())
+                .collect(Collectors.toList());
+    }
+}
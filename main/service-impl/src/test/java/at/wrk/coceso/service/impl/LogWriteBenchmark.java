@@ -0,0 +1,151 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.data.AuthenticatedUser;
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.repository.H2TestDatabase;
+import at.wrk.coceso.repository.LogRepository;
+import at.wrk.coceso.repository.LogRepositoryImpl;
+import at.wrk.coceso.repository.UnitRepository;
+import at.wrk.coceso.repository.UnitRepositoryImpl;
+import at.wrk.coceso.utils.AuthenticatedUserProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a task state change with the log entries written by the services in one transaction, comparing the log entries saved
+ * and flushed one by one to the entries inserted as batch on commit. Uses an in-memory H2 database, so the round trips saved
+ * by the batch are cheaper than with a PostgreSQL server.
+ * <p>
+ * Not run as part of the test suite, start it using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 6, time = 5)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LogWriteBenchmark {
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
+    private UnitRepository unitRepository;
+    private LogServiceImpl logService;
+
+    private Concern concern;
+    private int unitId;
+    private Incident incident;
+    private boolean toggle;
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LogWriteBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        LogRepositoryImpl logFragment = new LogRepositoryImpl();
+        logFragment.setEntityManager(entityManager);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        LogRepository logRepository = repositoryFactory.getRepository(LogRepository.class, RepositoryFragments.just(logFragment));
+        UnitRepositoryImpl unitFragment = new UnitRepositoryImpl();
+        unitFragment.setEntityManager(entityManager);
+        unitRepository = repositoryFactory.getRepository(UnitRepository.class, RepositoryFragments.just(unitFragment));
+
+        User user = new User();
+        user.setFirstname("First");
+        user.setLastname("Last");
+        concern = new Concern();
+        concern.setName("Benchmark");
+        concern.setInfo("");
+        incident = new Incident();
+        incident.setConcern(concern);
+        incident.setState(IncidentState.InProgress);
+        incident.setType(IncidentType.Task);
+        Unit unit = new Unit();
+        unit.setConcern(concern);
+        unit.setCall("Unit");
+
+        transactionTemplate.execute(status -> {
+            entityManager.persist(user);
+            entityManager.persist(concern);
+            entityManager.persist(incident);
+            unit.addIncident(incident, TaskState.Assigned);
+            entityManager.persist(unit);
+            return null;
+        });
+        unitId = unit.getId();
+
+        AuthenticatedUser authenticatedUser = mock(AuthenticatedUser.class);
+        when(authenticatedUser.getUserId()).thenReturn(user.getId());
+        AuthenticatedUserProvider authenticatedUserProvider = mock(AuthenticatedUserProvider.class);
+        when(authenticatedUserProvider.getAuthenticatedUser()).thenReturn(authenticatedUser);
+        logService = new LogServiceImpl(logRepository, authenticatedUserProvider, batched);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Same writes as a task state change with automatic unit position update by the hooks
+     */
+    @Benchmark
+    public void changeTaskState() {
+        toggle = !toggle;
+        TaskState state = toggle ? TaskState.ZBO : TaskState.ABO;
+
+        transactionTemplate.execute(status -> {
+            Unit unit = unitRepository.findById(unitId).orElseThrow(IllegalStateException::new);
+            unit.getIncidents().put(incident, state);
+            unitRepository.save(unit);
+            logService.logAuto(LogEntryType.TASKSTATE_CHANGED, concern, unit, incident, state);
+
+            Changes changes = new Changes("unit");
+            changes.put("info", toggle ? "a" : "b", toggle ? "b" : "a");
+            unit.setInfo(toggle ? "b" : "a");
+            logService.logAuto(LogEntryType.UNIT_AUTOSET_POSITION, concern, unit, incident, changes);
+            logService.logAuto(LogEntryType.UNIT_UPDATE, concern, unit, null, changes);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.exceptions.ErrorsException;
+import at.wrk.coceso.service.LogService;
+import at.wrk.coceso.service.PdfService;
+import at.wrk.coceso.service.pdf.PdfJob;
+import at.wrk.coceso.service.pdf.PdfType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PdfJobServiceImplTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Concern concern = new Concern(5);
+    private PdfService pdfService;
+    private LogService logService;
+    private PdfJobServiceImpl sut;
+
+    @Before
+    public void init() throws IOException {
+        pdfService = mock(PdfService.class);
+        logService = mock(LogService.class);
+        when(logService.getLastId(concern)).thenReturn(100);
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("content".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdfService).generate(any(), any(), anyBoolean(), any(), any());
+
+        sut = new PdfJobServiceImpl(pdfService, logService, 1, 1, folder.getRoot().getPath(), 60);
+    }
+
+    @After
+    public void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    public void submit_documentRenderedToFile() throws Exception {
+        PdfJob job = awaitFinished(sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH));
+
+        assertThat(job.getState(), is(PdfJob.State.DONE));
+        assertThat(job.getWritten(), is(7L));
+        assertThat(job.isCached(), is(false));
+        assertThat(new String(Files.readAllBytes(sut.getFile(job.getId())), StandardCharsets.UTF_8), is("content"));
+    }
+
+    @Test
+    public void submitAgain_unchangedConcern_servedFromFile() throws Exception {
+        PdfJob first = awaitFinished(sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH));
+        PdfJob second = sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH);
+
+        assertThat(second.getId(), is(not(first.getId())));
+        assertThat(second.getState(), is(PdfJob.State.DONE));
+        assertThat(second.isCached(), is(true));
+        assertThat(sut.getFile(second.getId()), is(sut.getFile(first.getId())));
+        verify(pdfService, times(1)).generate(any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void submitAgain_changedConcern_renderedAgainAndPreviousFileDeleted() throws Exception {
+        PdfJob first = awaitFinished(sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH));
+        Path firstFile = sut.getFile(first.getId());
+
+        when(logService.getLastId(concern)).thenReturn(101);
+        PdfJob second = awaitFinished(sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH));
+
+        assertThat(second.isCached(), is(false));
+        assertThat(Files.exists(firstFile), is(false));
+        assertThat(sut.getFile(first.getId()), is(nullValue()));
+        verify(pdfService, times(2)).generate(any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void submitWhileRendering_sameJobReturned() throws Exception {
+        CountDownLatch release = blockRendering();
+
+        PdfJob first = sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH);
+        PdfJob second = sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH);
+        release.countDown();
+
+        assertThat(second.getId(), is(first.getId()));
+    }
+
+    @Test(expected = ErrorsException.class)
+    public void submit_queueFull_rejected() throws Exception {
+        CountDownLatch release = blockRendering();
+        try {
+            // One job is rendered and one waiting, the pool has one thread and a queue capacity of one
+            sut.submit(PdfType.REPORT, concern, false, Locale.ENGLISH);
+            sut.submit(PdfType.DUMP, concern, false, Locale.ENGLISH);
+            sut.submit(PdfType.TRANSPORT, concern, false, Locale.ENGLISH);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void renderingFails_jobFailed() throws Exception {
+        doThrow(new IOException("failed")).when(pdfService).generate(eq(PdfType.DUMP), any(), anyBoolean(), any(), any());
+
+        PdfJob job = awaitFinished(sut.submit(PdfType.DUMP, concern, false, Locale.ENGLISH));
+
+        assertThat(job.getState(), is(PdfJob.State.FAILED));
+        assertThat(sut.getFile(job.getId()), is(nullValue()));
+        assertThat(folder.getRoot().list().length, is(0));
+    }
+
+    private CountDownLatch blockRendering() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(pdfService).generate(any(), any(), anyBoolean(), any(), any());
+        return release;
+    }
+
+    private PdfJob awaitFinished(final PdfJob submitted) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        PdfJob job = submitted;
+        while (job.getState() == PdfJob.State.QUEUED || job.getState() == PdfJob.State.RUNNING) {
+            if (System.currentTimeMillis() > timeout) {
+                throw new AssertionError("Job " + job.getId() + " did not finish");
+            }
+            Thread.sleep(10);
+            job = sut.getJob(job.getId());
+        }
+        return job;
+    }
+}
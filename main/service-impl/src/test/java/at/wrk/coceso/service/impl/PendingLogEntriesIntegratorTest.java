@@ -0,0 +1,182 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.data.AuthenticatedUser;
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.User;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.helper.Changes;
+import at.wrk.coceso.repository.H2TestDatabase;
+import at.wrk.coceso.repository.IncidentRepository;
+import at.wrk.coceso.repository.LogRepository;
+import at.wrk.coceso.repository.LogRepositoryImpl;
+import at.wrk.coceso.repository.UnitRepository;
+import at.wrk.coceso.repository.UnitRepositoryImpl;
+import at.wrk.coceso.utils.AuthenticatedUserProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PendingLogEntriesIntegratorTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
+    private UnitRepository unitRepository;
+    private IncidentRepository incidentRepository;
+    private LogServiceImpl logService;
+
+    private Concern concern;
+    private Unit unit;
+    private Incident incident;
+
+    @Before
+    public void init() {
+        entityManagerFactory = H2TestDatabase.createEntityManagerFactory();
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        LogRepositoryImpl logFragment = new LogRepositoryImpl();
+        logFragment.setEntityManager(entityManager);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        LogRepository logRepository = repositoryFactory.getRepository(LogRepository.class, RepositoryFragments.just(logFragment));
+        UnitRepositoryImpl unitFragment = new UnitRepositoryImpl();
+        unitFragment.setEntityManager(entityManager);
+        unitRepository = repositoryFactory.getRepository(UnitRepository.class, RepositoryFragments.just(unitFragment));
+        incidentRepository = repositoryFactory.getRepository(IncidentRepository.class);
+        User user = new User();
+        user.setFirstname("First");
+        user.setLastname("Last");
+        concern = new Concern();
+        concern.setName("Concern");
+        concern.setInfo("");
+        incident = new Incident();
+        incident.setConcern(concern);
+        incident.setState(IncidentState.InProgress);
+        incident.setType(IncidentType.Task);
+        unit = new Unit();
+        unit.setConcern(concern);
+        unit.setCall("Unit");
+
+        transactionTemplate.execute(status -> {
+            entityManager.persist(user);
+            entityManager.persist(concern);
+            entityManager.persist(incident);
+            entityManager.persist(unit);
+            return null;
+        });
+
+        AuthenticatedUser authenticatedUser = mock(AuthenticatedUser.class);
+        when(authenticatedUser.getUserId()).thenReturn(user.getId());
+        AuthenticatedUserProvider authenticatedUserProvider = mock(AuthenticatedUserProvider.class);
+        when(authenticatedUserProvider.getAuthenticatedUser()).thenReturn(authenticatedUser);
+        logService = new LogServiceImpl(logRepository, authenticatedUserProvider, true);
+    }
+
+    @After
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void relatedUnitsOfIncident_includeBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            assertThat(unitRepository.findRelated(incident), is(empty()));
+
+            logService.logAuto(LogEntryType.UNIT_ASSIGN, concern, unit, incident, TaskState.Assigned);
+
+            assertThat(unitRepository.findRelated(incident), contains(unit.getId()));
+            return null;
+        });
+    }
+
+    @Test
+    public void relatedUnitsOfIncidents_includeBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logAuto(LogEntryType.UNIT_ASSIGN, concern, unit, incident, TaskState.Assigned);
+
+            assertThat(unitRepository.findRelated(Collections.singletonList(incident)), contains(unit.getId()));
+            return null;
+        });
+    }
+
+    @Test
+    public void relatedIncidentsOfUnit_includeBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logAuto(LogEntryType.UNIT_ASSIGN, concern, unit, incident, TaskState.Assigned);
+
+            assertThat(incidentRepository.findRelated(unit), contains(incident.getId()));
+            return null;
+        });
+    }
+
+    @Test
+    public void lockedUnit_includesBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logAuto(LogEntryType.UNIT_ASSIGN, concern, unit, incident, TaskState.Assigned);
+
+            Unit loaded = unitRepository.findByIdIn(Collections.singletonList(unit.getId())).get(0);
+            assertThat(loaded.isLocked(), is(true));
+            return null;
+        });
+    }
+
+    @Test
+    public void logPage_includesBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logCustom("Text", concern, unit, incident);
+
+            assertThat(logService.getPage(concern, null, null, 10).size(), is(1));
+            assertThat(logService.getLastId(concern) > 0, is(true));
+            return null;
+        });
+    }
+
+    @Test
+    public void streamedLog_includesBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logCustom("Text", concern, unit, incident);
+
+            List<String> texts = new ArrayList<>();
+            logService.streamByUnit(unit, entry -> texts.add(entry.getText()));
+            assertThat(texts, contains("Text"));
+            return null;
+        });
+    }
+
+    @Test
+    public void updateForRemoval_includesBatchedEntries() {
+        transactionTemplate.execute(status -> {
+            logService.logAuto(LogEntryType.UNIT_CREATE, concern, unit, null, (Changes) null);
+
+            logService.updateForRemoval(unit);
+
+            List<LogEntryType> types = logService.getAll(concern).stream().map(LogEntry::getType).collect(Collectors.toList());
+            assertThat(types, contains(LogEntryType.UNIT_CREATE_REMOVED));
+            return null;
+        });
+    }
+}
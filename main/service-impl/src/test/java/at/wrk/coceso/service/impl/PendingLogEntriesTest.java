@@ -0,0 +1,110 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.repository.LogRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class PendingLogEntriesTest {
+
+    private LogRepository logRepository;
+
+    @Before
+    public void init() {
+        logRepository = mock(LogRepository.class);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    public void noTransaction_returnsNull() {
+        TransactionSynchronizationManager.clear();
+
+        assertThat(PendingLogEntries.forCurrentTransaction(logRepository), is(nullValue()));
+    }
+
+    @Test
+    public void sameTransaction_sameInstance() {
+        PendingLogEntries pending = PendingLogEntries.forCurrentTransaction(logRepository);
+
+        assertThat(PendingLogEntries.forCurrentTransaction(logRepository), is(sameInstance(pending)));
+    }
+
+    @Test
+    public void beforeCommit_entriesInsertedInOrder() {
+        LogEntry first = entry("first");
+        LogEntry second = entry("second");
+
+        PendingLogEntries pending = PendingLogEntries.forCurrentTransaction(logRepository);
+        pending.add(first);
+        pending.add(second);
+        verify(logRepository, never()).insertBatch(any());
+
+        triggerBeforeCommit();
+
+        List<LogEntry> inserted = getInserted();
+        assertThat(inserted, contains(first, second));
+        assertThat(first.getTimestamp(), is(notNullValue()));
+        assertThat(first.getTimestamp().getTime(), lessThanOrEqualTo(second.getTimestamp().getTime()));
+    }
+
+    @Test
+    public void flushCurrentTransaction_entriesInsertedOnlyOnce() {
+        LogEntry entry = entry("text");
+        PendingLogEntries.forCurrentTransaction(logRepository).add(entry);
+
+        PendingLogEntries.flushCurrentTransaction();
+        triggerBeforeCommit();
+
+        assertThat(getInserted(), contains(entry));
+    }
+
+    @Test
+    public void rollback_entriesNotInserted() {
+        PendingLogEntries.forCurrentTransaction(logRepository).add(entry("text"));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(logRepository, never()).insertBatch(any());
+    }
+
+    private void triggerBeforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+    }
+
+    private List<LogEntry> getInserted() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LogEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(logRepository).insertBatch(captor.capture());
+        return captor.getValue();
+    }
+
+    private static LogEntry entry(final String text) {
+        return new LogEntry(null, LogEntryType.CUSTOM, text, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,196 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.point.Point;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.entityevent.EntityEventHandler;
+import at.wrk.coceso.entityevent.EntityEventListener;
+import at.wrk.coceso.entityevent.impl.NotifyList;
+import at.wrk.coceso.entityevent.impl.NotifyListExecutor;
+import at.wrk.coceso.service.internal.IncidentServiceInternal;
+import at.wrk.coceso.service.internal.UnitServiceInternal;
+import at.wrk.geocode.LatLng;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class PointResolutionWorkerTest {
+
+    private EntityEventFactory entityEventFactory;
+    private EntityEventHandler<Incident> incidentEventHandler;
+    private EntityEventHandler<Unit> unitEventHandler;
+    private IncidentServiceInternal incidentService;
+    private UnitServiceInternal unitService;
+    private NotifyListExecutor notifyListExecutor;
+    private PointResolutionWorker sut;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+        entityEventFactory = mock(EntityEventFactory.class);
+        incidentEventHandler = mock(EntityEventHandler.class);
+        unitEventHandler = mock(EntityEventHandler.class);
+        when(entityEventFactory.getEntityEventHandler(Incident.class)).thenReturn(incidentEventHandler);
+        when(entityEventFactory.getEntityEventHandler(Unit.class)).thenReturn(unitEventHandler);
+
+        incidentService = mock(IncidentServiceInternal.class);
+        unitService = mock(UnitServiceInternal.class);
+        notifyListExecutor = mock(NotifyListExecutor.class);
+        NotifyList notifyList = mock(NotifyList.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(notifyList);
+            return null;
+        }).when(notifyListExecutor).executeVoid(any());
+    }
+
+    @After
+    public void tearDown() {
+        if (sut != null) {
+            sut.destroy();
+        }
+    }
+
+    @Test
+    public void incidentWithPendingPoint_resolvedCopyStored() {
+        sut = new PointResolutionWorker(entityEventFactory, incidentService, unitService, notifyListExecutor, true, 10);
+        TestPoint bo = new TestPoint("Neubaugasse 7", true);
+        Incident incident = incident(5, bo);
+        when(incidentService.getById(5)).thenReturn(incident);
+
+        incidentListener().entityChanged(incident, 1, 1, 1);
+
+        ArgumentCaptor<Point> captor = ArgumentCaptor.forClass(Point.class);
+        verify(incidentService, timeout(1000)).updateResolvedPoints(eq(5), captor.capture(), isNull(), any());
+        assertThat(captor.getValue().getInfo(), is("Neubaugasse 7"));
+        assertThat(captor.getValue().getCoordinates(), notNullValue());
+        assertThat("Loaded point must not be changed", bo.getCoordinates(), nullValue());
+    }
+
+    @Test
+    public void unitWithoutPendingPoint_notQueued() {
+        sut = new PointResolutionWorker(entityEventFactory, incidentService, unitService, notifyListExecutor, true, 10);
+        Unit unit = new Unit(3);
+        unit.setPosition(new TestPoint("Neubaugasse 7", false));
+
+        unitListener().entityChanged(unit, 1, 1, 1);
+
+        verifyNoInteractions(unitService, notifyListExecutor);
+    }
+
+    @Test
+    public void nothingResolved_nothingStored() {
+        sut = new PointResolutionWorker(entityEventFactory, incidentService, unitService, notifyListExecutor, true, 10);
+        Unit unit = new Unit(3);
+        unit.setHome(new TestPoint("Unknown street", true).withoutResult());
+        when(unitService.getById(3)).thenReturn(unit);
+
+        unitListener().entityChanged(unit, 1, 1, 1);
+
+        verify(unitService, timeout(1000)).getById(3);
+        verify(unitService, after(100).never()).updateResolvedPoints(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void disabled_noListenerRegistered() {
+        sut = new PointResolutionWorker(entityEventFactory, incidentService, unitService, notifyListExecutor, false, 10);
+
+        verify(incidentEventHandler, never()).addListener(any());
+        verify(unitEventHandler, never()).addListener(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private EntityEventListener<Incident> incidentListener() {
+        ArgumentCaptor<EntityEventListener<Incident>> captor = ArgumentCaptor.forClass(EntityEventListener.class);
+        verify(incidentEventHandler).addListener(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private EntityEventListener<Unit> unitListener() {
+        ArgumentCaptor<EntityEventListener<Unit>> captor = ArgumentCaptor.forClass(EntityEventListener.class);
+        verify(unitEventHandler).addListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Incident incident(final int id, final Point bo) {
+        Incident incident = new Incident(id);
+        incident.setBo(bo);
+        return incident;
+    }
+
+    private static class TestPoint implements Point {
+
+        private final String info;
+        private boolean pending;
+        private boolean found = true;
+        private LatLng coordinates;
+
+        private TestPoint(final String info, final boolean pending) {
+            this.info = info;
+            this.pending = pending;
+            this.coordinates = pending ? null : new LatLng(48.2, 16.35);
+        }
+
+        private TestPoint withoutResult() {
+            this.found = false;
+            return this;
+        }
+
+        @Override
+        public String getInfo() {
+            return info;
+        }
+
+        @Override
+        public LatLng getCoordinates() {
+            return coordinates;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public Point deepCopy() {
+            TestPoint copy = new TestPoint(info, pending);
+            copy.found = found;
+            copy.coordinates = coordinates;
+            return copy;
+        }
+
+        @Override
+        public void resolveExternalData() {
+            if (pending) {
+                pending = false;
+                coordinates = found ? new LatLng(48.2, 16.35) : null;
+            }
+        }
+
+        @Override
+        public boolean isExternalDataPending() {
+            return pending;
+        }
+    }
+}
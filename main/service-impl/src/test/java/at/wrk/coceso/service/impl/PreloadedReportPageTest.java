@@ -0,0 +1,93 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.LogEntry;
+import at.wrk.coceso.entity.Unit;
+import at.wrk.coceso.entity.enums.LogEntryType;
+import at.wrk.coceso.entity.enums.TaskState;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PreloadedReportPageTest {
+
+    private final Incident first = new Incident(1);
+    private final Incident second = new Incident(2);
+    private final Unit assigned = new Unit(10);
+    private final Unit detached = new Unit(11);
+
+    public PreloadedReportPageTest() {
+        assigned.addIncident(first, TaskState.ZAO);
+        detached.addIncident(second, TaskState.ABO);
+    }
+
+    @Test
+    public void ofIncidents_logsGroupedByIncident() {
+        LogEntry create = log(LogEntryType.INCIDENT_CREATE, first, null);
+        LogEntry assign = log(LogEntryType.UNIT_ASSIGN, first, assigned);
+        LogEntry other = log(LogEntryType.UNIT_ASSIGN, second, detached);
+
+        PreloadedReportPage<Incident> page = PreloadedReportPage.ofIncidents(Arrays.asList(first, second), Arrays.asList(create, assign, other));
+
+        assertThat(page.getLog(first), contains(create, assign));
+        assertThat(page.getLog(second), contains(other));
+        assertThat(page.getLog(new Incident(3)), is(empty()));
+    }
+
+    @Test
+    public void getRelatedUnits_unitsInLogWithCurrentTaskState() {
+        List<LogEntry> logs = Arrays.asList(
+                log(LogEntryType.UNIT_ASSIGN, first, assigned),
+                log(LogEntryType.UNIT_ASSIGN, first, detached),
+                log(LogEntryType.UNIT_DETACH, first, detached));
+
+        Map<Unit, TaskState> related = PreloadedReportPage.ofIncidents(Collections.singletonList(first), logs).getRelatedUnits(first);
+
+        assertThat(related.keySet(), contains(assigned, detached));
+        assertThat(related.get(assigned), is(TaskState.ZAO));
+        assertThat(related.get(detached), is(TaskState.Detached));
+    }
+
+    @Test
+    public void getLastUpdate_lastTaskStateEntryOfUnit() {
+        LogEntry assign = log(LogEntryType.UNIT_ASSIGN, first, assigned);
+        LogEntry changed = log(LogEntryType.TASKSTATE_CHANGED, first, assigned);
+        List<LogEntry> logs = Arrays.asList(
+                assign,
+                changed,
+                log(LogEntryType.CUSTOM, first, assigned),
+                log(LogEntryType.TASKSTATE_CHANGED, first, detached));
+
+        PreloadedReportPage<Incident> page = PreloadedReportPage.ofIncidents(Collections.singletonList(first), logs);
+
+        assertThat(page.getLastUpdate(first, assigned), is(sameInstance(changed.getTimestamp())));
+        assertThat(page.getLastUpdate(second, assigned), is(nullValue()));
+    }
+
+    @Test
+    public void ofUnits_logsGroupedByUnit() {
+        LogEntry assign = log(LogEntryType.UNIT_ASSIGN, first, assigned);
+        LogEntry custom = log(LogEntryType.CUSTOM, null, assigned);
+
+        PreloadedReportPage<Unit> page = PreloadedReportPage.ofUnits(Arrays.asList(assigned, detached), Arrays.asList(assign, custom));
+
+        assertThat(page.getLog(assigned), contains(assign, custom));
+        assertThat(page.getLog(detached), is(empty()));
+    }
+
+    private static LogEntry log(final LogEntryType type, final Incident incident, final Unit unit) {
+        LogEntry entry = new LogEntry(null, type, type.name(), null, unit, incident, null, null, null);
+        entry.prePersist();
+        return entry;
+    }
+}
@@ -0,0 +1,163 @@
+package at.wrk.coceso.service.impl;
+
+import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entityevent.impl.NotifyList;
+import at.wrk.coceso.entityevent.impl.NotifyListExecutor;
+import at.wrk.coceso.service.internal.IncidentServiceInternal;
+import at.wrk.coceso.service.internal.TaskServiceInternal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskWriteServiceImplTest {
+
+    private static final int CONCERN_A = 1;
+    private static final int CONCERN_B = 2;
+    private static final int INCIDENT_IN_A = 10;
+    private static final int INCIDENT_IN_B = 20;
+
+    private TaskServiceInternal taskService;
+    private ExecutorService executor;
+    private ConcernLockManager concernLockManager;
+    private TaskWriteServiceImpl sut;
+
+    @Before
+    public void init() {
+        taskService = mock(TaskServiceInternal.class);
+        executor = Executors.newFixedThreadPool(8);
+
+        IncidentServiceInternal incidentService = mock(IncidentServiceInternal.class);
+        when(incidentService.getConcernId(INCIDENT_IN_A)).thenReturn(CONCERN_A);
+        when(incidentService.getConcernId(INCIDENT_IN_B)).thenReturn(CONCERN_B);
+
+        NotifyListExecutor notifyListExecutor = mock(NotifyListExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<NotifyList>>getArgument(0).accept(mock(NotifyList.class));
+            return null;
+        }).when(notifyListExecutor).executeVoid(any());
+
+        concernLockManager = new ConcernLockManager();
+        sut = new TaskWriteServiceImpl(taskService, incidentService, notifyListExecutor, concernLockManager);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void changeState_differentConcerns_runInParallel() throws Exception {
+        CountDownLatch concernAEntered = new CountDownLatch(1);
+        CountDownLatch concernBEntered = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            concernAEntered.countDown();
+            // Only returns if the change in the other concern is not blocked by this one
+            assertTrue("Change in other concern was blocked", concernBEntered.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(taskService).changeState(eq(INCIDENT_IN_A), anyInt(), any(TaskState.class), any(NotifyList.class));
+        doAnswer(invocation -> {
+            concernBEntered.countDown();
+            return null;
+        }).when(taskService).changeState(eq(INCIDENT_IN_B), anyInt(), any(TaskState.class), any(NotifyList.class));
+
+        Future<?> changeA = executor.submit(() -> sut.changeState(INCIDENT_IN_A, 1, TaskState.ZBO));
+        assertTrue(concernAEntered.await(5, TimeUnit.SECONDS));
+        Future<?> changeB = executor.submit(() -> sut.changeState(INCIDENT_IN_B, 2, TaskState.ZBO));
+
+        changeB.get(5, TimeUnit.SECONDS);
+        changeA.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void changeState_sameConcern_neverOverlaps() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return null;
+        }).when(taskService).changeState(eq(INCIDENT_IN_A), anyInt(), any(TaskState.class), any(NotifyList.class));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int unitId = i % 4;
+            futures.add(executor.submit(() -> {
+                start.await();
+                sut.changeState(INCIDENT_IN_A, unitId, TaskState.ABO);
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(maxRunning.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void changeState_sameUnitAndIncident_appliedInSubmissionOrder() throws Exception {
+        List<TaskState> appliedStates = new CopyOnWriteArrayList<>();
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            TaskState state = invocation.getArgument(2);
+            if (state == TaskState.Assigned) {
+                firstEntered.countDown();
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            }
+            appliedStates.add(state);
+            return null;
+        }).when(taskService).changeState(eq(INCIDENT_IN_A), eq(5), any(TaskState.class), any(NotifyList.class));
+
+        Future<?> first = executor.submit(() -> sut.changeState(INCIDENT_IN_A, 5, TaskState.Assigned));
+        assertTrue(firstEntered.await(5, TimeUnit.SECONDS));
+
+        Future<?> second = executor.submit(() -> sut.changeState(INCIDENT_IN_A, 5, TaskState.ZBO));
+        waitForQueuedThreads(1);
+        Future<?> third = executor.submit(() -> sut.changeState(INCIDENT_IN_A, 5, TaskState.ABO));
+        waitForQueuedThreads(2);
+
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+
+        assertThat(appliedStates, contains(TaskState.Assigned, TaskState.ZBO, TaskState.ABO));
+    }
+
+    private void waitForQueuedThreads(final int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (concernLockManager.getLock(CONCERN_A).getQueueLength() < expected) {
+            assertTrue("Timeout waiting for queued threads", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package at.wrk.coceso.service.patadmin.impl;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.Incident;
+import at.wrk.coceso.entity.enums.IncidentState;
+import at.wrk.coceso.entity.enums.IncidentType;
+import at.wrk.coceso.entity.point.UnitPoint;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IncomingIncidentIndexTest {
+
+    private static final int CONCERN = 5;
+    private static final int GROUP = 10;
+    private static final int OTHER_GROUP = 11;
+
+    private IncomingIncidentIndex sut;
+
+    @Before
+    public void init() {
+        sut = new IncomingIncidentIndex();
+    }
+
+    @Test
+    public void notLoaded_returnsNull() {
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.get(CONCERN, GROUP), is(nullValue()));
+    }
+
+    @Test
+    public void loaded_incidentsByGroup() {
+        assertThat(sut.put(CONCERN, 0, Arrays.asList(
+                incident(3, IncidentType.Transport, IncidentState.Open, GROUP),
+                incident(1, IncidentType.Task, IncidentState.InProgress, GROUP),
+                incident(2, IncidentType.Task, IncidentState.Open, OTHER_GROUP))), is(true));
+
+        assertThat(sut.get(CONCERN), contains(1, 2, 3));
+        assertThat(sut.get(CONCERN, GROUP), contains(1, 3));
+        assertThat(sut.get(CONCERN, OTHER_GROUP), contains(2));
+        assertThat(sut.get(CONCERN, 12), is(empty()));
+    }
+
+    @Test
+    public void events_moveIncidentsBetweenGroups() {
+        sut.put(CONCERN, 0, Arrays.asList(
+                incident(1, IncidentType.Task, IncidentState.Open, GROUP),
+                incident(2, IncidentType.Task, IncidentState.Open, GROUP)));
+
+        sut.entityChanged(incident(1, IncidentType.Task, IncidentState.Open, OTHER_GROUP), CONCERN, 1, 1);
+        sut.entityChanged(incident(2, IncidentType.Task, IncidentState.Done, GROUP), CONCERN, 1, 2);
+        sut.entityChanged(incident(3, IncidentType.Transport, IncidentState.Demand, GROUP), CONCERN, 1, 3);
+        sut.entityChanged(incident(4, IncidentType.Treatment, IncidentState.InProgress, GROUP), CONCERN, 1, 4);
+
+        assertThat(sut.get(CONCERN, GROUP), contains(3));
+        assertThat(sut.get(CONCERN, OTHER_GROUP), contains(1));
+
+        sut.entityDeleted(1, CONCERN, 1, 5);
+
+        assertThat(sut.get(CONCERN, OTHER_GROUP), is(empty()));
+        assertThat(sut.get(CONCERN), contains(3));
+    }
+
+    @Test
+    public void aoNotUnit_notIncoming() {
+        Incident incident = incident(1, IncidentType.Task, IncidentState.Open, GROUP);
+        incident.setAo(null);
+
+        sut.put(CONCERN, 0, Arrays.asList(incident));
+
+        assertThat(sut.get(CONCERN), is(empty()));
+    }
+
+    @Test
+    public void eventWhileLoading_notStored() {
+        sut.entityChanged(incident(1, IncidentType.Task, IncidentState.Open, GROUP), CONCERN, 1, 1);
+
+        assertThat(sut.put(CONCERN, 0, Arrays.asList()), is(false));
+        assertThat(sut.get(CONCERN), is(nullValue()));
+        assertThat(sut.put(CONCERN, 1, Arrays.asList()), is(true));
+    }
+
+    @Test
+    public void missedEvent_concernIsDropped() {
+        sut.put(CONCERN, 0, Arrays.asList(incident(1, IncidentType.Task, IncidentState.Open, GROUP)));
+
+        sut.entityChanged(incident(1, IncidentType.Task, IncidentState.Open, GROUP), CONCERN, 1, 2);
+
+        assertThat(sut.get(CONCERN, GROUP), is(nullValue()));
+    }
+
+    private static Incident incident(final int id, final IncidentType type, final IncidentState state, final int group) {
+        Incident incident = new Incident(id);
+        incident.setConcern(new Concern(CONCERN));
+        incident.setType(type);
+        incident.setState(state);
+        incident.setAo(new UnitPoint(group));
+        return incident;
+    }
+}
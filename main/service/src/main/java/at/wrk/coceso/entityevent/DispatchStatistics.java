@@ -0,0 +1,67 @@
+package at.wrk.coceso.entityevent;
+
+/**
+ * Snapshot of the queue of one listener, if entity events are dispatched asynchronously.
+ */
+public class DispatchStatistics {
+
+    private final String type;
+    private final String listener;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long delivered;
+    private final long coalesced;
+    private final long dropped;
+    private final long failed;
+
+    public DispatchStatistics(
+            final String type,
+            final String listener,
+            final int queueDepth,
+            final int queueCapacity,
+            final long delivered,
+            final long coalesced,
+            final long dropped,
+            final long failed) {
+        this.type = type;
+        this.listener = listener;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.delivered = delivered;
+        this.coalesced = coalesced;
+        this.dropped = dropped;
+        this.failed = failed;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getListener() {
+        return listener;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+}
@@ -1,5 +1,6 @@
 package at.wrk.coceso.entityevent;
 
+import java.util.List;
 import java.util.function.Function;
 
 public interface EntityEventFactory {
@@ -8,4 +9,11 @@ public interface EntityEventFactory {
 
   <T> EntityEventListener<T> getWebSocketWriter(String url, Class<?> jsonView, Function<T, Integer> delete);
 
+  /**
+   * Creates a writer sending only the changed fields of an entity instead of the full entity
+   */
+  <T> EntityEventListener<T> getDeltaWebSocketWriter(String url, Class<?> jsonView, Function<T, Integer> delete);
+
+  List<DispatchStatistics> getDispatchStatistics();
+
 }
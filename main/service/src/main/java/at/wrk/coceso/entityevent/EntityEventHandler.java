@@ -1,5 +1,7 @@
 package at.wrk.coceso.entityevent;
 
+import java.util.List;
+
 public interface EntityEventHandler<T> {
 
   void entityChanged(T entity);
@@ -18,4 +20,9 @@ public interface EntityEventHandler<T> {
 
   boolean matches(Class<?> type);
 
+  /**
+   * Returns the queue statistics of all listeners, or an empty list if events are dispatched synchronously.
+   */
+  List<DispatchStatistics> getDispatchStatistics();
+
 }
@@ -6,5 +6,22 @@ public interface EntityEventListener<T> {
 
     void entityDeleted(int id, int concern, int hver, int seq);
 
+    /**
+     * Prepares handling a change on another thread on asynchronous dispatch. Called on the publishing thread, so listeners
+     * serializing the entity do it here and the returned task only uses the serialized state. By default the entity is
+     * passed to {@link #entityChanged} later on.
+     */
+    default Runnable prepareChanged(T entity, int concern, int hver, int seq) {
+        return () -> entityChanged(entity, concern, hver, seq);
+    }
+
     boolean isSupported(Class<?> supportedClass);
+
+    /**
+     * Listeners which rely on receiving every sequence number (e.g. clients detecting missed updates by gaps in the sequence)
+     * must return true. Otherwise multiple changes of the same entity may be coalesced to the latest one on asynchronous dispatch.
+     */
+    default boolean isGaplessSequenceRequired() {
+        return false;
+    }
 }
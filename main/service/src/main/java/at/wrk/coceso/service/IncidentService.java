@@ -4,6 +4,7 @@ import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Incident;
 import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.entity.helper.IncidentTypeCount;
 import java.util.List;
 import java.util.Map;
 import org.springframework.stereotype.Service;
@@ -19,9 +20,32 @@ public interface IncidentService {
 
   List<Incident> getAllSorted(Concern concern);
 
+  /**
+   * Returns the incidents relevant for the main view with units and patient already loaded
+   */
   List<Incident> getAllRelevant(Concern concern);
 
-  List<Incident> getAllForReport(Concern concern);
+  /**
+   * Returns up to count incidents for the final report with an id greater than afterId, ordered by id
+   */
+  List<Incident> getPageForReport(Concern concern, int afterId, int count);
+
+  List<IncidentTypeCount> countByType(Concern concern);
+
+  /**
+   * Returns the number of distinct patients with a treatment incident
+   */
+  long countTreatedPatients(Concern concern);
+
+  /**
+   * Returns the number of distinct patients transported to a treatment group
+   */
+  long countTransportedPatients(Concern concern);
+
+  /**
+   * Drops the cached statistics of the concern, so they are computed again from the database on the next access
+   */
+  void invalidateStatistics(int concernId);
 
   List<Incident> getAllForDump(Concern concern);
 
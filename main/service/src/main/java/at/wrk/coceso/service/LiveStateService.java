@@ -0,0 +1,33 @@
+package at.wrk.coceso.service;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.helper.SequencedResponse;
+import at.wrk.coceso.service.livestate.LiveStateStatistics;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * In-memory state of the units and incidents of each concern as shown in the main screen. The state is kept current by the
+ * entity events and loaded from the database on the first request for a concern.
+ */
+public interface LiveStateService {
+
+  boolean isEnabled();
+
+  SequencedResponse<List<JsonNode>> getUnitsForMain(Concern concern);
+
+  SequencedResponse<List<JsonNode>> getIncidentsForMain(Concern concern);
+
+  /**
+   * Compares the cached state of the concern to the database. The cached state is dropped if it differs.
+   *
+   * @return false if the cached state differed from the database
+   */
+  boolean verify(Concern concern);
+
+  void invalidate(int concernId);
+
+  List<LiveStateStatistics> getStatistics();
+
+}
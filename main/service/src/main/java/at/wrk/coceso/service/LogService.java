@@ -12,7 +12,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
@@ -32,6 +34,12 @@ public interface LogService {
 
   void logCustom(String text, Concern concern, Unit unit, Incident incident);
 
+  /**
+   * Collects all further entries of the current transaction and inserts them as one batch before it is committed, even if
+   * batched writing is not enabled in general
+   */
+  void batchLogEntries();
+
   List<LogEntry> getAll(Concern concern);
 
   List<LogEntry> getLast(Concern concern, int count);
@@ -44,6 +52,16 @@ public interface LogService {
 
   List<LogEntry> getByUnitAsc(Unit unit);
 
+  /**
+   * Returns the entries of all given incidents in a single query, oldest first
+   */
+  List<LogEntry> getByIncidentsAsc(Collection<Incident> incidents);
+
+  /**
+   * Returns the entries of all given units in a single query, oldest first
+   */
+  List<LogEntry> getByUnitsAsc(Collection<Unit> units);
+
   List<LogEntry> getByPatient(Patient patient);
 
   List<LogEntry> getPatientLogsFilteredByOverviewStates(Patient patient);
@@ -54,10 +72,37 @@ public interface LogService {
 
   Timestamp getLastTaskStateUpdate(Incident incident, Unit unit);
 
+  /**
+   * Returns the id of the newest entry of the concern, or 0 if there is none. Each change of the concern creates a new entry,
+   * so the id identifies the current state of the concern.
+   */
+  int getLastId(Concern concern);
+
   List<LogEntry> getCustom(Concern concern);
 
   List<LogEntry> getCustomAsc(Concern concern);
 
+  /**
+   * Returns up to count entries of the concern, newest first. Only entries older than the given entry are returned, or the
+   * newest entries if no entry is given.
+   */
+  List<LogEntry> getPage(Concern concern, Timestamp beforeTimestamp, Integer beforeId, int count);
+
+  List<LogEntry> getCustomPage(Concern concern, Timestamp beforeTimestamp, Integer beforeId, int count);
+
+  List<LogEntry> getPageByUnit(Unit unit, Timestamp beforeTimestamp, Integer beforeId, int count);
+
+  /**
+   * Passes all entries of the concern to the consumer, newest first, without loading all of them into memory
+   */
+  void streamAll(Concern concern, Consumer<LogEntry> consumer);
+
+  void streamCustom(Concern concern, Consumer<LogEntry> consumer);
+
+  void streamCustomAsc(Concern concern, Consumer<LogEntry> consumer);
+
+  void streamByUnit(Unit unit, Consumer<LogEntry> consumer);
+
   void updateForRemoval(Unit unit);
 
 }
@@ -0,0 +1,33 @@
+package at.wrk.coceso.service;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.service.pdf.PdfJob;
+import at.wrk.coceso.service.pdf.PdfType;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Renders PDFs on a bounded pool of background threads. Finished documents are kept on disk for the state of the concern
+ * identified by its last log entry, so a document is only rendered again if the concern changed in the meantime.
+ */
+public interface PdfJobService {
+
+  /**
+   * Starts rendering the document, or returns the job already rendering or having rendered the same document
+   *
+   * @throws at.wrk.coceso.exceptions.ErrorsException if too many documents are waiting to be rendered
+   */
+  PdfJob submit(PdfType type, Concern concern, boolean fullDate, Locale locale);
+
+  /**
+   * Returns the current state of the job, or null if there is no such job
+   */
+  PdfJob getJob(String id);
+
+  /**
+   * Returns the rendered document of the job, or null if the job does not exist or is not done
+   */
+  Path getFile(String id);
+
+}
@@ -2,15 +2,16 @@ package at.wrk.coceso.service;
 
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.entity.Incident;
-import at.wrk.coceso.entity.LogEntry;
 import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.enums.TaskState;
+import at.wrk.coceso.service.pdf.PdfType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -26,9 +27,11 @@ public interface PdfService {
 
   void generatePatients(Concern concern, HttpServletResponse response, Locale locale);
 
-  List<LogEntry> getLogByIncident(Incident incident);
-
-  List<LogEntry> getLogByUnit(Unit unit);
+  /**
+   * Writes the document to the stream instead of a response. In contrast to the other methods errors are not only logged,
+   * but thrown. The document does not name the requesting user, so it can be served to every user.
+   */
+  void generate(PdfType type, Concern concern, boolean fullDate, OutputStream output, Locale locale) throws IOException;
 
   Map<Unit, TaskState> getRelatedUnits(Incident incident);
 
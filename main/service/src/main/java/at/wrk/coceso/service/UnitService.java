@@ -19,12 +19,28 @@ public interface UnitService {
 
   List<Unit> getAll(Concern concern);
 
+  /**
+   * Returns all units of the concern with crew and tasks initialized, using a constant number of queries
+   */
+  List<Unit> getAllWithTasks(Concern concern);
+
   List<Unit> getAllSorted(Concern concern);
 
+  /**
+   * Returns up to count units of the concern with an id greater than afterId, ordered by id
+   */
+  List<Unit> getPageSorted(Concern concern, int afterId, int count);
+
   List<Unit> getByUser(User user, Collection<UnitType> types);
 
   List<Unit> getByConcernUser(Concern concern, int userId);
 
   Map<Unit, TaskState> getRelated(Incident incident);
 
+  /**
+   * Returns all units with log entries for any of the incidents, with crew and tasks initialized, using a constant number of
+   * queries
+   */
+  List<Unit> getRelatedWithTasks(Collection<Incident> incidents);
+
 }
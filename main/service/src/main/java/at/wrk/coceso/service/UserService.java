@@ -9,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -22,6 +23,11 @@ public interface UserService {
 
   User getByPersonnelId(int personnelId);
 
+  /**
+   * Returns the users with any of the given personnel ids in a single query
+   */
+  List<User> getByPersonnelIds(Collection<Integer> personnelIds);
+
   List<User> getAll();
 
   Page<User> getAll(Pageable pageable, String filter);
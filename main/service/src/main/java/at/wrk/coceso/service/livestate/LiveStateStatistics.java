@@ -0,0 +1,53 @@
+package at.wrk.coceso.service.livestate;
+
+/**
+ * Counters of the in-memory state of one entity type.
+ */
+public class LiveStateStatistics {
+
+    private final String type;
+    private final int concerns;
+    private final int entities;
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+
+    public LiveStateStatistics(
+            final String type,
+            final int concerns,
+            final int entities,
+            final long hits,
+            final long misses,
+            final long invalidations) {
+        this.type = type;
+        this.concerns = concerns;
+        this.entities = entities;
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getConcerns() {
+        return concerns;
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,57 @@
+package at.wrk.coceso.service.pdf;
+
+/**
+ * Current state of a PDF rendered in the background.
+ */
+public class PdfJob {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final PdfType type;
+    private final int concern;
+    private final State state;
+    private final long written;
+    private final boolean cached;
+
+    public PdfJob(final String id, final PdfType type, final int concern, final State state, final long written, final boolean cached) {
+        this.id = id;
+        this.type = type;
+        this.concern = concern;
+        this.state = state;
+        this.written = written;
+        this.cached = cached;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public PdfType getType() {
+        return type;
+    }
+
+    public int getConcern() {
+        return concern;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Number of bytes of the document written so far
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * True if the document was not rendered for this job, but taken from an earlier job for the same state of the concern
+     */
+    public boolean isCached() {
+        return cached;
+    }
+}
@@ -0,0 +1,25 @@
+package at.wrk.coceso.service.pdf;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public enum PdfType {
+
+    REPORT("coceso-report"),
+    DUMP("coceso-dump"),
+    TRANSPORT("coceso-transport-report"),
+    PATIENTS("coceso-patient-report");
+
+    private final String filenameSuffix;
+
+    PdfType(final String filenameSuffix) {
+        this.filenameSuffix = filenameSuffix;
+    }
+
+    /**
+     * Returns the filename of a document of this type created today
+     */
+    public String createFilename() {
+        return String.format("%s_%s.pdf", DateTimeFormatter.ISO_DATE.format(LocalDate.now()), filenameSuffix);
+    }
+}
@@ -11,9 +11,9 @@ import at.wrk.coceso.entityevent.EntityEventFactory;
 import at.wrk.coceso.entityevent.EntityEventHandler;
 import at.wrk.coceso.service.IncidentService;
 import at.wrk.coceso.service.IncidentWriteService;
+import at.wrk.coceso.service.LiveStateService;
 import at.wrk.coceso.service.TaskWriteService;
 import at.wrk.coceso.utils.ActiveConcern;
-import at.wrk.coceso.utils.Initializer;
 import com.fasterxml.jackson.annotation.JsonView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -36,27 +36,31 @@ public class IncidentController {
     private final IncidentService incidentService;
     private final IncidentWriteService incidentWriteService;
     private final TaskWriteService taskWriteService;
+    private final LiveStateService liveStateService;
 
     @Autowired
     public IncidentController(
             final EntityEventFactory entityEventFactory,
             final IncidentService incidentService,
             final IncidentWriteService incidentWriteService,
-            final TaskWriteService taskWriteService) {
+            final TaskWriteService taskWriteService,
+            final LiveStateService liveStateService) {
         this.entityEventHandler = entityEventFactory.getEntityEventHandler(Incident.class);
         this.incidentService = incidentService;
         this.incidentWriteService = incidentWriteService;
         this.taskWriteService = taskWriteService;
+        this.liveStateService = liveStateService;
     }
 
     @JsonView(JsonViews.Main.class)
     @Transactional
     @RequestMapping(value = "main", produces = "application/json", method = RequestMethod.GET)
-    public SequencedResponse<List<Incident>> getForMain(@ActiveConcern Concern concern) {
-        List<Incident> relevantIncidents = Initializer.init(
-                incidentService.getAllRelevant(concern),
-                Incident::getUnits,
-                Incident::getPatient);
+    public SequencedResponse<? extends List<?>> getForMain(@ActiveConcern Concern concern) {
+        if (liveStateService.isEnabled()) {
+            return liveStateService.getIncidentsForMain(concern);
+        }
+
+        List<Incident> relevantIncidents = incidentService.getAllRelevant(concern);
         return new SequencedResponse<>(
                 entityEventHandler.getHver(),
                 entityEventHandler.getSeq(concern.getId()),
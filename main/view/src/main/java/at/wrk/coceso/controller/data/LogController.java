@@ -7,32 +7,75 @@ import at.wrk.coceso.entity.Unit;
 import at.wrk.coceso.entity.helper.RestResponse;
 import at.wrk.coceso.service.LogService;
 import at.wrk.coceso.utils.ActiveConcern;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @PreAuthorize("@auth.hasAccessLevel('Main')")
 @RestController
 @RequestMapping("/data/log")
 public class LogController {
 
+    // Number of entries after which the written part of a streamed response is sent to the client
+    private static final int FLUSH_INTERVAL = 200;
+
     private final LogService logService;
+    private final ObjectWriter entryWriter;
 
     @Autowired
-    public LogController(final LogService logService) {
+    public LogController(final LogService logService, final ObjectMapper objectMapper) {
         this.logService = logService;
+        this.entryWriter = objectMapper.writerFor(LogEntry.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @RequestMapping(value = "getAll", produces = "application/json", method = RequestMethod.GET)
+    public void getAll(@ActiveConcern final Concern concern, final HttpServletResponse response) throws IOException {
+        writeJsonArray(response, consumer -> logService.streamAll(concern, consumer));
+    }
+
+    // The page endpoints are not used by the main view, they allow API clients to read large logs in parts
+    @RequestMapping(value = "getPage/{count}", produces = "application/json", method = RequestMethod.GET)
+    public List<LogEntry> getPage(
+            @PathVariable("count") final int count,
+            @RequestParam(value = "beforeTimestamp", required = false) final Long beforeTimestamp,
+            @RequestParam(value = "beforeId", required = false) final Integer beforeId,
+            @ActiveConcern final Concern concern) {
+        return logService.getPage(concern, toTimestamp(beforeTimestamp), beforeId, count);
     }
 
     @RequestMapping(value = "getCustom", produces = "application/json", method = RequestMethod.GET)
-    public List<LogEntry> getCustom(@ActiveConcern final Concern concern) {
-        return logService.getCustom(concern);
+    public void getCustom(@ActiveConcern final Concern concern, final HttpServletResponse response) throws IOException {
+        writeJsonArray(response, consumer -> logService.streamCustom(concern, consumer));
+    }
+
+    @RequestMapping(value = "getCustomPage/{count}", produces = "application/json", method = RequestMethod.GET)
+    public List<LogEntry> getCustomPage(
+            @PathVariable("count") final int count,
+            @RequestParam(value = "beforeTimestamp", required = false) final Long beforeTimestamp,
+            @RequestParam(value = "beforeId", required = false) final Integer beforeId,
+            @ActiveConcern final Concern concern) {
+        return logService.getCustomPage(concern, toTimestamp(beforeTimestamp), beforeId, count);
     }
 
     @RequestMapping(value = "getLast/{count}", produces = "application/json", method = RequestMethod.GET)
@@ -41,8 +84,17 @@ public class LogController {
     }
 
     @RequestMapping(value = "getByUnit/{id}", produces = "application/json", method = RequestMethod.GET)
-    public List<LogEntry> getByUnit(@PathVariable("id") final int unitId) {
-        return logService.getByUnit(new Unit(unitId));
+    public void getByUnit(@PathVariable("id") final int unitId, final HttpServletResponse response) throws IOException {
+        writeJsonArray(response, consumer -> logService.streamByUnit(new Unit(unitId), consumer));
+    }
+
+    @RequestMapping(value = "getPageByUnit/{id}/{count}", produces = "application/json", method = RequestMethod.GET)
+    public List<LogEntry> getPageByUnit(
+            @PathVariable("id") final int unitId,
+            @PathVariable("count") final int count,
+            @RequestParam(value = "beforeTimestamp", required = false) final Long beforeTimestamp,
+            @RequestParam(value = "beforeId", required = false) final Integer beforeId) {
+        return logService.getPageByUnit(new Unit(unitId), toTimestamp(beforeTimestamp), beforeId, count);
     }
 
     @RequestMapping(value = "getLastByUnit/{id}/{limit}", produces = "application/json", method = RequestMethod.GET)
@@ -67,4 +119,37 @@ public class LogController {
         logService.logCustom(logEntry.getText(), concern, logEntry.getUnit(), logEntry.getIncident());
         return new RestResponse(true);
     }
+
+    private static Timestamp toTimestamp(final Long millis) {
+        return millis == null ? null : new Timestamp(millis);
+    }
+
+    /**
+     * Writes the entries as JSON array while they are read from the database. As the length is unknown, the response is sent
+     * using chunked transfer encoding.
+     */
+    private void writeJsonArray(final HttpServletResponse response, final Consumer<Consumer<LogEntry>> source) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = entryWriter.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            AtomicInteger written = new AtomicInteger();
+            try {
+                source.accept(entry -> {
+                    try {
+                        entryWriter.writeValue(generator, entry);
+                        if (written.incrementAndGet() % FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package at.wrk.coceso.controller.data;
+
+import at.wrk.coceso.controller.config.DeploymentStatusProvider;
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.helper.RestProperty;
+import at.wrk.coceso.entity.helper.RestResponse;
+import at.wrk.coceso.entityevent.EntityEventFactory;
+import at.wrk.coceso.service.IncidentService;
+import at.wrk.coceso.service.LiveStateService;
+import at.wrk.coceso.utils.ActiveConcern;
+import at.wrk.geocode.GeocodeCacheStatisticsProvider;
+import at.wrk.geocode.GeocoderStatisticsProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@PreAuthorize("@auth.hasAccessLevel('Root')")
+@RestController
+@RequestMapping("/data/status")
+public class StatusController {
+
+    private final DeploymentStatusProvider deploymentStatusProvider;
+    private final EntityEventFactory entityEventFactory;
+    private final LiveStateService liveStateService;
+    private final IncidentService incidentService;
+    private final GeocodeCacheStatisticsProvider geocodeCacheStatisticsProvider;
+    private final GeocoderStatisticsProvider geocoderStatisticsProvider;
+
+    @Autowired
+    public StatusController(
+            final DeploymentStatusProvider deploymentStatusProvider,
+            final EntityEventFactory entityEventFactory,
+            final LiveStateService liveStateService,
+            final IncidentService incidentService,
+            final GeocodeCacheStatisticsProvider geocodeCacheStatisticsProvider,
+            final GeocoderStatisticsProvider geocoderStatisticsProvider) {
+        this.deploymentStatusProvider = deploymentStatusProvider;
+        this.entityEventFactory = entityEventFactory;
+        this.liveStateService = liveStateService;
+        this.incidentService = incidentService;
+        this.geocodeCacheStatisticsProvider = geocodeCacheStatisticsProvider;
+        this.geocoderStatisticsProvider = geocoderStatisticsProvider;
+    }
+
+    @RequestMapping(value = "", produces = "application/json", method = RequestMethod.GET)
+    public RestResponse getStatus() {
+        return new RestResponse(true,
+                new RestProperty("alarmTextModuleDeployed", deploymentStatusProvider.isAlarmTextModuleDeployed()),
+                new RestProperty("geoBrokerModuleDeployed", deploymentStatusProvider.isGeoBrokerModuleDeployed()),
+                new RestProperty("entityEventDispatch", entityEventFactory.getDispatchStatistics()),
+                new RestProperty("liveState", liveStateService.getStatistics()),
+                new RestProperty("geocodeCache", geocodeCacheStatisticsProvider.getStatistics()),
+                new RestProperty("geocoders", geocoderStatisticsProvider.getGeocoderStatistics()));
+    }
+
+    @RequestMapping(value = "liveState/verify", produces = "application/json", method = RequestMethod.POST)
+    public RestResponse verifyLiveState(final @ActiveConcern Concern concern) {
+        return new RestResponse(true, new RestProperty("consistent", liveStateService.verify(concern)));
+    }
+
+    @RequestMapping(value = "liveState/invalidate", produces = "application/json", method = RequestMethod.POST)
+    public RestResponse invalidateLiveState(final @ActiveConcern Concern concern) {
+        liveStateService.invalidate(concern.getId());
+        return new RestResponse(true);
+    }
+
+    @RequestMapping(value = "statistics/invalidate", produces = "application/json", method = RequestMethod.POST)
+    public RestResponse invalidateStatistics(final @ActiveConcern Concern concern) {
+        incidentService.invalidateStatistics(concern.getId());
+        return new RestResponse(true);
+    }
+}
@@ -9,6 +9,7 @@ import at.wrk.coceso.entity.helper.RestResponse;
 import at.wrk.coceso.entity.helper.SequencedResponse;
 import at.wrk.coceso.entityevent.EntityEventFactory;
 import at.wrk.coceso.entityevent.EntityEventHandler;
+import at.wrk.coceso.service.LiveStateService;
 import at.wrk.coceso.service.UnitService;
 import at.wrk.coceso.service.UnitWriteService;
 import at.wrk.coceso.utils.ActiveConcern;
@@ -36,6 +37,9 @@ public class UnitController {
     @Autowired
     private UnitWriteService unitWriteService;
 
+    @Autowired
+    private LiveStateService liveStateService;
+
     private final EntityEventHandler<Unit> entityEventHandler;
 
     @Autowired
@@ -47,9 +51,12 @@ public class UnitController {
     @JsonView(JsonViews.Main.class)
     @Transactional
     @RequestMapping(value = "main", produces = "application/json", method = RequestMethod.GET)
-    public SequencedResponse<List<Unit>> getForMain(final @ActiveConcern Concern concern) {
+    public SequencedResponse<? extends List<?>> getForMain(final @ActiveConcern Concern concern) {
+        if (liveStateService.isEnabled()) {
+            return liveStateService.getUnitsForMain(concern);
+        }
         return new SequencedResponse<>(entityEventHandler.getHver(), entityEventHandler.getSeq(concern.getId()),
-                Initializer.init(unitService.getAll(concern), Unit::getIncidents, Unit::getIncidentStateChangedAtMap));
+                unitService.getAllWithTasks(concern));
     }
 
     @PreAuthorize("@auth.hasAccessLevel('Edit')")
@@ -2,19 +2,28 @@ package at.wrk.coceso.controller.pdf;
 
 import at.wrk.coceso.entity.Concern;
 import at.wrk.coceso.exceptions.ConcernException;
+import at.wrk.coceso.exceptions.NotFoundException;
 import at.wrk.coceso.service.ConcernService;
+import at.wrk.coceso.service.PdfJobService;
 import at.wrk.coceso.service.PdfService;
+import at.wrk.coceso.service.pdf.PdfJob;
 import at.wrk.coceso.utils.AuthenticatedUserProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Locale;
 
 @PreAuthorize("@auth.hasAccessLevel('Report')")
@@ -25,13 +34,19 @@ public class PdfController {
     private final static Logger LOG = LoggerFactory.getLogger(PdfController.class);
 
     private final PdfService pdfService;
+    private final PdfJobService pdfJobService;
     private final ConcernService concernService;
     private final AuthenticatedUserProvider authenticatedUserProvider;
 
     @Autowired
-    public PdfController(final AuthenticatedUserProvider authenticatedUserProvider, final PdfService pdfService, final ConcernService concernService) {
+    public PdfController(
+            final AuthenticatedUserProvider authenticatedUserProvider,
+            final PdfService pdfService,
+            final PdfJobService pdfJobService,
+            final ConcernService concernService) {
         this.authenticatedUserProvider = authenticatedUserProvider;
         this.pdfService = pdfService;
+        this.pdfJobService = pdfJobService;
         this.concernService = concernService;
     }
 
@@ -100,4 +115,21 @@ public class PdfController {
         pdfService.generatePatients(concern, response, locale);
     }
 
+    /**
+     * Downloads the document of a finished background job, see {@link PdfJobController}
+     */
+    @RequestMapping(value = "job/{jobId}", produces = "application/pdf", method = RequestMethod.GET)
+    public void job(@PathVariable("jobId") final String jobId, final HttpServletResponse response) throws NotFoundException, IOException {
+        PdfJob job = pdfJobService.getJob(jobId);
+        Path file = pdfJobService.getFile(jobId);
+        if (job == null || file == null) {
+            throw new NotFoundException();
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "filename=" + job.getType().createFilename());
+        response.setContentLengthLong(Files.size(file));
+        Files.copy(file, response.getOutputStream());
+    }
+
 }
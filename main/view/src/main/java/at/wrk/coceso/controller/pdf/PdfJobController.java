@@ -0,0 +1,79 @@
+package at.wrk.coceso.controller.pdf;
+
+import at.wrk.coceso.entity.Concern;
+import at.wrk.coceso.entity.enums.Errors;
+import at.wrk.coceso.entity.helper.RestProperty;
+import at.wrk.coceso.entity.helper.RestResponse;
+import at.wrk.coceso.exceptions.ConcernException;
+import at.wrk.coceso.exceptions.ErrorsException;
+import at.wrk.coceso.service.ConcernService;
+import at.wrk.coceso.service.PdfJobService;
+import at.wrk.coceso.service.pdf.PdfJob;
+import at.wrk.coceso.service.pdf.PdfType;
+import at.wrk.coceso.utils.AuthenticatedUserProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+
+/**
+ * Renders PDFs in the background. The client starts a job, polls its state and downloads the document from
+ * {@link PdfController#job} as soon as it is done.
+ */
+@PreAuthorize("@auth.hasAccessLevel('Report')")
+@RestController
+@RequestMapping("/data/pdf/job")
+public class PdfJobController {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PdfJobController.class);
+
+    private final PdfJobService pdfJobService;
+    private final ConcernService concernService;
+    private final AuthenticatedUserProvider authenticatedUserProvider;
+
+    @Autowired
+    public PdfJobController(
+            final PdfJobService pdfJobService,
+            final ConcernService concernService,
+            final AuthenticatedUserProvider authenticatedUserProvider) {
+        this.pdfJobService = pdfJobService;
+        this.concernService = concernService;
+        this.authenticatedUserProvider = authenticatedUserProvider;
+    }
+
+    @RequestMapping(value = "", produces = "application/json", method = RequestMethod.POST)
+    public RestResponse submit(
+            @RequestParam(value = "type") final PdfType type,
+            @RequestParam(value = "id") final int id,
+            @RequestParam(value = "fullDate", defaultValue = "0") final boolean fullDate,
+            final Locale locale) throws ConcernException {
+        Concern concern = concernService.getById(id);
+        if (concern == null) {
+            throw new ConcernException("Concern does not exist.");
+        }
+        if (type == PdfType.DUMP && concern.isClosed()) {
+            throw new ConcernException("Concern is already closed.");
+        }
+
+        LOG.info("{}: Requested background PDF {} for concern {}", authenticatedUserProvider.getAuthenticatedUser(), type, concern);
+
+        return new RestResponse(true, new RestProperty("job", pdfJobService.submit(type, concern, fullDate, locale)));
+    }
+
+    @RequestMapping(value = "{jobId}", produces = "application/json", method = RequestMethod.GET)
+    public RestResponse getJob(@PathVariable("jobId") final String jobId) {
+        PdfJob job = pdfJobService.getJob(jobId);
+        if (job == null) {
+            throw new ErrorsException(Errors.EntityMissing);
+        }
+
+        return new RestResponse(true, new RestProperty("job", job));
+    }
+}
@@ -30,6 +30,7 @@
         langBase: "<c:url value="/static/i18n/"/>",
         language: "<spring:message code="this.languageCode"/>",
         username: "${fn:escapeXml(username)}",
+        deltaUpdates: ${cocesoConfig.deltaUpdates},
         plugins: ${cocesoConfig.jsPlugins}
       };
     </script>
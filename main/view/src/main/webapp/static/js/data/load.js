@@ -48,9 +48,10 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
      * @property {cbSet} [cbSet] The callback called on setting one item
      * @property {cbDelete} [cbDelete] The callback called on deleting an item
      * @property {cbFull} [cbFull] The callback called on loading all items
+     * @property {boolean} [delta] The stomp topic sends only the changed fields of an item
      */
     return function (options) {
-      var cbSet, cbDelete;
+      var cbSet, cbDelete, raw = {};
 
       if (options.cbSet instanceof Function) {
         cbSet = options.cbSet;
@@ -78,6 +79,29 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
         };
       }
 
+      function setItem(data) {
+        if (options.delta && data.id) {
+          raw[data.id] = data;
+        }
+        return cbSet(data);
+      }
+
+      function deleteItem(id) {
+        delete raw[id];
+        return cbDelete(id);
+      }
+
+      /**
+       * Merge the changed fields into the last known data of the item
+       *
+       * @param {Object} patch The changed fields including the id
+       * @returns {Object} The merged data, null if the item is not known
+       */
+      function applyPatch(patch) {
+        var previous = raw[patch.id];
+        return previous ? $.extend({}, previous, patch) : null;
+      }
+
       function fullLoad() {
         $.ajax({
           dataType: "json",
@@ -93,11 +117,11 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
                 if (item.id) {
                   found[item.id] = true;
                 }
-                mutated = cbSet(item) || mutated;
+                mutated = setItem(item) || mutated;
               });
               for (var i in options.store()) {
                 if (!found[i]) {
-                  deleted.push(cbDelete(i));
+                  deleted.push(deleteItem(i));
                   mutated = true;
                 }
               }
@@ -109,8 +133,11 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
             if (options.queue) {
               ko.utils.arrayForEach(options.queue, function (item) {
                 if (item.hver === options.hver && item.seq === options.seq + 1) {
+                  var data = item.patch ? applyPatch(item.patch) : item.data;
                   options.seq = item.seq;
-                  mutated = cbSet(item.data) || mutated;
+                  if (data) {
+                    mutated = setItem(data) || mutated;
+                  }
                 }
               });
               options.queue = null;
@@ -138,6 +165,15 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
         });
       }
 
+      function reload(reason) {
+        options.hver = 0;
+        options.seq = 0;
+        options.queue = [];
+
+        clientLogger.warnLog("#fullreload " + reason + " Performing full reload of client data from URL: " + options.url);
+        fullLoad();
+      }
+
       options.hver = 0;
       options.seq = 0;
       options.queue = [];
@@ -148,22 +184,27 @@ define(["jquery", "knockout", "./stomp", "utils/conf", "utils/client-logger"],
           options.queue.push(body);
         } else if (options.hver !== body.hver || options.seq + 1 !== body.seq) {
           // Something was missed
-          options.hver = 0;
-          options.seq = 0;
-          options.queue = [];
-
-          clientLogger.warnLog("#fullreload Received data with wrong sequence number or hver! Performing full reload of client data from URL: " + options.url);
-          fullLoad();
+          reload("Received data with wrong sequence number or hver!");
         } else if (body["delete"]) {
           options.seq = body.seq;
-          var item = cbDelete(body["delete"]);
+          var item = deleteItem(body["delete"]);
           options.store.valueHasMutated();
           if (item) {
             item.destroy();
           }
+        } else if (body.patch) {
+          var data = applyPatch(body.patch);
+          if (!data) {
+            reload("Received changes for unknown item " + body.patch.id + "!");
+            return;
+          }
+          options.seq = body.seq;
+          if (setItem(data)) {
+            options.store.valueHasMutated();
+          }
         } else if (body.data) {
           options.seq = body.seq;
-          if (cbSet(body.data)) {
+          if (setItem(body.data)) {
             options.store.valueHasMutated();
           }
         }
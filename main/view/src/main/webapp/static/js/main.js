@@ -33,7 +33,8 @@ require(["config"], function() {
       //Preload incidents, patients and units
       load({
         url: "incident/main",
-        stomp: "/topic/incident/main/{c}",
+        stomp: conf.get("deltaUpdates") ? "/topic/incident/main/delta/{c}" : "/topic/incident/main/{c}",
+        delta: conf.get("deltaUpdates"),
         model: Incident,
         store: incidentsStore.models
       });
@@ -48,7 +49,8 @@ require(["config"], function() {
       window.setTimeout(function() {
         load({
           url: "unit/main",
-          stomp: "/topic/unit/main/{c}",
+          stomp: conf.get("deltaUpdates") ? "/topic/unit/main/delta/{c}" : "/topic/unit/main/{c}",
+          delta: conf.get("deltaUpdates"),
           model: Unit,
           store: unitsStore.models
         });
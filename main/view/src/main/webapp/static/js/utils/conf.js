@@ -26,6 +26,7 @@ define(function() {
     map3d: true,
     mapImagePath: "",
     interval: 10000,
+    deltaUpdates: false,
     debug: true,
     error: function() {},
     keyboardControl: true,
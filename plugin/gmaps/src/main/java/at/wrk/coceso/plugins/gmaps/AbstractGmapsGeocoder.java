@@ -1,12 +1,16 @@
 package at.wrk.coceso.plugins.gmaps;
 
 import at.wrk.geocode.Geocoder;
+import at.wrk.geocode.GeocoderException;
 import at.wrk.geocode.LatLng;
 import at.wrk.geocode.ReverseResult;
 import at.wrk.geocode.address.Address;
 import at.wrk.geocode.address.AddressNumber;
 import at.wrk.geocode.address.IAddressNumber;
 import at.wrk.geocode.address.ImmutableAddress;
+import com.google.maps.errors.InvalidRequestException;
+import com.google.maps.errors.NotFoundException;
+import com.google.maps.errors.ZeroResultsException;
 import com.google.maps.model.AddressComponent;
 import com.google.maps.model.AddressComponentType;
 import com.google.maps.model.GeocodingResult;
@@ -39,8 +43,10 @@ public abstract class AbstractGmapsGeocoder implements Geocoder<ImmutableAddress
             if (results.length > 0) {
                 return new LatLng(results[0].geometry.location.lat, results[0].geometry.location.lng);
             }
-        } catch (Exception ex) {
+        } catch (InvalidRequestException | NotFoundException | ZeroResultsException ex) {
             LOG.info("Error getting coordinates for address query: " + query, ex);
+        } catch (Exception ex) {
+            throw failure(ex);
         }
 
         return null;
@@ -62,13 +68,25 @@ public abstract class AbstractGmapsGeocoder implements Geocoder<ImmutableAddress
                 LOG.debug("Found address '{}' {} meters away with Google Maps", address.getInfo(", "), dist);
                 return new ReverseResult<>(dist, ImmutableAddress.createFromAddress(address), actualCoordinates);
             }
-        } catch (Exception ex) {
+        } catch (InvalidRequestException | NotFoundException | ZeroResultsException ex) {
             LOG.info("Error getting address for '{}'", coordinates, ex);
+        } catch (Exception ex) {
+            throw failure(ex);
         }
 
         return null;
     }
 
+    /**
+     * Errors not caused by the request itself (e.g. unreachable, over query limit) are reported as failure of the geocoder
+     */
+    private static GeocoderException failure(final Exception ex) {
+        if (ex instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return new GeocoderException("Failed to query Google Maps", ex);
+    }
+
     protected abstract String buildQueryString(ImmutableAddress address);
 
     private static class GmapsAddress implements Address {
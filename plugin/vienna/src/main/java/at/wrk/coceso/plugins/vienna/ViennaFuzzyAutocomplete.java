@@ -0,0 +1,20 @@
+package at.wrk.coceso.plugins.vienna;
+
+import at.wrk.geocode.autocomplete.FuzzyAutocompleteSupplier;
+import at.wrk.geocode.autocomplete.StreetnameAutocompleteSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Typo-tolerant Vienna streetnames, used if no streetname starts with the query
+ */
+@Component
+@Order(31)
+public class ViennaFuzzyAutocomplete extends FuzzyAutocompleteSupplier<String> implements StreetnameAutocompleteSupplier<String> {
+
+    @Autowired
+    public ViennaFuzzyAutocomplete(final ViennaAutocomplete autocomplete) {
+        super(autocomplete);
+    }
+}
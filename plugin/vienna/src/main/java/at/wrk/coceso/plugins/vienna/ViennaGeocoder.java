@@ -2,6 +2,7 @@ package at.wrk.coceso.plugins.vienna;
 
 import at.wrk.geocode.Bounds;
 import at.wrk.geocode.Geocoder;
+import at.wrk.geocode.GeocoderException;
 import at.wrk.geocode.LatLng;
 import at.wrk.geocode.ReverseResult;
 import at.wrk.geocode.address.Address;
@@ -11,27 +12,39 @@ import at.wrk.geocode.util.AddressMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+
 @Component
 @Order(40)
 public class ViennaGeocoder implements Geocoder<ImmutableAddress> {
 
     private static final Logger LOG = LoggerFactory.getLogger(ViennaGeocoder.class);
-    private static final String GEOCODE_URL = "https://data.wien.gv.at/daten/OGDAddressService.svc/GetAddressInfo?CRS=EPSG:4326&Address={query}";
-    private static final String REVERSE_URL = "https://data.wien.gv.at/daten/OGDAddressService.svc/ReverseGeocode?CRS=EPSG:4326&type=A3:8012&location={lng},{lat}";
+    static final String SERVICE_URL = "https://data.wien.gv.at/daten/OGDAddressService.svc";
+    private static final String GEOCODE_PATH = "/GetAddressInfo?CRS=EPSG:4326&Address={query}";
+    private static final String REVERSE_PATH = "/ReverseGeocode?CRS=EPSG:4326&type=A3:8012&location={lng},{lat}";
     private static final Bounds BOUNDS = new Bounds(new LatLng(48.1183, 16.1827), new LatLng(48.3231, 16.5787));
 
     private final AddressMatcher addressMatcher;
     private final RestTemplate restTemplate;
+    private final String geocodeUrl;
+    private final String reverseUrl;
 
     @Autowired
-    public ViennaGeocoder(final AddressMatcher addressMatcher, final RestTemplate restTemplate) {
+    public ViennaGeocoder(
+            final AddressMatcher addressMatcher,
+            final RestTemplate restTemplate,
+            @Value("${geocode.vienna.url:" + SERVICE_URL + "}") final String serviceUrl) {
         this.addressMatcher = addressMatcher;
         this.restTemplate = restTemplate;
+        this.geocodeUrl = serviceUrl + GEOCODE_PATH;
+        this.reverseUrl = serviceUrl + REVERSE_PATH;
     }
 
     @Override
@@ -55,11 +68,13 @@ public class ViennaGeocoder implements Geocoder<ImmutableAddress> {
         AddressInfoList infos;
         try {
             LOG.trace("Vienna Geocoder requests coordinates of address from Vienna OGDAddressService.");
-            infos = restTemplate.getForObject(GEOCODE_URL, AddressInfoList.class, query);
-        } catch (RestClientException e) {
-            LOG.info("Failed to get geocode data from OGDAddressService for address: {}. Error: {}", address, e.getMessage());
+            infos = restTemplate.getForObject(geocodeUrl, AddressInfoList.class, query);
+        } catch (HttpClientErrorException e) {
+            LOG.info("OGDAddressService rejected the request for address: {}. Error: {}", address, e.getMessage());
             LOG.debug("Underlying exception:", e);
             return null;
+        } catch (RestClientException e) {
+            throw new GeocoderException("Failed to get geocode data from OGDAddressService", e);
         }
 
         if (infos == null || infos.count() <= 0) {
@@ -68,20 +83,11 @@ public class ViennaGeocoder implements Geocoder<ImmutableAddress> {
         }
 
         if (infos.count() > 1) {
-            for (AddressInfoEntry entry : infos.getEntries()) {
-                // First run: Look for exact match
-                if (addressMatcher.isFoundAddressMatching(entry.getAddress(), address, true)) {
-                    LOG.debug("Found an exactly matching address in the result set: {}.", entry);
-                    return entry.getCoordinates();
-                }
-            }
-
-            for (AddressInfoEntry entry : infos.getEntries()) {
-                // Second run: Look for bigger addresses containing the requested
-                if (addressMatcher.isFoundAddressMatching(entry.getAddress(), address, false)) {
-                    LOG.debug("Found a matching address in the result set, with a different number: {}.", entry);
-                    return entry.getCoordinates();
-                }
+            // Prefer an exact match, otherwise look for bigger addresses containing the requested
+            AddressInfoEntry match = addressMatcher.findBestMatch(Arrays.asList(infos.getEntries()), AddressInfoEntry::getAddress, address);
+            if (match != null) {
+                LOG.debug("Found a matching address in the result set: {}.", match);
+                return match.getCoordinates();
             }
         }
 
@@ -96,21 +102,24 @@ public class ViennaGeocoder implements Geocoder<ImmutableAddress> {
             return null;
         }
 
+        AddressInfoList infos;
         try {
             LOG.trace("Perform reverser lookup for address on data.wien.gv.at for coordinates: {}", coordinates);
-            AddressInfoList infos = restTemplate.getForObject(REVERSE_URL, AddressInfoList.class, coordinates.getLng(), coordinates.getLat());
-            if (infos == null || infos.count() <= 0) {
-                return null;
-            }
-            AddressInfoEntry entry = infos.getEntries()[0];
-            int dist = coordinates.distance(entry.getCoordinates());
-            LOG.debug("Found address '{}' {} meters away with data.wien.gv.at", entry.getAddress(), dist);
-            return new ReverseResult<>(dist, ImmutableAddress.createFromAddress(entry.getAddress()), entry.getCoordinates());
-        } catch (RestClientException ex) {
+            infos = restTemplate.getForObject(reverseUrl, AddressInfoList.class, coordinates.getLng(), coordinates.getLat());
+        } catch (HttpClientErrorException ex) {
             LOG.info("Error getting address for '{}'", coordinates, ex);
+            return null;
+        } catch (RestClientException ex) {
+            throw new GeocoderException("Failed to get address from OGDAddressService", ex);
         }
 
-        return null;
+        if (infos == null || infos.count() <= 0) {
+            return null;
+        }
+        AddressInfoEntry entry = infos.getEntries()[0];
+        int dist = coordinates.distance(entry.getCoordinates());
+        LOG.debug("Found address '{}' {} meters away with data.wien.gv.at", entry.getAddress(), dist);
+        return new ReverseResult<>(dist, ImmutableAddress.createFromAddress(entry.getAddress()), entry.getCoordinates());
     }
 
     private String buildQueryString(Address address) {
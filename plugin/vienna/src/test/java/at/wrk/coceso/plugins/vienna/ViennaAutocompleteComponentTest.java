@@ -65,6 +65,17 @@ public class ViennaAutocompleteComponentTest {
                 .forEach(r -> fail("Unexpected result " + r + " for search string " + str));
     }
 
+    @Test
+    public void testFuzzyStart() {
+        ViennaFuzzyAutocomplete fuzzy = new ViennaFuzzyAutocomplete(instance);
+
+        Collection<String> results = fuzzy.getStartCollection("nottendorgfer");
+        if (results.isEmpty() || !results.iterator().next().toLowerCase().startsWith("nottendorfer")) {
+            fail("Unexpected results " + results + " for misspelled search string nottendorgfer");
+        }
+        assertThat("Expected no fuzzy results for a correct search string.", fuzzy.getStartCollection("nottendorfer").isEmpty(), equalTo(true));
+    }
+
     @Test
     public void testContainingMaxLength() {
         testContaining("straße", 10);
@@ -0,0 +1,91 @@
+package at.wrk.coceso.plugins.vienna;
+
+import at.wrk.geocode.GeocoderException;
+import at.wrk.geocode.LatLng;
+import at.wrk.geocode.address.ImmutableAddress;
+import at.wrk.geocode.address.ImmutableAddressNumber;
+import at.wrk.geocode.util.AddressMatcher;
+import at.wrk.geocode.util.AddressNumberMatcher;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests the error handling of the geocoder against a local stub of the OGDAddressService
+ */
+public class ViennaGeocoderStubServerTest {
+
+    private HttpServer server;
+    private AtomicInteger status;
+    private AtomicReference<String> body;
+    private ViennaGeocoder sut;
+
+    @Before
+    public void init() throws IOException {
+        status = new AtomicInteger(200);
+        body = new AtomicReference<>("");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] response = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), response.length == 0 ? -1 : response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        String url = String.format("http://%s:%d", server.getAddress().getHostString(), server.getAddress().getPort());
+        sut = new ViennaGeocoder(new AddressMatcher(new AddressNumberMatcher()), new ViennaGeocoderConfiguration().createRestTemplate(), url);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test(expected = GeocoderException.class)
+    public void serverError_failureReported() {
+        status.set(503);
+
+        sut.geocode(address());
+    }
+
+    @Test(expected = GeocoderException.class)
+    public void serverUnreachable_failureReported() {
+        server.stop(0);
+
+        sut.reverse(new LatLng(48.2, 16.35));
+    }
+
+    @Test
+    public void requestRejected_noResult() {
+        status.set(400);
+
+        assertThat(sut.geocode(address()), nullValue());
+    }
+
+    @Test
+    public void nothingFound_noResult() {
+        body.set("{\"features\":[]}");
+
+        assertThat(sut.geocode(address()), is(nullValue()));
+    }
+
+    private static ImmutableAddress address() {
+        return new ImmutableAddress("Neubaugasse", null, new ImmutableAddressNumber(7, null, null, null), 1070, "Wien");
+    }
+}
@@ -8,7 +8,6 @@ import at.wrk.geocode.address.ImmutableAddress;
 import at.wrk.geocode.address.ImmutableAddressNumber;
 import at.wrk.geocode.util.AddressMatcher;
 import at.wrk.geocode.util.AddressNumberMatcher;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.web.client.RestTemplate;
@@ -29,12 +28,12 @@ public class ViennaGeocoderTest {
     @Before
     public void init() {
         // TODO create correct unit test with mocked dependencies
-        AddressMatcher addressMatcher = new AddressMatcher(LevenshteinDistance.getDefaultInstance(), new AddressNumberMatcher());
+        AddressMatcher addressMatcher = new AddressMatcher(new AddressNumberMatcher());
 
         ViennaGeocoderConfiguration viennaGeocoderConfiguration = new ViennaGeocoderConfiguration();
         RestTemplate restTemplate = viennaGeocoderConfiguration.createRestTemplate();
 
-        sut = new ViennaGeocoder(addressMatcher, restTemplate);
+        sut = new ViennaGeocoder(addressMatcher, restTemplate, ViennaGeocoder.SERVICE_URL);
     }
 
     @Test